@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.ei.ftp.benchmarks;
+
+import java.io.File;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+
+/**
+ * Loads the compiled Ballerina module, which registers the types of the records created by the connector. The
+ * module jar built by `ballerina build` in the `ftp` directory is either on the class path of the benchmarks, or
+ * given with the `ballerina.module.jar` system property. The jar is not a Maven dependency, since it is built by the
+ * Ballerina tool rather than by the Maven build.
+ */
+public class BallerinaModule {
+
+    static final String MODULE_JAR_PROPERTY = "ballerina.module.jar";
+    static final String INIT_CLASS_PROPERTY = "ballerina.module.init.class";
+    private static final String DEFAULT_INIT_CLASS = "wso2.ftp.0_3_0.___init";
+
+    private BallerinaModule() {
+        // private constructor
+    }
+
+    /**
+     * Loads the module, so that the `FileInfo` and `WatchEvent` records can be created.
+     *
+     * @throws IllegalStateException if the module is neither on the class path nor at the configured path
+     */
+    public static void load() {
+
+        String initClass = System.getProperty(INIT_CLASS_PROPERTY, DEFAULT_INIT_CLASS);
+        String moduleJar = System.getProperty(MODULE_JAR_PROPERTY);
+        try {
+            ClassLoader classLoader = BallerinaModule.class.getClassLoader();
+            if (moduleJar != null) {
+                File jar = new File(moduleJar);
+                if (!jar.isFile()) {
+                    throw new IllegalStateException("The Ballerina module jar " + jar.getAbsolutePath()
+                            + " given with -D" + MODULE_JAR_PROPERTY + " does not exist.");
+                }
+                // the module classes resolve the Ballerina runtime from the class path of the benchmarks
+                classLoader = new URLClassLoader(new URL[]{jar.toURI().toURL()}, classLoader);
+            }
+            Class.forName(initClass, true, classLoader);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("The Ballerina module class " + initClass + " was not found. Build the "
+                    + "module with `ballerina build` in the ftp directory, and add its jar to the class path or give "
+                    + "its path with -D" + MODULE_JAR_PROPERTY + "=<jar>. Set -D" + INIT_CLASS_PROPERTY
+                    + " if the module version differs.", e);
+        } catch (MalformedURLException e) {
+            throw new IllegalStateException("Invalid Ballerina module jar path " + moduleJar + ".", e);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.ei.ftp.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the standard JMH command line options, always adding the GC profiler so that the
+ * allocation rate is reported next to the throughput. The location of the Ballerina module is passed on to the forked
+ * benchmark JVMs.
+ */
+public class BenchmarkRunner {
+
+    private BenchmarkRunner() {
+        // private constructor
+    }
+
+    public static void main(String[] args) throws CommandLineOptionException, RunnerException {
+
+        OptionsBuilder builder = new OptionsBuilder();
+        builder.parent(new CommandLineOptions(args)).addProfiler(GCProfiler.class);
+        // The benchmarks run in forked JVMs, which do not inherit the system properties of the runner
+        for (String property : new String[]{BallerinaModule.MODULE_JAR_PROPERTY, BallerinaModule.INIT_CLASS_PROPERTY}) {
+            String value = System.getProperty(property);
+            if (value != null) {
+                builder.jvmArgsAppend("-D" + property + "=" + value);
+            }
+        }
+        Options options = builder.build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.ei.ftp.benchmarks;
+
+import org.mockftpserver.fake.FakeFtpServer;
+import org.mockftpserver.fake.filesystem.DirectoryEntry;
+import org.mockftpserver.fake.filesystem.FileEntry;
+import org.mockftpserver.fake.filesystem.FileSystem;
+import org.mockftpserver.fake.filesystem.UnixFakeFileSystem;
+import org.wso2.ei.ftp.util.BallerinaFTPException;
+import org.wso2.ei.ftp.util.FTPConstants;
+import org.wso2.ei.testutil.MockFTPServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * An in-process FTP server for the benchmarks, with a file of a given size and a directory of a given number of
+ * files, served by {@link MockFTPServer}.
+ */
+public class BenchmarkServer {
+
+    public static final String USERNAME = "bench";
+    public static final String PASSWORD = "bench";
+    public static final String HOME_DIRECTORY = "/home/bench";
+    public static final String DATA_FILE = HOME_DIRECTORY + "/data.bin";
+    public static final String LISTING_DIRECTORY = HOME_DIRECTORY + "/listing";
+    public static final String UPLOAD_DIRECTORY = HOME_DIRECTORY + "/upload";
+
+    private final FakeFtpServer server;
+    private final int port;
+
+    private BenchmarkServer(FakeFtpServer server, int port) {
+
+        this.server = server;
+        this.port = port;
+    }
+
+    /**
+     * Starts a server on a free port.
+     *
+     * @param fileSize      the size of the data file, in bytes
+     * @param directorySize the number of files in the listing directory
+     * @return the started server
+     * @throws BallerinaFTPException if the server did not start
+     * @throws IOException           if a free port could not be found
+     */
+    public static BenchmarkServer start(int fileSize, int directorySize) throws BallerinaFTPException, IOException {
+
+        FileSystem fileSystem = new UnixFakeFileSystem();
+        fileSystem.add(new DirectoryEntry(HOME_DIRECTORY));
+        fileSystem.add(new DirectoryEntry(LISTING_DIRECTORY));
+        fileSystem.add(new DirectoryEntry(UPLOAD_DIRECTORY));
+        FileEntry dataFile = new FileEntry(DATA_FILE);
+        dataFile.setContents(randomContent(fileSize));
+        fileSystem.add(dataFile);
+        for (int i = 0; i < directorySize; i++) {
+            fileSystem.add(new FileEntry(LISTING_DIRECTORY + "/file-" + i + ".txt", "content " + i));
+        }
+        int port = findFreePort();
+        return new BenchmarkServer(MockFTPServer.startServer(port, USERNAME, PASSWORD, HOME_DIRECTORY, fileSystem),
+                port);
+    }
+
+    /**
+     * Creates random content, which does not compress, so that the transfers are not skewed by compression.
+     *
+     * @param size the size of the content
+     * @return the content
+     */
+    public static byte[] randomContent(int size) {
+
+        byte[] content = new byte[size];
+        new Random(size).nextBytes(content);
+        return content;
+    }
+
+    public int getPort() {
+
+        return port;
+    }
+
+    /**
+     * Gets the transport properties for an operation on a path of the server, as the client endpoint sets them.
+     *
+     * @param path the path of the file or directory
+     * @return the transport properties
+     */
+    public Map<String, String> getProperties(String path) {
+
+        Map<String, String> properties = new HashMap<>(4);
+        properties.put(FTPConstants.PROPERTY_URI, "ftp://" + USERNAME + ":" + PASSWORD + "@127.0.0.1:" + port + path);
+        properties.put(FTPConstants.FTP_PASSIVE_MODE, String.valueOf(true));
+        properties.put(FTPConstants.USER_DIR_IS_ROOT, String.valueOf(false));
+        properties.put(FTPConstants.AVOID_PERMISSION_CHECK, String.valueOf(true));
+        return properties;
+    }
+
+    public void stop() {
+
+        server.stop();
+    }
+
+    private static int findFreePort() throws IOException {
+
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
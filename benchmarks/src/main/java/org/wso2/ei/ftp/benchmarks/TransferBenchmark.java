@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.ei.ftp.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.wso2.transport.remotefilesystem.client.connector.contract.FtpAction;
+import org.wso2.transport.remotefilesystem.message.RemoteFileSystemMessage;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the file transfer operations of the client, `get`, `put` and `size`, through the VFS transport, for
+ * several file sizes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class TransferBenchmark {
+
+    @Param({"1024", "1048576", "16777216"})
+    private int fileSize;
+
+    private BenchmarkServer server;
+    private byte[] content;
+    private byte[] buffer;
+    private Map<String, String> getProperties;
+    private Map<String, String> putProperties;
+    private int uploadCount;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+
+        server = BenchmarkServer.start(fileSize, 0);
+        content = BenchmarkServer.randomContent(fileSize);
+        buffer = new byte[8192];
+        getProperties = server.getProperties(BenchmarkServer.DATA_FILE);
+        putProperties = server.getProperties(BenchmarkServer.UPLOAD_DIRECTORY + "/upload.bin");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+
+        server.stop();
+    }
+
+    @Benchmark
+    public long get() throws Exception {
+
+        RemoteFileSystemMessage message = (RemoteFileSystemMessage) TransportOperations.send(getProperties,
+                FtpAction.GET, null);
+        long total = 0;
+        try (InputStream in = message.getInputStream()) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                total += read;
+            }
+        }
+        return total;
+    }
+
+    @Benchmark
+    public int put() throws Exception {
+
+        TransportOperations.send(putProperties, FtpAction.PUT,
+                new RemoteFileSystemMessage(new ByteArrayInputStream(content)));
+        return ++uploadCount;
+    }
+
+    @Benchmark
+    public long size() throws Exception {
+
+        return ((RemoteFileSystemMessage) TransportOperations.send(getProperties, FtpAction.SIZE, null)).getSize();
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.ei.ftp.benchmarks;
+
+import org.wso2.transport.remotefilesystem.RemoteFileSystemConnectorFactory;
+import org.wso2.transport.remotefilesystem.client.connector.contract.FtpAction;
+import org.wso2.transport.remotefilesystem.client.connector.contract.VFSClientConnector;
+import org.wso2.transport.remotefilesystem.exception.RemoteFileSystemConnectorException;
+import org.wso2.transport.remotefilesystem.impl.RemoteFileSystemConnectorFactoryImpl;
+import org.wso2.transport.remotefilesystem.listener.RemoteFileSystemListener;
+import org.wso2.transport.remotefilesystem.message.RemoteFileSystemBaseMessage;
+import org.wso2.transport.remotefilesystem.message.RemoteFileSystemMessage;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Sends operations through the VFS transport the way the client endpoint does, and waits for their outcome.
+ */
+public class TransportOperations {
+
+    private static final RemoteFileSystemConnectorFactory CONNECTOR_FACTORY =
+            new RemoteFileSystemConnectorFactoryImpl();
+
+    private TransportOperations() {
+        // private constructor
+    }
+
+    /**
+     * Sends an operation and waits for its outcome.
+     *
+     * @param properties the transport properties of the operation
+     * @param action     the operation
+     * @param message    the message of the operation, for write operations
+     * @return the message returned by the transport, or null if the operation returned none
+     * @throws RemoteFileSystemConnectorException if the connector could not be created
+     * @throws ExecutionException                 if the operation failed
+     * @throws InterruptedException               if interrupted while waiting for the operation
+     */
+    public static RemoteFileSystemBaseMessage send(Map<String, String> properties, FtpAction action,
+                                                   RemoteFileSystemMessage message)
+            throws RemoteFileSystemConnectorException, ExecutionException, InterruptedException {
+
+        CompletableFuture<RemoteFileSystemBaseMessage> future = new CompletableFuture<>();
+        VFSClientConnector connector = CONNECTOR_FACTORY.createVFSClientConnector(properties,
+                new RemoteFileSystemListener() {
+
+                    @Override
+                    public boolean onMessage(RemoteFileSystemBaseMessage remoteFileSystemBaseMessage) {
+
+                        future.complete(remoteFileSystemBaseMessage);
+                        return true;
+                    }
+
+                    @Override
+                    public void onError(Throwable throwable) {
+
+                        future.completeExceptionally(throwable);
+                    }
+
+                    @Override
+                    public void done() {
+
+                        future.complete(null);
+                    }
+                });
+        connector.send(message, action);
+        return future.get();
+    }
+}
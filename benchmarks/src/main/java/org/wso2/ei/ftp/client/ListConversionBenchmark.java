@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.ei.ftp.client;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.wso2.ei.ftp.benchmarks.BallerinaModule;
+import org.wso2.ei.ftp.benchmarks.BenchmarkServer;
+import org.wso2.ei.ftp.benchmarks.TransportOperations;
+import org.wso2.transport.remotefilesystem.client.connector.contract.FtpAction;
+import org.wso2.transport.remotefilesystem.message.RemoteFileSystemBaseMessage;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of converting the entries of a transport listing into `FileInfo` records, in
+ * {@link FTPClientHelper#executeListAction}, for several directory sizes. The listing is fetched once, so only the
+ * conversion is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ListConversionBenchmark {
+
+    @Param({"10", "1000", "10000"})
+    private int directorySize;
+
+    private BenchmarkServer server;
+    private RemoteFileSystemBaseMessage listing;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+
+        BallerinaModule.load();
+        server = BenchmarkServer.start(0, directorySize);
+        listing = TransportOperations.send(server.getProperties(BenchmarkServer.LISTING_DIRECTORY), FtpAction.LIST,
+                null);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+
+        server.stop();
+    }
+
+    @Benchmark
+    public Object convert() {
+
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        FTPClientHelper.executeListAction(listing, future, FTPListFilter.ALL);
+        return future.join();
+    }
+}
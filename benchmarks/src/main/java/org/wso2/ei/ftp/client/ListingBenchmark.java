@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.ei.ftp.client;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.wso2.ei.ftp.benchmarks.BenchmarkServer;
+import org.wso2.ei.ftp.benchmarks.TransportOperations;
+import org.wso2.ei.ftp.util.FTPHostKeyPolicy;
+import org.wso2.ei.ftp.util.FTPTimeouts;
+import org.wso2.transport.remotefilesystem.client.connector.contract.FtpAction;
+import org.wso2.transport.remotefilesystem.message.RemoteFileSystemMessage;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the `list` operation of the client for several directory sizes, through the VFS transport and
+ * through a command session, as used by the `mlsd` listing mode.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ListingBenchmark {
+
+    @Param({"10", "1000", "10000"})
+    private int directorySize;
+
+    private BenchmarkServer server;
+    private Map<String, String> listProperties;
+    private FTPSession session;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+
+        server = BenchmarkServer.start(0, directorySize);
+        listProperties = server.getProperties(BenchmarkServer.LISTING_DIRECTORY);
+        session = FTPSessionFactory.createSession("ftp", "127.0.0.1", server.getPort(), BenchmarkServer.USERNAME,
+                BenchmarkServer.PASSWORD, FTPTimeouts.create(30000, 120000, 120000),
+                FTPHostKeyPolicy.create(false, null), null);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+
+        session.close();
+        server.stop();
+    }
+
+    @Benchmark
+    public int listTransport() throws Exception {
+
+        return ((RemoteFileSystemMessage) TransportOperations.send(listProperties, FtpAction.LIST, null))
+                .getChildrenInfo().size();
+    }
+
+    @Benchmark
+    public Map<String, FTPFileStat> listCommandSession() throws Exception {
+
+        return session.list(BenchmarkServer.LISTING_DIRECTORY, null, false);
+    }
+}
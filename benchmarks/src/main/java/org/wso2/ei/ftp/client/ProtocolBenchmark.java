@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.ei.ftp.client;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.wso2.ei.ftp.benchmarks.BenchmarkServer;
+import org.wso2.ei.ftp.util.BallerinaFTPException;
+import org.wso2.ei.ftp.util.FTPHostKeyPolicy;
+import org.wso2.ei.ftp.util.FTPTimeouts;
+import org.wso2.ei.ftp.util.FTPTrustStore;
+import org.wso2.ei.testutil.EmbeddedFTPServer;
+import org.wso2.ei.testutil.EmbeddedSFTPServer;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.ServerSocket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Compares the protocols on in-process servers, which serve the same files: the time to open an authenticated
+ * session, the rate of small file downloads, and the rate of large file downloads. The throughput of the large file
+ * benchmark multiplied by {@link #largeFileSize} gives the transfer rate in bytes per second.
+ * <p>
+ * FTP and FTPS are served by the same server implementation, so that the difference between them is the cost of TLS.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ProtocolBenchmark {
+
+    private static final String SMALL_FILE = "small.dat";
+    private static final String LARGE_FILE = "large.dat";
+    private static final int SMALL_FILE_SIZE = 4 * 1024;
+
+    @Param({"ftp", "sftp", "ftps"})
+    private String protocol;
+
+    @Param({"67108864"})
+    private int largeFileSize;
+
+    private Path homeDirectory;
+    private EmbeddedFTPServer ftpServer;
+    private EmbeddedSFTPServer sftpServer;
+    private int port;
+    private FTPTrustStore trustStore;
+    private FTPSession session;
+    private byte[] buffer;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+
+        homeDirectory = Files.createTempDirectory("protocol-benchmark");
+        Files.write(homeDirectory.resolve(SMALL_FILE), BenchmarkServer.randomContent(SMALL_FILE_SIZE));
+        Files.write(homeDirectory.resolve(LARGE_FILE), BenchmarkServer.randomContent(largeFileSize));
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        if ("sftp".equals(protocol)) {
+            sftpServer = EmbeddedSFTPServer.start(port, BenchmarkServer.USERNAME, BenchmarkServer.PASSWORD,
+                    homeDirectory);
+        } else {
+            ftpServer = EmbeddedFTPServer.start(port, "ftps".equals(protocol), BenchmarkServer.USERNAME,
+                    BenchmarkServer.PASSWORD, homeDirectory);
+            if (ftpServer.getKeystore() != null) {
+                trustStore = FTPTrustStore.create(ftpServer.getKeystore().getPath(),
+                        EmbeddedFTPServer.KEYSTORE_PASSWORD);
+            }
+        }
+        session = openSession();
+        buffer = new byte[64 * 1024];
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+
+        session.close();
+        if (sftpServer != null) {
+            sftpServer.stop();
+        } else {
+            ftpServer.stop();
+        }
+        try (Stream<Path> paths = Files.walk(homeDirectory)) {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void connect() throws IOException {
+
+        openSession().close();
+    }
+
+    @Benchmark
+    public long getSmallFile() throws IOException {
+
+        return read("/" + SMALL_FILE);
+    }
+
+    @Benchmark
+    @Warmup(iterations = 2, time = 10)
+    @Measurement(iterations = 3, time = 10)
+    public long getLargeFile() throws IOException {
+
+        return read("/" + LARGE_FILE);
+    }
+
+    private FTPSession openSession() throws IOException {
+
+        try {
+            return FTPSessionFactory.createSession(protocol, "127.0.0.1", port, BenchmarkServer.USERNAME,
+                    BenchmarkServer.PASSWORD, FTPTimeouts.create(30000, 120000, 120000),
+                    FTPHostKeyPolicy.create(false, null), trustStore);
+        } catch (BallerinaFTPException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    private long read(String path) throws IOException {
+
+        long total = 0;
+        try (InputStream inputStream = session.retrieve(path, 0)) {
+            int read;
+            while ((read = inputStream.read(buffer)) != -1) {
+                total += read;
+            }
+        }
+        return total;
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.ei.ftp.client;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.wso2.ei.ftp.benchmarks.BenchmarkServer;
+import org.wso2.ei.ftp.util.FTPHostKeyPolicy;
+import org.wso2.ei.ftp.util.FTPTimeouts;
+import org.wso2.ei.testutil.LoadTestConfig;
+import org.wso2.ei.testutil.LoadTestFTPServer;
+
+import java.net.ServerSocket;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to list and to stat a file of a large directory on a server behind a slow link, as simulated by
+ * {@link LoadTestFTPServer}, for several directory sizes and command latencies.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+public class SlowLinkBenchmark {
+
+    private static final String ROOT = "/home/load";
+
+    @Param({"1000", "100000"})
+    private int fileCount;
+
+    @Param({"0", "20"})
+    private long commandLatencyMillis;
+
+    @Param({"1048576"})
+    private long bytesPerSecond;
+
+    private LoadTestFTPServer server;
+    private FTPSession session;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        server = LoadTestFTPServer.start(port, BenchmarkServer.USERNAME, BenchmarkServer.PASSWORD,
+                new LoadTestConfig()
+                        .setRootDirectory(ROOT)
+                        .setFileCount(fileCount)
+                        .setFileSizes(LoadTestConfig.SizeDistribution.EXPONENTIAL, 16 * 1024, 1024 * 1024)
+                        .setCommandLatencyMillis(commandLatencyMillis)
+                        .setBytesPerSecond(bytesPerSecond));
+        session = FTPSessionFactory.createSession("ftp", "127.0.0.1", port, BenchmarkServer.USERNAME,
+                BenchmarkServer.PASSWORD, FTPTimeouts.create(30000, 600000, 600000),
+                FTPHostKeyPolicy.create(false, null), null);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+
+        session.close();
+        server.stop();
+    }
+
+    @Benchmark
+    public Map<String, FTPFileStat> list() throws Exception {
+
+        return session.list(ROOT, null, false);
+    }
+
+    @Benchmark
+    public FTPFileStat stat() throws Exception {
+
+        return session.stat(ROOT + "/file-0.dat");
+    }
+}
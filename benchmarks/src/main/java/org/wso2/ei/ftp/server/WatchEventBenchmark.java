@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.ei.ftp.server;
+
+import org.ballerinalang.jvm.BallerinaValues;
+import org.ballerinalang.jvm.types.BArrayType;
+import org.ballerinalang.jvm.types.BPackage;
+import org.ballerinalang.jvm.types.BTypes;
+import org.ballerinalang.jvm.values.ArrayValue;
+import org.ballerinalang.jvm.values.MapValue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.wso2.ei.ftp.benchmarks.BallerinaModule;
+import org.wso2.ei.ftp.client.FTPListingSession;
+import org.wso2.ei.ftp.util.FTPConstants;
+import org.wso2.ei.ftp.util.FTPUtil;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of building the `WatchEvent` dispatched to a listener service on each poll, in
+ * {@link FTPWatchEventFactory#createWatchEvent}, for several numbers of added and deleted files. The
+ * {@code buildWatchEventUncached} baseline builds the same event the way the listener did before the types were cached,
+ * with a package, a field map and a type lookup per record and growing arrays; compare the
+ * {@code gc.alloc.rate.norm} of both benchmarks for the allocation saved.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class WatchEventBenchmark {
+
+    @Param({"1", "100", "10000"})
+    private int changedFiles;
+
+    private FTPWatchEventFactory watchEventFactory;
+    private Map<String, FTPListingSession.Entry> addedFiles;
+    private List<String> deletedFiles;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+
+        BallerinaModule.load();
+        watchEventFactory = new FTPWatchEventFactory();
+        addedFiles = new LinkedHashMap<>();
+        deletedFiles = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < changedFiles; i++) {
+            addedFiles.put("/home/in/added-" + i + ".txt", new FTPListingSession.Entry(1024, now, true));
+            deletedFiles.add("/home/in/deleted-" + i + ".txt");
+        }
+    }
+
+    @Benchmark
+    public Object buildWatchEvent() {
+
+        return watchEventFactory.createWatchEvent(addedFiles, deletedFiles);
+    }
+
+    @Benchmark
+    public Object buildWatchEventUncached() {
+
+        MapValue<String, Object> watchEvent = BallerinaValues.createRecordValue(
+                new BPackage(FTPConstants.FTP_ORG_NAME, FTPConstants.FTP_MODULE_NAME, FTPConstants.FTP_MODULE_VERSION),
+                FTPConstants.FTP_SERVER_EVENT);
+        ArrayValue addedFileInfos = new ArrayValue(new BArrayType(FTPUtil.getFileInfoType()));
+        int i = 0;
+        for (Map.Entry<String, FTPListingSession.Entry> entry : addedFiles.entrySet()) {
+            Map<String, Object> fileInfoParams = new HashMap<>();
+            fileInfoParams.put("path", entry.getKey());
+            fileInfoParams.put("size", entry.getValue().getSize());
+            fileInfoParams.put("lastModifiedTimestamp", entry.getValue().getLastModified());
+            addedFileInfos.add(i++, BallerinaValues.createRecordValue(
+                    new BPackage(FTPConstants.FTP_ORG_NAME, FTPConstants.FTP_MODULE_NAME,
+                            FTPConstants.FTP_MODULE_VERSION), FTPConstants.FTP_FILE_INFO, fileInfoParams));
+        }
+        ArrayValue deletedFileNames = new ArrayValue(BTypes.typeString);
+        i = 0;
+        for (String fileName : deletedFiles) {
+            deletedFileNames.add(i++, fileName);
+        }
+        return BallerinaValues.createRecord(watchEvent, addedFileInfos, deletedFileNames);
+    }
+}
@@ -25,13 +25,14 @@ import org.ballerinalang.model.tree.ServiceNode;
 import org.ballerinalang.model.types.TypeKind;
 import org.ballerinalang.util.diagnostic.Diagnostic;
 import org.ballerinalang.util.diagnostic.DiagnosticLog;
-import org.wso2.ballerinalang.compiler.semantics.model.types.BObjectType;
+import org.wso2.ballerinalang.compiler.semantics.model.types.BArrayType;
 import org.wso2.ballerinalang.compiler.semantics.model.types.BType;
 import org.wso2.ballerinalang.compiler.tree.BLangFunction;
 import org.wso2.ballerinalang.compiler.tree.BLangSimpleVariable;
 import org.wso2.ballerinalang.util.AbstractTransportCompilerPlugin;
 
 import java.util.List;
+import java.util.function.Predicate;
 
 /**
  * Abstract Compiler plugin for validating FTP Listener services
@@ -40,13 +41,19 @@ import java.util.List;
         packageName = "ftp",
         name = "Listener"),
         paramTypes = {
-                @SupportedResourceParamTypes.Type(orgName = "wso2", packageName = "ftp", name = "WatchEvent")
+                @SupportedResourceParamTypes.Type(orgName = "wso2", packageName = "ftp", name = "WatchEvent"),
+                @SupportedResourceParamTypes.Type(orgName = "wso2", packageName = "ftp", name = "FileInfo")
         }
 )
 public class ServiceCompilerPlugin extends AbstractTransportCompilerPlugin {
 
     private DiagnosticLog dlog = null;
+    private static final String FTP_MODULE_NAME = "ftp";
     private static final String FTP_SERVER_EVENT = "WatchEvent";
+    private static final String FTP_FILE_INFO = "FileInfo";
+    private static final String ON_FILE_ADDED = "onFileAdded";
+    private static final String ON_FILE_DELETED = "onFileDeleted";
+    private static final String ON_FILE = "onFile";
 
     @Override
     public void init(DiagnosticLog diagnosticLog) {
@@ -61,29 +68,63 @@ public class ServiceCompilerPlugin extends AbstractTransportCompilerPlugin {
         if (resources.isEmpty()) {
             dlog.logDiagnostic(Diagnostic.Kind.ERROR, serviceNode.getPosition(),
                     "No resources define for service: " + serviceNode.getName().getValue());
-        } else if (resources.size() >= 2) {
-            dlog.logDiagnostic(Diagnostic.Kind.ERROR, serviceNode.getPosition(),
-                    "Only one resource allows for service: " + serviceNode.getName().getValue());
         }
-        if (resources.size() == 1) {
-            final List<BLangSimpleVariable> parameters = resources.get(0).getParameters();
-
-            if (parameters.size() != 1) {
-                dlog.logDiagnostic(Diagnostic.Kind.ERROR, resources.get(0).getPosition(),
-                        "Invalid resource signature. A single " + FTP_SERVER_EVENT
-                                + " parameter allow in the resource signature.");
-            }
-            final BType type = parameters.get(0).getTypeNode().type;
-            if (type.getKind().equals(TypeKind.OBJECT)) {
-                if (type instanceof BObjectType) {
-                    BObjectType event = (BObjectType) type;
-                    if (!"ftp".equals(event.tsymbol.pkgID.name.value) || !FTP_SERVER_EVENT
-                            .equals(event.tsymbol.name.value)) {
-                        dlog.logDiagnostic(Diagnostic.Kind.ERROR, parameters.get(0).getPosition(),
-                                "Parameter should be of type - ftp:" + FTP_SERVER_EVENT);
+        boolean watchEventResource = false;
+        for (BLangFunction resource : resources) {
+            switch (resource.getName().getValue()) {
+                case ON_FILE_ADDED:
+                    validateParameter(resource, "ftp:" + FTP_FILE_INFO + "[]",
+                            type -> isArrayOf(type, this::isFileInfo));
+                    break;
+                case ON_FILE_DELETED:
+                    validateParameter(resource, "string[]",
+                            type -> isArrayOf(type, element -> element.getKind() == TypeKind.STRING));
+                    break;
+                case ON_FILE:
+                    validateParameter(resource, "ftp:" + FTP_FILE_INFO, this::isFileInfo);
+                    break;
+                default:
+                    if (watchEventResource) {
+                        dlog.logDiagnostic(Diagnostic.Kind.ERROR, resource.getPosition(),
+                                "Only one " + FTP_SERVER_EVENT + " resource allows for service: "
+                                        + serviceNode.getName().getValue());
                     }
-                }
+                    watchEventResource = true;
+                    validateParameter(resource, "ftp:" + FTP_SERVER_EVENT, type -> isFtpType(type, FTP_SERVER_EVENT));
+                    break;
             }
         }
     }
+
+    private void validateParameter(BLangFunction resource, String typeName, Predicate<BType> typeCheck) {
+
+        final List<BLangSimpleVariable> parameters = resource.getParameters();
+        if (parameters.size() != 1) {
+            dlog.logDiagnostic(Diagnostic.Kind.ERROR, resource.getPosition(),
+                    "Invalid resource signature. A single " + typeName
+                            + " parameter allow in the resource signature of " + resource.getName().getValue());
+            return;
+        }
+        final BType type = parameters.get(0).getTypeNode().type;
+        if (type != null && !typeCheck.test(type)) {
+            dlog.logDiagnostic(Diagnostic.Kind.ERROR, parameters.get(0).getPosition(),
+                    "Parameter should be of type - " + typeName);
+        }
+    }
+
+    private boolean isFileInfo(BType type) {
+
+        return isFtpType(type, FTP_FILE_INFO);
+    }
+
+    private static boolean isArrayOf(BType type, Predicate<BType> elementCheck) {
+
+        return type instanceof BArrayType && elementCheck.test(((BArrayType) type).eType);
+    }
+
+    private static boolean isFtpType(BType type, String name) {
+
+        return type.tsymbol != null && FTP_MODULE_NAME.equals(type.tsymbol.pkgID.name.value)
+                && name.equals(type.tsymbol.name.value);
+    }
 }
@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.ei.ftp.client;
+
+import org.ballerinalang.jvm.types.BArrayType;
+import org.ballerinalang.jvm.types.BTypes;
+import org.ballerinalang.jvm.values.ArrayValue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads CSV records as string arrays. Quoted fields may contain separators, line breaks and escaped quotes.
+ */
+class CsvRecordReader extends FTPRecordReader {
+
+    private static final char QUOTE = '"';
+    private static final BArrayType RECORD_TYPE = new BArrayType(BTypes.typeString);
+    private static final BArrayType BATCH_TYPE = new BArrayType(RECORD_TYPE);
+
+    private final Reader reader;
+    private final char separator;
+    private final char[] buffer = new char[CHAR_BUFFER_SIZE];
+    private final StringBuilder field = new StringBuilder();
+    private final List<String> fields = new ArrayList<>();
+    private int position = 0;
+    private int limit = 0;
+    private boolean endOfStream = false;
+
+    CsvRecordReader(InputStream inputStream, Charset charset, int batchSize, char separator) {
+
+        super(inputStream, batchSize);
+        this.reader = createReader(inputStream, charset);
+        this.separator = separator;
+    }
+
+    @Override
+    ArrayValue readBatch(int maxRecords) throws IOException {
+
+        ArrayValue batch = null;
+        int count = 0;
+        while (count < maxRecords && readRecord()) {
+            if (batch == null) {
+                batch = new ArrayValue(BATCH_TYPE);
+            }
+            batch.add(count++, new ArrayValue(fields.toArray(new String[0])));
+        }
+        return batch;
+    }
+
+    private boolean readRecord() throws IOException {
+
+        fields.clear();
+        field.setLength(0);
+        boolean quoted = false;
+        boolean recordStarted = false;
+        int c;
+        while ((c = nextChar()) != -1) {
+            char ch = (char) c;
+            recordStarted = true;
+            if (quoted) {
+                if (ch == QUOTE) {
+                    if (peekChar() == QUOTE) {
+                        nextChar();
+                        field.append(QUOTE);
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append(ch);
+                }
+            } else if (ch == QUOTE) {
+                quoted = true;
+            } else if (ch == separator) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (ch == '\n' || ch == '\r') {
+                if (ch == '\r' && peekChar() == '\n') {
+                    nextChar();
+                }
+                if (fields.isEmpty() && field.length() == 0) {
+                    // Skip empty lines
+                    recordStarted = false;
+                    continue;
+                }
+                fields.add(field.toString());
+                return true;
+            } else {
+                field.append(ch);
+            }
+        }
+        if (recordStarted) {
+            fields.add(field.toString());
+        }
+        return recordStarted;
+    }
+
+    private int nextChar() throws IOException {
+
+        if (!fill()) {
+            return -1;
+        }
+        return buffer[position++];
+    }
+
+    private int peekChar() throws IOException {
+
+        if (!fill()) {
+            return -1;
+        }
+        return buffer[position];
+    }
+
+    private boolean fill() throws IOException {
+
+        while (position >= limit) {
+            if (endOfStream) {
+                return false;
+            }
+            limit = reader.read(buffer, 0, buffer.length);
+            position = 0;
+            if (limit == -1) {
+                limit = 0;
+                endOfStream = true;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,345 @@
+/*
+ * Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.ei.ftp.client;
+
+import org.ballerinalang.jvm.values.MapValue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wso2.ei.ftp.util.BallerinaFTPException;
+import org.wso2.ei.ftp.util.FTPConstants;
+import org.wso2.ei.ftp.util.FTPIOExecutor;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shapes the bandwidth of the transfers of a client with token buckets. A transfer is limited by the bucket of its
+ * priority class and by the bucket of the client. Interactive transfers waiting for the client bucket are served
+ * ahead of bulk transfers.
+ */
+class FTPBandwidthShaper {
+
+    private static final Logger log = LoggerFactory.getLogger(FTPBandwidthShaper.class);
+    private static final int CHUNK_SIZE = 16 * 1024;
+    private static final int READ_AHEAD_SIZE = 4 * CHUNK_SIZE;
+    private static final long MAX_WAIT_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final TokenBucket clientBucket;
+    private final TokenBucket interactiveBucket;
+    private final TokenBucket bulkBucket;
+
+    private FTPBandwidthShaper(TokenBucket clientBucket, TokenBucket interactiveBucket, TokenBucket bulkBucket) {
+
+        this.clientBucket = clientBucket;
+        this.interactiveBucket = interactiveBucket;
+        this.bulkBucket = bulkBucket;
+    }
+
+    /**
+     * Creates a shaper from the `BandwidthConfig` of a client.
+     *
+     * @param config the bandwidth configuration, or null if the bandwidth of the client is not limited
+     * @return the shaper
+     * @throws BallerinaFTPException if a limit is negative
+     */
+    static FTPBandwidthShaper create(MapValue config) throws BallerinaFTPException {
+
+        if (config == null) {
+            return new FTPBandwidthShaper(null, null, null);
+        }
+        return create(config.getIntValue(FTPConstants.BANDWIDTH_MAX_BYTES_PER_SECOND),
+                config.getIntValue(FTPConstants.BANDWIDTH_INTERACTIVE_BYTES_PER_SECOND),
+                config.getIntValue(FTPConstants.BANDWIDTH_BULK_BYTES_PER_SECOND));
+    }
+
+    /**
+     * Creates a shaper from its limits.
+     *
+     * @param maxBytesPerSecond         the limit of the client, or zero for no limit
+     * @param interactiveBytesPerSecond the limit of the interactive transfers, or zero for no limit
+     * @param bulkBytesPerSecond        the limit of the bulk transfers, or zero for no limit
+     * @return the shaper
+     * @throws BallerinaFTPException if a limit is negative
+     */
+    static FTPBandwidthShaper create(long maxBytesPerSecond, long interactiveBytesPerSecond, long bulkBytesPerSecond)
+            throws BallerinaFTPException {
+
+        return new FTPBandwidthShaper(createBucket(maxBytesPerSecond, FTPConstants.BANDWIDTH_MAX_BYTES_PER_SECOND),
+                createBucket(interactiveBytesPerSecond, FTPConstants.BANDWIDTH_INTERACTIVE_BYTES_PER_SECOND),
+                createBucket(bulkBytesPerSecond, FTPConstants.BANDWIDTH_BULK_BYTES_PER_SECOND));
+    }
+
+    /**
+     * Limits the rate at which a transfer stream can be read. The reading thread waits for the tokens, so this is
+     * meant for the streams read by the I/O threads, such as upload content.
+     *
+     * @param in   the stream
+     * @param bulk whether the transfer belongs to the bulk priority class
+     * @return the shaped stream
+     */
+    InputStream throttle(InputStream in, boolean bulk) {
+
+        TokenBucket classBucket = bulk ? bulkBucket : interactiveBucket;
+        if (classBucket == null && clientBucket == null) {
+            return in;
+        }
+        return new ThrottledInputStream(in, classBucket, bulk);
+    }
+
+    /**
+     * Limits the rate at which a transfer stream read by a Ballerina strand can be read. Once the stream is first
+     * read, a task of the executor reads ahead into a small buffer and waits for the tokens, so the strand only waits
+     * for data as it would on the data connection itself. If the executor has no room for the task, the strand waits
+     * for the tokens instead.
+     *
+     * @param in       the stream
+     * @param bulk     whether the transfer belongs to the bulk priority class
+     * @param executor the executor which reads ahead
+     * @return the shaped stream
+     */
+    InputStream pace(InputStream in, boolean bulk, FTPIOExecutor executor) {
+
+        TokenBucket classBucket = bulk ? bulkBucket : interactiveBucket;
+        if (classBucket == null && clientBucket == null) {
+            return in;
+        }
+        return new PacedInputStream(in, classBucket, bulk, executor);
+    }
+
+    private void acquire(TokenBucket classBucket, int bytes, boolean bulk) throws InterruptedIOException {
+
+        try {
+            if (classBucket != null) {
+                classBucket.acquire(bytes, false);
+            }
+            if (clientBucket != null) {
+                clientBucket.acquire(bytes, bulk);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for bandwidth.");
+        }
+    }
+
+    private static TokenBucket createBucket(long bytesPerSecond, String key) throws BallerinaFTPException {
+
+        if (bytesPerSecond < 0) {
+            throw new BallerinaFTPException("Invalid value " + bytesPerSecond + " for " + key + ".");
+        }
+        return bytesPerSecond == 0 ? null : new TokenBucket(bytesPerSecond);
+    }
+
+    /**
+     * A stream which takes tokens for the bytes read from it.
+     */
+    private class ThrottledInputStream extends FilterInputStream {
+
+        private final TokenBucket classBucket;
+        private final boolean bulk;
+
+        ThrottledInputStream(InputStream in, TokenBucket classBucket, boolean bulk) {
+
+            super(in);
+            this.classBucket = classBucket;
+            this.bulk = bulk;
+        }
+
+        @Override
+        public int read() throws IOException {
+
+            int b = super.read();
+            if (b >= 0) {
+                acquire(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+
+            // Small reads keep a transfer from taking a whole second worth of tokens at once
+            int read = super.read(b, off, Math.min(len, CHUNK_SIZE));
+            if (read > 0) {
+                acquire(read);
+            }
+            return read;
+        }
+
+        private void acquire(int bytes) throws InterruptedIOException {
+
+            FTPBandwidthShaper.this.acquire(classBucket, bytes, bulk);
+        }
+    }
+
+    /**
+     * A stream whose tokens are taken by a task of the executor, which copies the transfer into a pipe that the
+     * stream reads. The task closes the transfer once it ends or the stream is closed.
+     */
+    private class PacedInputStream extends FilterInputStream {
+
+        private final InputStream source;
+        private final TokenBucket classBucket;
+        private final boolean bulk;
+        private final FTPIOExecutor executor;
+        private boolean started;
+        private volatile IOException failure;
+
+        PacedInputStream(InputStream source, TokenBucket classBucket, boolean bulk, FTPIOExecutor executor) {
+
+            super(source);
+            this.source = source;
+            this.classBucket = classBucket;
+            this.bulk = bulk;
+            this.executor = executor;
+        }
+
+        @Override
+        public int read() throws IOException {
+
+            start();
+            return checkFailure(super.read());
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+
+            start();
+            return checkFailure(super.read(b, off, len));
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+
+            start();
+            return super.skip(n);
+        }
+
+        private synchronized void start() throws IOException {
+
+            if (started) {
+                return;
+            }
+            started = true;
+            PipedInputStream pipe = new PipedInputStream(READ_AHEAD_SIZE);
+            PipedOutputStream out = new PipedOutputStream(pipe);
+            try {
+                executor.execute(() -> copy(out));
+            } catch (RejectedExecutionException e) {
+                log.debug("No I/O thread is available to pace the transfer, it is paced by the reader.");
+                in = new ThrottledInputStream(source, classBucket, bulk);
+                return;
+            }
+            in = pipe;
+        }
+
+        private void copy(PipedOutputStream out) {
+
+            byte[] buffer = new byte[CHUNK_SIZE];
+            try (InputStream transfer = source) {
+                int read;
+                while ((read = transfer.read(buffer)) != -1) {
+                    acquire(classBucket, read, bulk);
+                    out.write(buffer, 0, read);
+                }
+            } catch (IOException e) {
+                // Also raised once the reader has closed the pipe, in which case nobody reads the failure
+                failure = e;
+            } finally {
+                // The failure is set before the reader can see the end of the pipe
+                try {
+                    out.close();
+                } catch (IOException e) {
+                    log.debug("Error while closing the pipe of a paced transfer: " + e.getMessage());
+                }
+            }
+        }
+
+        private int checkFailure(int result) throws IOException {
+
+            if (result == -1 && failure != null) {
+                throw failure;
+            }
+            return result;
+        }
+    }
+
+    /**
+     * A token bucket which holds up to a second worth of tokens.
+     */
+    private static final class TokenBucket {
+
+        private final double bytesPerNano;
+        private final double capacity;
+        private double tokens;
+        private long lastRefill;
+        private int interactiveWaiting;
+
+        TokenBucket(long bytesPerSecond) {
+
+            this.bytesPerNano = bytesPerSecond / (double) TimeUnit.SECONDS.toNanos(1);
+            this.capacity = Math.max(bytesPerSecond, CHUNK_SIZE);
+            this.tokens = capacity;
+            this.lastRefill = System.nanoTime();
+        }
+
+        /**
+         * Takes tokens for the given number of bytes, waiting until enough tokens are available. A bulk transfer
+         * also waits while interactive transfers are waiting for tokens.
+         *
+         * @param bytes the number of bytes, at most {@link #CHUNK_SIZE}
+         * @param bulk  whether the transfer belongs to the bulk priority class
+         * @throws InterruptedException if the thread is interrupted while waiting
+         */
+        synchronized void acquire(int bytes, boolean bulk) throws InterruptedException {
+
+            if (!bulk) {
+                interactiveWaiting++;
+            }
+            try {
+                while (true) {
+                    refill();
+                    boolean yield = bulk && interactiveWaiting > 0;
+                    if (!yield && tokens >= bytes) {
+                        tokens -= bytes;
+                        return;
+                    }
+                    long waitNanos = yield ? MAX_WAIT_NANOS : (long) ((bytes - tokens) / bytesPerNano);
+                    TimeUnit.NANOSECONDS.timedWait(this, Math.max(Math.min(waitNanos, MAX_WAIT_NANOS), 1));
+                }
+            } finally {
+                if (!bulk && --interactiveWaiting == 0) {
+                    notifyAll();
+                }
+            }
+        }
+
+        private void refill() {
+
+            long now = System.nanoTime();
+            tokens = Math.min(capacity, tokens + (now - lastRefill) * bytesPerNano);
+            lastRefill = now;
+        }
+    }
+}
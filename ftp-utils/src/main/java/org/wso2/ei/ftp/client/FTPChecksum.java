@@ -0,0 +1,214 @@
+/*
+ * Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.ei.ftp.client;
+
+import org.ballerinalang.jvm.BallerinaValues;
+import org.ballerinalang.jvm.types.BPackage;
+import org.ballerinalang.jvm.values.MapValue;
+import org.wso2.ei.ftp.util.BallerinaFTPException;
+import org.wso2.ei.ftp.util.FTPConstants;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Computes the checksum of the content while it is transferred, so the integrity of a transfer can be verified
+ * without reading the content again.
+ */
+class FTPChecksum {
+
+    static final String CRC32C = "crc32c";
+    static final String MD5 = "md5";
+    static final String SHA256 = "sha256";
+
+    private static final String CHECKSUM = "Checksum";
+    private static final int CRC32C_POLYNOMIAL = 0x82F63B78;
+    private static final int[] CRC32C_TABLE = new int[256];
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    static {
+        for (int i = 0; i < CRC32C_TABLE.length; i++) {
+            int crc = i;
+            for (int bit = 0; bit < 8; bit++) {
+                crc = (crc & 1) != 0 ? (crc >>> 1) ^ CRC32C_POLYNOMIAL : crc >>> 1;
+            }
+            CRC32C_TABLE[i] = crc;
+        }
+    }
+
+    private final String algorithm;
+    private final MessageDigest messageDigest;
+    private int crc = 0xFFFFFFFF;
+    private String value;
+    private volatile boolean complete = false;
+
+    FTPChecksum(String algorithm) throws BallerinaFTPException {
+
+        this.algorithm = algorithm;
+        try {
+            switch (algorithm) {
+                case CRC32C:
+                    messageDigest = null;
+                    break;
+                case MD5:
+                    messageDigest = MessageDigest.getInstance("MD5");
+                    break;
+                case SHA256:
+                    messageDigest = MessageDigest.getInstance("SHA-256");
+                    break;
+                default:
+                    throw new BallerinaFTPException("Unsupported checksum algorithm: " + algorithm);
+            }
+        } catch (NoSuchAlgorithmException e) {
+            throw new BallerinaFTPException("Checksum algorithm " + algorithm + " is not available.", e);
+        }
+    }
+
+    /**
+     * Wraps a stream so the checksum is updated with every byte read from it.
+     *
+     * @param in the stream that carries the transferred content
+     * @return the wrapped stream
+     */
+    InputStream wrap(InputStream in) {
+
+        return new FilterInputStream(in) {
+            @Override
+            public int read() throws IOException {
+
+                int data = super.read();
+                if (data == -1) {
+                    complete = true;
+                } else {
+                    update(new byte[]{(byte) data}, 0, 1);
+                }
+                return data;
+            }
+
+            @Override
+            public int read(byte[] buffer, int offset, int length) throws IOException {
+
+                int count = super.read(buffer, offset, length);
+                if (count == -1) {
+                    complete = true;
+                } else {
+                    update(buffer, offset, count);
+                }
+                return count;
+            }
+        };
+    }
+
+    /**
+     * Returns whether the whole content has been read through the wrapped stream.
+     *
+     * @return true if the end of the content was reached
+     */
+    boolean isComplete() {
+
+        return complete;
+    }
+
+    String getAlgorithm() {
+
+        return algorithm;
+    }
+
+    synchronized String getValue() {
+
+        if (value == null) {
+            if (messageDigest == null) {
+                value = String.format("%08x", ~crc);
+            } else {
+                StringBuilder builder = new StringBuilder();
+                for (byte b : messageDigest.digest()) {
+                    builder.append(String.format("%02x", b));
+                }
+                value = builder.toString();
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Creates the Ballerina Checksum record.
+     *
+     * @param remoteValue the checksum calculated by the server, or null if the server does not support it
+     * @return the Checksum record
+     */
+    MapValue<String, Object> toRecord(String remoteValue) {
+
+        Map<String, Object> checksumParams = new HashMap<>(4);
+        checksumParams.put("algorithm", algorithm);
+        checksumParams.put("value", getValue());
+        checksumParams.put("remoteValue", remoteValue);
+        checksumParams.put("matched", remoteValue == null ? null : remoteValue.equalsIgnoreCase(getValue()));
+        return BallerinaValues.createRecordValue(new BPackage(FTPConstants.FTP_ORG_NAME,
+                FTPConstants.FTP_MODULE_NAME, FTPConstants.FTP_MODULE_VERSION), CHECKSUM, checksumParams);
+    }
+
+    /**
+     * Extracts a hexadecimal digest from a server reply. Servers format the replies of HASH, XMD5 and XSHA256
+     * differently, so the first token with the expected length is taken as the digest.
+     *
+     * @param reply     the server reply
+     * @param algorithm the checksum algorithm
+     * @return the digest or null if the reply does not contain one
+     */
+    static String extractDigest(String reply, String algorithm) {
+
+        int length = MD5.equals(algorithm) ? 32 : 64;
+        for (String token : WHITESPACE.split(reply.trim())) {
+            if (token.length() == length && isHex(token)) {
+                return token.toLowerCase(Locale.ENGLISH);
+            }
+        }
+        return null;
+    }
+
+    private synchronized void update(byte[] buffer, int offset, int length) {
+
+        if (messageDigest != null) {
+            messageDigest.update(buffer, offset, length);
+            return;
+        }
+        int current = crc;
+        for (int i = offset; i < offset + length; i++) {
+            current = CRC32C_TABLE[(current ^ buffer[i]) & 0xFF] ^ (current >>> 8);
+        }
+        crc = current;
+    }
+
+    private static boolean isHex(String token) {
+
+        for (int i = 0; i < token.length(); i++) {
+            if (Character.digit(token.charAt(i), 16) == -1) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
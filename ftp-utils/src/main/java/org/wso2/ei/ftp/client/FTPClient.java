@@ -19,29 +19,49 @@
 package org.wso2.ei.ftp.client;
 
 import org.ballerinalang.jvm.BRuntime;
+import org.ballerinalang.jvm.BallerinaValues;
+import org.ballerinalang.jvm.types.BArrayType;
+import org.ballerinalang.jvm.types.BPackage;
 import org.ballerinalang.jvm.values.ArrayValue;
 import org.ballerinalang.jvm.values.MapValue;
 import org.ballerinalang.jvm.values.ObjectValue;
+import org.ballerinalang.jvm.values.XMLValue;
 import org.ballerinalang.stdlib.io.channels.base.Channel;
 import org.ballerinalang.stdlib.io.utils.IOConstants;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.wso2.ei.ftp.util.BallerinaFTPException;
+import org.wso2.ei.ftp.util.FTPCancellation;
 import org.wso2.ei.ftp.util.FTPConstants;
+import org.wso2.ei.ftp.util.FTPHostKeyPolicy;
+import org.wso2.ei.ftp.util.FTPIOExecutor;
+import org.wso2.ei.ftp.util.FTPTimeouts;
+import org.wso2.ei.ftp.util.FTPTrustStore;
 import org.wso2.ei.ftp.util.FTPUtil;
 import org.wso2.transport.remotefilesystem.RemoteFileSystemConnectorFactory;
 import org.wso2.transport.remotefilesystem.client.connector.contract.FtpAction;
 import org.wso2.transport.remotefilesystem.client.connector.contract.VFSClientConnector;
 import org.wso2.transport.remotefilesystem.exception.RemoteFileSystemConnectorException;
 import org.wso2.transport.remotefilesystem.impl.RemoteFileSystemConnectorFactoryImpl;
+import org.wso2.transport.remotefilesystem.message.RemoteFileSystemBaseMessage;
 import org.wso2.transport.remotefilesystem.message.RemoteFileSystemMessage;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
 
 /**
  * Contains functionality of FTP client
@@ -49,6 +69,8 @@ import java.util.concurrent.CompletableFuture;
 public class FTPClient {
 
     private static final Logger log = LoggerFactory.getLogger(FTPClient.class);
+    private static final String CLIENT_METRICS = "ClientMetrics";
+    private static final int MAX_WALK_PARALLELISM = 64;
 
     private FTPClient() {
         // private constructor
@@ -67,258 +89,1018 @@ public class FTPClient {
                 authMap.get(FTPConstants.ENDPOINT_CONFIG_USERNAME));
         clientEndpoint.addNativeData(FTPConstants.ENDPOINT_CONFIG_PASS_KEY,
                 authMap.get(FTPConstants.ENDPOINT_CONFIG_PASS_KEY));
-        clientEndpoint.addNativeData(FTPConstants.ENDPOINT_CONFIG_HOST,
-                config.getStringValue(FTPConstants.ENDPOINT_CONFIG_HOST));
-        clientEndpoint.addNativeData(FTPConstants.ENDPOINT_CONFIG_PORT,
-                FTPUtil.extractPortValue(config, FTPConstants.ENDPOINT_CONFIG_PORT, log));
+        String host = config.getStringValue(FTPConstants.ENDPOINT_CONFIG_HOST);
+        int port = FTPUtil.extractPortValue(config, FTPConstants.ENDPOINT_CONFIG_PORT, log);
+        clientEndpoint.addNativeData(FTPConstants.ENDPOINT_CONFIG_HOST, host);
+        clientEndpoint.addNativeData(FTPConstants.ENDPOINT_CONFIG_PORT, port);
         clientEndpoint.addNativeData(FTPConstants.ENDPOINT_CONFIG_PROTOCOL, protocol);
+        clientEndpoint.addNativeData(FTPConstants.ENDPOINT_CONFIG_COMPRESSION,
+                config.getStringValue(FTPConstants.ENDPOINT_CONFIG_COMPRESSION));
+        clientEndpoint.addNativeData(FTPConstants.ENDPOINT_CONFIG_LISTING_MODE,
+                config.getStringValue(FTPConstants.ENDPOINT_CONFIG_LISTING_MODE));
+        if (FTPConstants.PROTOCOL_SFTP.equals(protocol)) {
+            clientEndpoint.addNativeData(FTPConstants.NATIVE_SFTP_PIPELINE,
+                    SFTPPipeline.create(config.getMapValue(FTPConstants.ENDPOINT_CONFIG_SFTP_PIPELINE)));
+        }
         Map<String, String> ftpConfig = new HashMap<>(3);
         ftpConfig.put(FTPConstants.FTP_PASSIVE_MODE, String.valueOf(true));
         ftpConfig.put(FTPConstants.USER_DIR_IS_ROOT, String.valueOf(false));
         ftpConfig.put(FTPConstants.AVOID_PERMISSION_CHECK, String.valueOf(true));
         clientEndpoint.addNativeData(FTPConstants.PROPERTY_MAP, ftpConfig);
+
+        long maxInFlight = config.getIntValue(FTPConstants.ENDPOINT_CONFIG_MAX_IN_FLIGHT_OPERATIONS);
+        if (maxInFlight <= 0 || maxInFlight > Integer.MAX_VALUE) {
+            throw new BallerinaFTPException("Invalid value " + maxInFlight + " for "
+                    + FTPConstants.ENDPOINT_CONFIG_MAX_IN_FLIGHT_OPERATIONS + ".");
+        }
+        clientEndpoint.addNativeData(FTPConstants.NATIVE_OPERATION_LIMITER,
+                new FTPOperationLimiter((int) maxInFlight));
+        clientEndpoint.addNativeData(FTPConstants.NATIVE_IO_EXECUTOR,
+                FTPIOExecutor.create(config.getMapValue(FTPConstants.ENDPOINT_CONFIG_IO_EXECUTOR)));
+        clientEndpoint.addNativeData(FTPConstants.NATIVE_HOST_SELECTOR, createHostSelector(config, host, port));
+        clientEndpoint.addNativeData(FTPConstants.NATIVE_TIMEOUTS,
+                FTPTimeouts.create(config.getMapValue(FTPConstants.ENDPOINT_CONFIG_TIMEOUTS)));
+        clientEndpoint.addNativeData(FTPConstants.NATIVE_HOST_KEY_POLICY,
+                FTPHostKeyPolicy.create(config.getMapValue(FTPConstants.ENDPOINT_CONFIG_SECURE_SOCKET)));
+        clientEndpoint.addNativeData(FTPConstants.NATIVE_TRUST_STORE,
+                FTPTrustStore.create(config.getMapValue(FTPConstants.ENDPOINT_CONFIG_SECURE_SOCKET)));
+        clientEndpoint.addNativeData(FTPConstants.NATIVE_BANDWIDTH_SHAPER,
+                FTPBandwidthShaper.create(config.getMapValue(FTPConstants.ENDPOINT_CONFIG_BANDWIDTH)));
+        FTPSessionPool sessionPool = FTPSessionPool.create(
+                config.getMapValue(FTPConstants.ENDPOINT_CONFIG_SESSION_POOL),
+                (poolHost, poolPort) -> FTPSessionFactory.connect(clientEndpoint, poolHost, poolPort),
+                getExecutor(clientEndpoint));
+        if (sessionPool != null) {
+            clientEndpoint.addNativeData(FTPConstants.NATIVE_SESSION_POOL, sessionPool);
+            warmUp(clientEndpoint, sessionPool);
+        }
+        MapValue hedgingConfig = config.getMapValue(FTPConstants.ENDPOINT_CONFIG_HEDGING);
+        if (hedgingConfig != null) {
+            long delay = hedgingConfig.getIntValue(FTPConstants.HEDGING_DELAY);
+            if (delay < 0) {
+                throw new BallerinaFTPException("Invalid value " + delay + " for " + FTPConstants.HEDGING_DELAY + ".");
+            }
+            clientEndpoint.addNativeData(FTPConstants.NATIVE_HEDGING_POLICY, new FTPHedgingPolicy(delay));
+        }
     }
 
-    public static ObjectValue get(ObjectValue clientConnector, String filePath) throws BallerinaFTPException {
+    /**
+     * Opens the warm-up sessions of the pool to every host of the client in the background, so that the
+     * initialization of the client does not wait for the servers.
+     */
+    private static void warmUp(ObjectValue clientEndpoint, FTPSessionPool sessionPool) {
 
-        String url = FTPUtil.createUrl(clientConnector, filePath);
-        Map<String, String> propertyMap = new HashMap<>(
-                (Map<String, String>) clientConnector.getNativeData(FTPConstants.PROPERTY_MAP));
-        propertyMap.put(FTPConstants.PROPERTY_URI, url);
+        if (sessionPool.getWarmUpSessions() == 0) {
+            return;
+        }
+        for (FTPHostSelector.Host host : getHostSelector(clientEndpoint).getHosts()) {
+            try {
+                getExecutor(clientEndpoint).execute(() -> sessionPool.warmUp(host.getName(), host.getPort()));
+            } catch (RejectedExecutionException e) {
+                log.warn("Unable to open sessions to " + host + " in advance: " + e.getMessage());
+            }
+        }
+    }
+
+    private static FTPHostSelector createHostSelector(MapValue<Object, Object> config, String primaryHost,
+                                                      int primaryPort) throws BallerinaFTPException {
+
+        long unhealthyPeriod = config.getIntValue(FTPConstants.ENDPOINT_CONFIG_UNHEALTHY_PERIOD);
+        if (unhealthyPeriod < 0) {
+            throw new BallerinaFTPException("Invalid value " + unhealthyPeriod + " for "
+                    + FTPConstants.ENDPOINT_CONFIG_UNHEALTHY_PERIOD + ".");
+        }
+        List<FTPHostSelector.Host> hosts = new ArrayList<>();
+        hosts.add(new FTPHostSelector.Host(primaryHost, primaryPort));
+        ArrayValue hostConfigs = config.getArrayValue(FTPConstants.ENDPOINT_CONFIG_HOSTS);
+        for (int i = 0; i < hostConfigs.size(); i++) {
+            MapValue hostConfig = (MapValue) hostConfigs.getRefValue(i);
+            // A mirror without a port listens on the same port as the primary host
+            int port = hostConfig.get(FTPConstants.ENDPOINT_CONFIG_PORT) == null ? primaryPort
+                    : FTPUtil.extractPortValue(hostConfig, FTPConstants.ENDPOINT_CONFIG_PORT, log);
+            hosts.add(new FTPHostSelector.Host(hostConfig.getStringValue(FTPConstants.ENDPOINT_CONFIG_HOST), port));
+        }
+        return new FTPHostSelector(hosts, config.getStringValue(FTPConstants.ENDPOINT_CONFIG_LOAD_BALANCING),
+                unhealthyPeriod);
+    }
+
+    /**
+     * Closes the sessions the client keeps open between operations. The operations started afterwards open a session
+     * of their own.
+     *
+     * @param clientConnector the client endpoint
+     */
+    public static void close(ObjectValue clientConnector) {
+
+        FTPSessionPool sessionPool = (FTPSessionPool) clientConnector.getNativeData(
+                FTPConstants.NATIVE_SESSION_POOL);
+        if (sessionPool != null) {
+            sessionPool.close();
+        }
+    }
+
+    public static MapValue<String, Object> getMetrics(ObjectValue clientConnector) {
+
+        FTPOperationLimiter limiter = getLimiter(clientConnector);
+        FTPIOExecutor executor = getExecutor(clientConnector);
+        Map<String, Object> metrics = new HashMap<>();
+        metrics.put("inFlightOperations", (long) limiter.getInFlight());
+        metrics.put("pendingOperations", (long) limiter.getPending());
+        metrics.put("queuedIOTasks", (long) executor.getQueuedTasks());
+        metrics.put("completedIOTasks", executor.getCompletedTasks());
+        metrics.put("rejectedIOTasks", executor.getRejectedTasks());
+        metrics.put("averageQueueWaitMillis", executor.getAverageQueueWaitMillis());
+        metrics.put("maxQueueWaitMillis", executor.getMaxQueueWaitMillis());
+        FTPHedgingPolicy hedging = getHedgingPolicy(clientConnector);
+        metrics.put("hedgesFired", hedging == null ? 0L : hedging.getHedgesFired());
+        metrics.put("hedgesWon", hedging == null ? 0L : hedging.getHedgesWon());
+        return BallerinaValues.createRecordValue(new BPackage(FTPConstants.FTP_ORG_NAME,
+                FTPConstants.FTP_MODULE_NAME, FTPConstants.FTP_MODULE_VERSION), CLIENT_METRICS, metrics);
+    }
+
+    public static ObjectValue get(ObjectValue clientConnector, String filePath, String priority)
+            throws BallerinaFTPException {
+
+        return get(clientConnector, filePath, null, isBulk(priority));
+    }
+
+    public static ObjectValue getWithChecksum(ObjectValue clientConnector, String filePath, String algorithm,
+                                              String priority) throws BallerinaFTPException {
+
+        return get(clientConnector, filePath, new FTPChecksum(algorithm), isBulk(priority));
+    }
+
+    private static ObjectValue get(ObjectValue clientConnector, String filePath, FTPChecksum checksum, boolean bulk)
+            throws BallerinaFTPException {
+
+        String codec = getCodec(clientConnector, filePath);
+        UnaryOperator<InputStream> transferStream = getTransferStream(clientConnector, bulk);
 
         CompletableFuture<Object> future = BRuntime.markAsync();
-        FTPClientListener connectorListener = new FTPClientListener(future,
-                remoteFileSystemBaseMessage -> FTPClientHelper.executeGetAction(remoteFileSystemBaseMessage, future));
-        RemoteFileSystemConnectorFactory fileSystemConnectorFactory = new RemoteFileSystemConnectorFactoryImpl();
-        VFSClientConnector connector;
-        try {
-            connector = fileSystemConnectorFactory.createVFSClientConnector(propertyMap, connectorListener);
-        } catch (RemoteFileSystemConnectorException e) {
-            throw new BallerinaFTPException(e.getMessage());
+        SFTPPipeline pipeline = getSFTPPipeline(clientConnector);
+        if (pipeline != null) {
+            executeSessionAction(clientConnector, bulk, future, (host, cancellation) -> {
+                SFTPChannelSession session = FTPSessionFactory.createSFTPSession(clientConnector, host);
+                cancellation.register(session);
+                InputStream in;
+                try {
+                    in = transferStream.apply(pipeline.retrieve(session, filePath));
+                } catch (IOException e) {
+                    closeSession(session);
+                    throw new BallerinaFTPException(e.getMessage(), e);
+                }
+                try {
+                    return FTPClientHelper.createGetChannel(in, codec, checksum, clientConnector, host, filePath);
+                } catch (IOException e) {
+                    FTPClientHelper.closeStream(in);
+                    throw new BallerinaFTPException("Unable to decompress the content: " + e.getMessage(), e);
+                }
+            });
+            return null;
         }
-        connector.send(null, FtpAction.GET);
+        executeRead(clientConnector, filePath, FtpAction.GET, bulk, future,
+                (remoteFileSystemBaseMessage, host, attemptFuture) -> FTPClientHelper.executeGetAction(
+                        remoteFileSystemBaseMessage, attemptFuture, codec, transferStream, checksum, clientConnector,
+                        host, filePath), FTPClientHelper::closeChannel);
         return null;
     }
 
-    public static void append(ObjectValue clientConnector, MapValue<Object, Object> inputContent)
+    public static ObjectValue getRecords(ObjectValue clientConnector, String filePath,
+                                         MapValue<Object, Object> readerConfig, String priority)
             throws BallerinaFTPException {
 
-        try {
-            String url = FTPUtil.createUrl(clientConnector,
-                    inputContent.getStringValue(FTPConstants.INPUT_CONTENT_FILE_PATH_KEY));
-            Map<String, String> propertyMap = new HashMap<>(
-                    (Map<String, String>) clientConnector.getNativeData(FTPConstants.PROPERTY_MAP));
-            propertyMap.put(FTPConstants.PROPERTY_URI, url);
-
-            boolean isFile = inputContent.getBooleanValue(FTPConstants.INPUT_CONTENT_IS_FILE_KEY);
-            RemoteFileSystemMessage message;
-            if (isFile) {
-                ObjectValue fileContent = inputContent.getObjectValue(FTPConstants.INPUT_CONTENT_FILE_CONTENT_KEY);
-                Channel byteChannel = (Channel) fileContent.getNativeData(IOConstants.BYTE_CHANNEL_NAME);
-                message = new RemoteFileSystemMessage(byteChannel.getInputStream());
-            } else {
-                String textContent = inputContent.getStringValue(FTPConstants.INPUT_CONTENT_TEXT_CONTENT_KEY);
-                InputStream stream = new ByteArrayInputStream(textContent.getBytes());
-                message = new RemoteFileSystemMessage(stream);
-            }
+        boolean bulk = isBulk(priority);
+        String codec = getCodec(clientConnector, filePath);
+        UnaryOperator<InputStream> transferStream = getTransferStream(clientConnector, bulk);
+
+        CompletableFuture<Object> future = BRuntime.markAsync();
+        executeRead(clientConnector, filePath, FtpAction.GET, bulk, future,
+                (remoteFileSystemBaseMessage, host, attemptFuture) -> FTPClientHelper.executeGetRecordsAction(
+                        remoteFileSystemBaseMessage, attemptFuture, readerConfig, codec, transferStream),
+                FTPClientHelper::closeRecordReader);
+        return null;
+    }
+
+    public static ObjectValue getRange(ObjectValue clientConnector, String filePath, long offset, long length,
+                                       String priority) throws BallerinaFTPException {
 
-            CompletableFuture<Object> future = BRuntime.markAsync();
-            FTPClientListener connectorListener = new FTPClientListener(future,
-                    remoteFileSystemBaseMessage -> FTPClientHelper.executeGenericAction(future));
-            RemoteFileSystemConnectorFactory fileSystemConnectorFactory = new RemoteFileSystemConnectorFactoryImpl();
-
-            VFSClientConnector connector = fileSystemConnectorFactory.createVFSClientConnector(propertyMap,
-                    connectorListener);
-            connector.send(message, FtpAction.APPEND);
-            future.complete(null);
-        } catch (RemoteFileSystemConnectorException | IOException e) {
-            throw new BallerinaFTPException(e.getMessage());
+        if (offset < 0 || length < 0) {
+            throw new BallerinaFTPException("Offset and length of a ranged read cannot be negative.");
         }
+        boolean bulk = isBulk(priority);
+        UnaryOperator<InputStream> transferStream = getTransferStream(clientConnector, bulk);
+        CompletableFuture<Object> future = BRuntime.markAsync();
+        executeSessionAction(clientConnector, bulk, future, (host, cancellation) -> {
+            FTPSession session = FTPSessionFactory.createSession(clientConnector, host);
+            cancellation.register(session);
+            try {
+                InputStream in = new FTPRangeInputStream(session,
+                        transferStream.apply(session.retrieve(filePath, offset)), length);
+                return FTPClientHelper.createReadableByteChannel(in);
+            } catch (IOException e) {
+                closeSession(session);
+                throw new BallerinaFTPException(e.getMessage(), e);
+            }
+        });
+        return null;
     }
 
-    public static void put(ObjectValue clientConnector, MapValue<Object, Object> inputContent)
+    public static MapValue<String, Object> stat(ObjectValue clientConnector, String filePath)
             throws BallerinaFTPException {
 
-        try {
+        CompletableFuture<Object> future = BRuntime.markAsync();
+        executeSessionAction(clientConnector, future, (host, cancellation) -> {
+            FTPSession session = FTPSessionFactory.createSession(clientConnector, host);
+            cancellation.register(session);
+            try {
+                FTPFileStat stat = session.stat(filePath);
+                if (stat == null) {
+                    throw new BallerinaFTPException("File not found: " + filePath);
+                }
+                return FTPClientHelper.createFileInfo(clientConnector, host, filePath, stat);
+            } catch (IOException e) {
+                throw new BallerinaFTPException(e.getMessage(), e);
+            } finally {
+                closeSession(session);
+            }
+        });
+        return null;
+    }
 
-            String url = FTPUtil.createUrl(clientConnector,
-                    inputContent.getStringValue(FTPConstants.INPUT_CONTENT_FILE_PATH_KEY));
-            Map<String, String> propertyMap = new HashMap<>(
-                    (Map<String, String>) clientConnector.getNativeData(FTPConstants.PROPERTY_MAP));
-            propertyMap.put(FTPConstants.PROPERTY_URI, url);
-
-            boolean isFile = inputContent.getBooleanValue(FTPConstants.INPUT_CONTENT_IS_FILE_KEY);
-            RemoteFileSystemMessage message;
-            if (isFile) {
-                ObjectValue fileContent = inputContent.getObjectValue(FTPConstants.INPUT_CONTENT_FILE_CONTENT_KEY);
-                Channel byteChannel = (Channel) fileContent.getNativeData(IOConstants.BYTE_CHANNEL_NAME);
-                message = new RemoteFileSystemMessage(byteChannel.getInputStream());
-            } else {
-                String textContent = inputContent.getStringValue(FTPConstants.INPUT_CONTENT_TEXT_CONTENT_KEY);
-                InputStream stream = new ByteArrayInputStream(textContent.getBytes());
-                message = new RemoteFileSystemMessage(stream);
+    public static ArrayValue listZipEntries(ObjectValue clientConnector, String filePath) {
+
+        UnaryOperator<InputStream> transferStream = getTransferStream(clientConnector, false);
+        CompletableFuture<Object> future = BRuntime.markAsync();
+        executeSessionAction(clientConnector, future, (host, cancellation) -> {
+            FTPSession session = FTPSessionFactory.createSession(clientConnector, host);
+            cancellation.register(session);
+            try {
+                return FTPClientHelper.createZipEntryArray(
+                        FTPZipArchive.readEntries(session, filePath, transferStream));
+            } catch (IOException e) {
+                throw new BallerinaFTPException(e.getMessage(), e);
+            } finally {
+                closeSession(session);
             }
+        });
+        return null;
+    }
 
-            CompletableFuture<Object> future = BRuntime.markAsync();
-            FTPClientListener connectorListener = new FTPClientListener(future, remoteFileSystemBaseMessage ->
-                    FTPClientHelper.executeGenericAction(future));
-            RemoteFileSystemConnectorFactory fileSystemConnectorFactory = new RemoteFileSystemConnectorFactoryImpl();
-
-            VFSClientConnector connector = fileSystemConnectorFactory.createVFSClientConnector(propertyMap,
-                    connectorListener);
-            connector.send(message, FtpAction.PUT);
-            future.complete(null);
-        } catch (RemoteFileSystemConnectorException | IOException e) {
-            throw new BallerinaFTPException(e.getMessage());
-        }
+    public static ObjectValue getZipEntry(ObjectValue clientConnector, String filePath, String entryName) {
+
+        UnaryOperator<InputStream> transferStream = getTransferStream(clientConnector, false);
+        CompletableFuture<Object> future = BRuntime.markAsync();
+        executeSessionAction(clientConnector, future, (host, cancellation) -> {
+            FTPSession session = FTPSessionFactory.createSession(clientConnector, host);
+            cancellation.register(session);
+            try {
+                FTPZipArchive.Entry entry = FTPZipArchive.findEntry(
+                        FTPZipArchive.readEntries(session, filePath, transferStream), entryName);
+                if (entry == null || entry.isDirectory()) {
+                    throw new BallerinaFTPException("Entry " + entryName + " not found in " + filePath);
+                }
+                return FTPClientHelper.createReadableByteChannel(
+                        FTPZipArchive.openEntry(session, filePath, entry, transferStream));
+            } catch (IOException e) {
+                closeSession(session);
+                throw new BallerinaFTPException(e.getMessage(), e);
+            } catch (BallerinaFTPException e) {
+                closeSession(session);
+                throw e;
+            }
+        });
+        return null;
     }
 
-    public static void delete(ObjectValue clientConnector, String filePath) throws BallerinaFTPException {
+    public static void append(ObjectValue clientConnector, MapValue<Object, Object> inputContent, String priority)
+            throws BallerinaFTPException {
 
-        String url = FTPUtil.createUrl(clientConnector, filePath);
-        Map<String, String> propertyMap = new HashMap<>(
-                (Map<String, String>) clientConnector.getNativeData(FTPConstants.PROPERTY_MAP));
-        propertyMap.put(FTPConstants.PROPERTY_URI, url);
+        write(clientConnector, inputContent, FtpAction.APPEND, null, isBulk(priority));
+    }
+
+    public static void put(ObjectValue clientConnector, MapValue<Object, Object> inputContent, String priority)
+            throws BallerinaFTPException {
+
+        write(clientConnector, inputContent, FtpAction.PUT, null, isBulk(priority));
+    }
 
+    public static MapValue<String, Object> putWithChecksum(ObjectValue clientConnector,
+                                                           MapValue<Object, Object> inputContent, String algorithm,
+                                                           String priority) throws BallerinaFTPException {
+
+        write(clientConnector, inputContent, FtpAction.PUT, new FTPChecksum(algorithm), isBulk(priority));
+        return null;
+    }
+
+    public static Object getChecksum(ObjectValue channel) {
+
+        FTPChecksum checksum = (FTPChecksum) channel.getNativeData(FTPConstants.NATIVE_CHECKSUM);
+        if (checksum == null) {
+            return FTPUtil.createError("Checksum is not calculated for the given channel.");
+        }
+        if (!checksum.isComplete()) {
+            return FTPUtil.createError("Checksum is available only after the whole content is read.");
+        }
+        ObjectValue clientConnector = (ObjectValue) channel.getNativeData(FTPConstants.NATIVE_CLIENT);
+        FTPHostSelector.Host host = (FTPHostSelector.Host) channel.getNativeData(FTPConstants.NATIVE_HOST);
+        String filePath = (String) channel.getNativeData(FTPConstants.NATIVE_FILE_PATH);
         CompletableFuture<Object> future = BRuntime.markAsync();
-        FTPClientListener connectorListener = new FTPClientListener(future,
-                remoteFileSystemBaseMessage -> FTPClientHelper.executeGenericAction(future));
-        RemoteFileSystemConnectorFactory fileSystemConnectorFactory = new RemoteFileSystemConnectorFactoryImpl();
-        VFSClientConnector connector;
+        executeSession(clientConnector, false, getTimeouts(clientConnector).getCommandTimeout(), future,
+                cancellation -> checksum.toRecord(
+                        getRemoteChecksum(clientConnector, host, filePath, checksum.getAlgorithm(), cancellation)));
+        return null;
+    }
+
+    private static void write(ObjectValue clientConnector, MapValue<Object, Object> inputContent, FtpAction action,
+                              FTPChecksum checksum, boolean bulk) throws BallerinaFTPException {
+
+        String filePath = inputContent.getStringValue(FTPConstants.INPUT_CONTENT_FILE_PATH_KEY);
+        Map<String, String> propertyMap = getPropertyMap(clientConnector, filePath);
+        InputStream uploadStream;
         try {
-            connector = fileSystemConnectorFactory.createVFSClientConnector(propertyMap, connectorListener);
-        } catch (RemoteFileSystemConnectorException e) {
-            throw new BallerinaFTPException(e.getMessage());
+            uploadStream = FTPCompression.compress(getUploadStream(inputContent), getCodec(clientConnector, filePath));
+        } catch (IOException e) {
+            throw new BallerinaFTPException(e.getMessage(), e);
+        }
+        if (checksum != null) {
+            uploadStream = checksum.wrap(uploadStream);
+        }
+        uploadStream = getBandwidthShaper(clientConnector).throttle(uploadStream, bulk);
+
+        CompletableFuture<Object> future = BRuntime.markAsync();
+        SFTPPipeline pipeline = getSFTPPipeline(clientConnector);
+        if (pipeline != null && action == FtpAction.PUT) {
+            InputStream content = uploadStream;
+            // The transfer of a large file can run for much longer than the command timeout, which bounds each request
+            // of the session instead
+            executeSession(clientConnector, bulk, 0, future, cancellation -> {
+                SFTPChannelSession session = FTPSessionFactory.createSFTPSession(clientConnector, null);
+                cancellation.register(session);
+                try {
+                    pipeline.store(session, filePath, content);
+                } catch (IOException e) {
+                    throw new BallerinaFTPException(e.getMessage(), e);
+                } finally {
+                    closeSession(session);
+                }
+                return checksum == null ? null : checksum.toRecord(
+                        getRemoteChecksum(clientConnector, null, filePath, checksum.getAlgorithm(), cancellation));
+            });
+            return;
+        }
+        FTPClientListener connectorListener;
+        if (checksum == null) {
+            connectorListener = new FTPClientListener(future, remoteFileSystemBaseMessage ->
+                    FTPClientHelper.executeGenericAction(future));
+        } else {
+            // The checksum of the server is requested by a further operation instead of within the callback of the
+            // transport. Writes go to the primary host.
+            connectorListener = new FTPClientListener(future, remoteFileSystemBaseMessage ->
+                    FTPClientHelper.executeGenericAction(future), () -> executeSession(clientConnector, false,
+                    getTimeouts(clientConnector).getCommandTimeout(), future, cancellation -> checksum.toRecord(
+                    getRemoteChecksum(clientConnector, null, filePath, checksum.getAlgorithm(), cancellation))));
         }
-        connector.send(null, FtpAction.DELETE);
-        future.complete(null);
+        execute(clientConnector, propertyMap, action, uploadStream, connectorListener, bulk);
     }
 
-    public static boolean isDirectory(ObjectValue clientConnector, String filePath) throws BallerinaFTPException {
+    public static void putParallel(ObjectValue clientConnector, String filePath, String localPath,
+                                   MapValue<Object, Object> config, String priority) throws BallerinaFTPException {
 
-        String url = FTPUtil.createUrl(clientConnector, filePath);
-        Map<String, String> propertyMap = new HashMap<>(
-                (Map<String, String>) clientConnector.getNativeData(FTPConstants.PROPERTY_MAP));
-        propertyMap.put(FTPConstants.PROPERTY_URI, url);
+        if (!FTPCompression.CODEC_NONE.equals(getCodec(clientConnector, filePath))) {
+            throw new BallerinaFTPException("Parallel uploads do not support compression.");
+        }
+        boolean bulk = isBulk(priority);
+        FTPBandwidthShaper shaper = getBandwidthShaper(clientConnector);
+        FTPSegmentedUpload upload = FTPSegmentedUpload.create(clientConnector, config, bulk,
+                in -> shaper.throttle(in, bulk));
+        CompletableFuture<Object> future = BRuntime.markAsync();
+        // The upload of a large file can run for much longer than the command timeout, which bounds each command of
+        // the sessions of the upload instead
+        executeSession(clientConnector, bulk, 0, future, cancellation -> {
+            upload.upload(Paths.get(localPath), filePath, cancellation);
+            return null;
+        });
+    }
+
+    public static void delete(ObjectValue clientConnector, String filePath) throws BallerinaFTPException {
+
+        executeGenericAction(clientConnector, getPropertyMap(clientConnector, filePath), FtpAction.DELETE);
+    }
+
+    public static boolean isDirectory(ObjectValue clientConnector, String filePath) throws BallerinaFTPException {
 
         CompletableFuture<Object> future = BRuntime.markAsync();
-        FTPClientListener connectorListener = new FTPClientListener(future, remoteFileSystemBaseMessage ->
-                FTPClientHelper.executeIsDirectoryAction(remoteFileSystemBaseMessage, future));
-        RemoteFileSystemConnectorFactory fileSystemConnectorFactory = new RemoteFileSystemConnectorFactoryImpl();
-        VFSClientConnector connector;
-        try {
-            connector = fileSystemConnectorFactory.createVFSClientConnector(propertyMap, connectorListener);
-        } catch (RemoteFileSystemConnectorException e) {
-            throw new BallerinaFTPException(e.getMessage());
-        }
-        connector.send(null, FtpAction.ISDIR);
+        executeRead(clientConnector, filePath, FtpAction.ISDIR, false, future,
+                (message, host, attemptFuture) -> FTPClientHelper.executeIsDirectoryAction(message, attemptFuture),
+                result -> { });
         return false;
     }
 
     public static ArrayValue list(ObjectValue clientConnector, String filePath) throws BallerinaFTPException {
 
-        String url = FTPUtil.createUrl(clientConnector, filePath);
-        Map<String, String> propertyMap = new HashMap<>(
-                (Map<String, String>) clientConnector.getNativeData(FTPConstants.PROPERTY_MAP));
-        propertyMap.put(FTPConstants.PROPERTY_URI, url);
+        return list(clientConnector, filePath, FTPListFilter.ALL);
+    }
+
+    public static ArrayValue listWithFilter(ObjectValue clientConnector, String filePath,
+                                            MapValue<Object, Object> filter) throws BallerinaFTPException {
+
+        return list(clientConnector, filePath, FTPListFilter.create(filter));
+    }
+
+    private static ArrayValue list(ObjectValue clientConnector, String filePath, FTPListFilter filter)
+            throws BallerinaFTPException {
 
         CompletableFuture<Object> future = BRuntime.markAsync();
-        FTPClientListener connectorListener = new FTPClientListener(future, remoteFileSystemBaseMessage ->
-                FTPClientHelper.executeListAction(remoteFileSystemBaseMessage, future));
-        RemoteFileSystemConnectorFactory fileSystemConnectorFactory = new RemoteFileSystemConnectorFactoryImpl();
-        VFSClientConnector connector;
-        try {
-            connector = fileSystemConnectorFactory.createVFSClientConnector(propertyMap, connectorListener);
-        } catch (RemoteFileSystemConnectorException e) {
-            throw new BallerinaFTPException(e.getMessage());
+        if (FTPConstants.LISTING_MODE_MLSD.equals(
+                clientConnector.getNativeData(FTPConstants.ENDPOINT_CONFIG_LISTING_MODE))) {
+            executeSessionAction(clientConnector, future, (host, cancellation) -> {
+                FTPSession session = FTPSessionFactory.createSession(clientConnector, host);
+                cancellation.register(session);
+                try {
+                    return FTPClientHelper.createFileInfoArray(clientConnector, host, filePath, session.list(filePath,
+                            filter.getServerGlob(), FTPClientHelper.isMachineListing(host, session)), filter);
+                } catch (IOException e) {
+                    throw new BallerinaFTPException(e.getMessage(), e);
+                } finally {
+                    closeSession(session);
+                }
+            });
+            return null;
         }
-        connector.send(null, FtpAction.LIST);
+        executeRead(clientConnector, filePath, FtpAction.LIST, false, future,
+                (message, host, attemptFuture) -> FTPClientHelper.executeListAction(message, attemptFuture, filter),
+                result -> { });
         return null;
     }
 
-    public static void mkdir(ObjectValue clientConnector, String path) throws BallerinaFTPException {
+    public static ObjectValue walk(ObjectValue clientConnector, String root, long maxDepth,
+                                   MapValue<Object, Object> filter, long parallelism) throws BallerinaFTPException {
 
-        String url = FTPUtil.createUrl(clientConnector, path);
-        Map<String, String> propertyMap = new HashMap<>(
-                (Map<String, String>) clientConnector.getNativeData(FTPConstants.PROPERTY_MAP));
-        propertyMap.put(FTPConstants.PROPERTY_URI, url);
+        if (maxDepth == 0 || maxDepth > Integer.MAX_VALUE) {
+            throw new BallerinaFTPException("Invalid maximum depth " + maxDepth + " for the walk.");
+        }
+        if (parallelism <= 0 || parallelism > MAX_WALK_PARALLELISM) {
+            throw new BallerinaFTPException("Invalid parallelism " + parallelism + " for the walk. The value should be "
+                    + "between 1 and " + MAX_WALK_PARALLELISM + ".");
+        }
+        FTPListFilter listFilter = FTPListFilter.create(filter);
+        BArrayType fileInfoArrayType = new BArrayType(FTPUtil.getFileInfoType());
+        return FTPFileWalker.createFileWalker(new FTPFileWalker(
+                (path, future) -> executeSessionAction(clientConnector, future,
+                        (host, cancellation) -> listWalkedDirectory(clientConnector, host, cancellation, path,
+                                listFilter)),
+                batch -> new ArrayValue(batch.toArray(), fileInfoArrayType), root, (int) maxDepth, (int) parallelism));
+    }
 
-        CompletableFuture<Object> future = BRuntime.markAsync();
-        FTPClientListener connectorListener = new FTPClientListener(future,
-                remoteFileSystemBaseMessage -> FTPClientHelper.executeGenericAction(future));
-        RemoteFileSystemConnectorFactory fileSystemConnectorFactory = new RemoteFileSystemConnectorFactoryImpl();
-        VFSClientConnector connector;
+    private static FTPFileWalker.Listing listWalkedDirectory(ObjectValue clientConnector, FTPHostSelector.Host host,
+                                                             FTPCancellation cancellation, String path,
+                                                             FTPListFilter filter) throws BallerinaFTPException {
+
+        FTPSession session = FTPSessionFactory.createSession(clientConnector, host);
+        cancellation.register(session);
         try {
-            connector = fileSystemConnectorFactory.createVFSClientConnector(propertyMap, connectorListener);
-        } catch (RemoteFileSystemConnectorException e) {
-            throw new BallerinaFTPException(e.getMessage());
+            Map<String, FTPFileStat> children = session.list(path, null, FTPClientHelper.isMachineListing(host,
+                    session));
+            String parent = path.endsWith("/") ? path : path + "/";
+            List<String> directories = new ArrayList<>();
+            List<Object> entries = new ArrayList<>();
+            for (Map.Entry<String, FTPFileStat> child : children.entrySet()) {
+                String childPath = parent + child.getKey();
+                if (child.getValue().isDirectory()) {
+                    directories.add(childPath);
+                }
+                if (filter.matches(child.getKey(), child.getValue())) {
+                    entries.add(FTPClientHelper.createFileInfo(clientConnector, host, childPath, child.getValue()));
+                }
+            }
+            return new FTPFileWalker.Listing(directories, entries);
+        } catch (IOException e) {
+            throw new BallerinaFTPException(e.getMessage(), e);
+        } finally {
+            closeSession(session);
         }
-        connector.send(null, FtpAction.MKDIR);
-        future.complete(null);
+    }
+
+    public static void mkdir(ObjectValue clientConnector, String path) throws BallerinaFTPException {
+
+        executeGenericAction(clientConnector, getPropertyMap(clientConnector, path), FtpAction.MKDIR);
     }
 
     public static void rename(ObjectValue clientConnector, String origin, String destination)
             throws BallerinaFTPException {
 
-        Map<String, String> propertyMap = new HashMap<>(
-                (Map<String, String>) clientConnector.getNativeData(FTPConstants.PROPERTY_MAP));
-        propertyMap.put(FTPConstants.PROPERTY_URI, FTPUtil.createUrl(clientConnector, origin));
+        Map<String, String> propertyMap = getPropertyMap(clientConnector, origin);
         propertyMap.put(FTPConstants.PROPERTY_DESTINATION, FTPUtil.createUrl(clientConnector, destination));
+        executeGenericAction(clientConnector, propertyMap, FtpAction.RENAME);
+    }
+
+    public static void rmdir(ObjectValue clientConnector, String filePath) throws BallerinaFTPException {
+
+        executeGenericAction(clientConnector, getPropertyMap(clientConnector, filePath), FtpAction.RMDIR);
+    }
+
+    public static int size(ObjectValue clientConnector, String filePath) throws BallerinaFTPException {
 
         CompletableFuture<Object> future = BRuntime.markAsync();
-        FTPClientListener connectorListener = new FTPClientListener(future,
-                remoteFileSystemBaseMessage -> FTPClientHelper.executeGenericAction(future));
-        RemoteFileSystemConnectorFactory fileSystemConnectorFactory = new RemoteFileSystemConnectorFactoryImpl();
-        VFSClientConnector connector;
-        try {
-            connector = fileSystemConnectorFactory.createVFSClientConnector(propertyMap, connectorListener);
-        } catch (RemoteFileSystemConnectorException e) {
-            throw new BallerinaFTPException(e.getMessage());
-        }
-        connector.send(null, FtpAction.RENAME);
-        future.complete(null);
+        executeRead(clientConnector, filePath, FtpAction.SIZE, false, future,
+                (message, host, attemptFuture) -> FTPClientHelper.executeSizeAction(message, attemptFuture),
+                result -> { });
+        return 0;
     }
 
-    public static void rmdir(ObjectValue clientConnector, String filePath) throws BallerinaFTPException {
+    private static Map<String, String> getPropertyMap(ObjectValue clientConnector, String filePath)
+            throws BallerinaFTPException {
+
+        return createPropertyMap(clientConnector, FTPUtil.createUrl(clientConnector, filePath));
+    }
+
+    private static Map<String, String> getPropertyMap(ObjectValue clientConnector, FTPHostSelector.Host host,
+                                                      String filePath) throws BallerinaFTPException {
+
+        return createPropertyMap(clientConnector,
+                FTPUtil.createUrl(clientConnector, host.getName(), host.getPort(), filePath));
+    }
+
+    private static Map<String, String> createPropertyMap(ObjectValue clientConnector, String url) {
 
-        String url = FTPUtil.createUrl(clientConnector, filePath);
         Map<String, String> propertyMap = new HashMap<>(
                 (Map<String, String>) clientConnector.getNativeData(FTPConstants.PROPERTY_MAP));
         propertyMap.put(FTPConstants.PROPERTY_URI, url);
+        return propertyMap;
+    }
+
+    private static void executeGenericAction(ObjectValue clientConnector, Map<String, String> propertyMap,
+                                             FtpAction action) {
 
         CompletableFuture<Object> future = BRuntime.markAsync();
         FTPClientListener connectorListener = new FTPClientListener(future,
                 remoteFileSystemBaseMessage -> FTPClientHelper.executeGenericAction(future));
-        RemoteFileSystemConnectorFactory fileSystemConnectorFactory = new RemoteFileSystemConnectorFactoryImpl();
-        VFSClientConnector connector;
+        execute(clientConnector, propertyMap, action, null, connectorListener, false);
+    }
+
+    /**
+     * Executes an idempotent read action. The action is hedged if a hedging policy is configured for the client.
+     *
+     * @param clientConnector the client endpoint
+     * @param filePath        the path of the resource
+     * @param action          the action
+     * @param bulk            whether the action belongs to the bulk priority class
+     * @param future          the future of the calling strand
+     * @param handler         the handler of the message of the transport
+     * @param discard         releases the result of a hedged attempt which lost the race
+     */
+    private static void executeRead(ObjectValue clientConnector, String filePath, FtpAction action, boolean bulk,
+                                    CompletableFuture<Object> future, ReadHandler handler, Consumer<Object> discard)
+            throws BallerinaFTPException {
+
+        FTPHedgingPolicy hedging = getHedgingPolicy(clientConnector);
+        Set<FTPHostSelector.Host> attempted = ConcurrentHashMap.newKeySet();
+        if (hedging == null) {
+            executeRead(clientConnector, filePath, action, bulk, future, handler, attempted);
+            return;
+        }
+        FTPHostSelector selector = getHostSelector(clientConnector);
+        hedging.execute(future, (attemptFuture, isHedge) -> {
+            if (!isHedge) {
+                executeRead(clientConnector, filePath, action, bulk, attemptFuture, handler, attempted);
+                return;
+            }
+            // The hedge goes to a host which the first attempt has not used, if there is one
+            Set<FTPHostSelector.Host> hedgeAttempted = ConcurrentHashMap.newKeySet();
+            if (attempted.size() < selector.size()) {
+                hedgeAttempted.addAll(attempted);
+            }
+            executeRead(clientConnector, filePath, action, bulk, attemptFuture, handler, hedgeAttempted);
+        }, discard);
+    }
+
+    /**
+     * Sends a read action to one of the hosts of the client. If a connection to the selected host cannot be
+     * established, the host is marked unhealthy and the action is sent to another host, until every host has been
+     * attempted.
+     *
+     * @param clientConnector the client endpoint
+     * @param filePath        the path of the resource
+     * @param action          the action
+     * @param bulk            whether the action belongs to the bulk priority class
+     * @param future          the future of the calling strand
+     * @param handler         the handler of the message of the transport
+     * @param attempted       the hosts already attempted by the action
+     */
+    private static void executeRead(ObjectValue clientConnector, String filePath, FtpAction action, boolean bulk,
+                                    CompletableFuture<Object> future, ReadHandler handler,
+                                    Set<FTPHostSelector.Host> attempted) throws BallerinaFTPException {
+
+        FTPHostSelector selector = getHostSelector(clientConnector);
+        FTPHostSelector.Host host = selector.select(attempted);
+        attempted.add(host);
+        Map<String, String> propertyMap = getPropertyMap(clientConnector, host, filePath);
+        FTPClientListener connectorListener = new FTPClientListener(future, remoteFileSystemBaseMessage -> {
+            selector.markHealthy(host);
+            return handler.handle(remoteFileSystemBaseMessage, host, future);
+        });
+        connectorListener.setErrorHandler(error -> {
+            if (!FTPHostSelector.isConnectFailure(error)) {
+                return false;
+            }
+            selector.markUnhealthy(host);
+            if (attempted.size() >= selector.size()) {
+                return false;
+            }
+            log.warn("Unable to connect to " + host + ", retrying on another host: " + error.getMessage());
+            try {
+                executeRead(clientConnector, filePath, action, bulk, future, handler, attempted);
+                return true;
+            } catch (BallerinaFTPException e) {
+                return false;
+            }
+        });
+        host.acquire();
+        connectorListener.addCompletionCallback(host::release);
+        execute(clientConnector, propertyMap, action, null, connectorListener, bulk);
+    }
+
+    /**
+     * Sends an action through the VFS transport. The future of the calling strand is completed by the transport
+     * callbacks of the given listener, and the in-flight slot of the operation is released once the transport has
+     * returned.
+     * <p>
+     * The command timeout bounds the connection and the commands of the action. The content of an upload can take
+     * much longer to transfer, so the data phase of an upload is only aborted if it makes no progress for the idle
+     * timeout.
+     *
+     * @param clientConnector   the client endpoint
+     * @param propertyMap       the transport properties of the action
+     * @param action            the action
+     * @param content           the content to be uploaded, if any
+     * @param connectorListener the listener which completes the future of the calling strand
+     * @param bulk              whether the action belongs to the bulk priority class
+     */
+    private static void execute(ObjectValue clientConnector, Map<String, String> propertyMap, FtpAction action,
+                                InputStream content, FTPClientListener connectorListener, boolean bulk) {
+
+        FTPOperationLimiter limiter = getLimiter(clientConnector);
+        long commandTimeout = getTimeouts(clientConnector).getCommandTimeout();
+        limiter.submit(() -> {
+            FTPCancellation cancellation = new FTPCancellation(getExecutor(clientConnector));
+            connectorListener.addCompletionCallback(cancellation::complete);
+            connectorListener.setAbandonAction(cancellation::cancel);
+            Runnable onTimeout = () -> {
+                cancellation.cancel();
+                connectorListener.cancel(new BallerinaFTPException(
+                        "The " + action + " operation did not complete within " + commandTimeout + " ms."));
+            };
+            cancellation.scheduleTimeout(commandTimeout, onTimeout);
+            RemoteFileSystemMessage message = content == null ? null : new RemoteFileSystemMessage(
+                    watchUpload(clientConnector, action, content, cancellation, connectorListener, onTimeout));
+            try {
+                getExecutor(clientConnector).execute(() -> {
+                    // The slot is held until the transport returns, since nothing else can abort a transfer the
+                    // transport does not give up on, even after the operation timed out
+                    try {
+                        if (cancellation.isCancelled()) {
+                            return;
+                        }
+                        cancellation.enter();
+                        try {
+                            RemoteFileSystemConnectorFactory fileSystemConnectorFactory =
+                                    new RemoteFileSystemConnectorFactoryImpl();
+                            VFSClientConnector connector = fileSystemConnectorFactory.createVFSClientConnector(
+                                    propertyMap, connectorListener);
+                            connector.send(message, action);
+                        } catch (RemoteFileSystemConnectorException | RuntimeException e) {
+                            connectorListener.onError(e);
+                        } finally {
+                            cancellation.exit();
+                        }
+                    } finally {
+                        limiter.release();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                limiter.release();
+                connectorListener.onError(e);
+            }
+        }, bulk);
+    }
+
+    /**
+     * Moves the timeout of an upload from the command timeout to the idle timeout while the transport reads the
+     * content into the data connection.
+     *
+     * @param clientConnector   the client endpoint
+     * @param action            the upload action
+     * @param content           the content to be uploaded
+     * @param cancellation      the cancellation of the upload
+     * @param connectorListener the listener which completes the future of the calling strand
+     * @param onCommandTimeout  the task which aborts the upload once the command timeout expires
+     * @return the content, watched for progress
+     */
+    private static InputStream watchUpload(ObjectValue clientConnector, FtpAction action, InputStream content,
+                                           FTPCancellation cancellation, FTPClientListener connectorListener,
+                                           Runnable onCommandTimeout) {
+
+        FTPTimeouts timeouts = getTimeouts(clientConnector);
+        return new FTPUploadProgressInputStream(content, timeouts.getIdleTimeout(),
+                new FTPUploadProgressInputStream.Observer() {
+
+                    @Override
+                    public void started() {
+
+                        cancellation.clearTimeout();
+                    }
+
+                    @Override
+                    public void ended() {
+
+                        // The final reply of the upload is bounded by the command timeout again
+                        cancellation.scheduleTimeout(timeouts.getCommandTimeout(), onCommandTimeout);
+                    }
+
+                    @Override
+                    public void stalled() {
+
+                        getExecutor(clientConnector).release(() -> {
+                            cancellation.cancel();
+                            connectorListener.cancel(new BallerinaFTPException("The " + action
+                                    + " operation made no progress for " + timeouts.getIdleTimeout() + " ms."));
+                        });
+                    }
+                });
+    }
+
+    /**
+     * Executes an interactive action which uses an {@link FTPSession} instead of the VFS transport. If a connection to
+     * the selected host cannot be established, the action is retried on another host.
+     *
+     * @param clientConnector the client endpoint
+     * @param future          the future of the calling strand
+     * @param action          the action, which returns the result to complete the future with
+     */
+    private static void executeSessionAction(ObjectValue clientConnector, CompletableFuture<Object> future,
+                                             SessionAction action) {
+
+        executeSessionAction(clientConnector, false, future, action);
+    }
+
+    /**
+     * Executes an action which uses an {@link FTPSession} in the given priority class. If a connection to the
+     * selected host cannot be established, the action is retried on another host.
+     *
+     * @param clientConnector the client endpoint
+     * @param bulk            whether the action belongs to the bulk priority class
+     * @param future          the future of the calling strand
+     * @param action          the action, which returns the result to complete the future with
+     */
+    private static void executeSessionAction(ObjectValue clientConnector, boolean bulk,
+                                             CompletableFuture<Object> future, SessionAction action) {
+
+        executeSession(clientConnector, bulk, getTimeouts(clientConnector).getCommandTimeout(), future,
+                cancellation -> executeOnHosts(clientConnector, action, cancellation));
+    }
+
+    /**
+     * Executes an operation which uses {@link FTPSession}s instead of the VFS transport, on an I/O thread of the
+     * client once a slot of its priority class is free. The operation fails if it does not complete within the
+     * timeout.
+     *
+     * @param clientConnector the client endpoint
+     * @param bulk            whether the operation belongs to the bulk priority class
+     * @param timeout         the time allowed for the operation, or zero for no limit
+     * @param future          the future of the calling strand
+     * @param task            the operation, which returns the result to complete the future with
+     */
+    private static void executeSession(ObjectValue clientConnector, boolean bulk, long timeout,
+                                       CompletableFuture<Object> future, SessionTask task) {
+
+        FTPOperationLimiter limiter = getLimiter(clientConnector);
+        limiter.submit(() -> {
+            FTPCancellation cancellation = new FTPCancellation(getExecutor(clientConnector));
+            cancellation.scheduleTimeout(timeout, () -> {
+                cancellation.cancel();
+                future.complete(FTPUtil.createError("The operation did not complete within " + timeout + " ms."));
+            });
+            try {
+                getExecutor(clientConnector).execute(() -> {
+                    try {
+                        Object result;
+                        cancellation.enter();
+                        try {
+                            result = task.execute(cancellation);
+                        } finally {
+                            cancellation.exit();
+                            cancellation.complete();
+                        }
+                        if (!future.complete(result)) {
+                            // The operation timed out while the result was being prepared
+                            FTPClientHelper.closeChannel(result);
+                        }
+                    } catch (BallerinaFTPException | RuntimeException e) {
+                        log.error(e.getMessage(), e);
+                        future.complete(FTPUtil.createError(e.getMessage()));
+                    } finally {
+                        limiter.release();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                log.error(e.getMessage(), e);
+                cancellation.complete();
+                future.complete(FTPUtil.createError(e.getMessage()));
+                limiter.release();
+            }
+        }, bulk);
+    }
+
+    private static Object executeOnHosts(ObjectValue clientConnector, SessionAction action,
+                                         FTPCancellation cancellation) throws BallerinaFTPException {
+
+        FTPHostSelector selector = getHostSelector(clientConnector);
+        Set<FTPHostSelector.Host> attempted = new HashSet<>();
+        while (true) {
+            FTPHostSelector.Host host = selector.select(attempted);
+            attempted.add(host);
+            host.acquire();
+            try {
+                Object result = action.execute(host, cancellation);
+                selector.markHealthy(host);
+                return result;
+            } catch (BallerinaFTPException e) {
+                if (!FTPHostSelector.isConnectFailure(e) || cancellation.isCancelled()) {
+                    throw e;
+                }
+                selector.markUnhealthy(host);
+                if (attempted.size() >= selector.size()) {
+                    throw e;
+                }
+                log.warn("Unable to connect to " + host + ", retrying on another host: " + e.getMessage());
+            } finally {
+                host.release();
+            }
+        }
+    }
+
+    private static FTPOperationLimiter getLimiter(ObjectValue clientConnector) {
+
+        return (FTPOperationLimiter) clientConnector.getNativeData(FTPConstants.NATIVE_OPERATION_LIMITER);
+    }
+
+    private static FTPIOExecutor getExecutor(ObjectValue clientConnector) {
+
+        return (FTPIOExecutor) clientConnector.getNativeData(FTPConstants.NATIVE_IO_EXECUTOR);
+    }
+
+    private static FTPHostSelector getHostSelector(ObjectValue clientConnector) {
+
+        return (FTPHostSelector) clientConnector.getNativeData(FTPConstants.NATIVE_HOST_SELECTOR);
+    }
+
+    private static FTPBandwidthShaper getBandwidthShaper(ObjectValue clientConnector) {
+
+        return (FTPBandwidthShaper) clientConnector.getNativeData(FTPConstants.NATIVE_BANDWIDTH_SHAPER);
+    }
+
+    private static boolean isBulk(String priority) {
+
+        return FTPConstants.PRIORITY_BULK.equals(priority);
+    }
+
+    /**
+     * Gets the decorator applied to the content streams read from the server, which enforces the idle timeout and
+     * the bandwidth limits of the client. A decorated stream counts as an operation in flight until it is read to
+     * its end, fails or is closed. A stream which is not read for the idle timeout is closed, so that a dropped
+     * channel does not keep its slot.
+     *
+     * @param clientConnector the client endpoint
+     * @param bulk            whether the transfer belongs to the bulk priority class
+     * @return the decorator
+     */
+    private static UnaryOperator<InputStream> getTransferStream(ObjectValue clientConnector, boolean bulk) {
+
+        int idleTimeout = getTimeouts(clientConnector).getIdleTimeout();
+        FTPBandwidthShaper shaper = getBandwidthShaper(clientConnector);
+        FTPOperationLimiter limiter = getLimiter(clientConnector);
+        FTPIOExecutor executor = getExecutor(clientConnector);
+        return in -> {
+            // The operation completes once the stream is handed over, the transfer keeps a slot until it ends
+            limiter.hold();
+            return shaper.pace(FTPIdleTimeoutInputStream.wrap(
+                    new FTPCompletionInputStream(in, limiter::release), idleTimeout, executor), bulk, executor);
+        };
+    }
+
+    private static FTPTimeouts getTimeouts(ObjectValue clientConnector) {
+
+        return (FTPTimeouts) clientConnector.getNativeData(FTPConstants.NATIVE_TIMEOUTS);
+    }
+
+    private static SFTPPipeline getSFTPPipeline(ObjectValue clientConnector) {
+
+        return (SFTPPipeline) clientConnector.getNativeData(FTPConstants.NATIVE_SFTP_PIPELINE);
+    }
+
+    private static FTPHedgingPolicy getHedgingPolicy(ObjectValue clientConnector) {
+
+        return (FTPHedgingPolicy) clientConnector.getNativeData(FTPConstants.NATIVE_HEDGING_POLICY);
+    }
+
+    private static InputStream getUploadStream(MapValue<Object, Object> inputContent)
+            throws BallerinaFTPException, IOException {
+
+        if (inputContent.getBooleanValue(FTPConstants.INPUT_CONTENT_IS_FILE_KEY)) {
+            ObjectValue fileContent = inputContent.getObjectValue(FTPConstants.INPUT_CONTENT_FILE_CONTENT_KEY);
+            Channel byteChannel = (Channel) fileContent.getNativeData(IOConstants.BYTE_CHANNEL_NAME);
+            return byteChannel.getInputStream();
+        }
+        Charset charset;
         try {
-            connector = fileSystemConnectorFactory.createVFSClientConnector(propertyMap, connectorListener);
-        } catch (RemoteFileSystemConnectorException e) {
-            throw new BallerinaFTPException(e.getMessage());
+            charset = Charset.forName(inputContent.getStringValue(FTPConstants.INPUT_CONTENT_CHARSET_KEY));
+        } catch (IllegalArgumentException e) {
+            throw new BallerinaFTPException("Unsupported charset for the content: " + e.getMessage(), e);
+        }
+        if (inputContent.getBooleanValue(FTPConstants.INPUT_CONTENT_IS_JSON_KEY)) {
+            return FTPStreamingContent.serializeJson(
+                    inputContent.get(FTPConstants.INPUT_CONTENT_JSON_CONTENT_KEY), charset);
+        }
+        Object xmlContent = inputContent.get(FTPConstants.INPUT_CONTENT_XML_CONTENT_KEY);
+        if (xmlContent != null) {
+            return FTPStreamingContent.serializeXml((XMLValue) xmlContent, charset);
         }
-        connector.send(null, FtpAction.RMDIR);
-        future.complete(null);
+        String textContent = inputContent.getStringValue(FTPConstants.INPUT_CONTENT_TEXT_CONTENT_KEY);
+        return new ByteArrayInputStream(textContent.getBytes(charset));
     }
 
-    public static int size(ObjectValue clientConnector, String filePath) throws BallerinaFTPException {
+    private static String getCodec(ObjectValue clientConnector, String filePath) throws BallerinaFTPException {
 
-        String url = FTPUtil.createUrl(clientConnector, filePath);
-        Map<String, String> propertyMap = new HashMap<>(
-                (Map<String, String>) clientConnector.getNativeData(FTPConstants.PROPERTY_MAP));
-        propertyMap.put(FTPConstants.PROPERTY_URI, url);
-        propertyMap.put(FTPConstants.FTP_PASSIVE_MODE, Boolean.TRUE.toString());
+        return FTPCompression.resolveCodec(
+                (String) clientConnector.getNativeData(FTPConstants.ENDPOINT_CONFIG_COMPRESSION), filePath);
+    }
 
-        CompletableFuture<Object> future = BRuntime.markAsync();
-        FTPClientListener connectorListener = new FTPClientListener(future, remoteFileSystemBaseMessage ->
-                FTPClientHelper.executeSizeAction(remoteFileSystemBaseMessage, future));
-        RemoteFileSystemConnectorFactory fileSystemConnectorFactory = new RemoteFileSystemConnectorFactoryImpl();
-        VFSClientConnector connector;
+    /**
+     * Gets the checksum of a file calculated by the server, if the server supports it.
+     *
+     * @param clientConnector the client endpoint
+     * @param host            the host which served the transfer of the file, or null for the primary host
+     * @param filePath        the path of the file
+     * @param algorithm       the checksum algorithm
+     * @param cancellation    the cancellation of the operation, which aborts the session on timeout
+     * @return the checksum, or null if the server did not provide it
+     */
+    private static String getRemoteChecksum(ObjectValue clientConnector, FTPHostSelector.Host host, String filePath,
+                                            String algorithm, FTPCancellation cancellation) {
+
+        FTPSession session = null;
         try {
-            connector = fileSystemConnectorFactory.createVFSClientConnector(propertyMap, connectorListener);
-        } catch (RemoteFileSystemConnectorException e) {
-            throw new BallerinaFTPException(e.getMessage());
+            session = host == null ? FTPSessionFactory.createSession(clientConnector)
+                    : FTPSessionFactory.createSession(clientConnector, host);
+            cancellation.register(session);
+            return session.checksum(filePath, algorithm);
+        } catch (BallerinaFTPException | IOException e) {
+            log.warn("Unable to get the checksum of " + filePath + " from the server: " + e.getMessage());
+            return null;
+        } finally {
+            if (session != null) {
+                closeSession(session);
+            }
         }
-        connector.send(null, FtpAction.SIZE);
-        return 0;
+    }
+
+    private static void closeSession(FTPSession session) {
+
+        try {
+            session.close();
+        } catch (IOException e) {
+            log.warn("Error while closing the FTP session: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Handles the message of the transport for a read action served by the given host, by completing the given
+     * future.
+     */
+    @FunctionalInterface
+    private interface ReadHandler {
+
+        boolean handle(RemoteFileSystemBaseMessage message, FTPHostSelector.Host host,
+                       CompletableFuture<Object> future);
+    }
+
+    /**
+     * An operation executed on {@link FTPSession}s, which registers the sessions it opens with the cancellation of
+     * the operation.
+     */
+    @FunctionalInterface
+    private interface SessionTask {
+
+        Object execute(FTPCancellation cancellation) throws BallerinaFTPException;
+    }
+
+    /**
+     * An action executed on an {@link FTPSession} to the given host. The sessions opened by the action are registered
+     * with the cancellation of the operation, so that a timeout aborts them.
+     */
+    @FunctionalInterface
+    private interface SessionAction {
+
+        Object execute(FTPHostSelector.Host host, FTPCancellation cancellation) throws BallerinaFTPException;
     }
 }
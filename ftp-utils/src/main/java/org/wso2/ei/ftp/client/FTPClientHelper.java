@@ -25,10 +25,12 @@ import org.ballerinalang.jvm.types.BPackage;
 import org.ballerinalang.jvm.values.ArrayValue;
 import org.ballerinalang.jvm.values.MapValue;
 import org.ballerinalang.jvm.values.ObjectValue;
+import org.ballerinalang.jvm.values.ValueCreator;
 import org.ballerinalang.stdlib.io.channels.base.Channel;
 import org.ballerinalang.stdlib.io.utils.IOConstants;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.wso2.ei.ftp.util.BallerinaFTPException;
 import org.wso2.ei.ftp.util.FTPConstants;
 import org.wso2.ei.ftp.util.FTPUtil;
 import org.wso2.transport.remotefilesystem.message.FileInfo;
@@ -43,8 +45,10 @@ import java.nio.channels.Channels;
 import java.nio.channels.ReadableByteChannel;
 import java.nio.channels.WritableByteChannel;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.UnaryOperator;
 
 /**
  * Contains helper methods to invoke FTP actions
@@ -56,6 +60,8 @@ class FTPClientHelper {
     private static final String PACKAGE_IO = "io";
 
     private static final Logger log = LoggerFactory.getLogger(FTPClientHelper.class);
+    private static volatile ValueCreator valueCreator;
+    private static BArrayType zipEntryArrayType;
 
     private FTPClientHelper() {
         // private constructor
@@ -68,21 +74,90 @@ class FTPClientHelper {
     }
 
     static boolean executeGetAction(RemoteFileSystemBaseMessage remoteFileSystemBaseMessage,
-                                    CompletableFuture<Object> future) {
+                                    CompletableFuture<Object> future, String codec,
+                                    UnaryOperator<InputStream> transferStream, FTPChecksum checksum,
+                                    ObjectValue clientConnector, FTPHostSelector.Host host, String filePath) {
 
         if (remoteFileSystemBaseMessage instanceof RemoteFileSystemMessage) {
-            final InputStream in = ((RemoteFileSystemMessage) remoteFileSystemBaseMessage).getInputStream();
-            ByteChannel byteChannel = new FTPByteChannel(in);
-            Channel channel = new FTPChannel(byteChannel);
+            final InputStream in = transferStream.apply(
+                    ((RemoteFileSystemMessage) remoteFileSystemBaseMessage).getInputStream());
+            try {
+                ObjectValue channel = createGetChannel(in, codec, checksum, clientConnector, host, filePath);
+                if (!future.complete(channel)) {
+                    // The operation was cancelled while the channel was being created
+                    closeChannel(channel);
+                }
+            } catch (IOException e) {
+                log.error(e.getMessage(), e);
+                closeStream(in);
+                future.complete(FTPUtil.createError("Unable to decompress the content: " + e.getMessage()));
+            }
+        }
+        return true;
+    }
 
-            ObjectValue channelStruct = BallerinaValues.createObjectValue(
-                    new BPackage(PACKAGE_BALLERINA, PACKAGE_IO), READABLE_BYTE_CHANNEL);
-            channelStruct.addNativeData(IOConstants.BYTE_CHANNEL_NAME, channel);
-            future.complete(channelStruct);
+    /**
+     * Creates the channel returned by a get operation, which decompresses the content and calculates its checksum
+     * if requested.
+     *
+     * @param in              the content stream, already decorated by the transfer stream of the client
+     * @param codec           the codec of the content
+     * @param checksum        the checksum to calculate, or null
+     * @param clientConnector the client endpoint
+     * @param host            the host which serves the content, or null for the primary host
+     * @param filePath        the path of the file
+     * @return the channel
+     * @throws IOException if the content could not be decompressed
+     */
+    static ObjectValue createGetChannel(InputStream in, String codec, FTPChecksum checksum,
+                                        ObjectValue clientConnector, FTPHostSelector.Host host, String filePath)
+            throws IOException {
+
+        if (checksum == null) {
+            return createReadableByteChannel(FTPCompression.decompress(in, codec));
+        }
+        ObjectValue channel = createReadableByteChannel(FTPCompression.decompress(checksum.wrap(in), codec));
+        channel.addNativeData(FTPConstants.NATIVE_CHECKSUM, checksum);
+        channel.addNativeData(FTPConstants.NATIVE_CLIENT, clientConnector);
+        channel.addNativeData(FTPConstants.NATIVE_FILE_PATH, filePath);
+        if (host != null) {
+            channel.addNativeData(FTPConstants.NATIVE_HOST, host);
+        }
+        return channel;
+    }
+
+    static boolean executeGetRecordsAction(RemoteFileSystemBaseMessage remoteFileSystemBaseMessage,
+                                           CompletableFuture<Object> future, MapValue<Object, Object> config,
+                                           String codec, UnaryOperator<InputStream> transferStream) {
+
+        if (remoteFileSystemBaseMessage instanceof RemoteFileSystemMessage) {
+            final InputStream in = transferStream.apply(
+                    ((RemoteFileSystemMessage) remoteFileSystemBaseMessage).getInputStream());
+            try {
+                ObjectValue reader = FTPRecordReader.createRecordReader(FTPCompression.decompress(in, codec), config);
+                if (!future.complete(reader)) {
+                    closeRecordReader(reader);
+                }
+            } catch (BallerinaFTPException | IOException e) {
+                log.error(e.getMessage(), e);
+                closeStream(in);
+                future.complete(FTPUtil.createError(e.getMessage()));
+            }
         }
         return true;
     }
 
+    static ObjectValue createReadableByteChannel(InputStream in) {
+
+        ByteChannel byteChannel = new FTPByteChannel(in);
+        Channel channel = new FTPChannel(byteChannel);
+
+        ObjectValue channelStruct = BallerinaValues.createObjectValue(
+                new BPackage(PACKAGE_BALLERINA, PACKAGE_IO), READABLE_BYTE_CHANNEL);
+        channelStruct.addNativeData(IOConstants.BYTE_CHANNEL_NAME, channel);
+        return channelStruct;
+    }
+
     static boolean executeIsDirectoryAction(RemoteFileSystemBaseMessage remoteFileSystemBaseMessage,
                                             CompletableFuture<Object> future) {
 
@@ -93,7 +168,7 @@ class FTPClientHelper {
     }
 
     static boolean executeListAction(RemoteFileSystemBaseMessage remoteFileSystemBaseMessage,
-                                     CompletableFuture<Object> future) {
+                                     CompletableFuture<Object> future, FTPListFilter filter) {
 
         if (remoteFileSystemBaseMessage instanceof RemoteFileSystemMessage) {
             RemoteFileSystemMessage message = (RemoteFileSystemMessage) remoteFileSystemBaseMessage;
@@ -104,6 +179,10 @@ class FTPClientHelper {
             for (Map.Entry<String, FileInfo> entry : childrenInfo.entrySet()) {
                 Map<String, Object> fileInfoParams = new HashMap<>();
                 FileInfo fileInfo = entry.getValue();
+                if (!filter.matches(fileInfo.getBaseName(), fileInfo.isFolder(), fileInfo.getFileSize(),
+                        fileInfo.getLastModifiedTime())) {
+                    continue;
+                }
                 fileInfoParams.put("path", fileInfo.getPath());
                 fileInfoParams.put("size", fileInfo.getFileSize());
                 fileInfoParams.put("lastModifiedTimestamp", fileInfo.getLastModifiedTime());
@@ -119,6 +198,7 @@ class FTPClientHelper {
                 fileInfoParams.put("isHidden", fileInfo.isHidden());
                 fileInfoParams.put("isReadable", fileInfo.isReadable());
                 fileInfoParams.put("isWritable", fileInfo.isWritable());
+                fileInfoParams.put("permissionsKnown", true);
                 fileInfoParams.put("depth", fileInfo.getFileName().getDepth());
                 fileInfoParams.put("scheme", fileInfo.getFileName().getScheme());
                 fileInfoParams.put("uri", fileInfo.getFileName().getURI());
@@ -140,6 +220,140 @@ class FTPClientHelper {
         return true;
     }
 
+    /**
+     * Checks whether a host supports machine-readable listings. The features of the server are only queried by the
+     * first listing sent to the host, and the result is kept for the lifetime of the endpoint.
+     *
+     * @param host    the host
+     * @param session a session to the host
+     * @return true if machine-readable listings are supported
+     * @throws IOException if the features of the server could not be retrieved
+     */
+    static boolean isMachineListing(FTPHostSelector.Host host, FTPSession session) throws IOException {
+
+        Boolean machineListing = host.getMachineListing();
+        if (machineListing == null) {
+            machineListing = session.supportsMachineListing();
+            host.setMachineListing(machineListing);
+        }
+        return machineListing;
+    }
+
+    /**
+     * Creates an array of `FileInfo` records from the entries of a directory listing.
+     *
+     * @param clientConnector the client endpoint
+     * @param host            the host the directory was listed on
+     * @param path            the path of the directory
+     * @param entries         the metadata of the entries of the directory, by entry name
+     * @param filter          the filter of the entries, evaluated before their records are created
+     * @return the `FileInfo` records
+     * @throws BallerinaFTPException if the URI of an entry could not be constructed
+     */
+    static ArrayValue createFileInfoArray(ObjectValue clientConnector, FTPHostSelector.Host host, String path,
+                                          Map<String, FTPFileStat> entries, FTPListFilter filter)
+            throws BallerinaFTPException {
+
+        ArrayValue arrayValue = new ArrayValue(new BArrayType(FTPUtil.getFileInfoType()));
+        String parent = path.endsWith("/") ? path : path + "/";
+        int i = 0;
+        for (Map.Entry<String, FTPFileStat> entry : entries.entrySet()) {
+            if (!filter.matches(entry.getKey(), entry.getValue())) {
+                continue;
+            }
+            arrayValue.add(i++, createFileInfo(clientConnector, host, parent + entry.getKey(), entry.getValue()));
+        }
+        return arrayValue;
+    }
+
+    /**
+     * Creates a `FileInfo` record from the metadata of a single file, with the same values the VFS transport reports
+     * for the entries of a listing.
+     *
+     * @param clientConnector the client endpoint
+     * @param host            the host the metadata was retrieved from
+     * @param path            the path of the file
+     * @param stat            the metadata of the file
+     * @return the `FileInfo` record
+     * @throws BallerinaFTPException if the URI of the file could not be constructed
+     */
+    static MapValue<String, Object> createFileInfo(ObjectValue clientConnector, FTPHostSelector.Host host,
+                                                   String path, FTPFileStat stat) throws BallerinaFTPException {
+
+        String protocol = (String) clientConnector.getNativeData(FTPConstants.ENDPOINT_CONFIG_PROTOCOL);
+        String username = (String) clientConnector.getNativeData(FTPConstants.ENDPOINT_CONFIG_USERNAME);
+        String absolutePath = path.startsWith("/") ? path : "/" + path;
+        String name = absolutePath.substring(absolutePath.lastIndexOf('/') + 1);
+        int extensionIndex = name.lastIndexOf('.');
+        String friendlyRoot = protocol + "://" + (username != null ? username + "@" : "") + host.getName()
+                + (host.getPort() > 0 ? ":" + host.getPort() : "");
+
+        Map<String, Object> fileInfoParams = new HashMap<>();
+        fileInfoParams.put("path", absolutePath);
+        fileInfoParams.put("size", stat.getSize());
+        fileInfoParams.put("lastModifiedTimestamp", stat.getLastModified());
+        fileInfoParams.put("name", name);
+        fileInfoParams.put("isFolder", stat.isDirectory());
+        fileInfoParams.put("isFile", !stat.isDirectory());
+        fileInfoParams.put("pathDecoded", absolutePath);
+        fileInfoParams.put("extension", extensionIndex > 0 ? name.substring(extensionIndex + 1) : "");
+        fileInfoParams.put("publicURIString", friendlyRoot + absolutePath);
+        fileInfoParams.put("fileType", stat.isDirectory() ? "folder" : "file");
+        fileInfoParams.put("isAttached", false);
+        fileInfoParams.put("isContentOpen", false);
+        fileInfoParams.put("isExecutable", stat.isExecutable());
+        fileInfoParams.put("isHidden", name.startsWith("."));
+        fileInfoParams.put("isReadable", stat.isReadable());
+        fileInfoParams.put("isWritable", stat.isWritable());
+        fileInfoParams.put("permissionsKnown", stat.isPermissionsKnown());
+        fileInfoParams.put("depth", (long) Math.max(absolutePath.split("/+").length - 1, 0));
+        fileInfoParams.put("scheme", protocol);
+        fileInfoParams.put("uri", FTPUtil.createUrl(clientConnector, host.getName(), host.getPort(), absolutePath));
+        fileInfoParams.put("rootURI", FTPUtil.createUrl(clientConnector, host.getName(), host.getPort(), "/"));
+        fileInfoParams.put("friendlyURI", friendlyRoot + absolutePath);
+        return BallerinaValues.createRecordValue(new BPackage(FTPConstants.FTP_ORG_NAME,
+                FTPConstants.FTP_MODULE_NAME, FTPConstants.FTP_MODULE_VERSION), FTPConstants.FTP_FILE_INFO,
+                fileInfoParams);
+    }
+
+    /**
+     * Creates an array of `ZipEntry` records from the central directory of an archive.
+     *
+     * @param entries the entries of the central directory
+     * @return the `ZipEntry` records
+     */
+    static ArrayValue createZipEntryArray(List<FTPZipArchive.Entry> entries) {
+
+        ValueCreator valueCreator = getValueCreator();
+        Object[] zipEntries = new Object[entries.size()];
+        int i = 0;
+        for (FTPZipArchive.Entry entry : entries) {
+            MapValue<String, Object> zipEntry = valueCreator.createRecordValue(FTPConstants.FTP_ZIP_ENTRY);
+            zipEntry.put("name", entry.getName());
+            zipEntry.put("size", entry.getSize());
+            zipEntry.put("compressedSize", entry.getCompressedSize());
+            zipEntry.put("lastModifiedTimestamp", entry.getLastModified());
+            zipEntry.put("isFolder", entry.isDirectory());
+            zipEntry.put("crc", entry.getCrc());
+            zipEntries[i++] = zipEntry;
+        }
+        return new ArrayValue(zipEntries, zipEntryArrayType);
+    }
+
+    private static ValueCreator getValueCreator() {
+
+        ValueCreator creator = valueCreator;
+        if (creator == null) {
+            // Resolved on first use, once the module is initialized. Resolving it twice is harmless, the array type
+            // is published before the value creator.
+            creator = ValueCreator.getValueCreator(new BPackage(FTPConstants.FTP_ORG_NAME,
+                    FTPConstants.FTP_MODULE_NAME, FTPConstants.FTP_MODULE_VERSION).toString());
+            zipEntryArrayType = new BArrayType(creator.createRecordValue(FTPConstants.FTP_ZIP_ENTRY).getType());
+            valueCreator = creator;
+        }
+        return creator;
+    }
+
     static boolean executeSizeAction(RemoteFileSystemBaseMessage remoteFileSystemBaseMessage,
                                      CompletableFuture<Object> future) {
 
@@ -150,6 +364,52 @@ class FTPClientHelper {
         return true;
     }
 
+    /**
+     * Closes a channel returned by a read which is no longer needed.
+     *
+     * @param result the channel
+     */
+    static void closeChannel(Object result) {
+
+        if (!(result instanceof ObjectValue)) {
+            return;
+        }
+        Channel channel = (Channel) ((ObjectValue) result).getNativeData(IOConstants.BYTE_CHANNEL_NAME);
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.warn("Error while closing the channel: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Closes a record reader returned by a read which is no longer needed.
+     *
+     * @param result the record reader
+     */
+    static void closeRecordReader(Object result) {
+
+        if (!(result instanceof ObjectValue)) {
+            return;
+        }
+        try {
+            FTPRecordReader.closeReader((ObjectValue) result);
+        } catch (BallerinaFTPException e) {
+            log.warn("Error while closing the record reader: " + e.getMessage());
+        }
+    }
+
+    static void closeStream(InputStream in) {
+
+        try {
+            in.close();
+        } catch (IOException e) {
+            log.warn("Error while closing the input stream: " + e.getMessage());
+        }
+    }
+
     /**
      * Concrete implementation of the {@link Channel}
      */
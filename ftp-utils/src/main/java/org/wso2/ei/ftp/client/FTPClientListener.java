@@ -24,8 +24,12 @@ import org.wso2.ei.ftp.util.FTPUtil;
 import org.wso2.transport.remotefilesystem.listener.RemoteFileSystemListener;
 import org.wso2.transport.remotefilesystem.message.RemoteFileSystemBaseMessage;
 
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Function;
+import java.util.function.Predicate;
 
 /**
  * Contains implementation of RemoteFileSystemListener
@@ -35,29 +39,125 @@ public class FTPClientListener implements RemoteFileSystemListener {
     private static final Logger log = LoggerFactory.getLogger(FTPClientListener.class);
     private CompletableFuture<Object> future;
     private Function<RemoteFileSystemBaseMessage, Boolean> function;
+    private Runnable doneAction;
+    private final List<Runnable> completionCallbacks = new CopyOnWriteArrayList<>();
+    private Predicate<Throwable> errorHandler;
+    private final AtomicBoolean completed = new AtomicBoolean(false);
+    private final AtomicBoolean reported = new AtomicBoolean(false);
+    private volatile boolean abandoned;
 
     FTPClientListener(CompletableFuture<Object> future,
                       Function<RemoteFileSystemBaseMessage, Boolean> function) {
 
+        this(future, function, () -> future.complete(null));
+    }
+
+    FTPClientListener(CompletableFuture<Object> future,
+                      Function<RemoteFileSystemBaseMessage, Boolean> function, Runnable doneAction) {
+
         this.future = future;
         this.function = function;
+        this.doneAction = doneAction;
+    }
+
+    /**
+     * Adds a callback which is invoked once, when the transport reports the outcome of the operation.
+     *
+     * @param completionCallback the callback
+     */
+    void addCompletionCallback(Runnable completionCallback) {
+
+        completionCallbacks.add(completionCallback);
+    }
+
+    /**
+     * Sets a handler which gets the first chance to handle a transport error. If the handler returns true, the error
+     * is not reported to the calling strand, and the handler is responsible for completing its future.
+     *
+     * @param errorHandler the error handler
+     */
+    void setErrorHandler(Predicate<Throwable> errorHandler) {
+
+        this.errorHandler = errorHandler;
+    }
+
+    /**
+     * Sets an action which aborts the operation if its future is completed by someone else before the transport
+     * reports the outcome, such as when another attempt of a hedged read has won. The completion callbacks run once
+     * the operation is aborted.
+     *
+     * @param abandonAction the action
+     */
+    void setAbandonAction(Runnable abandonAction) {
+
+        future.whenComplete((result, error) -> {
+            if (reported.compareAndSet(false, true)) {
+                abandoned = true;
+                abandonAction.run();
+                complete();
+            }
+        });
     }
 
     @Override
     public boolean onMessage(RemoteFileSystemBaseMessage remoteFileSystemBaseMessage) {
 
-        return function.apply(remoteFileSystemBaseMessage);
+        reported.set(true);
+        try {
+            return function.apply(remoteFileSystemBaseMessage);
+        } finally {
+            complete();
+        }
     }
 
     @Override
     public void onError(Throwable throwable) {
 
-        log.error(throwable.getMessage(), throwable);
-        future.complete(FTPUtil.createError(throwable.getMessage()));
+        reported.set(true);
+        try {
+            if (abandoned) {
+                log.debug("Abandoned operation failed: " + throwable.getMessage());
+                return;
+            }
+            if (errorHandler != null && errorHandler.test(throwable)) {
+                return;
+            }
+            log.error(throwable.getMessage(), throwable);
+            future.complete(FTPUtil.createError(throwable.getMessage()));
+        } finally {
+            complete();
+        }
+    }
+
+    /**
+     * Fails the operation with the given error, unless the transport has already reported its outcome.
+     *
+     * @param reason the cause of the cancellation
+     */
+    void cancel(Throwable reason) {
+
+        if (!completed.get()) {
+            onError(reason);
+        }
     }
 
     @Override
     public void done() {
 
+        reported.set(true);
+        try {
+            if (!future.isDone()) {
+                doneAction.run();
+            }
+        } finally {
+            complete();
+        }
+    }
+
+    private void complete() {
+
+        if (completed.compareAndSet(false, true)) {
+            completionCallbacks.forEach(Runnable::run);
+        }
     }
 }
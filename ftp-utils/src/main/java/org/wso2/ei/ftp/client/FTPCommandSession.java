@@ -0,0 +1,365 @@
+/*
+ * Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.ei.ftp.client;
+
+import org.apache.commons.net.ftp.FTP;
+import org.apache.commons.net.ftp.FTPFile;
+import org.apache.commons.net.ftp.FTPReply;
+import org.apache.commons.net.ftp.FTPSClient;
+import org.apache.commons.net.ftp.parser.MLSxEntryParser;
+
+import org.wso2.ei.ftp.util.FTPTimeouts;
+import org.wso2.ei.ftp.util.FTPTrustStore;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Calendar;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TimeZone;
+
+/**
+ * {@link FTPSession} implementation for the FTP and FTPS protocols.
+ */
+class FTPCommandSession implements FTPSession {
+
+    private static final int REPLY_CODE_LENGTH = 4;
+    private static final String MDTM_FORMAT = "yyyyMMddHHmmss";
+
+    private final org.apache.commons.net.ftp.FTPClient client;
+
+    FTPCommandSession(boolean secure, String host, int port, String username, String password,
+                      FTPTimeouts timeouts) throws IOException {
+
+        this(secure, host, port, username, password, timeouts, null);
+    }
+
+    FTPCommandSession(boolean secure, String host, int port, String username, String password,
+                      FTPTimeouts timeouts, FTPTrustStore trustStore) throws IOException {
+
+        client = secure ? FTPSSessionReuseClient.create(trustStore) : new org.apache.commons.net.ftp.FTPClient();
+        client.setConnectTimeout(timeouts.getConnectTimeout());
+        client.setDefaultTimeout(timeouts.getCommandTimeout());
+        client.setDataTimeout(timeouts.getIdleTimeout());
+        try {
+            client.connect(host, port);
+        } catch (IOException e) {
+            if (!client.isConnected()) {
+                throw new FTPConnectException("Unable to connect to " + host + ":" + port + ": " + e.getMessage(), e);
+            }
+            close();
+            throw e;
+        }
+        if (secure) {
+            ((FTPSClient) client).execPBSZ(0);
+            ((FTPSClient) client).execPROT("P");
+        }
+        if (!FTPReply.isPositiveCompletion(client.getReplyCode())) {
+            close();
+            throw new IOException("FTP server refused the connection: " + client.getReplyString());
+        }
+        if (!client.login(username, password)) {
+            close();
+            throw new IOException("Unable to login to the FTP server: " + client.getReplyString());
+        }
+        client.enterLocalPassiveMode();
+        client.setFileType(FTP.BINARY_FILE_TYPE);
+    }
+
+    @Override
+    public InputStream retrieve(String path, long offset) throws IOException {
+
+        client.setRestartOffset(offset);
+        InputStream in = client.retrieveFileStream(path);
+        if (in == null) {
+            throw new IOException("Unable to read the file " + path + ": " + client.getReplyString());
+        }
+        return new FilterInputStream(in) {
+            @Override
+            public void close() throws IOException {
+
+                super.close();
+                client.completePendingCommand();
+            }
+        };
+    }
+
+    @Override
+    public String checksum(String path, String algorithm) throws IOException {
+
+        String hashName;
+        String legacyCommand;
+        switch (algorithm) {
+            case FTPChecksum.MD5:
+                hashName = "MD5";
+                legacyCommand = "XMD5";
+                break;
+            case FTPChecksum.SHA256:
+                hashName = "SHA-256";
+                legacyCommand = "XSHA256";
+                break;
+            default:
+                return null;
+        }
+        if (client.hasFeature("HASH")
+                && FTPReply.isPositiveCompletion(client.sendCommand("OPTS", "HASH " + hashName))
+                && FTPReply.isPositiveCompletion(client.sendCommand("HASH", path))) {
+            return FTPChecksum.extractDigest(client.getReplyString(), algorithm);
+        }
+        if (FTPReply.isPositiveCompletion(client.sendCommand(legacyCommand, path))) {
+            return FTPChecksum.extractDigest(client.getReplyString(), algorithm);
+        }
+        return null;
+    }
+
+    @Override
+    public FTPFileStat stat(String path) throws IOException {
+
+        if (client.hasFeature("MLST")) {
+            FTPFile file = mlistFile(path);
+            if (file == null) {
+                return null;
+            }
+            Calendar timestamp = file.getTimestamp();
+            return new FTPFileStat(file.isDirectory(), file.isDirectory() ? 0 : file.getSize(),
+                    timestamp == null ? 0 : timestamp.getTimeInMillis(),
+                    file.hasPermission(FTPFile.USER_ACCESS, FTPFile.READ_PERMISSION),
+                    file.hasPermission(FTPFile.USER_ACCESS, FTPFile.WRITE_PERMISSION),
+                    file.hasPermission(FTPFile.USER_ACCESS, FTPFile.EXECUTE_PERMISSION));
+        }
+        // Servers without MLST: SIZE only succeeds for files, and MDTM gives the modification time. Neither reports
+        // the permissions of the file.
+        boolean sizeReplied = FTPReply.isPositiveCompletion(client.sendCommand("SIZE", path));
+        long size = sizeReplied ? parseSize(client.getReplyString()) : -1;
+        if (size >= 0) {
+            return new FTPFileStat(false, size, getModificationTime(path));
+        }
+        String workingDirectory = client.printWorkingDirectory();
+        if (client.changeWorkingDirectory(path)) {
+            client.changeWorkingDirectory(workingDirectory);
+            return new FTPFileStat(true, 0, getModificationTime(path));
+        }
+        if (sizeReplied) {
+            // A file whose size the server did not report in a readable form
+            return new FTPFileStat(false, 0, getModificationTime(path));
+        }
+        return null;
+    }
+
+    /**
+     * Gets the facts of a path with MLST. RFC 3659 prefixes the entry of the reply with a space, which some servers,
+     * such as Apache FtpServer, omit.
+     *
+     * @param path the path
+     * @return the entry, or null if the path does not exist
+     */
+    private FTPFile mlistFile(String path) throws IOException {
+
+        if (!FTPReply.isPositiveCompletion(client.sendCommand("MLST", path))) {
+            return null;
+        }
+        String[] reply = client.getReplyStrings();
+        if (reply.length < 3) {
+            throw new IOException("Invalid server reply (MLST): " + client.getReplyString());
+        }
+        String entry = reply[1].startsWith(" ") ? reply[1].substring(1) : reply[1];
+        return MLSxEntryParser.parseEntry(entry);
+    }
+
+    /**
+     * Parses the reply to a SIZE command.
+     *
+     * @param reply the reply, with its reply code
+     * @return the size, or -1 if the reply does not hold a size
+     */
+    static long parseSize(String reply) {
+
+        if (reply == null || reply.length() <= REPLY_CODE_LENGTH) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(reply.substring(REPLY_CODE_LENGTH).trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    @Override
+    public boolean supportsMachineListing() throws IOException {
+
+        // MLSD is part of the MLST feature (RFC 3659)
+        return client.hasFeature("MLST");
+    }
+
+    @Override
+    public Map<String, FTPFileStat> list(String path, String nameGlob, boolean machineListing) throws IOException {
+
+        FTPFile[] files = null;
+        if (nameGlob != null && !machineListing) {
+            // MLSD does not take a pattern, but most servers expand wildcards in the LIST argument. A server that
+            // does not is sent a plain LIST, and the caller filters the entries anyway.
+            files = client.listFiles((path.endsWith("/") ? path : path + "/") + nameGlob);
+            if (!FTPReply.isPositiveCompletion(client.getReplyCode())) {
+                files = null;
+            }
+        }
+        if (files == null) {
+            files = machineListing ? client.mlistDir(path) : client.listFiles(path);
+            if (!machineListing && !FTPReply.isPositiveCompletion(client.getReplyCode())) {
+                throw new IOException("Unable to list " + path + ": " + client.getReplyString());
+            }
+        }
+        Map<String, FTPFileStat> entries = new LinkedHashMap<>(files.length * 2);
+        for (FTPFile file : files) {
+            if (file == null || isDirectoryReference(file)) {
+                continue;
+            }
+            Calendar timestamp = file.getTimestamp();
+            // some servers report the entries matched by a wildcard with the directory prefix
+            String name = file.getName().substring(file.getName().lastIndexOf('/') + 1);
+            entries.put(name, new FTPFileStat(file.isDirectory(), file.isDirectory() ? 0 : file.getSize(),
+                    timestamp == null ? 0 : timestamp.getTimeInMillis(),
+                    file.hasPermission(FTPFile.USER_ACCESS, FTPFile.READ_PERMISSION),
+                    file.hasPermission(FTPFile.USER_ACCESS, FTPFile.WRITE_PERMISSION),
+                    file.hasPermission(FTPFile.USER_ACCESS, FTPFile.EXECUTE_PERMISSION)));
+        }
+        return entries;
+    }
+
+    @Override
+    public boolean supportsOffsetStore() throws IOException {
+
+        // A server restarts a STOR from the offset of a preceding REST when it advertises REST STREAM (RFC 3659)
+        return client.hasFeature("REST", "STREAM");
+    }
+
+    @Override
+    public void allocate(String path, long size) throws IOException {
+
+        // The ranges written from an offset extend the file as needed
+        if (!client.storeFile(path, new ByteArrayInputStream(new byte[0]))) {
+            throw new IOException("Unable to create the file " + path + ": " + client.getReplyString());
+        }
+    }
+
+    @Override
+    public OutputStream storeAt(String path, long offset, long size) throws IOException {
+
+        client.setRestartOffset(offset);
+        OutputStream out = client.storeFileStream(path);
+        if (out == null) {
+            throw new IOException("Unable to write the file " + path + ": " + client.getReplyString());
+        }
+        return new FilterOutputStream(out) {
+            @Override
+            public void write(byte[] buffer, int start, int length) throws IOException {
+
+                out.write(buffer, start, length);
+            }
+
+            @Override
+            public void close() throws IOException {
+
+                super.close();
+                if (!client.completePendingCommand()) {
+                    throw new IOException("Unable to write the file " + path + ": " + client.getReplyString());
+                }
+            }
+        };
+    }
+
+    @Override
+    public void rename(String origin, String destination) throws IOException {
+
+        if (!client.rename(origin, destination)) {
+            throw new IOException("Unable to rename " + origin + " to " + destination + ": "
+                    + client.getReplyString());
+        }
+    }
+
+    @Override
+    public void delete(String path) throws IOException {
+
+        if (!client.deleteFile(path)) {
+            throw new IOException("Unable to delete " + path + ": " + client.getReplyString());
+        }
+    }
+
+    private static boolean isDirectoryReference(FTPFile file) {
+
+        String name = file.getName();
+        if (".".equals(name) || "..".equals(name)) {
+            return true;
+        }
+        // MLSD lists the directory itself and its parent with the cdir and pdir types
+        String rawListing = file.getRawListing();
+        if (rawListing == null) {
+            return false;
+        }
+        String facts = rawListing.toLowerCase(Locale.ENGLISH);
+        return facts.contains("type=cdir") || facts.contains("type=pdir");
+    }
+
+    private long getModificationTime(String path) throws IOException {
+
+        String modificationTime = client.getModificationTime(path);
+        if (modificationTime == null) {
+            return 0;
+        }
+        // The reply is formatted as "213 YYYYMMDDHHMMSS[.sss]" in UTC
+        String value = modificationTime.startsWith("213") ? modificationTime.substring(REPLY_CODE_LENGTH).trim()
+                : modificationTime.trim();
+        SimpleDateFormat format = new SimpleDateFormat(MDTM_FORMAT);
+        format.setTimeZone(TimeZone.getTimeZone("UTC"));
+        try {
+            return format.parse(value.substring(0, Math.min(value.length(), MDTM_FORMAT.length()))).getTime();
+        } catch (ParseException e) {
+            return 0;
+        }
+    }
+
+    @Override
+    public void noop() throws IOException {
+
+        if (!client.sendNoOp()) {
+            throw new IOException("The server did not answer NOOP: " + client.getReplyString());
+        }
+    }
+
+    @Override
+    public boolean isConnected() {
+
+        return client.isConnected() && client.isAvailable();
+    }
+
+    @Override
+    public void close() throws IOException {
+
+        if (client.isConnected()) {
+            client.disconnect();
+        }
+    }
+}
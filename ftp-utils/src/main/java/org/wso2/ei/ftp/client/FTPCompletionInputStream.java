@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.ei.ftp.client;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs a callback once the content of a stream has been transferred: when the stream is read to its end, when a read
+ * fails, or when the stream is closed, whichever happens first.
+ */
+class FTPCompletionInputStream extends FilterInputStream {
+
+    private final Runnable onCompletion;
+    private final AtomicBoolean completed = new AtomicBoolean();
+
+    FTPCompletionInputStream(InputStream in, Runnable onCompletion) {
+
+        super(in);
+        this.onCompletion = onCompletion;
+    }
+
+    @Override
+    public int read() throws IOException {
+
+        try {
+            return checkEnd(super.read());
+        } catch (IOException e) {
+            complete();
+            throw e;
+        }
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+
+        try {
+            return checkEnd(super.read(b, off, len));
+        } catch (IOException e) {
+            complete();
+            throw e;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+
+        try {
+            super.close();
+        } finally {
+            complete();
+        }
+    }
+
+    private int checkEnd(int result) {
+
+        if (result == -1) {
+            complete();
+        }
+        return result;
+    }
+
+    private void complete() {
+
+        if (completed.compareAndSet(false, true)) {
+            onCompletion.run();
+        }
+    }
+}
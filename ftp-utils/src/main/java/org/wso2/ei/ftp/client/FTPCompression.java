@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.ei.ftp.client;
+
+import org.wso2.ei.ftp.util.BallerinaFTPException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Applies streaming compression codecs to the content transferred by the FTP client.
+ */
+class FTPCompression {
+
+    static final String CODEC_NONE = "none";
+    static final String CODEC_GZIP = "gzip";
+    static final String CODEC_DEFLATE = "deflate";
+    static final String CODEC_AUTO = "auto";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final ThreadLocal<byte[]> COPY_BUFFER = ThreadLocal.withInitial(() -> new byte[BUFFER_SIZE]);
+
+    private FTPCompression() {
+        // private constructor
+    }
+
+    /**
+     * Resolves the codec to be used for a remote file.
+     *
+     * @param compression the compression configured for the client
+     * @param path        the remote file path, used to select the codec when the compression is auto
+     * @return the codec to be used
+     * @throws BallerinaFTPException if the configured compression is not supported
+     */
+    static String resolveCodec(String compression, String path) throws BallerinaFTPException {
+
+        if (compression == null) {
+            return CODEC_NONE;
+        }
+        switch (compression) {
+            case CODEC_NONE:
+            case CODEC_GZIP:
+            case CODEC_DEFLATE:
+                return compression;
+            case CODEC_AUTO:
+                String fileName = path.toLowerCase(Locale.ENGLISH);
+                if (fileName.endsWith(".gz") || fileName.endsWith(".gzip")) {
+                    return CODEC_GZIP;
+                } else if (fileName.endsWith(".zz") || fileName.endsWith(".deflate")) {
+                    return CODEC_DEFLATE;
+                }
+                return CODEC_NONE;
+            default:
+                throw new BallerinaFTPException("Unsupported compression: " + compression);
+        }
+    }
+
+    static InputStream compress(InputStream source, String codec) throws IOException {
+
+        switch (codec) {
+            case CODEC_GZIP:
+                return FTPStreamingContent.pipe(out -> copy(source, new GZIPOutputStream(out, BUFFER_SIZE)));
+            case CODEC_DEFLATE:
+                return FTPStreamingContent.pipe(out -> copy(source, new DeflaterOutputStream(out)));
+            default:
+                return source;
+        }
+    }
+
+    /**
+     * Opens a stream which decompresses the content of a remote file. Content appended to a compressed file is a
+     * further compressed stream, so the streams of the file are read one after the other as a single content. The
+     * gzip input stream of the JDK already reads concatenated gzip members.
+     *
+     * @param source the compressed content
+     * @param codec  the codec of the content
+     * @return the decompressed content
+     * @throws IOException if the header of the content is invalid
+     */
+    static InputStream decompress(InputStream source, String codec) throws IOException {
+
+        switch (codec) {
+            case CODEC_GZIP:
+                return new GZIPInputStream(source, BUFFER_SIZE);
+            case CODEC_DEFLATE:
+                return new ConcatenatedInflaterInputStream(source);
+            default:
+                return source;
+        }
+    }
+
+    private static void copy(InputStream source, OutputStream target) throws IOException {
+
+        byte[] buffer = COPY_BUFFER.get();
+        try (InputStream in = source; OutputStream out = target) {
+            int count;
+            while ((count = in.read(buffer)) != -1) {
+                out.write(buffer, 0, count);
+            }
+        }
+    }
+
+    /**
+     * Inflates a sequence of zlib streams as a single stream.
+     */
+    private static class ConcatenatedInflaterInputStream extends InflaterInputStream {
+
+        private boolean endOfContent;
+
+        ConcatenatedInflaterInputStream(InputStream in) {
+
+            super(in, new Inflater(), BUFFER_SIZE);
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+
+            while (!endOfContent) {
+                int count = super.read(buffer, offset, length);
+                if (count != -1) {
+                    return count;
+                }
+                endOfContent = !startNextStream();
+            }
+            return -1;
+        }
+
+        /**
+         * Resets the inflater to the bytes following the finished stream, if there are any.
+         */
+        private boolean startNextStream() throws IOException {
+
+            if (!inf.finished()) {
+                return false;
+            }
+            int remaining = inf.getRemaining();
+            inf.reset();
+            if (remaining > 0) {
+                inf.setInput(buf, len - remaining, remaining);
+                return true;
+            }
+            int count = in.read(buf, 0, buf.length);
+            if (count == -1) {
+                return false;
+            }
+            len = count;
+            inf.setInput(buf, 0, len);
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+
+            try {
+                super.close();
+            } finally {
+                inf.end();
+            }
+        }
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.ei.ftp.client;
+
+/**
+ * Metadata of a single remote file, as returned by an {@link FTPSession}.
+ */
+class FTPFileStat {
+
+    private final boolean directory;
+    private final long size;
+    private final long lastModified;
+    private final boolean readable;
+    private final boolean writable;
+    private final boolean executable;
+    private final boolean permissionsKnown;
+
+    FTPFileStat(boolean directory, long size, long lastModified, boolean readable, boolean writable,
+                boolean executable) {
+
+        this(directory, size, lastModified, readable, writable, executable, true);
+    }
+
+    /**
+     * Creates the metadata of a file whose permissions the server did not report.
+     *
+     * @param directory    whether the file is a directory
+     * @param size         the size of the file
+     * @param lastModified the last modified time in UNIX Epoch time, or zero if the server did not report it
+     */
+    FTPFileStat(boolean directory, long size, long lastModified) {
+
+        this(directory, size, lastModified, false, false, false, false);
+    }
+
+    private FTPFileStat(boolean directory, long size, long lastModified, boolean readable, boolean writable,
+                        boolean executable, boolean permissionsKnown) {
+
+        this.directory = directory;
+        this.size = size;
+        this.lastModified = lastModified;
+        this.readable = readable;
+        this.writable = writable;
+        this.executable = executable;
+        this.permissionsKnown = permissionsKnown;
+    }
+
+    public boolean isDirectory() {
+
+        return directory;
+    }
+
+    public long getSize() {
+
+        return size;
+    }
+
+    /**
+     * Gets the last modified time of the file.
+     *
+     * @return the last modified time in UNIX Epoch time, or zero if the server did not report it
+     */
+    public long getLastModified() {
+
+        return lastModified;
+    }
+
+    public boolean isReadable() {
+
+        return readable;
+    }
+
+    public boolean isWritable() {
+
+        return writable;
+    }
+
+    public boolean isExecutable() {
+
+        return executable;
+    }
+
+    /**
+     * Checks whether the server reported the permissions of the file. If it did not, the file is reported as neither
+     * readable, writable nor executable.
+     *
+     * @return true if the permissions are known
+     */
+    public boolean isPermissionsKnown() {
+
+        return permissionsKnown;
+    }
+}
@@ -0,0 +1,306 @@
+/*
+ * Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.ei.ftp.client;
+
+import org.ballerinalang.jvm.BRuntime;
+import org.ballerinalang.jvm.BallerinaValues;
+import org.ballerinalang.jvm.types.BPackage;
+import org.ballerinalang.jvm.values.ObjectValue;
+import org.wso2.ei.ftp.util.FTPConstants;
+import org.wso2.ei.ftp.util.FTPUtil;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Walks a remote directory tree, listing up to a given number of directories at the same time. Each directory is
+ * listed as an operation of the client, so the listings take the operation slots, I/O threads, timeouts and host
+ * failover of any other listing. The matching entries are buffered for the consumer, and no further directories are
+ * listed while the buffer is full, so a slow consumer holds back the traversal rather than the whole tree being
+ * buffered. A read which finds the buffer empty is completed by the listing that fills it, without blocking the
+ * strand. Closing the walker stops the traversal.
+ */
+public class FTPFileWalker {
+
+    private static final String FILE_WALKER = "FileWalker";
+    private static final String NATIVE_FILE_WALKER = "fileWalker";
+    static final int BATCH_SIZE = 100;
+    private static final Object END = new Object();
+    private static final Object NOT_READY = new Object();
+
+    private final DirectoryLister lister;
+    private final Function<List<Object>, Object> batchFactory;
+    private final int maxDepth;
+    private final int parallelism;
+    private final int capacity;
+    private final Deque<Directory> directories = new ArrayDeque<>();
+    private final Deque<Object> entries = new ArrayDeque<>();
+    private int inFlight;
+    private Object error;
+    private CompletableFuture<Object> pendingRead;
+    private boolean closed;
+
+    /**
+     * Creates a walker of a remote directory tree. The walk starts with the first read.
+     *
+     * @param lister       lists the directories of the tree
+     * @param batchFactory creates the value a read is completed with from a batch of entries
+     * @param root         the path of the root directory
+     * @param maxDepth     the depth of the deepest entries to return, where the entries of the root directory are
+     *                     at depth 1, or a negative value to walk the whole tree
+     * @param parallelism  the maximum number of directories listed at the same time
+     */
+    FTPFileWalker(DirectoryLister lister, Function<List<Object>, Object> batchFactory, String root, int maxDepth,
+                  int parallelism) {
+
+        this.lister = lister;
+        this.batchFactory = batchFactory;
+        this.maxDepth = maxDepth;
+        this.parallelism = parallelism;
+        this.capacity = BATCH_SIZE * parallelism;
+        directories.add(new Directory(root, 1));
+    }
+
+    /**
+     * Creates the Ballerina FileWalker object of a walker, and starts the walk.
+     *
+     * @param walker the walker
+     * @return the Ballerina FileWalker object
+     */
+    static ObjectValue createFileWalker(FTPFileWalker walker) {
+
+        ObjectValue fileWalker = BallerinaValues.createObjectValue(new BPackage(FTPConstants.FTP_ORG_NAME,
+                FTPConstants.FTP_MODULE_NAME, FTPConstants.FTP_MODULE_VERSION), FILE_WALKER);
+        fileWalker.addNativeData(NATIVE_FILE_WALKER, walker);
+        walker.dispatch();
+        return fileWalker;
+    }
+
+    public static Object readNext(ObjectValue fileWalker) {
+
+        CompletableFuture<Object> future = BRuntime.markAsync();
+        ((FTPFileWalker) fileWalker.getNativeData(NATIVE_FILE_WALKER)).read(future);
+        return null;
+    }
+
+    public static void closeWalker(ObjectValue fileWalker) {
+
+        ((FTPFileWalker) fileWalker.getNativeData(NATIVE_FILE_WALKER)).close();
+    }
+
+    /**
+     * Reads the next batch of entries. The future is completed with the batch, with null once the walk is complete
+     * or closed, or with the error of the first directory which could not be listed.
+     *
+     * @param future the future completed with the result of the read
+     */
+    void read(CompletableFuture<Object> future) {
+
+        Object polled;
+        synchronized (this) {
+            if (pendingRead != null) {
+                polled = FTPUtil.createError("The previous batch of the walk is still being read.");
+            } else {
+                polled = poll();
+                if (polled == NOT_READY) {
+                    pendingRead = future;
+                }
+            }
+        }
+        if (polled != NOT_READY) {
+            future.complete(toResult(polled));
+        }
+        // reading a batch may have made space for further listings
+        dispatch();
+    }
+
+    /**
+     * Stops the walk. A pending read is completed with null, and the listings in flight are left to complete on
+     * their own, their entries are discarded.
+     */
+    void close() {
+
+        CompletableFuture<Object> read;
+        synchronized (this) {
+            closed = true;
+            directories.clear();
+            entries.clear();
+            read = pendingRead;
+            pendingRead = null;
+        }
+        if (read != null) {
+            read.complete(null);
+        }
+    }
+
+    private void dispatch() {
+
+        List<Directory> started = new ArrayList<>();
+        synchronized (this) {
+            while (!closed && error == null && inFlight < parallelism && entries.size() < capacity
+                    && !directories.isEmpty()) {
+                started.add(directories.poll());
+                inFlight++;
+            }
+        }
+        for (Directory directory : started) {
+            CompletableFuture<Object> listing = new CompletableFuture<>();
+            listing.whenComplete((result, throwable) -> onListed(directory, throwable == null ? result
+                    : FTPUtil.createError(throwable.getMessage())));
+            lister.list(directory.path, listing);
+        }
+    }
+
+    private void onListed(Directory directory, Object result) {
+
+        CompletableFuture<Object> read = null;
+        Object polled = null;
+        synchronized (this) {
+            inFlight--;
+            if (closed) {
+                return;
+            }
+            if (result instanceof Listing) {
+                Listing listing = (Listing) result;
+                if (maxDepth < 0 || directory.depth < maxDepth) {
+                    // the subdirectories are listed before the siblings of the directory, which keeps the number of
+                    // directories waiting to be listed down to the depth of the tree times its width
+                    for (String child : listing.directories) {
+                        directories.push(new Directory(child, directory.depth + 1));
+                    }
+                }
+                entries.addAll(listing.entries);
+            } else if (error == null) {
+                error = result;
+            }
+            if (pendingRead != null) {
+                polled = poll();
+                if (polled != NOT_READY) {
+                    read = pendingRead;
+                    pendingRead = null;
+                }
+            }
+        }
+        if (read != null) {
+            read.complete(toResult(polled));
+        }
+        dispatch();
+    }
+
+    /**
+     * Takes the next result of a read, while holding the lock of the walker.
+     *
+     * @return a batch of entries, the error of the walk, {@link #END} if the walk is over, or {@link #NOT_READY} if
+     * no entries have been found since the previous read
+     */
+    private Object poll() {
+
+        if (closed) {
+            return END;
+        }
+        if (error != null) {
+            closed = true;
+            directories.clear();
+            entries.clear();
+            return error;
+        }
+        if (!entries.isEmpty()) {
+            List<Object> batch = new ArrayList<>(Math.min(entries.size(), BATCH_SIZE));
+            while (batch.size() < BATCH_SIZE && !entries.isEmpty()) {
+                batch.add(entries.poll());
+            }
+            return new Batch(batch);
+        }
+        if (inFlight == 0 && directories.isEmpty()) {
+            closed = true;
+            return END;
+        }
+        return NOT_READY;
+    }
+
+    private Object toResult(Object polled) {
+
+        if (polled == END) {
+            return null;
+        }
+        return polled instanceof Batch ? batchFactory.apply(((Batch) polled).entries) : polled;
+    }
+
+    /**
+     * Lists a directory of the tree as an operation of the client.
+     */
+    @FunctionalInterface
+    interface DirectoryLister {
+
+        /**
+         * Starts listing a directory.
+         *
+         * @param path   the path of the directory
+         * @param future the future to complete with the {@link Listing} of the directory, or with an error
+         */
+        void list(String path, CompletableFuture<Object> future);
+    }
+
+    /**
+     * The result of listing a directory of the tree.
+     */
+    static final class Listing {
+
+        private final List<String> directories;
+        private final List<Object> entries;
+
+        /**
+         * Creates the result of a listing.
+         *
+         * @param directories the paths of the subdirectories of the directory
+         * @param entries     the records of the entries of the directory which match the filter of the walk
+         */
+        Listing(List<String> directories, List<Object> entries) {
+
+            this.directories = directories;
+            this.entries = entries;
+        }
+    }
+
+    private static final class Directory {
+
+        private final String path;
+        private final int depth;
+
+        private Directory(String path, int depth) {
+
+            this.path = path;
+            this.depth = depth;
+        }
+    }
+
+    private static final class Batch {
+
+        private final List<Object> entries;
+
+        private Batch(List<Object> entries) {
+
+            this.entries = entries;
+        }
+    }
+}
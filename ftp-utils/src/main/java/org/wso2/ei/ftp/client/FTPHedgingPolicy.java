@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.ei.ftp.client;
+
+import org.ballerinalang.jvm.values.ErrorValue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wso2.ei.ftp.util.BallerinaFTPException;
+import org.wso2.ei.ftp.util.FTPScheduler;
+import org.wso2.ei.ftp.util.FTPUtil;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Hedges idempotent read operations. If the first attempt of an operation has not answered within the hedging
+ * delay, a second attempt is started, and the operation completes with whichever attempt succeeds first. The attempt
+ * which loses the race is abandoned, which aborts its transfer, and its result is discarded if it arrives anyway.
+ */
+class FTPHedgingPolicy {
+
+    private static final Logger log = LoggerFactory.getLogger(FTPHedgingPolicy.class);
+
+    private final long delayMillis;
+    private final AtomicLong hedgesFired = new AtomicLong();
+    private final AtomicLong hedgesWon = new AtomicLong();
+
+    FTPHedgingPolicy(long delayMillis) {
+
+        this.delayMillis = delayMillis;
+    }
+
+    /**
+     * Executes a hedged operation.
+     *
+     * @param future  the future of the calling strand
+     * @param attempt starts an attempt of the operation
+     * @param discard releases the result of an attempt which lost the race
+     */
+    void execute(CompletableFuture<Object> future, Attempt attempt, Consumer<Object> discard) {
+
+        AtomicInteger outstanding = new AtomicInteger(1);
+        ScheduledFuture<?> hedge = FTPScheduler.schedule(() -> {
+            // The hedge is only counted and started while the first attempt is still outstanding
+            int current;
+            do {
+                current = outstanding.get();
+                if (current == 0 || future.isDone()) {
+                    return;
+                }
+            } while (!outstanding.compareAndSet(current, current + 1));
+            hedgesFired.incrementAndGet();
+            start(future, attempt, true).thenAccept(result -> onResult(future, result, true, outstanding, discard));
+        }, delayMillis);
+        start(future, attempt, false).thenAccept(result -> {
+            hedge.cancel(false);
+            onResult(future, result, false, outstanding, discard);
+        });
+    }
+
+    long getHedgesFired() {
+
+        return hedgesFired.get();
+    }
+
+    long getHedgesWon() {
+
+        return hedgesWon.get();
+    }
+
+    /**
+     * Starts an attempt. Once the operation completes, the attempt is abandoned if it has not answered yet, which
+     * aborts its transfer.
+     */
+    private static CompletableFuture<Object> start(CompletableFuture<Object> future, Attempt attempt,
+                                                   boolean isHedge) {
+
+        CompletableFuture<Object> attemptFuture = new CompletableFuture<>();
+        future.whenComplete((result, error) -> {
+            if (!attemptFuture.isDone()) {
+                attemptFuture.complete(FTPUtil.createError("The attempt was abandoned, another attempt completed "
+                        + "the operation."));
+            }
+        });
+        if (attemptFuture.isDone()) {
+            return attemptFuture;
+        }
+        try {
+            attempt.start(attemptFuture, isHedge);
+        } catch (BallerinaFTPException | RuntimeException e) {
+            attemptFuture.complete(FTPUtil.createError(e.getMessage()));
+        }
+        return attemptFuture;
+    }
+
+    private void onResult(CompletableFuture<Object> future, Object result, boolean isHedge,
+                          AtomicInteger outstanding, Consumer<Object> discard) {
+
+        int remaining = outstanding.decrementAndGet();
+        if (result instanceof ErrorValue) {
+            // A failed attempt only fails the operation if no other attempt can still succeed
+            if (remaining == 0) {
+                future.complete(result);
+            }
+            return;
+        }
+        if (future.complete(result)) {
+            if (isHedge) {
+                hedgesWon.incrementAndGet();
+            }
+        } else {
+            log.debug("Discarding the result of a hedged attempt which lost the race.");
+            discard.accept(result);
+        }
+    }
+
+    /**
+     * An attempt of a hedged operation.
+     */
+    @FunctionalInterface
+    interface Attempt {
+
+        /**
+         * Starts the attempt.
+         *
+         * @param future  the future to be completed with the result of the attempt, or an error
+         * @param isHedge whether the attempt is the hedge of an attempt which has not answered yet
+         * @throws BallerinaFTPException if the attempt could not be started
+         */
+        void start(CompletableFuture<Object> future, boolean isHedge) throws BallerinaFTPException;
+    }
+}
@@ -0,0 +1,215 @@
+/*
+ * Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.ei.ftp.client;
+
+import org.apache.commons.vfs2.FileSystemException;
+import org.wso2.ei.ftp.util.FTPConstants;
+
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Picks the host an operation is sent to, when a client is configured with several hosts serving the same content.
+ * A host to which a connection could not be established is skipped until its unhealthy period is over.
+ */
+class FTPHostSelector {
+
+    private static final String TRANSPORT_CONNECT_ERROR = "/connect.error";
+
+    private final List<Host> hosts;
+    private final boolean leastInFlight;
+    private final long unhealthyPeriodMillis;
+    private final AtomicInteger next = new AtomicInteger();
+
+    FTPHostSelector(List<Host> hosts, String loadBalancing, long unhealthyPeriodMillis) {
+
+        this.hosts = Collections.unmodifiableList(new ArrayList<>(hosts));
+        this.leastInFlight = FTPConstants.LOAD_BALANCING_LEAST_IN_FLIGHT.equals(loadBalancing);
+        this.unhealthyPeriodMillis = unhealthyPeriodMillis;
+    }
+
+    /**
+     * Gets the primary host, which all write operations are sent to.
+     *
+     * @return the primary host
+     */
+    Host getPrimary() {
+
+        return hosts.get(0);
+    }
+
+    int size() {
+
+        return hosts.size();
+    }
+
+    List<Host> getHosts() {
+
+        return hosts;
+    }
+
+    /**
+     * Selects the host for a read operation. Healthy hosts are preferred. If every remaining host is unhealthy, the
+     * one which failed first is retried.
+     *
+     * @param excluded the hosts already attempted by the operation
+     * @return the selected host, or null if all the hosts are excluded
+     */
+    Host select(Set<Host> excluded) {
+
+        long now = System.currentTimeMillis();
+        int start = leastInFlight ? 0 : Math.floorMod(next.getAndIncrement(), hosts.size());
+        Host selected = null;
+        Host fallback = null;
+        for (int i = 0; i < hosts.size(); i++) {
+            Host host = hosts.get((start + i) % hosts.size());
+            if (excluded.contains(host)) {
+                continue;
+            }
+            if (host.unhealthyUntil > now) {
+                if (fallback == null || host.unhealthyUntil < fallback.unhealthyUntil) {
+                    fallback = host;
+                }
+                continue;
+            }
+            if (!leastInFlight) {
+                return host;
+            }
+            if (selected == null || host.inFlight.get() < selected.inFlight.get()) {
+                selected = host;
+            }
+        }
+        return selected != null ? selected : fallback;
+    }
+
+    void markUnhealthy(Host host) {
+
+        host.unhealthyUntil = System.currentTimeMillis() + unhealthyPeriodMillis;
+    }
+
+    void markHealthy(Host host) {
+
+        host.unhealthyUntil = 0;
+    }
+
+    /**
+     * Checks whether an error was caused by a failure to connect to the host, in which case the operation can safely
+     * be sent to another host. A socket timeout is a connect failure only if it is reported as the cause of a failed
+     * connection, and not when it ends a transfer on an established connection.
+     *
+     * @param error the error
+     * @return true if a connection could not be established
+     */
+    static boolean isConnectFailure(Throwable error) {
+
+        boolean connecting = false;
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof FTPConnectException || cause instanceof ConnectException
+                    || cause instanceof NoRouteToHostException || cause instanceof UnknownHostException) {
+                return true;
+            }
+            if (cause instanceof SocketTimeoutException && connecting) {
+                return true;
+            }
+            connecting = connecting || isTransportConnectError(cause);
+            if (cause.getCause() == cause) {
+                break;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether an error is the failure of the file system transport to connect to a server.
+     */
+    private static boolean isTransportConnectError(Throwable error) {
+
+        if (!(error instanceof FileSystemException)) {
+            return false;
+        }
+        String code = ((FileSystemException) error).getCode();
+        return code != null && code.endsWith(TRANSPORT_CONNECT_ERROR);
+    }
+
+    /**
+     * A host of the client.
+     */
+    static final class Host {
+
+        private final String name;
+        private final int port;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private volatile long unhealthyUntil;
+        private volatile Boolean machineListing;
+
+        Host(String name, int port) {
+
+            this.name = name;
+            this.port = port;
+        }
+
+        String getName() {
+
+            return name;
+        }
+
+        int getPort() {
+
+            return port;
+        }
+
+        /**
+         * Gets whether the host supports machine-readable listings, as found by the first listing sent to it.
+         *
+         * @return whether machine-readable listings are supported, or null if not known yet
+         */
+        Boolean getMachineListing() {
+
+            return machineListing;
+        }
+
+        void setMachineListing(boolean machineListing) {
+
+            this.machineListing = machineListing;
+        }
+
+        void acquire() {
+
+            inFlight.incrementAndGet();
+        }
+
+        void release() {
+
+            inFlight.decrementAndGet();
+        }
+
+        @Override
+        public String toString() {
+
+            return name + ":" + port;
+        }
+    }
+}
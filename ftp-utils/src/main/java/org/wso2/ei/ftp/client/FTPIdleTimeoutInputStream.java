@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.ei.ftp.client;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wso2.ei.ftp.util.FTPIOExecutor;
+import org.wso2.ei.ftp.util.FTPScheduler;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Aborts a data transfer which stays idle for longer than the idle timeout. A read blocked on a hung data connection
+ * is released by closing the underlying stream, which also frees the connection. A stream which is not read for the
+ * idle timeout, such as the stream of a channel its reader dropped, is closed the same way so that its connection and
+ * the in-flight slot of its transfer are released.
+ */
+class FTPIdleTimeoutInputStream extends FilterInputStream {
+
+    private static final Logger log = LoggerFactory.getLogger(FTPIdleTimeoutInputStream.class);
+
+    private final long idleTimeoutNanos;
+    private final FTPIOExecutor executor;
+    private ScheduledFuture<?> watchdog;
+    private volatile boolean reading;
+    private volatile long activeAt = System.nanoTime();
+    private volatile boolean timedOut;
+    private volatile boolean abandoned;
+
+    private FTPIdleTimeoutInputStream(InputStream in, long idleTimeoutMillis, FTPIOExecutor executor) {
+
+        super(in);
+        this.idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(idleTimeoutMillis);
+        this.executor = executor;
+    }
+
+    /**
+     * Wraps a stream with an idle timeout.
+     *
+     * @param in                the stream
+     * @param idleTimeoutMillis the idle timeout, or zero for no timeout
+     * @param executor          the executor which closes a stream that timed out
+     * @return the wrapped stream
+     */
+    static InputStream wrap(InputStream in, long idleTimeoutMillis, FTPIOExecutor executor) {
+
+        if (idleTimeoutMillis <= 0) {
+            return in;
+        }
+        FTPIdleTimeoutInputStream stream = new FTPIdleTimeoutInputStream(in, idleTimeoutMillis, executor);
+        stream.watchdog = FTPScheduler.scheduleWithFixedDelay(stream::check, Math.max(idleTimeoutMillis / 2, 1));
+        return stream;
+    }
+
+    @Override
+    public int read() throws IOException {
+
+        begin();
+        try {
+            return ended(super.read());
+        } catch (IOException e) {
+            throw translate(e);
+        } finally {
+            activeAt = System.nanoTime();
+            reading = false;
+        }
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+
+        begin();
+        try {
+            return ended(super.read(b, off, len));
+        } catch (IOException e) {
+            throw translate(e);
+        } finally {
+            activeAt = System.nanoTime();
+            reading = false;
+        }
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+
+        begin();
+        try {
+            return super.skip(n);
+        } catch (IOException e) {
+            throw translate(e);
+        } finally {
+            activeAt = System.nanoTime();
+            reading = false;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+
+        watchdog.cancel(false);
+        super.close();
+    }
+
+    private void begin() throws IOException {
+
+        if (timedOut) {
+            throw timeoutException();
+        }
+        activeAt = System.nanoTime();
+        reading = true;
+    }
+
+    /**
+     * Runs on the timer thread, so the hung or abandoned stream is closed on a release thread of the executor.
+     */
+    private void check() {
+
+        if (System.nanoTime() - activeAt < idleTimeoutNanos) {
+            return;
+        }
+        abandoned = !reading;
+        timedOut = true;
+        watchdog.cancel(false);
+        executor.release(() -> {
+            try {
+                in.close();
+            } catch (IOException e) {
+                log.debug("Error while aborting an idle data transfer: " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Stops watching the stream once it has been read to its end.
+     */
+    private int ended(int result) {
+
+        if (result == -1) {
+            watchdog.cancel(false);
+        }
+        return result;
+    }
+
+    /**
+     * Stops watching the stream once a read has failed, since the transfer is over.
+     */
+    private IOException translate(IOException e) {
+
+        watchdog.cancel(false);
+        return timedOut ? timeoutException() : e;
+    }
+
+    private SocketTimeoutException timeoutException() {
+
+        long idleTimeoutMillis = TimeUnit.NANOSECONDS.toMillis(idleTimeoutNanos);
+        if (abandoned) {
+            return new SocketTimeoutException("The content was not read for " + idleTimeoutMillis
+                    + " ms, the transfer was aborted.");
+        }
+        return new SocketTimeoutException("No data received for " + idleTimeoutMillis + " ms.");
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.ei.ftp.client;
+
+import org.ballerinalang.jvm.values.MapValue;
+import org.wso2.ei.ftp.util.BallerinaFTPException;
+import org.wso2.ei.ftp.util.FTPConstants;
+
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Filter of the entries of a directory listing, evaluated on the metadata of each entry before a `FileInfo` record
+ * is created for it. An entry matches if it satisfies all the conditions that are set.
+ */
+class FTPListFilter {
+
+    static final FTPListFilter ALL = new FTPListFilter(null, null, null, -1, -1, -1, FTPConstants.ENTRY_TYPE_ANY);
+
+    private final String glob;
+    private final Pattern globPattern;
+    private final Pattern regex;
+    private final long minSize;
+    private final long maxSize;
+    private final long modifiedSince;
+    private final String entryType;
+
+    private FTPListFilter(String glob, Pattern globPattern, Pattern regex, long minSize, long maxSize,
+                          long modifiedSince, String entryType) {
+
+        this.glob = glob;
+        this.globPattern = globPattern;
+        this.regex = regex;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.modifiedSince = modifiedSince;
+        this.entryType = entryType;
+    }
+
+    /**
+     * Creates a filter from the `ListFilter` record.
+     *
+     * @param config the filter configuration
+     * @return the filter
+     * @throws BallerinaFTPException if the glob or the regular expression is invalid
+     */
+    static FTPListFilter create(MapValue config) throws BallerinaFTPException {
+
+        if (config == null) {
+            return ALL;
+        }
+        String glob = config.getStringValue(FTPConstants.FILTER_GLOB);
+        String regex = config.getStringValue(FTPConstants.FILTER_REGEX);
+        String entryType = config.getStringValue(FTPConstants.FILTER_ENTRY_TYPE);
+        try {
+            return new FTPListFilter(glob, glob == null ? null : Pattern.compile(toRegex(glob)),
+                    regex == null ? null : Pattern.compile(regex), getLimit(config, FTPConstants.FILTER_MIN_SIZE),
+                    getLimit(config, FTPConstants.FILTER_MAX_SIZE),
+                    getLimit(config, FTPConstants.FILTER_MODIFIED_SINCE),
+                    entryType == null ? FTPConstants.ENTRY_TYPE_ANY : entryType);
+        } catch (PatternSyntaxException e) {
+            throw new BallerinaFTPException("Invalid list filter pattern: " + e.getMessage(), e);
+        }
+    }
+
+    private static long getLimit(MapValue config, String key) {
+
+        Object value = config.get(key);
+        return value == null ? -1 : (Long) value;
+    }
+
+    /**
+     * Gets the glob of the filter, if it only uses the `*` and `?` wildcards, which are understood by the LIST
+     * command of most FTP servers and by SFTP listings. The glob is only sent for filters of files: a server lists
+     * the content of a directory matched by the glob in place of the directory, which would fold the entries of
+     * subdirectories into the listing.
+     *
+     * @return the glob, or null if there is no glob or it cannot be sent to the server
+     */
+    String getServerGlob() {
+
+        if (glob == null || glob.isEmpty() || !FTPConstants.ENTRY_TYPE_FILE.equals(entryType)) {
+            return null;
+        }
+        for (int i = 0; i < glob.length(); i++) {
+            char c = glob.charAt(i);
+            if (c == '[' || c == ']' || c == '{' || c == '}' || c == '\\' || c == '/' || Character.isWhitespace(c)) {
+                return null;
+            }
+        }
+        return glob;
+    }
+
+    /**
+     * Checks whether an entry matches the filter.
+     *
+     * @param name the name of the entry
+     * @param stat the metadata of the entry
+     * @return true if the entry matches
+     */
+    boolean matches(String name, FTPFileStat stat) {
+
+        return matches(name, stat.isDirectory(), stat.getSize(), stat.getLastModified());
+    }
+
+    /**
+     * Checks whether an entry matches the filter.
+     *
+     * @param name         the name of the entry
+     * @param directory    whether the entry is a directory
+     * @param size         the size of the entry
+     * @param lastModified the modification time of the entry, in milliseconds
+     * @return true if the entry matches
+     */
+    boolean matches(String name, boolean directory, long size, long lastModified) {
+
+        if (FTPConstants.ENTRY_TYPE_FILE.equals(entryType) && directory
+                || FTPConstants.ENTRY_TYPE_FOLDER.equals(entryType) && !directory) {
+            return false;
+        }
+        if (globPattern != null && !globPattern.matcher(name).matches()
+                || regex != null && !regex.matcher(name).matches()) {
+            return false;
+        }
+        if (!directory && (minSize >= 0 && size < minSize || maxSize >= 0 && size > maxSize)) {
+            return false;
+        }
+        return modifiedSince < 0 || lastModified >= modifiedSince;
+    }
+
+    static String toRegex(String glob) {
+
+        StringBuilder regex = new StringBuilder(glob.length() + 8);
+        int literalStart = 0;
+        int i = 0;
+        while (i < glob.length()) {
+            char c = glob.charAt(i);
+            int setEnd = c == '[' ? glob.indexOf(']', i + 1) : -1;
+            if (c != '*' && c != '?' && setEnd < 0) {
+                i++;
+                continue;
+            }
+            if (i > literalStart) {
+                regex.append(Pattern.quote(glob.substring(literalStart, i)));
+            }
+            if (c == '*') {
+                regex.append(".*");
+                i++;
+            } else if (c == '?') {
+                regex.append('.');
+                i++;
+            } else {
+                String set = glob.substring(i + 1, setEnd);
+                regex.append('[').append(set.startsWith("!") ? "^" + quoteSet(set.substring(1)) : quoteSet(set))
+                        .append(']');
+                i = setEnd + 1;
+            }
+            literalStart = i;
+        }
+        if (glob.length() > literalStart) {
+            regex.append(Pattern.quote(glob.substring(literalStart)));
+        }
+        return regex.toString();
+    }
+
+    private static String quoteSet(String set) {
+
+        return set.replace("\\", "\\\\").replace("[", "\\[").replace("^", "\\^").replace("&", "\\&");
+    }
+}
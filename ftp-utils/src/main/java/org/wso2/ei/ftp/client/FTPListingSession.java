@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.ei.ftp.client;
+
+import org.wso2.ei.ftp.util.BallerinaFTPException;
+import org.wso2.ei.ftp.util.FTPHostKeyPolicy;
+import org.wso2.ei.ftp.util.FTPTimeouts;
+import org.wso2.ei.ftp.util.FTPTrustStore;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A session which lists the files of a remote directory, for the listener. It exposes the listing operations of an
+ * {@link FTPSession} without the session itself, which stays internal to the client.
+ */
+public final class FTPListingSession implements Closeable {
+
+    private final FTPSession session;
+
+    private FTPListingSession(FTPSession session) {
+
+        this.session = session;
+    }
+
+    /**
+     * Opens a listing session with the given connection details.
+     *
+     * @param protocol      the protocol
+     * @param host          the host
+     * @param port          the port, or a non-positive value for the default port of the protocol
+     * @param username      the username
+     * @param password      the password
+     * @param timeouts      the timeouts of the session
+     * @param hostKeyPolicy the verification of the host key, for SFTP
+     * @param trustStore    the trust store the certificate of the server is verified against, for FTPS
+     * @return the session
+     * @throws BallerinaFTPException if the session could not be established
+     */
+    public static FTPListingSession open(String protocol, String host, int port, String username, String password,
+                                         FTPTimeouts timeouts, FTPHostKeyPolicy hostKeyPolicy,
+                                         FTPTrustStore trustStore) throws BallerinaFTPException {
+
+        return new FTPListingSession(FTPSessionFactory.createSession(protocol, host, port, username, password,
+                timeouts, hostKeyPolicy, trustStore));
+    }
+
+    /**
+     * Checks whether the server supports machine-readable listings.
+     *
+     * @return true if machine-readable listings are supported
+     * @throws IOException if the features of the server could not be retrieved
+     */
+    public boolean supportsMachineListing() throws IOException {
+
+        return session.supportsMachineListing();
+    }
+
+    /**
+     * Lists the files of a remote directory, leaving out its subdirectories.
+     *
+     * @param path           the remote directory path
+     * @param machineListing whether to use a machine-readable listing (MLSD), rather than LIST
+     * @return the metadata of the files of the directory, by file name
+     * @throws IOException if the directory could not be listed
+     */
+    public Map<String, Entry> listFiles(String path, boolean machineListing) throws IOException {
+
+        Map<String, FTPFileStat> stats = session.list(path, null, machineListing);
+        Map<String, Entry> files = new LinkedHashMap<>(stats.size() * 2);
+        for (Map.Entry<String, FTPFileStat> stat : stats.entrySet()) {
+            if (!stat.getValue().isDirectory()) {
+                files.put(stat.getKey(), new Entry(stat.getValue().getSize(), stat.getValue().getLastModified(),
+                        stat.getValue().isPermissionsKnown()));
+            }
+        }
+        return files;
+    }
+
+    @Override
+    public void close() throws IOException {
+
+        session.close();
+    }
+
+    /**
+     * Metadata of a file listed by an {@link FTPListingSession}.
+     */
+    public static final class Entry {
+
+        private final long size;
+        private final long lastModified;
+        private final boolean permissionsKnown;
+
+        public Entry(long size, long lastModified, boolean permissionsKnown) {
+
+            this.size = size;
+            this.lastModified = lastModified;
+            this.permissionsKnown = permissionsKnown;
+        }
+
+        public long getSize() {
+
+            return size;
+        }
+
+        /**
+         * Gets the last modified time of the file.
+         *
+         * @return the last modified time in UNIX Epoch time, or zero if the server did not report it
+         */
+        public long getLastModified() {
+
+            return lastModified;
+        }
+
+        /**
+         * Checks whether the server reported the permissions of the file.
+         *
+         * @return true if the permissions are known
+         */
+        public boolean isPermissionsKnown() {
+
+            return permissionsKnown;
+        }
+    }
+}
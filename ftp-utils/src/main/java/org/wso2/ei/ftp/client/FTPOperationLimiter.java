@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.ei.ftp.client;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounds the number of operations a client has in flight. Operations submitted while the limit is reached are
+ * queued instead of blocking the caller, and are started as the running operations complete. Queued interactive
+ * operations are started ahead of queued bulk operations.
+ */
+class FTPOperationLimiter {
+
+    private static final ThreadLocal<Boolean> DRAINING = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
+    private final int maxInFlight;
+    private final Queue<Runnable> pending = new ConcurrentLinkedQueue<>();
+    private final Queue<Runnable> pendingBulk = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    FTPOperationLimiter(int maxInFlight) {
+
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * Submits an interactive operation. The operation must call {@link #release()} once it is completed.
+     *
+     * @param operation the operation to be executed
+     */
+    void submit(Runnable operation) {
+
+        submit(operation, false);
+    }
+
+    /**
+     * Submits an operation. The operation must call {@link #release()} once it is completed.
+     *
+     * @param operation the operation to be executed
+     * @param bulk      whether the operation belongs to the bulk priority class
+     */
+    void submit(Runnable operation, boolean bulk) {
+
+        (bulk ? pendingBulk : pending).add(operation);
+        drain();
+    }
+
+    /**
+     * Counts a transfer which outlives the operation that started it as in flight, even if the limit is reached, so
+     * that queued operations wait for it. The transfer must call {@link #release()} once it is completed.
+     */
+    void hold() {
+
+        inFlight.incrementAndGet();
+    }
+
+    /**
+     * Marks an in-flight operation as completed and starts the next pending operation, if any.
+     */
+    void release() {
+
+        inFlight.decrementAndGet();
+        drain();
+    }
+
+    int getInFlight() {
+
+        return inFlight.get();
+    }
+
+    int getPending() {
+
+        return pending.size() + pendingBulk.size();
+    }
+
+    private void drain() {
+
+        // An operation which completes synchronously releases its permit from within this loop. The loop picks the
+        // next operation in that case, instead of recursing once per queued operation.
+        if (DRAINING.get()) {
+            return;
+        }
+        DRAINING.set(Boolean.TRUE);
+        try {
+            while (!pending.isEmpty() || !pendingBulk.isEmpty()) {
+                int current = inFlight.get();
+                if (current >= maxInFlight) {
+                    return;
+                }
+                if (!inFlight.compareAndSet(current, current + 1)) {
+                    continue;
+                }
+                Runnable operation = pending.poll();
+                if (operation == null) {
+                    operation = pendingBulk.poll();
+                }
+                if (operation == null) {
+                    inFlight.decrementAndGet();
+                    continue;
+                }
+                operation.run();
+            }
+        } finally {
+            DRAINING.set(Boolean.FALSE);
+        }
+    }
+}
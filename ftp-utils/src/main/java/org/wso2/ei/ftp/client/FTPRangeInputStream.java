@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.ei.ftp.client;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reads a bounded number of bytes from a remote file. The underlying transfer and the session are released as soon
+ * as the requested number of bytes has been read, so the rest of the file is never transferred.
+ */
+class FTPRangeInputStream extends InputStream {
+
+    private final FTPSession session;
+    private InputStream inputStream;
+    private long remaining;
+
+    FTPRangeInputStream(FTPSession session, InputStream inputStream, long length) {
+
+        this.session = session;
+        this.inputStream = inputStream;
+        this.remaining = length;
+    }
+
+    @Override
+    public int read() throws IOException {
+
+        if (remaining <= 0 || inputStream == null) {
+            release();
+            return -1;
+        }
+        int value = inputStream.read();
+        if (value == -1) {
+            release();
+            return -1;
+        }
+        if (--remaining == 0) {
+            release();
+        }
+        return value;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+
+        if (length == 0) {
+            return 0;
+        }
+        if (remaining <= 0 || inputStream == null) {
+            release();
+            return -1;
+        }
+        int count = inputStream.read(buffer, offset, (int) Math.min(length, remaining));
+        if (count == -1) {
+            release();
+            return -1;
+        }
+        remaining -= count;
+        if (remaining == 0) {
+            release();
+        }
+        return count;
+    }
+
+    @Override
+    public int available() throws IOException {
+
+        if (inputStream == null) {
+            return 0;
+        }
+        return (int) Math.min(inputStream.available(), remaining);
+    }
+
+    @Override
+    public void close() throws IOException {
+
+        release();
+    }
+
+    private void release() throws IOException {
+
+        if (inputStream == null) {
+            return;
+        }
+        try {
+            inputStream.close();
+        } finally {
+            inputStream = null;
+            session.close();
+        }
+    }
+}
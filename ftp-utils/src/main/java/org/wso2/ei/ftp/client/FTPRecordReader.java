@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.ei.ftp.client;
+
+import org.ballerinalang.jvm.BallerinaValues;
+import org.ballerinalang.jvm.types.BPackage;
+import org.ballerinalang.jvm.values.ArrayValue;
+import org.ballerinalang.jvm.values.MapValue;
+import org.ballerinalang.jvm.values.ObjectValue;
+import org.wso2.ei.ftp.util.BallerinaFTPException;
+import org.wso2.ei.ftp.util.FTPConstants;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+
+/**
+ * Parses records incrementally from the content of a remote file. Only a single batch of records is held in memory
+ * at a time, so the memory usage does not depend on the size of the file.
+ */
+public abstract class FTPRecordReader {
+
+    static final int CHAR_BUFFER_SIZE = 8192;
+
+    private static final String RECORD_READER = "RecordReader";
+    private static final String NATIVE_RECORD_READER = "recordReader";
+    private static final String FORMAT_JSON_LINES = "jsonl";
+    private static final String FORMAT_XML = "xml";
+
+    private final InputStream inputStream;
+    private final int batchSize;
+    private boolean closed = false;
+
+    FTPRecordReader(InputStream inputStream, int batchSize) {
+
+        this.inputStream = inputStream;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Creates a Ballerina record reader on top of the content of a remote file.
+     *
+     * @param in     the content of the remote file
+     * @param config the record reader configuration
+     * @return the Ballerina RecordReader object
+     * @throws BallerinaFTPException if the configuration is invalid
+     */
+    static ObjectValue createRecordReader(InputStream in, MapValue<Object, Object> config)
+            throws BallerinaFTPException {
+
+        String format = config.getStringValue(FTPConstants.RECORD_READER_FORMAT);
+        long batchSize = config.getIntValue(FTPConstants.RECORD_READER_BATCH_SIZE);
+        if (batchSize <= 0 || batchSize > Integer.MAX_VALUE) {
+            throw new BallerinaFTPException("Invalid batch size " + batchSize + " for the record reader.");
+        }
+        Charset charset;
+        try {
+            charset = Charset.forName(config.getStringValue(FTPConstants.RECORD_READER_CHARSET));
+        } catch (IllegalArgumentException e) {
+            throw new BallerinaFTPException("Unsupported charset for the record reader: " + e.getMessage(), e);
+        }
+
+        FTPRecordReader reader;
+        switch (format) {
+            case FORMAT_JSON_LINES:
+                reader = new JsonLinesRecordReader(in, charset, (int) batchSize);
+                break;
+            case FORMAT_XML:
+                try {
+                    reader = new XmlRecordReader(in, charset, (int) batchSize,
+                            config.getStringValue(FTPConstants.RECORD_READER_RECORD_ELEMENT));
+                } catch (IOException e) {
+                    throw new BallerinaFTPException(e.getMessage(), e);
+                }
+                break;
+            default:
+                String separator = config.getStringValue(FTPConstants.RECORD_READER_SEPARATOR);
+                if (separator == null || separator.length() != 1) {
+                    throw new BallerinaFTPException("CSV separator should be a single character.");
+                }
+                reader = new CsvRecordReader(in, charset, (int) batchSize, separator.charAt(0));
+                break;
+        }
+        ObjectValue recordReader = BallerinaValues.createObjectValue(new BPackage(FTPConstants.FTP_ORG_NAME,
+                FTPConstants.FTP_MODULE_NAME, FTPConstants.FTP_MODULE_VERSION), RECORD_READER);
+        recordReader.addNativeData(NATIVE_RECORD_READER, reader);
+        return recordReader;
+    }
+
+    public static Object readNext(ObjectValue recordReader) throws BallerinaFTPException {
+
+        FTPRecordReader reader = (FTPRecordReader) recordReader.getNativeData(NATIVE_RECORD_READER);
+        if (reader.closed) {
+            return null;
+        }
+        try {
+            ArrayValue batch = reader.readBatch(reader.batchSize);
+            if (batch == null) {
+                reader.close();
+            }
+            return batch;
+        } catch (IOException e) {
+            reader.closeQuietly();
+            throw new BallerinaFTPException("Error while reading records: " + e.getMessage(), e);
+        }
+    }
+
+    public static void closeReader(ObjectValue recordReader) throws BallerinaFTPException {
+
+        FTPRecordReader reader = (FTPRecordReader) recordReader.getNativeData(NATIVE_RECORD_READER);
+        try {
+            reader.close();
+        } catch (IOException e) {
+            throw new BallerinaFTPException("Error while closing the record reader: " + e.getMessage(), e);
+        }
+    }
+
+    static Reader createReader(InputStream in, Charset charset) {
+
+        return new InputStreamReader(in, charset);
+    }
+
+    /**
+     * Reads the next batch of records.
+     *
+     * @param maxRecords the maximum number of records in the batch
+     * @return the batch of records or null if there are no more records
+     * @throws IOException if an error occurred while reading or parsing the content
+     */
+    abstract ArrayValue readBatch(int maxRecords) throws IOException;
+
+    private void close() throws IOException {
+
+        if (!closed) {
+            closed = true;
+            inputStream.close();
+        }
+    }
+
+    private void closeQuietly() {
+
+        try {
+            close();
+        } catch (IOException e) {
+            // Ignore, since the read failure is reported to the caller.
+        }
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.ei.ftp.client;
+
+import org.apache.commons.net.ftp.FTPSClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wso2.ei.ftp.util.FTPTrustStore;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSession;
+import javax.net.ssl.SSLSessionContext;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.TrustManagerFactory;
+
+/**
+ * An explicit FTPS client, which secures the connection with `AUTH TLS` like the FTPS transport of the listener and
+ * of the file operations, and avoids full TLS handshakes. The certificate of the server is verified against the trust
+ * store of the endpoint. The clients with the same trust store share an SSL context, so a new control connection
+ * resumes the TLS session of an earlier connection to the same server.
+ * <p>
+ * When the `ftp.ftps.dataSessionReuse` system property is true, each data connection also resumes the TLS session of
+ * its control connection, which satisfies servers that require it, such as vsftpd with `require_ssl_reuse`. The JDK
+ * has no API for this, so it is opt-in: it reflects into the session cache of the SSL context of the JDK, which JDK 9
+ * to 15 warn about as an illegal reflective access, and JDK 16 and later deny unless the JVM is started with
+ * `--add-opens java.base/sun.security.ssl=ALL-UNNAMED`. Data connections make full handshakes otherwise.
+ */
+class FTPSSessionReuseClient extends FTPSClient {
+
+    private static final Logger log = LoggerFactory.getLogger(FTPSSessionReuseClient.class);
+    private static final Map<FTPTrustStore, SSLContext> contexts = new ConcurrentHashMap<>();
+    private static final String DATA_SESSION_REUSE_PROPERTY = "ftp.ftps.dataSessionReuse";
+    private static volatile boolean dataSessionReuse = Boolean.getBoolean(DATA_SESSION_REUSE_PROPERTY);
+
+    private FTPSSessionReuseClient(SSLContext context) {
+
+        super(false, context);
+    }
+
+    static FTPSClient create(FTPTrustStore trustStore) throws IOException {
+
+        return new FTPSSessionReuseClient(getContext(trustStore == null ? FTPTrustStore.create(null, null)
+                : trustStore));
+    }
+
+    private static SSLContext getContext(FTPTrustStore trustStore) throws IOException {
+
+        SSLContext context = contexts.get(trustStore);
+        if (context == null) {
+            synchronized (contexts) {
+                context = contexts.get(trustStore);
+                if (context == null) {
+                    // A trust store which cannot be loaded is not cached, so it is read again by the next session
+                    context = createContext(trustStore);
+                    contexts.put(trustStore, context);
+                }
+            }
+        }
+        return context;
+    }
+
+    private static SSLContext createContext(FTPTrustStore trustStore) throws IOException {
+
+        String path = trustStore.getPath();
+        try {
+            KeyStore keyStore = null;
+            if (path != null) {
+                String lowerCasePath = path.toLowerCase(Locale.ENGLISH);
+                keyStore = KeyStore.getInstance(lowerCasePath.endsWith(".p12") || lowerCasePath.endsWith(".pfx")
+                        ? "PKCS12" : KeyStore.getDefaultType());
+                String password = trustStore.getPassword();
+                try (InputStream in = Files.newInputStream(Paths.get(path))) {
+                    keyStore.load(in, password == null ? null : password.toCharArray());
+                }
+            }
+            // Without a key store, the factory trusts the default trust store of the JDK
+            TrustManagerFactory trustManagerFactory = TrustManagerFactory.getInstance(
+                    TrustManagerFactory.getDefaultAlgorithm());
+            trustManagerFactory.init(keyStore);
+            SSLContext context = SSLContext.getInstance("TLS");
+            context.init(null, trustManagerFactory.getTrustManagers(), null);
+            return context;
+        } catch (GeneralSecurityException | IOException e) {
+            throw new IOException("Unable to load the trust store" + (path == null ? "" : " " + path) + ": "
+                    + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Registers the TLS session of the control connection as the cached session of the data connection, so that
+     * the handshake of the data connection resumes it, if data session reuse is enabled. The session is put into the
+     * session cache of the context, keyed by the host and port of the data connection. If the cache is not
+     * accessible on the running JDK, reuse is disabled and data connections make full handshakes.
+     */
+    @Override
+    protected void _prepareDataSocket_(Socket socket) throws IOException {
+
+        super._prepareDataSocket_(socket);
+        if (!dataSessionReuse || !(socket instanceof SSLSocket) || !(_socket_ instanceof SSLSocket)) {
+            return;
+        }
+        SSLSession session = ((SSLSocket) _socket_).getSession();
+        if (!session.isValid()) {
+            return;
+        }
+        SSLSessionContext context = session.getSessionContext();
+        try {
+            Field cacheField = context.getClass().getDeclaredField("sessionHostPortCache");
+            cacheField.setAccessible(true);
+            Object cache = cacheField.get(context);
+            Method put = cache.getClass().getDeclaredMethod("put", Object.class, Object.class);
+            put.setAccessible(true);
+            int port = socket.getPort();
+            put.invoke(cache, getCacheKey(socket.getInetAddress().getHostName(), port), session);
+            put.invoke(cache, getCacheKey(socket.getInetAddress().getHostAddress(), port), session);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            dataSessionReuse = false;
+            log.warn("TLS sessions cannot be reused for FTPS data connections on this JVM: " + e.getMessage()
+                    + ". Open the java.base/sun.security.ssl package to the module on JDK 16 and later.");
+        }
+    }
+
+    private static String getCacheKey(String host, int port) {
+
+        return (host + ":" + port).toLowerCase(Locale.ENGLISH);
+    }
+}
@@ -0,0 +1,381 @@
+/*
+ * Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.ei.ftp.client;
+
+import org.ballerinalang.jvm.values.MapValue;
+import org.ballerinalang.jvm.values.ObjectValue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wso2.ei.ftp.util.BallerinaFTPException;
+import org.wso2.ei.ftp.util.FTPCancellation;
+import org.wso2.ei.ftp.util.FTPConstants;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.UnaryOperator;
+
+/**
+ * Uploads a local file in segments, which are written from their offsets over several sessions at once. The segments
+ * are written to a temporary file next to the destination, which is renamed to the destination once the server has
+ * confirmed every segment, so the destination never holds a partially written file.
+ * <p>
+ * Some servers truncate the file at the offset a write starts from, and the first segment is written without any
+ * offset, which truncates the whole file. The segments are therefore opened in the order of their offsets, each once
+ * the previous one is open, and only their content is written in parallel. Each additional session takes a slot of
+ * the operation limiter of the client; the segments which do not get a slot are written by the calling thread after
+ * the first one.
+ */
+class FTPSegmentedUpload {
+
+    private static final Logger log = LoggerFactory.getLogger(FTPSegmentedUpload.class);
+    private static final int MAX_SESSIONS = 64;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+    private final SessionOpener sessionOpener;
+    private final FTPOperationLimiter limiter;
+    private final boolean bulk;
+    private final int maxSessions;
+    private final long minSegmentSize;
+    private final UnaryOperator<InputStream> transferStream;
+    private final List<FTPSession> sessions = Collections.synchronizedList(new ArrayList<>());
+
+    FTPSegmentedUpload(SessionOpener sessionOpener, FTPOperationLimiter limiter, boolean bulk, int maxSessions,
+                       long minSegmentSize, UnaryOperator<InputStream> transferStream) {
+
+        this.sessionOpener = sessionOpener;
+        this.limiter = limiter;
+        this.bulk = bulk;
+        this.maxSessions = maxSessions;
+        this.minSegmentSize = minSegmentSize;
+        this.transferStream = transferStream;
+    }
+
+    /**
+     * Creates an upload from a `ParallelUploadConfig`.
+     *
+     * @param clientConnector the client endpoint
+     * @param config          the upload configuration
+     * @param bulk            whether the upload belongs to the bulk priority class
+     * @param transferStream  the decorator applied to the content of each segment, which limits its bandwidth
+     * @return the upload
+     * @throws BallerinaFTPException if a value is out of range
+     */
+    static FTPSegmentedUpload create(ObjectValue clientConnector, MapValue config, boolean bulk,
+                                     UnaryOperator<InputStream> transferStream) throws BallerinaFTPException {
+
+        long sessions = config.getIntValue(FTPConstants.PARALLEL_UPLOAD_SESSIONS);
+        if (sessions <= 0 || sessions > MAX_SESSIONS) {
+            throw new BallerinaFTPException("Invalid value " + sessions + " for "
+                    + FTPConstants.PARALLEL_UPLOAD_SESSIONS + ". The value should be between 1 and " + MAX_SESSIONS
+                    + ".");
+        }
+        long minSegmentSize = config.getIntValue(FTPConstants.PARALLEL_UPLOAD_MIN_SEGMENT_SIZE);
+        if (minSegmentSize <= 0) {
+            throw new BallerinaFTPException("Invalid value " + minSegmentSize + " for "
+                    + FTPConstants.PARALLEL_UPLOAD_MIN_SEGMENT_SIZE + ".");
+        }
+        return new FTPSegmentedUpload(() -> FTPSessionFactory.createSession(clientConnector),
+                (FTPOperationLimiter) clientConnector.getNativeData(FTPConstants.NATIVE_OPERATION_LIMITER), bulk,
+                (int) sessions, minSegmentSize, transferStream);
+    }
+
+    /**
+     * Uploads a local file. The temporary file is deleted if the upload fails.
+     *
+     * @param localFile    the local file
+     * @param path         the remote path of the destination
+     * @param cancellation the cancellation path of the upload, which closes the sessions of every segment
+     * @throws BallerinaFTPException if the upload failed
+     */
+    void upload(Path localFile, String path, FTPCancellation cancellation) throws BallerinaFTPException {
+
+        long size;
+        try {
+            size = Files.size(localFile);
+        } catch (IOException e) {
+            throw new BallerinaFTPException("Unable to read the local file " + localFile + ": " + e.getMessage(), e);
+        }
+        String temporaryPath = path + "." + UUID.randomUUID() + ".part";
+        FTPSession session = openSession(cancellation);
+        List<Segment> segments = new ArrayList<>();
+        ExecutorService segmentExecutor = null;
+        boolean allocated = false;
+        try {
+            int segmentCount = session.supportsOffsetStore() ? getSegmentCount(size) : 1;
+            long segmentSize = (size + segmentCount - 1) / segmentCount;
+            session.allocate(temporaryPath, size);
+            allocated = true;
+            Segment previous = new Segment(0, Math.min(segmentSize, size), size, null);
+            segments.add(previous);
+            for (int i = 1; i < segmentCount && i * segmentSize < size; i++) {
+                long offset = i * segmentSize;
+                previous = new Segment(offset, Math.min(segmentSize, size - offset), size, previous);
+                segments.add(previous);
+            }
+            if (segments.size() > 1) {
+                segmentExecutor = Executors.newFixedThreadPool(segments.size() - 1, runnable -> {
+                    Thread thread = new Thread(runnable, "ftp-segment-writer-" + THREAD_COUNT.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+                for (Segment segment : segments.subList(1, segments.size())) {
+                    submit(segment, segmentExecutor, localFile, temporaryPath, cancellation);
+                }
+            }
+            // The calling thread writes the first segment, then the segments no other session has started
+            for (Segment segment : segments) {
+                if (segment.claim()) {
+                    writeSegment(session, localFile, temporaryPath, segment);
+                    segment.written.complete(null);
+                }
+            }
+            for (Segment segment : segments) {
+                awaitSegment(segment);
+            }
+            FTPFileStat stat = session.stat(temporaryPath);
+            if (stat == null || stat.getSize() != size) {
+                throw new IOException("The server holds " + (stat == null ? 0 : stat.getSize()) + " of the "
+                        + size + " bytes written to " + temporaryPath + ".");
+            }
+            session.rename(temporaryPath, path);
+        } catch (BallerinaFTPException e) {
+            abort(segments, segmentExecutor, allocated ? temporaryPath : null);
+            throw e;
+        } catch (IOException e) {
+            abort(segments, segmentExecutor, allocated ? temporaryPath : null);
+            throw new BallerinaFTPException("Unable to upload " + localFile + " to " + path + ": " + e.getMessage(),
+                    e);
+        } finally {
+            if (segmentExecutor != null) {
+                segmentExecutor.shutdown();
+            }
+            closeSession(session);
+        }
+    }
+
+    private int getSegmentCount(long size) {
+
+        return (int) Math.max(1, Math.min(maxSessions, size / minSegmentSize));
+    }
+
+    /**
+     * Writes a segment over a session of its own once the limiter of the client has a slot for the session, unless
+     * the calling thread has taken the segment over by then.
+     */
+    private void submit(Segment segment, ExecutorService segmentExecutor, Path localFile, String path,
+                        FTPCancellation cancellation) {
+
+        limiter.submit(() -> {
+            if (!segment.claim()) {
+                limiter.release();
+                return;
+            }
+            try {
+                segmentExecutor.execute(() -> {
+                    Exception failure = null;
+                    try {
+                        FTPSession segmentSession = openSession(cancellation);
+                        try {
+                            writeSegment(segmentSession, localFile, path, segment);
+                        } finally {
+                            closeSession(segmentSession);
+                        }
+                    } catch (BallerinaFTPException | IOException | RuntimeException e) {
+                        failure = e;
+                    } finally {
+                        limiter.release();
+                    }
+                    // The slot is released before the upload learns the outcome, so that it never outlives the upload
+                    if (failure == null) {
+                        segment.written.complete(null);
+                    } else {
+                        segment.fail(failure);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                segment.fail(e);
+                limiter.release();
+            }
+        }, bulk);
+    }
+
+    private void writeSegment(FTPSession session, Path localFile, String path, Segment segment) throws IOException {
+
+        byte[] buffer = new byte[BUFFER_SIZE];
+        try (FileChannel file = FileChannel.open(localFile, StandardOpenOption.READ);
+             InputStream in = transferStream.apply(Channels.newInputStream(file.position(segment.offset)));
+             OutputStream out = segment.open(session, path)) {
+            long remaining = segment.length;
+            while (remaining > 0) {
+                int count = in.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+                if (count == -1) {
+                    throw new IOException("The local file " + localFile + " was truncated during the upload.");
+                }
+                out.write(buffer, 0, count);
+                remaining -= count;
+            }
+        } catch (IOException | RuntimeException e) {
+            segment.fail(e);
+            throw e;
+        }
+    }
+
+    private static void awaitSegment(Segment segment) throws IOException, BallerinaFTPException {
+
+        try {
+            segment.written.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the segments of the upload.");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof BallerinaFTPException) {
+                throw (BallerinaFTPException) cause;
+            }
+            throw new IOException(cause.getMessage(), cause);
+        }
+    }
+
+    /**
+     * Stops the segments still being written and deletes the temporary file. The segments which have not started are
+     * taken over so they never start, and closing the sessions of the others aborts the transfers blocked on the
+     * network.
+     */
+    private void abort(List<Segment> segments, ExecutorService segmentExecutor, String temporaryPath) {
+
+        for (Segment segment : segments) {
+            segment.claim();
+        }
+        if (segmentExecutor != null) {
+            segmentExecutor.shutdownNow();
+        }
+        synchronized (sessions) {
+            for (FTPSession session : sessions) {
+                closeSession(session);
+            }
+        }
+        if (temporaryPath == null) {
+            return;
+        }
+        try (FTPSession session = sessionOpener.open()) {
+            session.delete(temporaryPath);
+        } catch (BallerinaFTPException | IOException e) {
+            log.warn("Unable to delete the temporary file " + temporaryPath + ": " + e.getMessage());
+        }
+    }
+
+    private FTPSession openSession(FTPCancellation cancellation) throws BallerinaFTPException {
+
+        FTPSession session = sessionOpener.open();
+        sessions.add(session);
+        cancellation.register(session);
+        return session;
+    }
+
+    private void closeSession(FTPSession session) {
+
+        try {
+            session.close();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Error while closing the FTP session: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Opens the sessions of the upload.
+     */
+    interface SessionOpener {
+
+        FTPSession open() throws BallerinaFTPException;
+    }
+
+    /**
+     * A range of the file, written by the first thread which claims it.
+     */
+    private static final class Segment {
+
+        private final long offset;
+        private final long length;
+        private final long fileSize;
+        private final Segment previous;
+        private final AtomicBoolean claimed = new AtomicBoolean();
+        private final CountDownLatch opened = new CountDownLatch(1);
+        private final CompletableFuture<Void> written = new CompletableFuture<>();
+
+        private Segment(long offset, long length, long fileSize, Segment previous) {
+
+            this.offset = offset;
+            this.length = length;
+            this.fileSize = fileSize;
+            this.previous = previous;
+        }
+
+        private boolean claim() {
+
+            return claimed.compareAndSet(false, true);
+        }
+
+        /**
+         * Opens the segment for writing once the previous segment is open, or has failed.
+         */
+        private OutputStream open(FTPSession session, String path) throws IOException {
+
+            try {
+                if (previous != null) {
+                    previous.opened.await();
+                }
+                return session.storeAt(path, offset, fileSize);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for the previous segment of the upload.");
+            } finally {
+                opened.countDown();
+            }
+        }
+
+        private void fail(Throwable cause) {
+
+            opened.countDown();
+            written.completeExceptionally(cause);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.ei.ftp.client;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Map;
+
+/**
+ * Represents a command level session with a remote server. This is used for the operations which are not exposed
+ * by the VFS transport.
+ */
+interface FTPSession extends Closeable {
+
+    /**
+     * Opens a stream to read the content of a remote file starting from the given offset.
+     *
+     * @param path   the remote file path
+     * @param offset the byte offset to start reading from
+     * @return the stream that reads the remote content
+     * @throws IOException if the transfer could not be started
+     */
+    InputStream retrieve(String path, long offset) throws IOException;
+
+    /**
+     * Asks the server to calculate the checksum of a remote file.
+     *
+     * @param path      the remote file path
+     * @param algorithm the checksum algorithm
+     * @return the checksum as a hexadecimal string or null if the server cannot calculate it
+     * @throws IOException if the command could not be sent
+     */
+    String checksum(String path, String algorithm) throws IOException;
+
+    /**
+     * Gets the metadata of a single remote file, without listing its parent directory.
+     *
+     * @param path the remote file path
+     * @return the metadata of the file, or null if the file does not exist
+     * @throws IOException if the metadata could not be retrieved
+     */
+    FTPFileStat stat(String path) throws IOException;
+
+    /**
+     * Checks whether the server supports machine-readable listings, whose entries carry their metadata as facts
+     * instead of in a server-specific text format.
+     *
+     * @return true if machine-readable listings are supported
+     * @throws IOException if the features of the server could not be retrieved
+     */
+    boolean supportsMachineListing() throws IOException;
+
+    /**
+     * Lists the entries of a remote directory.
+     *
+     * @param path           the remote directory path
+     * @param nameGlob       a glob of `*` and `?` wildcards the server may use to narrow down the entries, or null.
+     *                       The glob is a hint, the listing can still contain entries which do not match it
+     * @param machineListing whether to use a machine-readable listing (MLSD), rather than LIST
+     * @return the metadata of the entries of the directory, by entry name
+     * @throws IOException if the directory could not be listed
+     */
+    Map<String, FTPFileStat> list(String path, String nameGlob, boolean machineListing) throws IOException;
+
+    /**
+     * Checks whether the server can write a file from an offset, so that disjoint ranges of a file can be written
+     * over several sessions at once.
+     *
+     * @return true if writes from an offset are supported
+     * @throws IOException if the features of the server could not be retrieved
+     */
+    boolean supportsOffsetStore() throws IOException;
+
+    /**
+     * Creates the file written by {@link #storeAt}, replacing any existing file. The file is given its final size
+     * if the protocol needs it to write from an offset.
+     *
+     * @param path the remote file path
+     * @param size the final size of the file
+     * @throws IOException if the file could not be created
+     */
+    void allocate(String path, long size) throws IOException;
+
+    /**
+     * Opens a stream which writes a file created by {@link #allocate} from the given offset, without truncating it.
+     * The write is confirmed by the server when the stream is closed.
+     *
+     * @param path   the remote file path
+     * @param offset the byte offset to start writing from
+     * @param size   the size the file was allocated with
+     * @return the stream that writes the remote content
+     * @throws IOException if the transfer could not be started
+     */
+    OutputStream storeAt(String path, long offset, long size) throws IOException;
+
+    /**
+     * Renames a remote file, replacing the destination if it exists.
+     *
+     * @param origin      the remote path of the file
+     * @param destination the new remote path of the file
+     * @throws IOException if the file could not be renamed
+     */
+    void rename(String origin, String destination) throws IOException;
+
+    /**
+     * Deletes a remote file.
+     *
+     * @param path the remote file path
+     * @throws IOException if the file could not be deleted
+     */
+    void delete(String path) throws IOException;
+
+    /**
+     * Sends a command which does nothing, to check that the server still serves the session.
+     *
+     * @throws IOException if the server did not answer the command
+     */
+    void noop() throws IOException;
+
+    /**
+     * Checks whether the connection of the session is still open, as far as the client can tell without sending a
+     * command.
+     *
+     * @return true if the connection is open
+     */
+    boolean isConnected();
+}
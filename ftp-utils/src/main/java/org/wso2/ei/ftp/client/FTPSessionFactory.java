@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.ei.ftp.client;
+
+import org.ballerinalang.jvm.values.ObjectValue;
+import org.wso2.ei.ftp.util.BallerinaFTPException;
+import org.wso2.ei.ftp.util.FTPConstants;
+import org.wso2.ei.ftp.util.FTPHostKeyPolicy;
+import org.wso2.ei.ftp.util.FTPTimeouts;
+import org.wso2.ei.ftp.util.FTPTrustStore;
+
+import java.io.IOException;
+
+/**
+ * Creates {@link FTPSession}s using the connection details of a client endpoint.
+ */
+class FTPSessionFactory {
+
+    private FTPSessionFactory() {
+        // private constructor
+    }
+
+    /**
+     * Gets a session to the primary host of a client, from the session pool of the client if it has one.
+     *
+     * @param clientConnector the client endpoint
+     * @return the session
+     * @throws BallerinaFTPException if the session could not be established
+     */
+    static FTPSession createSession(ObjectValue clientConnector) throws BallerinaFTPException {
+
+        return createSession(clientConnector, getPrimaryHost(clientConnector), getPrimaryPort(clientConnector));
+    }
+
+    /**
+     * Gets a session to a host of a client, from the session pool of the client if it has one.
+     *
+     * @param clientConnector the client endpoint
+     * @param host            the host
+     * @return the session
+     * @throws BallerinaFTPException if the session could not be established
+     */
+    static FTPSession createSession(ObjectValue clientConnector, FTPHostSelector.Host host)
+            throws BallerinaFTPException {
+
+        return createSession(clientConnector, host.getName(), host.getPort());
+    }
+
+    /**
+     * Opens a new SFTP session to a host of a client, for the transfers which open further channels on the session.
+     * The session is never taken from the session pool of the client.
+     *
+     * @param clientConnector the client endpoint of an SFTP client
+     * @param host            the host, or null for the primary host
+     * @return the session
+     * @throws BallerinaFTPException if the session could not be established
+     */
+    static SFTPChannelSession createSFTPSession(ObjectValue clientConnector, FTPHostSelector.Host host)
+            throws BallerinaFTPException {
+
+        return (SFTPChannelSession) (host == null
+                ? connect(clientConnector, getPrimaryHost(clientConnector), getPrimaryPort(clientConnector))
+                : connect(clientConnector, host.getName(), host.getPort()));
+    }
+
+    private static FTPSession createSession(ObjectValue clientConnector, String host, int port)
+            throws BallerinaFTPException {
+
+        FTPSessionPool pool = (FTPSessionPool) clientConnector.getNativeData(FTPConstants.NATIVE_SESSION_POOL);
+        return pool == null ? connect(clientConnector, host, port) : pool.acquire(host, port);
+    }
+
+    /**
+     * Opens a new session to a host of a client.
+     *
+     * @param clientConnector the client endpoint
+     * @param host            the host
+     * @param port            the port
+     * @return the session
+     * @throws BallerinaFTPException if the session could not be established
+     */
+    static FTPSession connect(ObjectValue clientConnector, String host, int port) throws BallerinaFTPException {
+
+        return createSession((String) clientConnector.getNativeData(FTPConstants.ENDPOINT_CONFIG_PROTOCOL), host, port,
+                (String) clientConnector.getNativeData(FTPConstants.ENDPOINT_CONFIG_USERNAME),
+                (String) clientConnector.getNativeData(FTPConstants.ENDPOINT_CONFIG_PASS_KEY),
+                (FTPTimeouts) clientConnector.getNativeData(FTPConstants.NATIVE_TIMEOUTS),
+                (FTPHostKeyPolicy) clientConnector.getNativeData(FTPConstants.NATIVE_HOST_KEY_POLICY),
+                (FTPTrustStore) clientConnector.getNativeData(FTPConstants.NATIVE_TRUST_STORE));
+    }
+
+    private static String getPrimaryHost(ObjectValue clientConnector) {
+
+        return (String) clientConnector.getNativeData(FTPConstants.ENDPOINT_CONFIG_HOST);
+    }
+
+    private static int getPrimaryPort(ObjectValue clientConnector) {
+
+        return (int) clientConnector.getNativeData(FTPConstants.ENDPOINT_CONFIG_PORT);
+    }
+
+    /**
+     * Creates a session with the given connection details, for endpoints other than a client.
+     *
+     * @param protocol      the protocol
+     * @param host          the host
+     * @param port          the port, or a non-positive value for the default port of the protocol
+     * @param username      the username
+     * @param password      the password
+     * @param timeouts      the timeouts of the session
+     * @param hostKeyPolicy the verification of the host key, for SFTP
+     * @param trustStore    the trust store the certificate of the server is verified against, for FTPS
+     * @return the session
+     * @throws BallerinaFTPException if the session could not be established
+     */
+    static FTPSession createSession(String protocol, String host, int port, String username, String password,
+                                    FTPTimeouts timeouts, FTPHostKeyPolicy hostKeyPolicy, FTPTrustStore trustStore)
+            throws BallerinaFTPException {
+
+        try {
+            switch (protocol) {
+                case FTPConstants.PROTOCOL_SFTP:
+                    return new SFTPChannelSession(host, port > 0 ? port : FTPConstants.DEFAULT_SFTP_PORT,
+                            username, password, timeouts, hostKeyPolicy);
+                case FTPConstants.PROTOCOL_FTPS:
+                    return new FTPCommandSession(true, host, port > 0 ? port : FTPConstants.DEFAULT_FTPS_PORT,
+                            username, password, timeouts, trustStore);
+                default:
+                    return new FTPCommandSession(false, host, port > 0 ? port : FTPConstants.DEFAULT_FTP_PORT,
+                            username, password, timeouts);
+            }
+        } catch (IOException e) {
+            throw new BallerinaFTPException(e.getMessage(), e);
+        }
+    }
+}
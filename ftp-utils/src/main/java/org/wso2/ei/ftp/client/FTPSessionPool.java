@@ -0,0 +1,564 @@
+/*
+ * Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.ei.ftp.client;
+
+import org.ballerinalang.jvm.values.MapValue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wso2.ei.ftp.util.BallerinaFTPException;
+import org.wso2.ei.ftp.util.FTPConstants;
+import org.wso2.ei.ftp.util.FTPIOExecutor;
+import org.wso2.ei.ftp.util.FTPScheduler;
+
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps the authenticated sessions of a client open between operations, so that an operation does not pay for a new
+ * connection, TLS handshake or SSH key exchange. The sessions are pooled per host, and the most recently used one is
+ * handed out first. A session goes back to the pool when it is closed, unless a command on it failed, one of its
+ * transfers was not completed, or it was closed while in use, as a cancelled operation does.
+ * <p>
+ * A session which has been idle for a while is checked with a NOOP before it is handed out, and replaced by a new one
+ * if the server dropped it, so that the operation does not fail on it and the host is not reported as failed. The
+ * sessions idle for longer than the idle timeout are closed in the background.
+ */
+class FTPSessionPool {
+
+    private static final Logger log = LoggerFactory.getLogger(FTPSessionPool.class);
+
+    /**
+     * Time a session stays idle before it is checked when it is taken from the pool. A session used a moment ago is
+     * handed out without a round trip.
+     */
+    static final long VALIDATION_INTERVAL_MILLIS = 500;
+
+    private final Connector connector;
+    private final FTPIOExecutor executor;
+    private final int maxIdleSessions;
+    private final int warmUpSessions;
+    private final long idleTimeoutNanos;
+    private final Map<String, Deque<IdleSession>> idleSessions = new ConcurrentHashMap<>();
+    private final ScheduledFuture<?> evictor;
+    private volatile boolean closed;
+
+    private FTPSessionPool(Connector connector, FTPIOExecutor executor, int maxIdleSessions, int warmUpSessions,
+                           long idleTimeoutMillis) {
+
+        this.connector = connector;
+        this.executor = executor;
+        this.maxIdleSessions = maxIdleSessions;
+        this.warmUpSessions = warmUpSessions;
+        this.idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(idleTimeoutMillis);
+        this.evictor = FTPScheduler.scheduleWithFixedDelay(this::evict, Math.max(1, idleTimeoutMillis / 2));
+    }
+
+    /**
+     * Creates a pool from the `SessionPoolConfig` of a client.
+     *
+     * @param config    the pool configuration, or null if sessions are not pooled
+     * @param connector opens the sessions of the pool
+     * @param executor  the executor of the client, which closes the sessions evicted from the pool
+     * @return the pool, or null if sessions are not pooled
+     * @throws BallerinaFTPException if a value is out of range
+     */
+    static FTPSessionPool create(MapValue config, Connector connector, FTPIOExecutor executor)
+            throws BallerinaFTPException {
+
+        if (config == null) {
+            return null;
+        }
+        long maxIdleSessions = config.getIntValue(FTPConstants.SESSION_POOL_MAX_IDLE_SESSIONS);
+        long warmUpSessions = config.getIntValue(FTPConstants.SESSION_POOL_WARM_UP_SESSIONS);
+        long idleTimeout = config.getIntValue(FTPConstants.SESSION_POOL_IDLE_TIMEOUT);
+        if (maxIdleSessions <= 0 || maxIdleSessions > Integer.MAX_VALUE) {
+            throw new BallerinaFTPException("Invalid value " + maxIdleSessions + " for "
+                    + FTPConstants.SESSION_POOL_MAX_IDLE_SESSIONS + ".");
+        }
+        if (warmUpSessions < 0 || warmUpSessions > maxIdleSessions) {
+            throw new BallerinaFTPException("Invalid value " + warmUpSessions + " for "
+                    + FTPConstants.SESSION_POOL_WARM_UP_SESSIONS + ". The value should be between 0 and "
+                    + FTPConstants.SESSION_POOL_MAX_IDLE_SESSIONS + ".");
+        }
+        if (idleTimeout <= 0) {
+            throw new BallerinaFTPException("Invalid value " + idleTimeout + " for "
+                    + FTPConstants.SESSION_POOL_IDLE_TIMEOUT + ".");
+        }
+        return new FTPSessionPool(connector, executor, (int) maxIdleSessions, (int) warmUpSessions, idleTimeout);
+    }
+
+    /**
+     * Takes an idle session to the given host, or opens a new one if none is idle. The idle sessions the server no
+     * longer serves are closed and skipped.
+     *
+     * @param host the host
+     * @param port the port
+     * @return the session, which goes back to the pool when it is closed
+     * @throws BallerinaFTPException if a new session could not be opened
+     */
+    FTPSession acquire(String host, int port) throws BallerinaFTPException {
+
+        Deque<IdleSession> idle = getIdleSessions(host, port);
+        while (true) {
+            IdleSession idleSession;
+            synchronized (idle) {
+                idleSession = idle.pollFirst();
+            }
+            if (idleSession == null) {
+                return new PooledSession(idle, connector.connect(host, port));
+            }
+            long now = System.nanoTime();
+            if (!idleSession.isExpired(now) && idleSession.session.isConnected() && idleSession.isAlive(now)) {
+                return new PooledSession(idle, idleSession.session);
+            }
+            closeQuietly(idleSession.session);
+        }
+    }
+
+    /**
+     * Opens the configured number of sessions to the given host in advance, so that the first operations do not
+     * wait for them. A session which cannot be opened is logged and skipped.
+     *
+     * @param host the host
+     * @param port the port
+     */
+    void warmUp(String host, int port) {
+
+        Deque<IdleSession> idle = getIdleSessions(host, port);
+        for (int i = 0; i < warmUpSessions; i++) {
+            try {
+                release(idle, connector.connect(host, port));
+            } catch (BallerinaFTPException e) {
+                log.warn("Unable to open a session to " + host + ":" + port + " in advance: " + e.getMessage());
+                return;
+            }
+        }
+    }
+
+    int getWarmUpSessions() {
+
+        return warmUpSessions;
+    }
+
+    int getIdleSessions() {
+
+        int count = 0;
+        for (Deque<IdleSession> idle : idleSessions.values()) {
+            synchronized (idle) {
+                count += idle.size();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Closes the idle sessions and stops pooling. The sessions in use are closed when they are released.
+     */
+    void close() {
+
+        closed = true;
+        evictor.cancel(false);
+        List<FTPSession> sessions = new ArrayList<>();
+        for (Deque<IdleSession> idle : idleSessions.values()) {
+            synchronized (idle) {
+                while (!idle.isEmpty()) {
+                    sessions.add(idle.pollFirst().session);
+                }
+            }
+        }
+        closeInBackground(sessions);
+    }
+
+    /**
+     * Closes the sessions idle for longer than the idle timeout. The timer runs this, so the sessions are closed by
+     * the executor of the client.
+     */
+    private void evict() {
+
+        long now = System.nanoTime();
+        List<FTPSession> expired = new ArrayList<>();
+        for (Deque<IdleSession> idle : idleSessions.values()) {
+            synchronized (idle) {
+                while (!idle.isEmpty() && idle.peekLast().isExpired(now)) {
+                    expired.add(idle.pollLast().session);
+                }
+            }
+        }
+        closeInBackground(expired);
+    }
+
+    private void closeInBackground(List<FTPSession> sessions) {
+
+        if (!sessions.isEmpty()) {
+            executor.release(() -> sessions.forEach(FTPSessionPool::closeQuietly));
+        }
+    }
+
+    private Deque<IdleSession> getIdleSessions(String host, int port) {
+
+        return idleSessions.computeIfAbsent(host + ":" + port, key -> new ArrayDeque<>());
+    }
+
+    private void release(Deque<IdleSession> idle, FTPSession session) {
+
+        long now = System.nanoTime();
+        List<FTPSession> expired = new ArrayList<>();
+        boolean pooled = false;
+        synchronized (idle) {
+            // The least recently used sessions are at the tail
+            while (!idle.isEmpty() && idle.peekLast().isExpired(now)) {
+                expired.add(idle.pollLast().session);
+            }
+            if (!closed && idle.size() < maxIdleSessions) {
+                idle.addFirst(new IdleSession(session, now));
+                pooled = true;
+            }
+        }
+        if (!pooled) {
+            expired.add(session);
+        }
+        expired.forEach(FTPSessionPool::closeQuietly);
+    }
+
+    private static void closeQuietly(FTPSession session) {
+
+        try {
+            session.close();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Error while closing the FTP session: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Opens a new session to a host.
+     */
+    @FunctionalInterface
+    interface Connector {
+
+        FTPSession connect(String host, int port) throws BallerinaFTPException;
+    }
+
+    private final class IdleSession {
+
+        private final FTPSession session;
+        private final long idleSince;
+
+        private IdleSession(FTPSession session, long idleSince) {
+
+            this.session = session;
+            this.idleSince = idleSince;
+        }
+
+        private boolean isExpired(long now) {
+
+            return now - idleSince > idleTimeoutNanos;
+        }
+
+        private boolean isAlive(long now) {
+
+            if (now - idleSince <= TimeUnit.MILLISECONDS.toNanos(VALIDATION_INTERVAL_MILLIS)) {
+                return true;
+            }
+            try {
+                session.noop();
+                return true;
+            } catch (IOException | RuntimeException e) {
+                log.debug("Replacing an idle session the server no longer serves: " + e.getMessage());
+                return false;
+            }
+        }
+    }
+
+    /**
+     * A session borrowed from the pool. It tracks the commands and transfers in progress, to decide whether the
+     * underlying session can be reused when it is closed.
+     */
+    private final class PooledSession implements FTPSession {
+
+        private final Deque<IdleSession> idle;
+        private final FTPSession session;
+        private final AtomicInteger activeCalls = new AtomicInteger();
+        private final AtomicInteger openTransfers = new AtomicInteger();
+        private volatile boolean broken;
+        private volatile boolean closed;
+
+        private PooledSession(Deque<IdleSession> idle, FTPSession session) {
+
+            this.idle = idle;
+            this.session = session;
+        }
+
+        @Override
+        public InputStream retrieve(String path, long offset) throws IOException {
+
+            InputStream in = call(delegate -> delegate.retrieve(path, offset));
+            openTransfers.incrementAndGet();
+            return new TransferInputStream(in);
+        }
+
+        @Override
+        public String checksum(String path, String algorithm) throws IOException {
+
+            return call(delegate -> delegate.checksum(path, algorithm));
+        }
+
+        @Override
+        public FTPFileStat stat(String path) throws IOException {
+
+            return call(delegate -> delegate.stat(path));
+        }
+
+        @Override
+        public boolean supportsMachineListing() throws IOException {
+
+            return call(FTPSession::supportsMachineListing);
+        }
+
+        @Override
+        public Map<String, FTPFileStat> list(String path, String nameGlob, boolean machineListing)
+                throws IOException {
+
+            return call(delegate -> delegate.list(path, nameGlob, machineListing));
+        }
+
+        @Override
+        public boolean supportsOffsetStore() throws IOException {
+
+            return call(FTPSession::supportsOffsetStore);
+        }
+
+        @Override
+        public void allocate(String path, long size) throws IOException {
+
+            call(delegate -> {
+                delegate.allocate(path, size);
+                return null;
+            });
+        }
+
+        @Override
+        public OutputStream storeAt(String path, long offset, long size) throws IOException {
+
+            OutputStream out = call(delegate -> delegate.storeAt(path, offset, size));
+            openTransfers.incrementAndGet();
+            return new TransferOutputStream(out);
+        }
+
+        @Override
+        public void rename(String origin, String destination) throws IOException {
+
+            call(delegate -> {
+                delegate.rename(origin, destination);
+                return null;
+            });
+        }
+
+        @Override
+        public void delete(String path) throws IOException {
+
+            call(delegate -> {
+                delegate.delete(path);
+                return null;
+            });
+        }
+
+        @Override
+        public void noop() throws IOException {
+
+            call(delegate -> {
+                delegate.noop();
+                return null;
+            });
+        }
+
+        @Override
+        public boolean isConnected() {
+
+            return !closed && session.isConnected();
+        }
+
+        @Override
+        public void close() throws IOException {
+
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (broken || activeCalls.get() > 0 || openTransfers.get() > 0 || !session.isConnected()) {
+                // A session closed while in use is closed for real, which aborts the command blocked on it
+                session.close();
+                return;
+            }
+            release(idle, session);
+        }
+
+        private <T> T call(SessionCall<T> call) throws IOException {
+
+            activeCalls.incrementAndGet();
+            try {
+                if (closed) {
+                    throw new IOException("The FTP session is closed.");
+                }
+                return call.execute(session);
+            } catch (IOException | RuntimeException e) {
+                broken = true;
+                throw e;
+            } finally {
+                activeCalls.decrementAndGet();
+            }
+        }
+
+        private void completeTransfer(boolean completed) {
+
+            if (!completed) {
+                broken = true;
+            }
+            openTransfers.decrementAndGet();
+        }
+
+        /**
+         * Reads the content of a transfer. A transfer closed before the end of the content leaves the session in an
+         * unknown state.
+         */
+        private final class TransferInputStream extends FilterInputStream {
+
+            private boolean ended;
+            private boolean closedStream;
+
+            private TransferInputStream(InputStream in) {
+
+                super(in);
+            }
+
+            @Override
+            public int read() throws IOException {
+
+                try {
+                    int value = super.read();
+                    ended = value == -1;
+                    return value;
+                } catch (IOException e) {
+                    broken = true;
+                    throw e;
+                }
+            }
+
+            @Override
+            public int read(byte[] buffer, int offset, int length) throws IOException {
+
+                try {
+                    int count = super.read(buffer, offset, length);
+                    ended = count == -1;
+                    return count;
+                } catch (IOException e) {
+                    broken = true;
+                    throw e;
+                }
+            }
+
+            @Override
+            public void close() throws IOException {
+
+                if (closedStream) {
+                    return;
+                }
+                closedStream = true;
+                boolean completed = false;
+                try {
+                    super.close();
+                    completed = ended;
+                } finally {
+                    completeTransfer(completed);
+                }
+            }
+        }
+
+        /**
+         * Writes the content of a transfer, which is complete once the stream is closed without an error.
+         */
+        private final class TransferOutputStream extends FilterOutputStream {
+
+            private boolean closedStream;
+
+            private TransferOutputStream(OutputStream out) {
+
+                super(out);
+            }
+
+            @Override
+            public void write(int value) throws IOException {
+
+                try {
+                    out.write(value);
+                } catch (IOException e) {
+                    broken = true;
+                    throw e;
+                }
+            }
+
+            @Override
+            public void write(byte[] buffer, int offset, int length) throws IOException {
+
+                try {
+                    out.write(buffer, offset, length);
+                } catch (IOException e) {
+                    broken = true;
+                    throw e;
+                }
+            }
+
+            @Override
+            public void close() throws IOException {
+
+                if (closedStream) {
+                    return;
+                }
+                closedStream = true;
+                boolean completed = false;
+                try {
+                    super.close();
+                    completed = true;
+                } finally {
+                    completeTransfer(completed);
+                }
+            }
+        }
+    }
+
+    /**
+     * A command sent to the underlying session of a {@link PooledSession}.
+     */
+    @FunctionalInterface
+    private interface SessionCall<T> {
+
+        T execute(FTPSession session) throws IOException;
+    }
+}
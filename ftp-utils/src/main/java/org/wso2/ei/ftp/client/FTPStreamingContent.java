@@ -0,0 +1,248 @@
+/*
+ * Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.ei.ftp.client;
+
+import org.ballerinalang.jvm.JSONGenerator;
+import org.ballerinalang.jvm.values.XMLValue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Produces upload content through a bounded pipe. The content is written to the pipe by a writer thread while the
+ * transport reads it into the data connection, so only the pipe buffer is held in memory regardless of the size of
+ * the content.
+ */
+class FTPStreamingContent {
+
+    static final int PIPE_BUFFER_SIZE = 64 * 1024;
+    static final String WRITER_THREAD_NAME = "ftp-content-writer-";
+
+    private static final Logger log = LoggerFactory.getLogger(FTPStreamingContent.class);
+    private static final AtomicInteger WRITER_COUNT = new AtomicInteger();
+
+    // The writers are not run on the I/O executor of the client: a writer is only drained by a transfer, which may
+    // itself hold the last I/O thread. There is one writer per running upload, which the limiter of the client bounds.
+    private static final ExecutorService WRITERS = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, WRITER_THREAD_NAME + WRITER_COUNT.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private FTPStreamingContent() {
+        // private constructor
+    }
+
+    static InputStream serializeJson(Object json, Charset charset) throws IOException {
+
+        return pipe(out -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, charset), PIPE_BUFFER_SIZE);
+            JSONGenerator generator = new JSONGenerator(writer);
+            generator.serialize(json);
+            generator.flush();
+            writer.close();
+        });
+    }
+
+    static InputStream serializeXml(XMLValue xml, Charset charset) throws IOException {
+
+        if (StandardCharsets.UTF_8.equals(charset)) {
+            return pipe(out -> {
+                xml.serialize(out);
+                out.close();
+            });
+        }
+        return pipe(out -> {
+            OutputStream transcoder = new TranscodingOutputStream(
+                    new BufferedWriter(new OutputStreamWriter(out, charset), PIPE_BUFFER_SIZE));
+            xml.serialize(transcoder);
+            transcoder.close();
+        });
+    }
+
+    /**
+     * Creates an input stream which reads the content written by the given writer. The writer is started on a writer
+     * thread when the stream is first read, and blocks while the pipe is full until the reader drains it. Any failure
+     * of the writer is reported to the reader of the stream.
+     *
+     * @param contentWriter writes the content to the pipe
+     * @return the input stream that reads the content
+     * @throws IOException if the pipe could not be created
+     */
+    static InputStream pipe(ContentWriter contentWriter) throws IOException {
+
+        PipedInputStream pipedInputStream = new PipedInputStream(PIPE_BUFFER_SIZE);
+        PipedOutputStream pipedOutputStream = new PipedOutputStream(pipedInputStream);
+        return new PipeInputStream(pipedInputStream, pipedOutputStream, contentWriter);
+    }
+
+    /**
+     * Writes content to an output stream.
+     */
+    @FunctionalInterface
+    interface ContentWriter {
+
+        void write(OutputStream outputStream) throws IOException;
+    }
+
+    /**
+     * Reading end of the pipe, which starts the writer and fails the read once the writer has failed.
+     */
+    private static class PipeInputStream extends FilterInputStream {
+
+        private final PipedOutputStream pipedOutputStream;
+        private final ContentWriter contentWriter;
+        private boolean started;
+        private volatile Exception failure;
+
+        PipeInputStream(PipedInputStream in, PipedOutputStream pipedOutputStream, ContentWriter contentWriter) {
+
+            super(in);
+            this.pipedOutputStream = pipedOutputStream;
+            this.contentWriter = contentWriter;
+        }
+
+        @Override
+        public int read() throws IOException {
+
+            startWriter();
+            return checkFailure(super.read());
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+
+            startWriter();
+            return checkFailure(super.read(buffer, offset, length));
+        }
+
+        private void startWriter() {
+
+            if (!started) {
+                started = true;
+                WRITERS.execute(this::writeToPipe);
+            }
+        }
+
+        private void writeToPipe() {
+
+            try {
+                contentWriter.write(pipedOutputStream);
+            } catch (IOException | RuntimeException e) {
+                log.error("Error while writing the content: " + e.getMessage(), e);
+                failure = e;
+            } finally {
+                try {
+                    pipedOutputStream.close();
+                } catch (IOException e) {
+                    log.warn("Error while closing the content pipe: " + e.getMessage());
+                }
+            }
+        }
+
+        private int checkFailure(int result) throws IOException {
+
+            if (result == -1 && failure != null) {
+                throw new IOException("Error while writing the content: " + failure.getMessage(), failure);
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Re-encodes UTF-8 encoded bytes to the charset of the given writer.
+     */
+    private static class TranscodingOutputStream extends OutputStream {
+
+        private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE);
+        private final ByteBuffer bytes = ByteBuffer.allocate(PIPE_BUFFER_SIZE);
+        private final CharBuffer chars = CharBuffer.allocate(PIPE_BUFFER_SIZE);
+        private final Writer writer;
+
+        TranscodingOutputStream(Writer writer) {
+
+            this.writer = writer;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] buffer, int offset, int length) throws IOException {
+
+            while (length > 0) {
+                int count = Math.min(length, bytes.remaining());
+                bytes.put(buffer, offset, count);
+                offset += count;
+                length -= count;
+                decode(false);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+
+            decode(true);
+            decoder.flush(chars);
+            writeChars();
+            writer.close();
+        }
+
+        private void decode(boolean endOfInput) throws IOException {
+
+            bytes.flip();
+            CoderResult result;
+            do {
+                result = decoder.decode(bytes, chars, endOfInput);
+                writeChars();
+            } while (result.isOverflow());
+            bytes.compact();
+        }
+
+        private void writeChars() throws IOException {
+
+            chars.flip();
+            writer.write(chars.array(), chars.arrayOffset() + chars.position(), chars.remaining());
+            chars.clear();
+        }
+    }
+}
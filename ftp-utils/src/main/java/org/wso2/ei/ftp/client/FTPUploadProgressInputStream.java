@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.ei.ftp.client;
+
+import org.wso2.ei.ftp.util.FTPScheduler;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reports the progress of the content of an upload as the transport reads it into the data connection. The transport
+ * starts reading the content once the connection and the store command are set up, and reads it to its end before it
+ * waits for the final reply, so the reads mark the data phase of the upload. The upload stalls if no read makes
+ * progress for the idle timeout.
+ */
+class FTPUploadProgressInputStream extends FilterInputStream {
+
+    private final long idleTimeoutMillis;
+    private final Observer observer;
+    private volatile ScheduledFuture<?> watchdog;
+    private boolean started;
+    private boolean ended;
+    private boolean stalled;
+    private volatile long activeAt;
+
+    /**
+     * Watches the content of an upload.
+     *
+     * @param in                the content
+     * @param idleTimeoutMillis the time the upload may make no progress before it stalls, or zero for no limit
+     * @param observer          the observer of the upload
+     */
+    FTPUploadProgressInputStream(InputStream in, long idleTimeoutMillis, Observer observer) {
+
+        super(in);
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.observer = observer;
+    }
+
+    @Override
+    public int read() throws IOException {
+
+        begin();
+        try {
+            return ended(super.read());
+        } finally {
+            activeAt = System.nanoTime();
+        }
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+
+        begin();
+        try {
+            return ended(super.read(b, off, len));
+        } finally {
+            activeAt = System.nanoTime();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+
+        stopWatchdog();
+        super.close();
+    }
+
+    private void begin() {
+
+        activeAt = System.nanoTime();
+        if (started) {
+            return;
+        }
+        started = true;
+        observer.started();
+        if (idleTimeoutMillis > 0) {
+            watchdog = FTPScheduler.scheduleWithFixedDelay(this::check, Math.max(idleTimeoutMillis / 2, 1));
+        }
+    }
+
+    private int ended(int result) {
+
+        if (result == -1 && !ended) {
+            ended = true;
+            stopWatchdog();
+            observer.ended();
+        }
+        return result;
+    }
+
+    /**
+     * Runs on the timer thread.
+     */
+    private void check() {
+
+        if (stalled || System.nanoTime() - activeAt < TimeUnit.MILLISECONDS.toNanos(idleTimeoutMillis)) {
+            return;
+        }
+        stalled = true;
+        stopWatchdog();
+        observer.stalled();
+    }
+
+    private void stopWatchdog() {
+
+        ScheduledFuture<?> scheduledWatchdog = watchdog;
+        if (scheduledWatchdog != null) {
+            scheduledWatchdog.cancel(false);
+        }
+    }
+
+    /**
+     * Observes the data phase of an upload.
+     */
+    interface Observer {
+
+        /**
+         * Called when the transport starts reading the content.
+         */
+        void started();
+
+        /**
+         * Called when the transport has read the content to its end.
+         */
+        void ended();
+
+        /**
+         * Called on the timer thread when the upload made no progress for the idle timeout. It must not block.
+         */
+        void stalled();
+    }
+}
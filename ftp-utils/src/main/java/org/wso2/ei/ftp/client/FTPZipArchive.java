@@ -0,0 +1,416 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.ei.ftp.client;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.UnaryOperator;
+import java.util.zip.CRC32;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Reads the entries of a remote ZIP archive without transferring the whole archive. The end of central directory
+ * record is found in the tail of the file, the central directory is read from its offset to the end of the file, and
+ * the content of an entry is read from the range of its local header and data only. ZIP64 archives are supported.
+ */
+class FTPZipArchive {
+
+    private static final int END_OF_CENTRAL_DIRECTORY_SIGNATURE = 0x06054b50;
+    private static final int ZIP64_END_OF_CENTRAL_DIRECTORY_SIGNATURE = 0x06064b50;
+    private static final int ZIP64_LOCATOR_SIGNATURE = 0x07064b50;
+    private static final int CENTRAL_DIRECTORY_HEADER_SIGNATURE = 0x02014b50;
+    private static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+    private static final int END_OF_CENTRAL_DIRECTORY_SIZE = 22;
+    private static final int MAX_COMMENT_SIZE = 0xFFFF;
+    private static final int ZIP64_LOCATOR_SIZE = 20;
+    private static final int CENTRAL_DIRECTORY_HEADER_SIZE = 46;
+    private static final int LOCAL_HEADER_SIZE = 30;
+    private static final int ZIP64_EXTRA_FIELD_ID = 0x0001;
+    private static final long ZIP64_MAGIC = 0xFFFFFFFFL;
+    private static final int FLAG_ENCRYPTED = 0x1;
+    private static final int METHOD_STORED = 0;
+    private static final int METHOD_DEFLATED = 8;
+    private static final int INFLATER_BUFFER_SIZE = 8192;
+
+    private FTPZipArchive() {
+        // private constructor
+    }
+
+    /**
+     * An entry of the central directory.
+     */
+    static class Entry {
+
+        private final String name;
+        private final int method;
+        private final int flags;
+        private final long crc;
+        private final long compressedSize;
+        private final long size;
+        private final long lastModified;
+        private final long localHeaderOffset;
+
+        Entry(String name, int method, int flags, long crc, long compressedSize, long size, long lastModified,
+              long localHeaderOffset) {
+
+            this.name = name;
+            this.method = method;
+            this.flags = flags;
+            this.crc = crc;
+            this.compressedSize = compressedSize;
+            this.size = size;
+            this.lastModified = lastModified;
+            this.localHeaderOffset = localHeaderOffset;
+        }
+
+        String getName() {
+
+            return name;
+        }
+
+        long getCrc() {
+
+            return crc;
+        }
+
+        long getCompressedSize() {
+
+            return compressedSize;
+        }
+
+        long getSize() {
+
+            return size;
+        }
+
+        long getLastModified() {
+
+            return lastModified;
+        }
+
+        boolean isDirectory() {
+
+            return name.endsWith("/");
+        }
+    }
+
+    /**
+     * Reads the central directory of an archive. Unless the central directory is in the tail of the file which is read
+     * to find the end of central directory record, it is read with a second ranged read.
+     *
+     * @param session        the session to read the archive with
+     * @param path           the path of the archive
+     * @param transferStream applied to the data streams of the reads
+     * @return the entries of the archive, in the order of the central directory
+     * @throws IOException if the archive could not be read or is not a valid ZIP archive
+     */
+    static List<Entry> readEntries(FTPSession session, String path, UnaryOperator<InputStream> transferStream)
+            throws IOException {
+
+        FTPFileStat stat = session.stat(path);
+        if (stat == null || stat.isDirectory()) {
+            throw new IOException("File not found: " + path);
+        }
+        long fileSize = stat.getSize();
+        if (fileSize < END_OF_CENTRAL_DIRECTORY_SIZE) {
+            throw new IOException(path + " is not a ZIP archive.");
+        }
+        long tailOffset = Math.max(0, fileSize - END_OF_CENTRAL_DIRECTORY_SIZE - MAX_COMMENT_SIZE - ZIP64_LOCATOR_SIZE);
+        ByteBuffer tail = readToEnd(session, path, tailOffset, fileSize, transferStream);
+
+        int end = findEndOfCentralDirectory(tail);
+        if (end < 0) {
+            throw new IOException(path + " is not a ZIP archive.");
+        }
+        long entryCount = tail.getShort(end + 10) & 0xFFFF;
+        long directorySize = tail.getInt(end + 12) & ZIP64_MAGIC;
+        long directoryOffset = tail.getInt(end + 16) & ZIP64_MAGIC;
+        if (entryCount == 0xFFFF || directorySize == ZIP64_MAGIC || directoryOffset == ZIP64_MAGIC) {
+            int locator = end - ZIP64_LOCATOR_SIZE;
+            if (locator < 0 || tail.getInt(locator) != ZIP64_LOCATOR_SIGNATURE) {
+                throw new IOException("The ZIP64 end of central directory locator of " + path + " is missing.");
+            }
+            long zip64End = tail.getLong(locator + 8);
+            ByteBuffer zip64Record = zip64End >= tailOffset ? slice(tail, zip64End - tailOffset)
+                    : readToEnd(session, path, zip64End, fileSize, transferStream);
+            if (zip64Record.getInt(0) != ZIP64_END_OF_CENTRAL_DIRECTORY_SIGNATURE) {
+                throw new IOException("The ZIP64 end of central directory record of " + path + " is invalid.");
+            }
+            entryCount = zip64Record.getLong(32);
+            directorySize = zip64Record.getLong(40);
+            directoryOffset = zip64Record.getLong(48);
+        }
+        if (directoryOffset < 0 || directorySize < 0 || directoryOffset + directorySize > fileSize) {
+            throw new IOException("The central directory of " + path + " is out of the bounds of the file.");
+        }
+
+        ByteBuffer directory = directoryOffset >= tailOffset ? slice(tail, directoryOffset - tailOffset)
+                : readToEnd(session, path, directoryOffset, fileSize, transferStream);
+        List<Entry> entries = new ArrayList<>(
+                (int) Math.min(entryCount, directorySize / CENTRAL_DIRECTORY_HEADER_SIZE));
+        int position = 0;
+        for (long i = 0; i < entryCount; i++) {
+            entries.add(readEntry(directory, position, path));
+            position += CENTRAL_DIRECTORY_HEADER_SIZE + (directory.getShort(position + 28) & 0xFFFF)
+                    + (directory.getShort(position + 30) & 0xFFFF) + (directory.getShort(position + 32) & 0xFFFF);
+        }
+        return entries;
+    }
+
+    /**
+     * Opens the content of an entry. Only the local header and the data of the entry are transferred, and the
+     * session is closed once the content has been read or the stream is closed.
+     *
+     * @param session        the session to read the archive with, which is owned by the returned stream
+     * @param path           the path of the archive
+     * @param entry          the entry
+     * @param transferStream applied to the data stream of the read
+     * @return the uncompressed content of the entry, whose CRC-32 is verified once it has been read
+     * @throws IOException if the content could not be read
+     */
+    static InputStream openEntry(FTPSession session, String path, Entry entry,
+                                 UnaryOperator<InputStream> transferStream) throws IOException {
+
+        if ((entry.flags & FLAG_ENCRYPTED) != 0) {
+            throw new IOException("The entry " + entry.name + " of " + path + " is encrypted.");
+        }
+        if (entry.method != METHOD_STORED && entry.method != METHOD_DEFLATED) {
+            throw new IOException("The entry " + entry.name + " of " + path
+                    + " uses the unsupported compression method " + entry.method + ".");
+        }
+        InputStream in = transferStream.apply(session.retrieve(path, entry.localHeaderOffset));
+        try {
+            DataInputStream header = new DataInputStream(in);
+            byte[] fixedHeader = new byte[LOCAL_HEADER_SIZE];
+            header.readFully(fixedHeader);
+            ByteBuffer localHeader = ByteBuffer.wrap(fixedHeader).order(ByteOrder.LITTLE_ENDIAN);
+            if (localHeader.getInt(0) != LOCAL_HEADER_SIGNATURE) {
+                throw new IOException("The local header of the entry " + entry.name + " of " + path + " is invalid.");
+            }
+            // The lengths of the local header may differ from the ones of the central directory header
+            int variableLength = (localHeader.getShort(26) & 0xFFFF) + (localHeader.getShort(28) & 0xFFFF);
+            header.readFully(new byte[variableLength]);
+        } catch (IOException e) {
+            FTPClientHelper.closeStream(in);
+            throw e;
+        }
+
+        InputStream data = new FTPRangeInputStream(session, in, entry.compressedSize);
+        if (entry.method == METHOD_STORED) {
+            return new EntryInputStream(data, null, entry);
+        }
+        // Raw deflate data needs a trailing dummy byte for the inflater to detect the end of the data
+        Inflater inflater = new Inflater(true);
+        InputStream padded = new SequenceInputStream(data, new ByteArrayInputStream(new byte[1]));
+        return new EntryInputStream(new InflaterInputStream(padded, inflater, INFLATER_BUFFER_SIZE), inflater, entry);
+    }
+
+    static Entry findEntry(List<Entry> entries, String name) {
+
+        for (Entry entry : entries) {
+            if (entry.name.equals(name)) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    private static Entry readEntry(ByteBuffer directory, int position, String path) throws IOException {
+
+        if (position + CENTRAL_DIRECTORY_HEADER_SIZE > directory.limit()
+                || directory.getInt(position) != CENTRAL_DIRECTORY_HEADER_SIGNATURE) {
+            throw new IOException("The central directory of " + path + " is invalid.");
+        }
+        int flags = directory.getShort(position + 8) & 0xFFFF;
+        int method = directory.getShort(position + 10) & 0xFFFF;
+        int time = directory.getShort(position + 12) & 0xFFFF;
+        int date = directory.getShort(position + 14) & 0xFFFF;
+        long crc = directory.getInt(position + 16) & ZIP64_MAGIC;
+        long compressedSize = directory.getInt(position + 20) & ZIP64_MAGIC;
+        long size = directory.getInt(position + 24) & ZIP64_MAGIC;
+        int nameLength = directory.getShort(position + 28) & 0xFFFF;
+        int extraLength = directory.getShort(position + 30) & 0xFFFF;
+        long localHeaderOffset = directory.getInt(position + 42) & ZIP64_MAGIC;
+        int nameStart = position + CENTRAL_DIRECTORY_HEADER_SIZE;
+        if (nameStart + nameLength + extraLength > directory.limit()) {
+            throw new IOException("The central directory of " + path + " is invalid.");
+        }
+        byte[] nameBytes = new byte[nameLength];
+        ((ByteBuffer) directory.duplicate().position(nameStart)).get(nameBytes);
+        String name = new String(nameBytes, StandardCharsets.UTF_8);
+
+        // The ZIP64 extended information holds, in order, the fields of the header which are set to 0xFFFFFFFF
+        int extra = nameStart + nameLength;
+        int extraEnd = extra + extraLength;
+        while (extra + 4 <= extraEnd) {
+            int id = directory.getShort(extra) & 0xFFFF;
+            int length = directory.getShort(extra + 2) & 0xFFFF;
+            if (id == ZIP64_EXTRA_FIELD_ID) {
+                int field = extra + 4;
+                int fieldEnd = Math.min(field + length, extraEnd);
+                if (size == ZIP64_MAGIC && field + 8 <= fieldEnd) {
+                    size = directory.getLong(field);
+                    field += 8;
+                }
+                if (compressedSize == ZIP64_MAGIC && field + 8 <= fieldEnd) {
+                    compressedSize = directory.getLong(field);
+                    field += 8;
+                }
+                if (localHeaderOffset == ZIP64_MAGIC && field + 8 <= fieldEnd) {
+                    localHeaderOffset = directory.getLong(field);
+                }
+                break;
+            }
+            extra += 4 + length;
+        }
+        return new Entry(name, method, flags, crc, compressedSize, size, toEpochMillis(date, time),
+                localHeaderOffset);
+    }
+
+    private static int findEndOfCentralDirectory(ByteBuffer tail) {
+
+        for (int i = tail.limit() - END_OF_CENTRAL_DIRECTORY_SIZE; i >= 0; i--) {
+            if (tail.getInt(i) == END_OF_CENTRAL_DIRECTORY_SIGNATURE
+                    && i + END_OF_CENTRAL_DIRECTORY_SIZE + (tail.getShort(i + 20) & 0xFFFF) == tail.limit()) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static long toEpochMillis(int date, int time) {
+
+        try {
+            return LocalDateTime.of(((date >> 9) & 0x7F) + 1980, (date >> 5) & 0x0F, date & 0x1F,
+                    (time >> 11) & 0x1F, (time >> 5) & 0x3F, (time & 0x1F) * 2)
+                    .atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        } catch (DateTimeException e) {
+            return 0;
+        }
+    }
+
+    private static ByteBuffer readToEnd(FTPSession session, String path, long offset, long fileSize,
+                                        UnaryOperator<InputStream> transferStream) throws IOException {
+
+        long length = fileSize - offset;
+        if (length > Integer.MAX_VALUE) {
+            throw new IOException("The central directory of " + path + " is too large.");
+        }
+        byte[] buffer = new byte[(int) length];
+        // The range ends at the end of the file, so the transfer completes and the session can be reused
+        try (DataInputStream in = new DataInputStream(transferStream.apply(session.retrieve(path, offset)))) {
+            in.readFully(buffer);
+        } catch (EOFException e) {
+            throw new IOException(path + " was truncated while it was being read.", e);
+        }
+        return ByteBuffer.wrap(buffer).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static ByteBuffer slice(ByteBuffer buffer, long position) {
+
+        return ((ByteBuffer) buffer.duplicate().position((int) position)).slice().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Content of an entry. The CRC-32 of the content is verified against the central directory at the end of the
+     * content, and the inflater is released when the stream is closed.
+     */
+    private static class EntryInputStream extends FilterInputStream {
+
+        private final Inflater inflater;
+        private final Entry entry;
+        private final CRC32 crc = new CRC32();
+        private long count;
+        private boolean verified;
+
+        EntryInputStream(InputStream in, Inflater inflater, Entry entry) {
+
+            super(in);
+            this.inflater = inflater;
+            this.entry = entry;
+        }
+
+        @Override
+        public int read() throws IOException {
+
+            byte[] single = new byte[1];
+            return read(single, 0, 1) == -1 ? -1 : single[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+
+            int read = in.read(buffer, offset, length);
+            if (read == -1) {
+                verify();
+                return -1;
+            }
+            crc.update(buffer, offset, read);
+            count += read;
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+
+            // Skipped bytes still have to go through the checksum
+            byte[] buffer = new byte[(int) Math.min(n, INFLATER_BUFFER_SIZE)];
+            int read = read(buffer, 0, buffer.length);
+            return read == -1 ? 0 : read;
+        }
+
+        @Override
+        public void close() throws IOException {
+
+            try {
+                super.close();
+            } finally {
+                if (inflater != null) {
+                    inflater.end();
+                }
+            }
+        }
+
+        private void verify() throws IOException {
+
+            if (verified) {
+                return;
+            }
+            verified = true;
+            if (count != entry.size || crc.getValue() != entry.crc) {
+                throw new IOException("The content of the entry " + entry.name + " does not match its size and "
+                        + "CRC-32 in the central directory.");
+            }
+        }
+    }
+}
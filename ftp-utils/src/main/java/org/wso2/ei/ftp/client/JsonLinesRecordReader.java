@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.ei.ftp.client;
+
+import org.ballerinalang.jvm.JSONParser;
+import org.ballerinalang.jvm.types.BArrayType;
+import org.ballerinalang.jvm.types.BTypes;
+import org.ballerinalang.jvm.util.exceptions.BallerinaException;
+import org.ballerinalang.jvm.values.ArrayValue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+
+/**
+ * Reads newline delimited JSON records.
+ */
+class JsonLinesRecordReader extends FTPRecordReader {
+
+    private static final BArrayType BATCH_TYPE = new BArrayType(BTypes.typeJSON);
+
+    private final BufferedReader reader;
+    private long lineNumber = 0;
+
+    JsonLinesRecordReader(InputStream inputStream, Charset charset, int batchSize) {
+
+        super(inputStream, batchSize);
+        this.reader = new BufferedReader(createReader(inputStream, charset), CHAR_BUFFER_SIZE);
+    }
+
+    @Override
+    ArrayValue readBatch(int maxRecords) throws IOException {
+
+        ArrayValue batch = null;
+        int count = 0;
+        String line;
+        while (count < maxRecords && (line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.trim().isEmpty()) {
+                continue;
+            }
+            Object value;
+            try {
+                value = JSONParser.parse(line);
+            } catch (BallerinaException e) {
+                throw new IOException("Invalid JSON record at line " + lineNumber + ": " + e.getMessage(), e);
+            }
+            if (batch == null) {
+                batch = new ArrayValue(BATCH_TYPE);
+            }
+            batch.add(count++, value);
+        }
+        return batch;
+    }
+}
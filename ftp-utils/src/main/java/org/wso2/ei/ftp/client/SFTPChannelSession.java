@@ -0,0 +1,343 @@
+/*
+ * Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.ei.ftp.client;
+
+import com.jcraft.jsch.ChannelSftp;
+import com.jcraft.jsch.JSch;
+import com.jcraft.jsch.JSchException;
+import com.jcraft.jsch.Session;
+import com.jcraft.jsch.SftpATTRS;
+import com.jcraft.jsch.SftpException;
+import com.jcraft.jsch.SocketFactory;
+
+import org.wso2.ei.ftp.util.FTPHostKeyPolicy;
+import org.wso2.ei.ftp.util.FTPTimeouts;
+
+import java.io.File;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * {@link FTPSession} implementation for the SFTP protocol.
+ */
+class SFTPChannelSession implements FTPSession {
+
+    private static final String SFTP_CHANNEL = "sftp";
+    private static final String STRICT_HOST_KEY_CHECKING = "StrictHostKeyChecking";
+    private static final int OWNER_READ = 0400;
+    private static final int OWNER_WRITE = 0200;
+    private static final int OWNER_EXECUTE = 0100;
+
+    private final Session session;
+    private final ChannelSftp channel;
+    private final int connectTimeout;
+
+    SFTPChannelSession(String host, int port, String username, String password, FTPTimeouts timeouts,
+                       FTPHostKeyPolicy hostKeyPolicy) throws IOException {
+
+        Session jschSession = null;
+        ConnectingSocketFactory socketFactory = new ConnectingSocketFactory(timeouts.getConnectTimeout());
+        try {
+            JSch jsch = new JSch();
+            if (new File(hostKeyPolicy.getKnownHosts()).isFile()) {
+                jsch.setKnownHosts(hostKeyPolicy.getKnownHosts());
+            }
+            jschSession = jsch.getSession(username, host, port);
+            if (password != null) {
+                jschSession.setPassword(password);
+            }
+            jschSession.setConfig(STRICT_HOST_KEY_CHECKING, hostKeyPolicy.isStrict() ? "yes" : "no");
+            jschSession.setSocketFactory(socketFactory);
+            jschSession.setTimeout(timeouts.getCommandTimeout());
+            jschSession.connect(timeouts.getConnectTimeout());
+            ChannelSftp sftpChannel = (ChannelSftp) jschSession.openChannel(SFTP_CHANNEL);
+            sftpChannel.connect(timeouts.getConnectTimeout());
+            session = jschSession;
+            channel = sftpChannel;
+            connectTimeout = timeouts.getConnectTimeout();
+        } catch (JSchException e) {
+            if (jschSession != null) {
+                jschSession.disconnect();
+            }
+            if (socketFactory.failure != null) {
+                throw new FTPConnectException("Unable to connect to " + host + ":" + port + ": "
+                        + socketFactory.failure.getMessage(), socketFactory.failure);
+            }
+            throw new IOException("Unable to open an SFTP session: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public InputStream retrieve(String path, long offset) throws IOException {
+
+        try {
+            return channel.get(path, null, offset);
+        } catch (SftpException e) {
+            throw new IOException("Unable to read the file " + path + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Opens a stream which writes a file from its beginning, replacing its content. The channel sends the writes
+     * without waiting for their acknowledgements, which are collected as they arrive and checked when the stream is
+     * closed.
+     *
+     * @param path the path of the file
+     * @return the stream
+     * @throws IOException if the file could not be opened for writing
+     */
+    OutputStream store(String path) throws IOException {
+
+        try {
+            return channel.put(path, ChannelSftp.OVERWRITE);
+        } catch (SftpException e) {
+            throw new IOException("Unable to write the file " + path + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Opens an additional SFTP channel over the SSH connection of the session, so that requests can be in flight on
+     * several channels at once. The channel is closed with the session.
+     *
+     * @param bulkRequests the number of read requests the channel keeps in flight while a file is read
+     * @return the channel
+     * @throws IOException if the channel could not be opened
+     */
+    ChannelSftp openChannel(int bulkRequests) throws IOException {
+
+        try {
+            ChannelSftp sftpChannel = (ChannelSftp) session.openChannel(SFTP_CHANNEL);
+            sftpChannel.connect(connectTimeout);
+            sftpChannel.setBulkRequests(bulkRequests);
+            return sftpChannel;
+        } catch (JSchException e) {
+            throw new IOException("Unable to open an SFTP channel: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public String checksum(String path, String algorithm) {
+
+        // The SFTP protocol does not define a checksum command
+        return null;
+    }
+
+    @Override
+    public FTPFileStat stat(String path) throws IOException {
+
+        try {
+            return toStat(channel.stat(path));
+        } catch (SftpException e) {
+            if (e.id == ChannelSftp.SSH_FX_NO_SUCH_FILE) {
+                return null;
+            }
+            throw new IOException("Unable to get the attributes of " + path + ": " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public boolean supportsMachineListing() {
+
+        // SFTP always reports the attributes of the entries in binary form
+        return true;
+    }
+
+    @Override
+    public Map<String, FTPFileStat> list(String path, String nameGlob, boolean machineListing) throws IOException {
+
+        try {
+            Map<String, FTPFileStat> entries = new LinkedHashMap<>();
+            // the channel matches the wildcards of the last path element itself, against the names of the entries
+            String pattern = nameGlob == null ? path : (path.endsWith("/") ? path : path + "/") + nameGlob;
+            channel.ls(pattern, entry -> {
+                String name = entry.getFilename();
+                if (!".".equals(name) && !"..".equals(name)) {
+                    entries.put(name, toStat(entry.getAttrs()));
+                }
+                return ChannelSftp.LsEntrySelector.CONTINUE;
+            });
+            return entries;
+        } catch (SftpException e) {
+            throw new IOException("Unable to list " + path + ": " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public boolean supportsOffsetStore() {
+
+        // SFTP writes carry their offset, though JSch only exposes them relative to the size of the file
+        return true;
+    }
+
+    @Override
+    public void allocate(String path, long size) throws IOException {
+
+        // The last byte is written right away, so that the file has its final size while the ranges are written.
+        // storeAt relies on it.
+        try (OutputStream out = channel.put(path, null, ChannelSftp.OVERWRITE, Math.max(size - 1, 0))) {
+            if (size > 0) {
+                out.write(0);
+            }
+        } catch (SftpException e) {
+            throw new IOException("Unable to create the file " + path + ": " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public OutputStream storeAt(String path, long offset, long size) throws IOException {
+
+        OutputStream out;
+        try {
+            // JSch opens a file for writing without truncating it only in the resume and append modes, which write
+            // from the given offset relative to the size of the file when it is opened. allocate gives the file its
+            // final size, and the ranges are written within it, so that size is the allocated size.
+            out = channel.put(path, null, ChannelSftp.RESUME, offset - size);
+        } catch (SftpException e) {
+            throw new IOException("Unable to write the file " + path + ": " + e.getMessage(), e);
+        }
+        return new FilterOutputStream(out) {
+            @Override
+            public void write(byte[] buffer, int start, int length) throws IOException {
+
+                out.write(buffer, start, length);
+            }
+
+            @Override
+            public void close() throws IOException {
+
+                super.close();
+                // A file whose size changed while the range was written does not hold the range at its offset
+                FTPFileStat stat = stat(path);
+                if (stat == null || stat.getSize() != size) {
+                    throw new IOException("The file " + path + " no longer has its allocated size of " + size
+                            + " bytes, the range written from " + offset + " may be misplaced.");
+                }
+            }
+        };
+    }
+
+    @Override
+    public void rename(String origin, String destination) throws IOException {
+
+        try {
+            channel.rename(origin, destination);
+        } catch (SftpException e) {
+            // A server without the POSIX rename extension does not replace an existing destination
+            if (stat(destination) == null) {
+                throw new IOException("Unable to rename " + origin + " to " + destination + ": " + e.getMessage(), e);
+            }
+            try {
+                channel.rm(destination);
+                channel.rename(origin, destination);
+            } catch (SftpException retryError) {
+                throw new IOException("Unable to rename " + origin + " to " + destination + ": "
+                        + retryError.getMessage(), retryError);
+            }
+        }
+    }
+
+    @Override
+    public void delete(String path) throws IOException {
+
+        try {
+            channel.rm(path);
+        } catch (SftpException e) {
+            throw new IOException("Unable to delete " + path + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static FTPFileStat toStat(SftpATTRS attributes) {
+
+        int permissions = attributes.getPermissions();
+        return new FTPFileStat(attributes.isDir(), attributes.isDir() ? 0 : attributes.getSize(),
+                attributes.getMTime() * 1000L, (permissions & OWNER_READ) != 0,
+                (permissions & OWNER_WRITE) != 0, (permissions & OWNER_EXECUTE) != 0);
+    }
+
+    @Override
+    public void noop() throws IOException {
+
+        // SFTP has no NOOP request. Resolving the working directory is a round trip which changes nothing.
+        try {
+            channel.realpath(".");
+        } catch (SftpException e) {
+            throw new IOException("The server did not answer a request: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public boolean isConnected() {
+
+        return session.isConnected() && channel.isConnected();
+    }
+
+    @Override
+    public void close() {
+
+        channel.disconnect();
+        session.disconnect();
+    }
+
+    /**
+     * Opens the socket of a session with the connect timeout, and keeps the failure to open it, which JSch reports
+     * without its type.
+     */
+    private static class ConnectingSocketFactory implements SocketFactory {
+
+        private final int connectTimeout;
+        private volatile IOException failure;
+
+        ConnectingSocketFactory(int connectTimeout) {
+
+            this.connectTimeout = connectTimeout;
+        }
+
+        @Override
+        public Socket createSocket(String host, int port) throws IOException {
+
+            Socket socket = new Socket();
+            try {
+                socket.connect(new InetSocketAddress(host, port), connectTimeout);
+                return socket;
+            } catch (IOException e) {
+                socket.close();
+                failure = e;
+                throw e;
+            }
+        }
+
+        @Override
+        public InputStream getInputStream(Socket socket) throws IOException {
+
+            return socket.getInputStream();
+        }
+
+        @Override
+        public OutputStream getOutputStream(Socket socket) throws IOException {
+
+            return socket.getOutputStream();
+        }
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.ei.ftp.client;
+
+import org.ballerinalang.jvm.values.MapValue;
+import org.wso2.ei.ftp.util.BallerinaFTPException;
+import org.wso2.ei.ftp.util.FTPConstants;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Transfers files over SFTP with several requests in flight, so that the throughput of a transfer is not bounded by
+ * the round trip time of the link. Downloads are read by a {@link SFTPPipelinedInputStream}. Uploads are written in
+ * requests of the configured size, which the channel sends without waiting for their acknowledgements.
+ */
+class SFTPPipeline {
+
+    private static final int MAX_OUTSTANDING_REQUESTS = 256;
+    private static final int MAX_REQUEST_SIZE = 16 * 1024 * 1024;
+
+    private final int outstandingRequests;
+    private final int requestSize;
+
+    private SFTPPipeline(int outstandingRequests, int requestSize) {
+
+        this.outstandingRequests = outstandingRequests;
+        this.requestSize = requestSize;
+    }
+
+    /**
+     * Creates a pipeline from the `SftpPipelineConfig` of a client.
+     *
+     * @param config the pipeline configuration, or null if transfers are not pipelined
+     * @return the pipeline, or null if transfers are not pipelined
+     * @throws BallerinaFTPException if a value is out of range
+     */
+    static SFTPPipeline create(MapValue config) throws BallerinaFTPException {
+
+        if (config == null) {
+            return null;
+        }
+        return new SFTPPipeline(getValue(config, FTPConstants.PIPELINE_OUTSTANDING_REQUESTS, MAX_OUTSTANDING_REQUESTS),
+                getValue(config, FTPConstants.PIPELINE_REQUEST_SIZE, MAX_REQUEST_SIZE));
+    }
+
+    /**
+     * Opens a stream which reads a file with pipelined requests. The session is closed with the stream.
+     *
+     * @param session the session
+     * @param path    the path of the file
+     * @return the stream
+     * @throws IOException if the file does not exist or could not be read
+     */
+    InputStream retrieve(SFTPChannelSession session, String path) throws IOException {
+
+        FTPFileStat stat = session.stat(path);
+        if (stat == null || stat.isDirectory()) {
+            throw new IOException("Unable to read the file " + path + ": No such file");
+        }
+        return new SFTPPipelinedInputStream(session, path, stat.getSize(), 0, requestSize, outstandingRequests);
+    }
+
+    /**
+     * Writes a file with pipelined requests, replacing its content.
+     *
+     * @param session the session
+     * @param path    the path of the file
+     * @param content the content, which is closed once written
+     * @throws IOException if the file could not be written
+     */
+    void store(SFTPChannelSession session, String path, InputStream content) throws IOException {
+
+        byte[] buffer = new byte[requestSize];
+        try (InputStream in = content; OutputStream out = session.store(path)) {
+            int count;
+            while ((count = readRequest(in, buffer)) > 0) {
+                out.write(buffer, 0, count);
+            }
+        }
+    }
+
+    /**
+     * Fills the buffer as far as the content allows, so that each write request carries a full request.
+     */
+    private static int readRequest(InputStream in, byte[] buffer) throws IOException {
+
+        int read = 0;
+        int count;
+        while (read < buffer.length && (count = in.read(buffer, read, buffer.length - read)) != -1) {
+            read += count;
+        }
+        return read;
+    }
+
+    private static int getValue(MapValue config, String key, int max) throws BallerinaFTPException {
+
+        long value = config.getIntValue(key);
+        if (value <= 0 || value > max) {
+            throw new BallerinaFTPException("Invalid value " + value + " for " + key + ". The value should be "
+                    + "between 1 and " + max + ".");
+        }
+        return (int) value;
+    }
+}
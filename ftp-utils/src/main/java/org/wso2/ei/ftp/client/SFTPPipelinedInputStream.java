@@ -0,0 +1,287 @@
+/*
+ * Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.ei.ftp.client;
+
+import com.jcraft.jsch.ChannelSftp;
+import com.jcraft.jsch.SftpException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reads a remote file over SFTP with several read requests in flight. The file is split into requests of a fixed
+ * size, which are sent over a few channels of the same SSH connection, up to a number of requests ahead of the
+ * reader. The requests complete in any order and are handed to the reader in the order of their offsets, so at most
+ * the outstanding requests are held in memory. Each stream fetches on as many threads as it may open channels, so a
+ * request never waits for a channel on a thread of its own.
+ */
+class SFTPPipelinedInputStream extends InputStream {
+
+    /**
+     * Maximum number of channels a transfer opens. SSH servers commonly limit the number of channels of a connection
+     * to ten.
+     */
+    static final int MAX_CHANNELS = 8;
+
+    /**
+     * Length of a single read of the SFTP channel, which splits a request into reads of this length.
+     */
+    private static final int CHANNEL_READ_LENGTH = 32 * 1024;
+    private static final long THREAD_KEEP_ALIVE_SECONDS = 30;
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+    private final SFTPChannelSession session;
+    private final String path;
+    private final long size;
+    private final int requestSize;
+    private final int outstandingRequests;
+    private final int maxChannels;
+    private final ThreadPoolExecutor requestExecutor;
+    private final Object channelLock = new Object();
+    private final Deque<ChannelSftp> idleChannels = new ArrayDeque<>();
+    private int openedChannels;
+    private final Deque<Future<byte[]>> requests = new ArrayDeque<>();
+    private long nextOffset;
+    private byte[] current;
+    private int position;
+    private volatile boolean closed;
+
+    /**
+     * Creates the stream and sends the first requests.
+     *
+     * @param session             the session, which is closed with the stream
+     * @param path                the path of the file
+     * @param size                the size of the file
+     * @param offset              the offset to start reading from
+     * @param requestSize         the number of bytes of each request
+     * @param outstandingRequests the maximum number of requests in flight or waiting for the reader
+     */
+    SFTPPipelinedInputStream(SFTPChannelSession session, String path, long size, long offset, int requestSize,
+                             int outstandingRequests) throws IOException {
+
+        this.session = session;
+        this.path = path;
+        this.size = size;
+        this.requestSize = requestSize;
+        this.outstandingRequests = outstandingRequests;
+        this.maxChannels = Math.min(outstandingRequests, MAX_CHANNELS);
+        this.requestExecutor = new ThreadPoolExecutor(maxChannels, maxChannels, THREAD_KEEP_ALIVE_SECONDS,
+                TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "sftp-pipeline-" + THREAD_COUNT.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.requestExecutor.allowCoreThreadTimeOut(true);
+        this.nextOffset = offset;
+        sendRequests();
+    }
+
+    @Override
+    public int read() throws IOException {
+
+        byte[] buffer = new byte[1];
+        int count = read(buffer, 0, 1);
+        return count == -1 ? -1 : buffer[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+
+        if (length == 0) {
+            return 0;
+        }
+        if (!nextRequest()) {
+            return -1;
+        }
+        int count = Math.min(length, current.length - position);
+        System.arraycopy(current, position, buffer, offset, count);
+        position += count;
+        return count;
+    }
+
+    @Override
+    public int available() {
+
+        return current == null ? 0 : current.length - position;
+    }
+
+    @Override
+    public void close() throws IOException {
+
+        if (closed) {
+            return;
+        }
+        closed = true;
+        for (Future<byte[]> request : requests) {
+            request.cancel(true);
+        }
+        requests.clear();
+        requestExecutor.shutdownNow();
+        synchronized (channelLock) {
+            channelLock.notifyAll();
+        }
+        current = null;
+        session.close();
+    }
+
+    /**
+     * Makes the content of the next request current once the current one is fully read.
+     *
+     * @return false at the end of the file
+     */
+    private boolean nextRequest() throws IOException {
+
+        if (closed) {
+            throw new IOException("The stream of " + path + " is closed.");
+        }
+        while (current == null || position == current.length) {
+            Future<byte[]> request = requests.poll();
+            if (request == null) {
+                return false;
+            }
+            try {
+                current = request.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while reading " + path + ".");
+            } catch (ExecutionException | CancellationException e) {
+                Throwable cause = e.getCause() == null ? e : e.getCause();
+                throw cause instanceof IOException ? (IOException) cause
+                        : new IOException("Unable to read the file " + path + ": " + cause.getMessage(), cause);
+            }
+            position = 0;
+            if (current.length < requestSize) {
+                // The file is shorter than it was when the transfer started
+                discardRequests();
+            } else {
+                sendRequests();
+            }
+        }
+        return true;
+    }
+
+    private void sendRequests() throws IOException {
+
+        while (requests.size() < outstandingRequests && nextOffset < size) {
+            long offset = nextOffset;
+            int length = (int) Math.min(requestSize, size - offset);
+            try {
+                requests.add(requestExecutor.submit(() -> fetch(offset, length)));
+            } catch (RejectedExecutionException e) {
+                throw new IOException("Unable to send a read request for " + path + ": " + e.getMessage(), e);
+            }
+            nextOffset += length;
+        }
+    }
+
+    private void discardRequests() {
+
+        for (Future<byte[]> request : requests) {
+            request.cancel(false);
+        }
+        requests.clear();
+        nextOffset = size;
+    }
+
+    /**
+     * Reads a range of the file on an idle channel. The content is shorter than the range only at the end of the
+     * file.
+     */
+    byte[] fetch(long offset, int length) throws IOException, InterruptedException {
+
+        ChannelSftp channel = acquireChannel();
+        boolean reusable = false;
+        byte[] content = new byte[length];
+        int read = 0;
+        try (InputStream in = channel.get(path, null, offset)) {
+            int count;
+            while (read < length && (count = in.read(content, read, length - read)) != -1) {
+                read += count;
+            }
+            reusable = true;
+        } catch (SftpException e) {
+            throw new IOException("Unable to read the file " + path + ": " + e.getMessage(), e);
+        } finally {
+            releaseChannel(channel, reusable);
+        }
+        return read == length ? content : Arrays.copyOf(content, read);
+    }
+
+    /**
+     * Takes an idle channel, or opens one while the stream has fewer than its maximum. As the requests run on no more
+     * threads than the stream may open channels, a request only waits for a channel a failed request is releasing.
+     */
+    private ChannelSftp acquireChannel() throws IOException, InterruptedException {
+
+        synchronized (channelLock) {
+            while (idleChannels.isEmpty() && openedChannels >= maxChannels) {
+                if (closed) {
+                    throw new IOException("The stream of " + path + " is closed.");
+                }
+                channelLock.wait();
+            }
+            if (closed) {
+                throw new IOException("The stream of " + path + " is closed.");
+            }
+            if (!idleChannels.isEmpty()) {
+                return idleChannels.poll();
+            }
+            openedChannels++;
+        }
+        try {
+            return session.openChannel(Math.max(1, requestSize / CHANNEL_READ_LENGTH));
+        } catch (IOException e) {
+            synchronized (channelLock) {
+                openedChannels--;
+                channelLock.notifyAll();
+            }
+            throw e;
+        }
+    }
+
+    private void releaseChannel(ChannelSftp channel, boolean reusable) {
+
+        boolean idle;
+        synchronized (channelLock) {
+            idle = reusable && !closed;
+            if (idle) {
+                idleChannels.offer(channel);
+            } else {
+                openedChannels--;
+            }
+            channelLock.notifyAll();
+        }
+        if (!idle) {
+            // A channel left in an unknown state by a failed request is replaced by a new one
+            channel.disconnect();
+        }
+    }
+}
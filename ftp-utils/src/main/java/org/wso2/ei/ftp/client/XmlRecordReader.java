@@ -0,0 +1,217 @@
+/*
+ * Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.ei.ftp.client;
+
+import org.ballerinalang.jvm.XMLFactory;
+import org.ballerinalang.jvm.types.BArrayType;
+import org.ballerinalang.jvm.types.BTypes;
+import org.ballerinalang.jvm.util.exceptions.BallerinaException;
+import org.ballerinalang.jvm.values.ArrayValue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.nio.charset.Charset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+
+/**
+ * Reads the repeating elements of an XML document as separate XML records. If a record element name is not given,
+ * each child element of the document root is treated as a record. The namespaces declared on the ancestors of a
+ * record are declared again on the record element, so that each record is a complete document.
+ */
+class XmlRecordReader extends FTPRecordReader {
+
+    private static final BArrayType BATCH_TYPE = new BArrayType(BTypes.typeXML);
+    private static final XMLInputFactory INPUT_FACTORY = XMLInputFactory.newInstance();
+    private static final XMLOutputFactory OUTPUT_FACTORY = XMLOutputFactory.newInstance();
+
+    static {
+        INPUT_FACTORY.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        INPUT_FACTORY.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    }
+
+    private final XMLStreamReader reader;
+    private final String recordElement;
+    private final StringWriter recordBuffer = new StringWriter(CHAR_BUFFER_SIZE);
+    // Namespace bindings declared by the open ancestor elements, innermost last
+    private final List<String[]> namespaceScope = new ArrayList<>();
+    private final Deque<Integer> namespaceScopeSizes = new ArrayDeque<>();
+    private int depth = 0;
+
+    XmlRecordReader(InputStream inputStream, Charset charset, int batchSize, String recordElement)
+            throws IOException {
+
+        super(inputStream, batchSize);
+        this.recordElement = recordElement == null || recordElement.isEmpty() ? null : recordElement;
+        try {
+            this.reader = INPUT_FACTORY.createXMLStreamReader(createReader(inputStream, charset));
+        } catch (XMLStreamException e) {
+            throw new IOException("Unable to read the XML content: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    ArrayValue readBatch(int maxRecords) throws IOException {
+
+        ArrayValue batch = null;
+        int count = 0;
+        try {
+            while (count < maxRecords && reader.hasNext()) {
+                if (reader.next() == XMLStreamConstants.END_ELEMENT) {
+                    depth--;
+                    closeNamespaceScope();
+                    continue;
+                }
+                if (reader.getEventType() != XMLStreamConstants.START_ELEMENT) {
+                    continue;
+                }
+                depth++;
+                if (!isRecordStart()) {
+                    openNamespaceScope();
+                    continue;
+                }
+                copyRecord();
+                depth--;
+                if (batch == null) {
+                    batch = new ArrayValue(BATCH_TYPE);
+                }
+                batch.add(count++, XMLFactory.parse(recordBuffer.toString()));
+            }
+        } catch (XMLStreamException | BallerinaException e) {
+            throw new IOException("Invalid XML content: " + e.getMessage(), e);
+        }
+        return batch;
+    }
+
+    private boolean isRecordStart() {
+
+        if (recordElement == null) {
+            return depth == 2;
+        }
+        return recordElement.equals(reader.getLocalName());
+    }
+
+    private void openNamespaceScope() {
+
+        namespaceScopeSizes.push(namespaceScope.size());
+        for (int i = 0; i < reader.getNamespaceCount(); i++) {
+            String prefix = reader.getNamespacePrefix(i);
+            namespaceScope.add(new String[]{prefix == null ? "" : prefix, reader.getNamespaceURI(i)});
+        }
+    }
+
+    private void closeNamespaceScope() {
+
+        if (!namespaceScopeSizes.isEmpty()) {
+            namespaceScope.subList(namespaceScopeSizes.pop(), namespaceScope.size()).clear();
+        }
+    }
+
+    private void copyRecord() throws XMLStreamException {
+
+        recordBuffer.getBuffer().setLength(0);
+        XMLStreamWriter writer = OUTPUT_FACTORY.createXMLStreamWriter(recordBuffer);
+        int level = 0;
+        do {
+            switch (reader.getEventType()) {
+                case XMLStreamConstants.START_ELEMENT:
+                    writeStartElement(writer, level == 0);
+                    level++;
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    level--;
+                    writer.writeEndElement();
+                    break;
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.SPACE:
+                    writer.writeCharacters(reader.getTextCharacters(), reader.getTextStart(),
+                            reader.getTextLength());
+                    break;
+                case XMLStreamConstants.CDATA:
+                    writer.writeCData(reader.getText());
+                    break;
+                case XMLStreamConstants.COMMENT:
+                    writer.writeComment(reader.getText());
+                    break;
+                case XMLStreamConstants.PROCESSING_INSTRUCTION:
+                    writer.writeProcessingInstruction(reader.getPITarget(), reader.getPIData());
+                    break;
+                default:
+                    break;
+            }
+            if (level == 0) {
+                break;
+            }
+            reader.next();
+        } while (true);
+        writer.flush();
+        writer.close();
+    }
+
+    private void writeStartElement(XMLStreamWriter writer, boolean recordRoot) throws XMLStreamException {
+
+        String prefix = reader.getPrefix();
+        String namespace = reader.getNamespaceURI();
+        writer.writeStartElement(prefix == null ? "" : prefix, reader.getLocalName(),
+                namespace == null ? "" : namespace);
+        Set<String> declaredPrefixes = new HashSet<>();
+        for (int i = 0; i < reader.getNamespaceCount(); i++) {
+            String namespacePrefix = reader.getNamespacePrefix(i);
+            writeNamespace(writer, namespacePrefix == null ? "" : namespacePrefix, reader.getNamespaceURI(i));
+            declaredPrefixes.add(namespacePrefix == null ? "" : namespacePrefix);
+        }
+        if (recordRoot) {
+            // The innermost binding of a prefix is the one in scope
+            for (int i = namespaceScope.size() - 1; i >= 0; i--) {
+                String[] binding = namespaceScope.get(i);
+                if (declaredPrefixes.add(binding[0])) {
+                    writeNamespace(writer, binding[0], binding[1]);
+                }
+            }
+        }
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            String attributePrefix = reader.getAttributePrefix(i);
+            String attributeNamespace = reader.getAttributeNamespace(i);
+            writer.writeAttribute(attributePrefix == null ? "" : attributePrefix,
+                    attributeNamespace == null ? "" : attributeNamespace, reader.getAttributeLocalName(i),
+                    reader.getAttributeValue(i));
+        }
+    }
+
+    private static void writeNamespace(XMLStreamWriter writer, String prefix, String namespace)
+            throws XMLStreamException {
+
+        if (prefix.isEmpty()) {
+            writer.writeDefaultNamespace(namespace == null ? "" : namespace);
+        } else {
+            writer.writeNamespace(prefix, namespace);
+        }
+    }
+}
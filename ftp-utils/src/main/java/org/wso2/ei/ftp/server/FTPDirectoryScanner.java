@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.ei.ftp.server;
+
+import org.ballerinalang.jvm.values.MapValue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wso2.ei.ftp.client.FTPListingSession;
+import org.wso2.ei.ftp.util.BallerinaFTPException;
+import org.wso2.ei.ftp.util.FTPCancellation;
+import org.wso2.ei.ftp.util.FTPConstants;
+import org.wso2.ei.ftp.util.FTPHostKeyPolicy;
+import org.wso2.ei.ftp.util.FTPTimeouts;
+import org.wso2.ei.ftp.util.FTPTrustStore;
+import org.wso2.ei.ftp.util.FTPUtil;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Polls the listener directory with machine-readable listings, and reports the files added or deleted since the
+ * previous scan to the listener. The files found by the first scan are reported as added.
+ */
+class FTPDirectoryScanner {
+
+    private static final Logger log = LoggerFactory.getLogger(FTPDirectoryScanner.class);
+
+    private final FTPListener listener;
+    private final SessionOpener sessionOpener;
+    private final String path;
+    private final Pattern fileNamePattern;
+    private Map<String, FTPListingSession.Entry> knownFiles = new HashMap<>();
+    private Boolean machineListing;
+
+    FTPDirectoryScanner(FTPListener listener, MapValue<Object, Object> config, FTPTimeouts timeouts) {
+
+        this(listener, createSessionOpener(config, timeouts), config.getStringValue(FTPConstants.ENDPOINT_CONFIG_PATH),
+                config.getStringValue(FTPConstants.ENDPOINT_CONFIG_FILE_PATTERN));
+    }
+
+    FTPDirectoryScanner(FTPListener listener, SessionOpener sessionOpener, String path, String fileNamePattern) {
+
+        this.listener = listener;
+        this.sessionOpener = sessionOpener;
+        this.path = path == null || path.isEmpty() ? "/" : path;
+        this.fileNamePattern = fileNamePattern == null || fileNamePattern.isEmpty() ? null
+                : Pattern.compile(fileNamePattern);
+    }
+
+    private static SessionOpener createSessionOpener(MapValue<Object, Object> config, FTPTimeouts timeouts) {
+
+        String protocol = config.getStringValue(FTPConstants.ENDPOINT_CONFIG_PROTOCOL);
+        String host = config.getStringValue(FTPConstants.ENDPOINT_CONFIG_HOST);
+        int port = FTPUtil.extractPortValue(config, FTPConstants.ENDPOINT_CONFIG_PORT, log);
+        Map<String, String> authMap = FTPUtil.getAuthMap(config);
+        String username = authMap.get(FTPConstants.ENDPOINT_CONFIG_USERNAME);
+        String password = authMap.get(FTPConstants.ENDPOINT_CONFIG_PASS_KEY);
+        MapValue secureSocket = config.getMapValue(FTPConstants.ENDPOINT_CONFIG_SECURE_SOCKET);
+        FTPHostKeyPolicy hostKeyPolicy = FTPHostKeyPolicy.create(secureSocket);
+        FTPTrustStore trustStore = FTPTrustStore.create(secureSocket);
+        return () -> FTPListingSession.open(protocol, host, port, username, password, timeouts, hostKeyPolicy,
+                trustStore);
+    }
+
+    /**
+     * Lists the directory once and reports the changes to the listener, if there are any. Polls of a listener do
+     * not overlap, so the scanner is not shared between threads at the same time.
+     *
+     * @param cancellation the cancellation of the poll
+     * @throws BallerinaFTPException if the directory could not be listed
+     */
+    synchronized void scan(FTPCancellation cancellation) throws BallerinaFTPException {
+
+        Map<String, FTPListingSession.Entry> files = new LinkedHashMap<>();
+        try (FTPListingSession session = sessionOpener.open()) {
+            cancellation.register(session);
+            if (machineListing == null) {
+                // FEAT is only sent once, the result is kept for the lifetime of the listener
+                machineListing = session.supportsMachineListing();
+            }
+            String parent = path.endsWith("/") ? path : path + "/";
+            for (Map.Entry<String, FTPListingSession.Entry> entry : session.listFiles(path, machineListing)
+                    .entrySet()) {
+                if (matches(entry.getKey())) {
+                    files.put(parent + entry.getKey(), entry.getValue());
+                }
+            }
+        } catch (IOException e) {
+            throw new BallerinaFTPException("Unable to list " + path + ": " + e.getMessage(), e);
+        }
+
+        Map<String, FTPListingSession.Entry> addedFiles = new LinkedHashMap<>();
+        if (listener.consumesAddedFiles()) {
+            for (Map.Entry<String, FTPListingSession.Entry> entry : files.entrySet()) {
+                if (!knownFiles.containsKey(entry.getKey())) {
+                    addedFiles.put(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+        List<String> deletedFiles = new ArrayList<>();
+        if (listener.consumesDeletedFiles()) {
+            for (String knownFile : knownFiles.keySet()) {
+                if (!files.containsKey(knownFile)) {
+                    deletedFiles.add(knownFile);
+                }
+            }
+        }
+        knownFiles = files;
+        if (!addedFiles.isEmpty() || !deletedFiles.isEmpty()) {
+            listener.report(addedFiles, deletedFiles);
+        }
+    }
+
+    private boolean matches(String fileName) {
+
+        return fileNamePattern == null || fileNamePattern.matcher(fileName).matches();
+    }
+
+    /**
+     * Opens the sessions which list the directory, one per scan.
+     */
+    interface SessionOpener {
+
+        FTPListingSession open() throws BallerinaFTPException;
+    }
+}
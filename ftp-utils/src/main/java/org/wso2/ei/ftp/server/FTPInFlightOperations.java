@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.ei.ftp.server;
+
+import org.wso2.ei.ftp.util.FTPCancellation;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Tracks the polls of a listener which are in flight, including the dispatch of their changes to the service, so that
+ * stopping the listener can either wait for them or cancel them. No poll is started once the listener is stopping, or
+ * while a previous poll is still in flight, so that a poll which outlives its timeout does not overlap the next ones.
+ */
+class FTPInFlightOperations {
+
+    private final Set<FTPCancellation> operations = new HashSet<>();
+    private final CompletableFuture<Void> drained = new CompletableFuture<>();
+    private boolean stopping;
+
+    /**
+     * Starts tracking an operation.
+     *
+     * @param cancellation the cancellation of the operation
+     * @return false if the listener is stopping or an operation is still in flight, in which case the operation must
+     *         not run
+     */
+    synchronized boolean begin(FTPCancellation cancellation) {
+
+        if (stopping || !operations.isEmpty()) {
+            return false;
+        }
+        operations.add(cancellation);
+        return true;
+    }
+
+    /**
+     * Stops tracking an operation which completed, failed or was cancelled.
+     *
+     * @param cancellation the cancellation of the operation
+     */
+    synchronized void end(FTPCancellation cancellation) {
+
+        operations.remove(cancellation);
+        if (stopping && operations.isEmpty()) {
+            drained.complete(null);
+        }
+    }
+
+    /**
+     * Whether the listener is stopping, in which case no operation starts anymore.
+     *
+     * @return true once the listener is stopping
+     */
+    synchronized boolean isStopping() {
+
+        return stopping;
+    }
+
+    /**
+     * Rejects the operations started from now on.
+     *
+     * @return a future completed once the operations in flight have ended
+     */
+    synchronized CompletableFuture<Void> stop() {
+
+        stopping = true;
+        if (operations.isEmpty()) {
+            drained.complete(null);
+        }
+        return drained;
+    }
+
+    /**
+     * Rejects the operations started from now on and cancels the ones in flight, which closes their connections.
+     *
+     * @return the number of cancelled operations
+     */
+    int cancel() {
+
+        List<FTPCancellation> inFlight;
+        synchronized (this) {
+            stopping = true;
+            inFlight = new ArrayList<>(operations);
+        }
+        int cancelled = 0;
+        for (FTPCancellation cancellation : inFlight) {
+            if (cancellation.cancel()) {
+                cancelled++;
+            }
+        }
+        return cancelled;
+    }
+}
@@ -19,24 +19,24 @@
 package org.wso2.ei.ftp.server;
 
 import org.ballerinalang.jvm.BRuntime;
-import org.ballerinalang.jvm.BallerinaValues;
-import org.ballerinalang.jvm.types.BArrayType;
-import org.ballerinalang.jvm.types.BPackage;
-import org.ballerinalang.jvm.types.BTypes;
-import org.ballerinalang.jvm.values.ArrayValue;
+import org.ballerinalang.jvm.types.AttachedFunction;
+import org.ballerinalang.jvm.util.Flags;
 import org.ballerinalang.jvm.values.MapValue;
 import org.ballerinalang.jvm.values.ObjectValue;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.wso2.ei.ftp.util.FTPConstants;
-import org.wso2.ei.ftp.util.FTPUtil;
+import org.wso2.ei.ftp.client.FTPListingSession;
 import org.wso2.transport.remotefilesystem.listener.RemoteFileSystemListener;
 import org.wso2.transport.remotefilesystem.message.FileInfo;
 import org.wso2.transport.remotefilesystem.message.RemoteFileSystemBaseMessage;
 import org.wso2.transport.remotefilesystem.message.RemoteFileSystemEvent;
 
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 /**
  * FTP File System connector listener for Ballerina
@@ -44,13 +44,66 @@ import java.util.Map;
 public class FTPListener implements RemoteFileSystemListener {
 
     private static final Logger log = LoggerFactory.getLogger(FTPListener.class);
+    static final String ON_FILE_ADDED = "onFileAdded";
+    static final String ON_FILE_DELETED = "onFileDeleted";
+    static final String ON_FILE = "onFile";
+
     private final BRuntime runtime;
     private final ObjectValue service;
+    private final FTPWatchEventFactory watchEventFactory = new FTPWatchEventFactory();
+    private final Queue<Change> reportedChanges = new ConcurrentLinkedQueue<>();
+    private String watchEventResource;
+    private boolean onFileAdded;
+    private boolean onFileDeleted;
+    private boolean onFile;
 
     FTPListener(BRuntime runtime, ObjectValue service) {
 
         this.runtime = runtime;
         this.service = service;
+        if (service == null) {
+            return;
+        }
+        // The signatures are validated by the compiler plugin, so the resources are told apart by their names
+        for (AttachedFunction function : service.getType().getAttachedFunctions()) {
+            if (!Flags.isFlagOn(function.flags, Flags.RESOURCE)) {
+                continue;
+            }
+            switch (function.getName()) {
+                case ON_FILE_ADDED:
+                    onFileAdded = true;
+                    break;
+                case ON_FILE_DELETED:
+                    onFileDeleted = true;
+                    break;
+                case ON_FILE:
+                    onFile = true;
+                    break;
+                default:
+                    watchEventResource = function.getName();
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Whether a resource of the service consumes the added files.
+     *
+     * @return true if the added files have to be computed
+     */
+    boolean consumesAddedFiles() {
+
+        return watchEventResource != null || onFileAdded || onFile;
+    }
+
+    /**
+     * Whether a resource of the service consumes the deleted files.
+     *
+     * @return true if the deleted files have to be computed
+     */
+    boolean consumesDeletedFiles() {
+
+        return watchEventResource != null || onFileDeleted;
     }
 
     @Override
@@ -58,43 +111,75 @@ public class FTPListener implements RemoteFileSystemListener {
 
         if (remoteFileSystemBaseMessage instanceof RemoteFileSystemEvent) {
             RemoteFileSystemEvent event = (RemoteFileSystemEvent) remoteFileSystemBaseMessage;
-            MapValue<String, Object> parameters = getSignatureParameters(event);
-            runtime.invokeMethodSync(service, service.getType().getAttachedFunctions()[0].getName(),
-                    parameters, true);
+            Map<String, FTPListingSession.Entry> addedFiles = Collections.emptyMap();
+            if (consumesAddedFiles()) {
+                addedFiles = new LinkedHashMap<>();
+                for (FileInfo info : event.getAddedFiles()) {
+                    addedFiles.put(info.getPath(),
+                            new FTPListingSession.Entry(info.getFileSize(), info.getLastModifiedTime(), false));
+                }
+            }
+            List<String> deletedFiles = consumesDeletedFiles() ? event.getDeletedFiles() : Collections.emptyList();
+            report(addedFiles, deletedFiles);
         }
         return true;
     }
 
-    private MapValue<String, Object> getSignatureParameters(RemoteFileSystemEvent fileSystemEvent) {
-
-        MapValue<String, Object> watchEventStruct = BallerinaValues.createRecordValue(
-                new BPackage(FTPConstants.FTP_ORG_NAME, FTPConstants.FTP_MODULE_NAME, FTPConstants.FTP_MODULE_VERSION),
-                FTPConstants.FTP_SERVER_EVENT);
-
-        // For newly added files
-        ArrayValue addedFiles = new ArrayValue(new BArrayType(FTPUtil.getFileInfoType()));
-        int i = 0;
-        for (FileInfo info : fileSystemEvent.getAddedFiles()) {
-            Map<String, Object> fileInfoParams = new HashMap<>();
-            fileInfoParams.put("path", info.getPath());
-            fileInfoParams.put("size", info.getFileSize());
-            fileInfoParams.put("lastModifiedTimestamp", info.getLastModifiedTime());
-
-            final MapValue<String, Object> fileInfo = BallerinaValues.createRecordValue(
-                    new BPackage(FTPConstants.FTP_ORG_NAME, FTPConstants.FTP_MODULE_NAME,
-                    FTPConstants.FTP_MODULE_VERSION), FTPConstants.FTP_FILE_INFO, fileInfoParams);
-            addedFiles.add(i++, fileInfo);
+    /**
+     * Reports a change of the remote location found by a poll. The change is dispatched to the service by
+     * {@link #dispatchReportedChanges()} once the poll has ended, so that the timeout of the poll only covers the
+     * listing of the remote location and not the resources of the service.
+     *
+     * @param addedFiles   the metadata of the added files, by path
+     * @param deletedFiles the paths of the deleted files
+     */
+    void report(Map<String, FTPListingSession.Entry> addedFiles, List<String> deletedFiles) {
+
+        reportedChanges.add(new Change(addedFiles, deletedFiles));
+    }
+
+    /**
+     * Dispatches the changes reported so far to the service, in the order they were reported.
+     */
+    void dispatchReportedChanges() {
+
+        Change change;
+        while ((change = reportedChanges.poll()) != null) {
+            onChanges(change.addedFiles, change.deletedFiles);
         }
+    }
 
-        // For deleted files
-        ArrayValue deletedFiles = new ArrayValue(BTypes.typeString);
-        i = 0;
-        for (String fileName : fileSystemEvent.getDeletedFiles()) {
-            deletedFiles.add(i++, fileName);
+    /**
+     * Dispatches a change of the remote location to the resources of the service. Each resource only gets the part
+     * of the change it consumes, and it is not invoked if that part is empty.
+     *
+     * @param addedFiles   the metadata of the added files, by path
+     * @param deletedFiles the paths of the deleted files
+     */
+    void onChanges(Map<String, FTPListingSession.Entry> addedFiles, List<String> deletedFiles) {
+
+        if (watchEventResource != null && (!addedFiles.isEmpty() || !deletedFiles.isEmpty())) {
+            runtime.invokeMethodSync(service, watchEventResource, getSignatureParameters(addedFiles, deletedFiles),
+                    true);
         }
-        // WatchEvent
-        return BallerinaValues
-                .createRecord(watchEventStruct, addedFiles, deletedFiles);
+        if (onFileAdded && !addedFiles.isEmpty()) {
+            runtime.invokeMethodSync(service, ON_FILE_ADDED, watchEventFactory.createFileInfoArray(addedFiles), true);
+        }
+        if (onFile) {
+            for (Map.Entry<String, FTPListingSession.Entry> entry : addedFiles.entrySet()) {
+                runtime.invokeMethodSync(service, ON_FILE,
+                        watchEventFactory.createFileInfo(entry.getKey(), entry.getValue()), true);
+            }
+        }
+        if (onFileDeleted && !deletedFiles.isEmpty()) {
+            runtime.invokeMethodSync(service, ON_FILE_DELETED, watchEventFactory.createPathArray(deletedFiles), true);
+        }
+    }
+
+    private MapValue<String, Object> getSignatureParameters(Map<String, FTPListingSession.Entry> addedFileStats,
+                                                            List<String> deletedFileNames) {
+
+        return watchEventFactory.createWatchEvent(addedFileStats, deletedFileNames);
     }
 
     @Override
@@ -108,4 +193,19 @@ public class FTPListener implements RemoteFileSystemListener {
 
         log.debug("Successfully finished the action.");
     }
+
+    /**
+     * A change of the remote location which is not dispatched yet.
+     */
+    private static class Change {
+
+        private final Map<String, FTPListingSession.Entry> addedFiles;
+        private final List<String> deletedFiles;
+
+        Change(Map<String, FTPListingSession.Entry> addedFiles, List<String> deletedFiles) {
+
+            this.addedFiles = addedFiles;
+            this.deletedFiles = deletedFiles;
+        }
+    }
 }
@@ -24,7 +24,11 @@ import org.ballerinalang.jvm.values.ObjectValue;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.wso2.ei.ftp.util.BallerinaFTPException;
+import org.wso2.ei.ftp.util.FTPCancellation;
 import org.wso2.ei.ftp.util.FTPConstants;
+import org.wso2.ei.ftp.util.FTPIOExecutor;
+import org.wso2.ei.ftp.util.FTPScheduler;
+import org.wso2.ei.ftp.util.FTPTimeouts;
 import org.wso2.ei.ftp.util.FTPUtil;
 import org.wso2.transport.remotefilesystem.Constants;
 import org.wso2.transport.remotefilesystem.RemoteFileSystemConnectorFactory;
@@ -34,6 +38,9 @@ import org.wso2.transport.remotefilesystem.server.connector.contract.RemoteFileS
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
 
 /**
  * Helper class for listener functions
@@ -62,6 +69,18 @@ public class FTPListenerHelper {
             ftpListener.addNativeData(FTPConstants.FTP_SERVER_CONNECTOR, serverConnector);
             // This is a temporary solution
             serviceEndpointConfig.addNativeData(FTPConstants.FTP_SERVER_CONNECTOR, serverConnector);
+            serviceEndpointConfig.addNativeData(FTPConstants.NATIVE_LISTENER, listener);
+            serviceEndpointConfig.addNativeData(FTPConstants.NATIVE_IO_EXECUTOR, FTPIOExecutor.create(
+                    serviceEndpointConfig.getMapValue(FTPConstants.ENDPOINT_CONFIG_IO_EXECUTOR)));
+            FTPTimeouts timeouts = FTPTimeouts.create(
+                    serviceEndpointConfig.getMapValue(FTPConstants.ENDPOINT_CONFIG_TIMEOUTS));
+            serviceEndpointConfig.addNativeData(FTPConstants.NATIVE_TIMEOUTS, timeouts);
+            serviceEndpointConfig.addNativeData(FTPConstants.NATIVE_IN_FLIGHT_OPERATIONS, new FTPInFlightOperations());
+            if (FTPConstants.LISTING_MODE_MLSD.equals(
+                    serviceEndpointConfig.getStringValue(FTPConstants.ENDPOINT_CONFIG_LISTING_MODE))) {
+                serviceEndpointConfig.addNativeData(FTPConstants.NATIVE_DIRECTORY_SCANNER,
+                        new FTPDirectoryScanner(listener, serviceEndpointConfig, timeouts));
+            }
             return serverConnector;
         } catch (RemoteFileSystemConnectorException e) {
             throw new BallerinaFTPException("Unable to initialize the FTP listener: " + e.getMessage(), e);
@@ -104,15 +123,168 @@ public class FTPListenerHelper {
         }
     }
 
-    public static void poll(MapValue<Object, Object> config) throws BallerinaFTPException {
+    public static void poll(MapValue<Object, Object> config) {
 
         RemoteFileSystemServerConnector connector = (RemoteFileSystemServerConnector) config.
                 getNativeData(FTPConstants.FTP_SERVER_CONNECTOR);
+        FTPDirectoryScanner scanner = (FTPDirectoryScanner) config.getNativeData(
+                FTPConstants.NATIVE_DIRECTORY_SCANNER);
+        FTPListener listener = (FTPListener) config.getNativeData(FTPConstants.NATIVE_LISTENER);
+        FTPIOExecutor executor = (FTPIOExecutor) config.getNativeData(FTPConstants.NATIVE_IO_EXECUTOR);
+        FTPInFlightOperations operations = (FTPInFlightOperations) config.getNativeData(
+                FTPConstants.NATIVE_IN_FLIGHT_OPERATIONS);
+        long commandTimeout = ((FTPTimeouts) config.getNativeData(FTPConstants.NATIVE_TIMEOUTS)).getCommandTimeout();
+        poll(connector, scanner, listener, executor, operations, commandTimeout, BRuntime.markAsync());
+    }
+
+    /**
+     * Polls the remote location, and dispatches the changes found by the poll to the service. The command timeout
+     * only covers the listing of the remote location, the resources of the service run once it is over.
+     *
+     * @param connector      the connector of the file system transport
+     * @param scanner        the scanner of the remote location, or null if the transport lists it
+     * @param listener       the listener which the changes are reported to
+     * @param executor       the executor which runs the poll
+     * @param operations     the polls in flight
+     * @param commandTimeout the time allowed for the listing, or zero for no limit
+     * @param future         completed once the poll and the dispatch of its changes are over
+     */
+    static void poll(RemoteFileSystemServerConnector connector, FTPDirectoryScanner scanner, FTPListener listener,
+                     FTPIOExecutor executor, FTPInFlightOperations operations, long commandTimeout,
+                     CompletableFuture<Object> future) {
+
+        FTPCancellation cancellation = new FTPCancellation(executor);
+        if (!operations.begin(cancellation)) {
+            log.debug("The listener is stopping or the previous poll is still in flight. The poll is skipped.");
+            future.complete(null);
+            return;
+        }
+        cancellation.scheduleTimeout(commandTimeout, () -> {
+            cancellation.cancel();
+            future.complete(FTPUtil.createError("Polling the remote location did not complete within "
+                    + commandTimeout + " ms."));
+        });
         try {
-            connector.poll();
-        } catch (RemoteFileSystemConnectorException e) {
-            throw new BallerinaFTPException(e.getMessage());
+            executor.execute(() -> {
+                try {
+                    Object result = null;
+                    cancellation.enter();
+                    try {
+                        if (scanner != null) {
+                            scanner.scan(cancellation);
+                        } else {
+                            // A timeout only interrupts the poll of the transport, which may keep blocking in socket
+                            // reads. The next polls are skipped until it returns, the connector is only stopped with
+                            // the listener.
+                            connector.poll();
+                        }
+                    } catch (RemoteFileSystemConnectorException | BallerinaFTPException | RuntimeException e) {
+                        if (cancellation.isCancelled()) {
+                            log.debug("Polling the remote location was cancelled: " + e.getMessage());
+                        } else {
+                            log.error("Error while polling the remote location: " + e.getMessage(), e);
+                            result = FTPUtil.createError(e.getMessage());
+                        }
+                    } finally {
+                        cancellation.exit();
+                        cancellation.complete();
+                    }
+                    // The changes found before a timeout are dispatched as well, since the listing state already
+                    // includes them. They are only dropped when a stop of the listener cancelled the poll.
+                    if (!cancellation.isCancelled() || !operations.isStopping()) {
+                        listener.dispatchReportedChanges();
+                    }
+                    future.complete(result);
+                } catch (RuntimeException e) {
+                    log.error("Error while dispatching the changes of the remote location: " + e.getMessage(), e);
+                    future.complete(FTPUtil.createError(e.getMessage()));
+                } finally {
+                    operations.end(cancellation);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            cancellation.complete();
+            operations.end(cancellation);
+            future.complete(FTPUtil.createError(e.getMessage()));
+        }
+    }
+
+    /**
+     * Stops starting polls, and waits for the polls in flight and the dispatch of their changes to the service. The
+     * polls which are still in flight when the graceful stop timeout expires are cancelled.
+     *
+     * @param config the listener configuration
+     */
+    public static void gracefulStop(MapValue<Object, Object> config) {
+
+        FTPInFlightOperations operations = (FTPInFlightOperations) config.getNativeData(
+                FTPConstants.NATIVE_IN_FLIGHT_OPERATIONS);
+        if (operations == null) {
+            // No service was attached, so the listener never polled
+            return;
+        }
+        gracefulStop(operations, (FTPIOExecutor) config.getNativeData(FTPConstants.NATIVE_IO_EXECUTOR),
+                (RemoteFileSystemServerConnector) config.getNativeData(FTPConstants.FTP_SERVER_CONNECTOR),
+                config.getIntValue(FTPConstants.ENDPOINT_CONFIG_GRACEFUL_STOP_TIMEOUT), BRuntime.markAsync());
+    }
 
+    static void gracefulStop(FTPInFlightOperations operations, FTPIOExecutor executor,
+                             RemoteFileSystemServerConnector connector, long timeout,
+                             CompletableFuture<Object> future) {
+
+        // Cancelling closes connections, which may block, so it is handed off from the timer to the executor
+        ScheduledFuture<?> deadline = timeout > 0 ? FTPScheduler.schedule(() -> executor.release(() -> {
+            int cancelled = operations.cancel();
+            // The poll of the transport ignores interrupts, stopping the connector aborts it
+            stopConnector(connector);
+            future.complete(FTPUtil.createError(cancelled + " polls of the listener did not complete within "
+                    + timeout + " ms and were cancelled."));
+        }), timeout) : null;
+        operations.stop().thenRun(() -> {
+            if (deadline != null) {
+                deadline.cancel(false);
+            }
+            executor.release(() -> {
+                stopConnector(connector);
+                executor.shutdown();
+                future.complete(null);
+            });
+        });
+    }
+
+    /**
+     * Stops starting polls, and cancels the polls in flight, which closes their connections to the server.
+     *
+     * @param config the listener configuration
+     */
+    public static void immediateStop(MapValue<Object, Object> config) {
+
+        FTPInFlightOperations operations = (FTPInFlightOperations) config.getNativeData(
+                FTPConstants.NATIVE_IN_FLIGHT_OPERATIONS);
+        if (operations == null) {
+            return;
+        }
+        immediateStop(operations, (FTPIOExecutor) config.getNativeData(FTPConstants.NATIVE_IO_EXECUTOR),
+                (RemoteFileSystemServerConnector) config.getNativeData(FTPConstants.FTP_SERVER_CONNECTOR));
+    }
+
+    static void immediateStop(FTPInFlightOperations operations, FTPIOExecutor executor,
+                              RemoteFileSystemServerConnector connector) {
+
+        int cancelled = operations.cancel();
+        if (cancelled > 0) {
+            log.debug("Cancelled {} polls of the listener.", cancelled);
+        }
+        stopConnector(connector);
+        executor.shutdown();
+    }
+
+    private static void stopConnector(RemoteFileSystemServerConnector connector) {
+
+        try {
+            connector.stop();
+        } catch (RemoteFileSystemConnectorException e) {
+            log.warn("Error while stopping the FTP server connector: " + e.getMessage());
         }
     }
 }
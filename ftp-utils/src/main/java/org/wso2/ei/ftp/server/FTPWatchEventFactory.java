@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.ei.ftp.server;
+
+import org.ballerinalang.jvm.types.BArrayType;
+import org.ballerinalang.jvm.types.BPackage;
+import org.ballerinalang.jvm.values.ArrayValue;
+import org.ballerinalang.jvm.values.MapValue;
+import org.ballerinalang.jvm.values.ValueCreator;
+import org.wso2.ei.ftp.client.FTPListingSession;
+import org.wso2.ei.ftp.util.FTPConstants;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds the `WatchEvent` records and the `FileInfo` values dispatched to a listener service. The value creator of the
+ * module and the type of the `FileInfo` arrays are resolved on the first event and reused for the following ones, the
+ * records are filled through their field setters, and the arrays are allocated with the number of changed files.
+ */
+class FTPWatchEventFactory {
+
+    private static final BPackage FTP_PACKAGE = new BPackage(FTPConstants.FTP_ORG_NAME,
+            FTPConstants.FTP_MODULE_NAME, FTPConstants.FTP_MODULE_VERSION);
+    private static final String ADDED_FILES = "addedFiles";
+    private static final String DELETED_FILES = "deletedFiles";
+    private static final String PATH = "path";
+    private static final String SIZE = "size";
+    private static final String LAST_MODIFIED_TIMESTAMP = "lastModifiedTimestamp";
+    private static final String PERMISSIONS_KNOWN = "permissionsKnown";
+
+    private volatile ValueCreator valueCreator;
+    private BArrayType fileInfoArrayType;
+
+    MapValue<String, Object> createWatchEvent(Map<String, FTPListingSession.Entry> addedFileStats,
+                                              List<String> deletedFileNames) {
+
+        MapValue<String, Object> watchEvent = getValueCreator().createRecordValue(FTPConstants.FTP_SERVER_EVENT);
+        watchEvent.put(ADDED_FILES, createFileInfoArray(addedFileStats));
+        watchEvent.put(DELETED_FILES, createPathArray(deletedFileNames));
+        return watchEvent;
+    }
+
+    ArrayValue createFileInfoArray(Map<String, FTPListingSession.Entry> fileStats) {
+
+        ValueCreator valueCreator = getValueCreator();
+        Object[] fileInfos = new Object[fileStats.size()];
+        int i = 0;
+        for (Map.Entry<String, FTPListingSession.Entry> entry : fileStats.entrySet()) {
+            fileInfos[i++] = createFileInfo(valueCreator, entry.getKey(), entry.getValue());
+        }
+        return new ArrayValue(fileInfos, fileInfoArrayType);
+    }
+
+    ArrayValue createPathArray(List<String> paths) {
+
+        return new ArrayValue(paths.toArray(new String[0]));
+    }
+
+    MapValue<String, Object> createFileInfo(String path, FTPListingSession.Entry stat) {
+
+        return createFileInfo(getValueCreator(), path, stat);
+    }
+
+    private MapValue<String, Object> createFileInfo(ValueCreator valueCreator, String path,
+                                                    FTPListingSession.Entry stat) {
+
+        MapValue<String, Object> fileInfo = valueCreator.createRecordValue(FTPConstants.FTP_FILE_INFO);
+        fileInfo.put(PATH, path);
+        fileInfo.put(SIZE, stat.getSize());
+        fileInfo.put(LAST_MODIFIED_TIMESTAMP, stat.getLastModified());
+        fileInfo.put(PERMISSIONS_KNOWN, stat.isPermissionsKnown());
+        return fileInfo;
+    }
+
+    private ValueCreator getValueCreator() {
+
+        ValueCreator valueCreator = this.valueCreator;
+        if (valueCreator == null) {
+            // The module must be initialized before its value creator can be looked up, so it is not resolved in the
+            // constructor. Resolving it twice is harmless, the array type is published before the value creator.
+            valueCreator = ValueCreator.getValueCreator(FTP_PACKAGE.toString());
+            fileInfoArrayType = new BArrayType(valueCreator.createRecordValue(FTPConstants.FTP_FILE_INFO).getType());
+            this.valueCreator = valueCreator;
+        }
+        return valueCreator;
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.ei.ftp.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * Cancellation path of a running operation. Cancelling the operation interrupts the thread running its blocking
+ * transport call and closes the resources the operation registered, which aborts the socket reads it is blocked on.
+ */
+public class FTPCancellation {
+
+    private static final Logger log = LoggerFactory.getLogger(FTPCancellation.class);
+
+    private final FTPIOExecutor executor;
+    private final Object lock = new Object();
+    private final List<Closeable> resources = new ArrayList<>();
+    private Thread worker;
+    private boolean cancelled;
+    private boolean completed;
+    private ScheduledFuture<?> timeout;
+
+    /**
+     * Creates the cancellation path of an operation.
+     *
+     * @param executor the executor of the operation, which runs the timeout tasks
+     */
+    public FTPCancellation(FTPIOExecutor executor) {
+
+        this.executor = executor;
+    }
+
+    /**
+     * Runs the given task if the operation does not complete within the timeout. The task is handed off from the
+     * timer to the release threads of the executor, since cancelling closes connections, which may block. Nothing is
+     * scheduled once the operation has completed.
+     *
+     * @param timeoutMillis the timeout, or zero for no timeout
+     * @param onTimeout     the task, which is expected to cancel the operation
+     */
+    public void scheduleTimeout(long timeoutMillis, Runnable onTimeout) {
+
+        synchronized (lock) {
+            if (timeoutMillis > 0 && !completed) {
+                timeout = FTPScheduler.schedule(() -> executor.release(onTimeout), timeoutMillis);
+            }
+        }
+    }
+
+    /**
+     * Stops the timeout of the operation, for a phase of the operation which is bounded otherwise. A timeout can be
+     * scheduled again for a later phase.
+     */
+    public void clearTimeout() {
+
+        synchronized (lock) {
+            if (timeout != null) {
+                timeout.cancel(false);
+                timeout = null;
+            }
+        }
+    }
+
+    /**
+     * Marks the current thread as the one running the blocking call of the operation.
+     */
+    public void enter() {
+
+        synchronized (lock) {
+            worker = Thread.currentThread();
+            if (cancelled) {
+                worker.interrupt();
+            }
+        }
+    }
+
+    /**
+     * Marks the end of the blocking call of the operation. An interrupt caused by a cancellation which raced with the
+     * end of the call is cleared, so it does not leak to the next task of the thread.
+     */
+    public void exit() {
+
+        synchronized (lock) {
+            worker = null;
+            Thread.interrupted();
+        }
+    }
+
+    /**
+     * Registers a resource to be closed if the operation is cancelled before it completes.
+     *
+     * @param resource the resource
+     */
+    public void register(Closeable resource) {
+
+        synchronized (lock) {
+            if (!cancelled) {
+                resources.add(resource);
+                return;
+            }
+        }
+        closeQuietly(resource);
+    }
+
+    /**
+     * Cancels the operation.
+     *
+     * @return false if the operation was already cancelled
+     */
+    public boolean cancel() {
+
+        List<Closeable> toClose;
+        synchronized (lock) {
+            if (cancelled) {
+                return false;
+            }
+            cancelled = true;
+            if (worker != null) {
+                worker.interrupt();
+            }
+            toClose = new ArrayList<>(resources);
+            resources.clear();
+        }
+        toClose.forEach(FTPCancellation::closeQuietly);
+        return true;
+    }
+
+    public boolean isCancelled() {
+
+        synchronized (lock) {
+            return cancelled;
+        }
+    }
+
+    /**
+     * Marks the operation as completed. The timeout no longer applies, and the registered resources are handed over
+     * to the caller.
+     */
+    public void complete() {
+
+        synchronized (lock) {
+            completed = true;
+            if (timeout != null) {
+                timeout.cancel(false);
+                timeout = null;
+            }
+            resources.clear();
+        }
+    }
+
+    private static void closeQuietly(Closeable resource) {
+
+        try {
+            resource.close();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Error while closing the resources of a cancelled operation: " + e.getMessage());
+        }
+    }
+}
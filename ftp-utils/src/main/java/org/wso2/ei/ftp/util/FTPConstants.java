@@ -42,11 +42,47 @@ public class FTPConstants {
     public static final String FTP_MODULE_VERSION = "0.3.0";
     public static final String FTP_SERVER_EVENT = "WatchEvent";
     public static final String FTP_FILE_INFO = "FileInfo";
+    public static final String FTP_ZIP_ENTRY = "ZipEntry";
     public static final String FTP_SERVER_CONNECTOR = "serverConnector";
+    public static final String NATIVE_CHECKSUM = "checksum";
+    public static final String NATIVE_CLIENT = "client";
+    public static final String NATIVE_FILE_PATH = "filePath";
+    public static final String NATIVE_HOST = "host";
+    public static final String NATIVE_OPERATION_LIMITER = "operationLimiter";
+    public static final String NATIVE_IO_EXECUTOR = "ioExecutor";
+    public static final String NATIVE_HOST_SELECTOR = "hostSelector";
+    public static final String NATIVE_HEDGING_POLICY = "hedgingPolicy";
+    public static final String NATIVE_TIMEOUTS = "timeouts";
+    public static final String NATIVE_BANDWIDTH_SHAPER = "bandwidthShaper";
+    public static final String NATIVE_DIRECTORY_SCANNER = "directoryScanner";
+    public static final String NATIVE_LISTENER = "listener";
+    public static final String NATIVE_SFTP_PIPELINE = "sftpPipeline";
+    public static final String NATIVE_SESSION_POOL = "sessionPool";
+    public static final String NATIVE_IN_FLIGHT_OPERATIONS = "inFlightOperations";
+    public static final String NATIVE_HOST_KEY_POLICY = "hostKeyPolicy";
+    public static final String NATIVE_TRUST_STORE = "trustStore";
+
+    public static final String PROTOCOL_FTP = "ftp";
+    public static final String PROTOCOL_SFTP = "sftp";
+    public static final String PROTOCOL_FTPS = "ftps";
+    public static final int DEFAULT_FTP_PORT = 21;
+    public static final int DEFAULT_SFTP_PORT = 22;
+    public static final int DEFAULT_FTPS_PORT = 21;
+    public static final String LOAD_BALANCING_LEAST_IN_FLIGHT = "leastInFlight";
+    public static final String PRIORITY_BULK = "bulk";
+    public static final String LISTING_MODE_MLSD = "mlsd";
+    public static final String ENTRY_TYPE_ANY = "any";
+    public static final String ENTRY_TYPE_FILE = "file";
+    public static final String ENTRY_TYPE_FOLDER = "folder";
 
     public static final String ENDPOINT_CONFIG_PROTOCOL = "protocol";
     public static final String ENDPOINT_CONFIG_HOST = "host";
     public static final String ENDPOINT_CONFIG_PORT = "port";
+    public static final String ENDPOINT_CONFIG_HOSTS = "hosts";
+    public static final String ENDPOINT_CONFIG_LOAD_BALANCING = "loadBalancing";
+    public static final String ENDPOINT_CONFIG_UNHEALTHY_PERIOD = "unhealthyPeriodInMillis";
+    public static final String ENDPOINT_CONFIG_HEDGING = "hedging";
+    public static final String HEDGING_DELAY = "delayInMillis";
     public static final String ENDPOINT_CONFIG_USERNAME = "username";
     public static final String ENDPOINT_CONFIG_PASS_KEY = "password";
     public static final String ENDPOINT_CONFIG_PATH = "path";
@@ -55,10 +91,61 @@ public class FTPConstants {
     public static final String ENDPOINT_CONFIG_SECURE_SOCKET = "secureSocket";
     public static final String ENDPOINT_CONFIG_BASIC_AUTH = "basicAuth";
     public static final String ENDPOINT_CONFIG_PRIVATE_KEY = "privateKey";
+    public static final String ENDPOINT_CONFIG_KNOWN_HOSTS = "knownHosts";
+    public static final String ENDPOINT_CONFIG_STRICT_HOST_KEY_CHECKING = "strictHostKeyChecking";
+    public static final String ENDPOINT_CONFIG_TRUST_STORE = "trustStore";
+    public static final String ENDPOINT_CONFIG_COMPRESSION = "compression";
+    public static final String ENDPOINT_CONFIG_MAX_IN_FLIGHT_OPERATIONS = "maxInFlightOperations";
+    public static final String ENDPOINT_CONFIG_IO_EXECUTOR = "ioExecutor";
+    public static final String ENDPOINT_CONFIG_TIMEOUTS = "timeouts";
+    public static final String ENDPOINT_CONFIG_BANDWIDTH = "bandwidth";
+    public static final String ENDPOINT_CONFIG_LISTING_MODE = "listingMode";
+    public static final String ENDPOINT_CONFIG_GRACEFUL_STOP_TIMEOUT = "gracefulStopTimeoutInMillis";
+    public static final String ENDPOINT_CONFIG_SFTP_PIPELINE = "sftpPipeline";
+    public static final String ENDPOINT_CONFIG_SESSION_POOL = "sessionPool";
+
+    public static final String BANDWIDTH_MAX_BYTES_PER_SECOND = "maxBytesPerSecond";
+    public static final String BANDWIDTH_INTERACTIVE_BYTES_PER_SECOND = "interactiveBytesPerSecond";
+    public static final String BANDWIDTH_BULK_BYTES_PER_SECOND = "bulkBytesPerSecond";
+
+    public static final String PIPELINE_OUTSTANDING_REQUESTS = "outstandingRequests";
+    public static final String PIPELINE_REQUEST_SIZE = "requestSize";
+
+    public static final String SESSION_POOL_MAX_IDLE_SESSIONS = "maxIdleSessions";
+    public static final String SESSION_POOL_WARM_UP_SESSIONS = "warmUpSessions";
+    public static final String SESSION_POOL_IDLE_TIMEOUT = "idleTimeoutInMillis";
+
+    public static final String PARALLEL_UPLOAD_SESSIONS = "sessions";
+    public static final String PARALLEL_UPLOAD_MIN_SEGMENT_SIZE = "minSegmentSize";
+
+    public static final String FILTER_GLOB = "glob";
+    public static final String FILTER_REGEX = "regex";
+    public static final String FILTER_MIN_SIZE = "minSize";
+    public static final String FILTER_MAX_SIZE = "maxSize";
+    public static final String FILTER_MODIFIED_SINCE = "modifiedSince";
+    public static final String FILTER_ENTRY_TYPE = "entryType";
+
+    public static final String TIMEOUT_CONNECT = "connectTimeoutInMillis";
+    public static final String TIMEOUT_COMMAND = "commandTimeoutInMillis";
+    public static final String TIMEOUT_IDLE = "idleTimeoutInMillis";
+
+    public static final String IO_EXECUTOR_THREADS = "threads";
+    public static final String IO_EXECUTOR_QUEUE_SIZE = "queueSize";
+    public static final String IO_EXECUTOR_VIRTUAL_THREADS = "virtualThreads";
 
     public static final String INPUT_CONTENT_FILE_PATH_KEY = "filePath";
     public static final String INPUT_CONTENT_IS_FILE_KEY = "isFile";
     public static final String INPUT_CONTENT_FILE_CONTENT_KEY = "fileContent";
     public static final String INPUT_CONTENT_TEXT_CONTENT_KEY = "textContent";
+    public static final String INPUT_CONTENT_IS_JSON_KEY = "isJson";
+    public static final String INPUT_CONTENT_JSON_CONTENT_KEY = "jsonContent";
+    public static final String INPUT_CONTENT_XML_CONTENT_KEY = "xmlContent";
+    public static final String INPUT_CONTENT_CHARSET_KEY = "charset";
+
+    public static final String RECORD_READER_FORMAT = "format";
+    public static final String RECORD_READER_BATCH_SIZE = "batchSize";
+    public static final String RECORD_READER_CHARSET = "charset";
+    public static final String RECORD_READER_SEPARATOR = "separator";
+    public static final String RECORD_READER_RECORD_ELEMENT = "recordElement";
 
 }
@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.ei.ftp.util;
+
+import org.ballerinalang.jvm.values.MapValue;
+
+import java.io.File;
+
+/**
+ * How the host keys of SFTP servers are verified by the sessions of the module. The keys are checked against the
+ * `known_hosts` file of the user running the program by default. Unknown servers are only rejected when checking is
+ * strict, which is not the default: the file transport behind the other operations of an endpoint cannot verify host
+ * keys, and an endpoint has a single trust policy whichever path serves an operation.
+ */
+public class FTPHostKeyPolicy {
+
+    private static final String DEFAULT_KNOWN_HOSTS = System.getProperty("user.home") + File.separator + ".ssh"
+            + File.separator + "known_hosts";
+
+    private final boolean strict;
+    private final String knownHosts;
+
+    private FTPHostKeyPolicy(boolean strict, String knownHosts) {
+
+        this.strict = strict;
+        this.knownHosts = knownHosts;
+    }
+
+    /**
+     * Creates the policy from the `SecureSocket` configuration of an endpoint.
+     *
+     * @param secureSocket the secure socket configuration, or null if the endpoint has none
+     * @return the policy
+     */
+    public static FTPHostKeyPolicy create(MapValue secureSocket) {
+
+        if (secureSocket == null) {
+            return create(false, null);
+        }
+        return create(secureSocket.getBooleanValue(FTPConstants.ENDPOINT_CONFIG_STRICT_HOST_KEY_CHECKING),
+                secureSocket.getStringValue(FTPConstants.ENDPOINT_CONFIG_KNOWN_HOSTS));
+    }
+
+    /**
+     * Creates the policy from its values, for sessions which are not opened by an endpoint.
+     *
+     * @param strict     whether servers whose keys are not known are rejected
+     * @param knownHosts the path of the known hosts file, or null for the file of the user
+     * @return the policy
+     */
+    public static FTPHostKeyPolicy create(boolean strict, String knownHosts) {
+
+        return new FTPHostKeyPolicy(strict, knownHosts == null || knownHosts.isEmpty()
+                ? DEFAULT_KNOWN_HOSTS : knownHosts);
+    }
+
+    /**
+     * Checks whether servers whose keys are not in the known hosts file are rejected.
+     *
+     * @return true if unknown servers are rejected
+     */
+    public boolean isStrict() {
+
+        return strict;
+    }
+
+    /**
+     * Gets the path of the known hosts file.
+     *
+     * @return the path
+     */
+    public String getKnownHosts() {
+
+        return knownHosts;
+    }
+}
@@ -0,0 +1,238 @@
+/*
+ * Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.ei.ftp.util;
+
+import org.ballerinalang.jvm.values.MapValue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded executor for the blocking transport operations, so they never run on the threads of the Ballerina
+ * scheduler. The executor keeps track of how long the tasks wait in its queue.
+ */
+public class FTPIOExecutor {
+
+    private static final Logger log = LoggerFactory.getLogger(FTPIOExecutor.class);
+    private static final long KEEP_ALIVE_SECONDS = 60;
+    private static final AtomicInteger POOL_COUNT = new AtomicInteger();
+
+    private final ExecutorService executor;
+    private final ThreadPoolExecutor releaseExecutor;
+    private final Semaphore capacity;
+    private final AtomicLong startedTasks = new AtomicLong();
+    private final AtomicLong completedTasks = new AtomicLong();
+    private final AtomicLong rejectedTasks = new AtomicLong();
+    private final AtomicLong totalQueueWaitNanos = new AtomicLong();
+    private final AtomicLong maxQueueWaitNanos = new AtomicLong();
+    private final AtomicInteger queuedTasks = new AtomicInteger();
+
+    private FTPIOExecutor(int threads, int queueSize, boolean virtualThreads) {
+
+        capacity = new Semaphore(threads + queueSize);
+        int poolId = POOL_COUNT.incrementAndGet();
+        ExecutorService virtualThreadExecutor = virtualThreads ? createVirtualThreadExecutor() : null;
+        if (virtualThreadExecutor != null) {
+            executor = virtualThreadExecutor;
+        } else {
+            String poolName = "ftp-io-" + poolId + "-thread-";
+            AtomicInteger threadCount = new AtomicInteger();
+            ThreadPoolExecutor threadPoolExecutor = new ThreadPoolExecutor(threads, threads, KEEP_ALIVE_SECONDS,
+                    TimeUnit.SECONDS, new ArrayBlockingQueue<>(Math.max(queueSize, 1)), runnable -> {
+                Thread thread = new Thread(runnable, poolName + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            threadPoolExecutor.allowCoreThreadTimeOut(true);
+            executor = threadPoolExecutor;
+        }
+        // At most one release task per operation in flight, which each close a connection
+        String releasePoolName = "ftp-io-release-" + poolId + "-thread-";
+        AtomicInteger releaseThreadCount = new AtomicInteger();
+        releaseExecutor = new ThreadPoolExecutor(threads, threads, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, releasePoolName + releaseThreadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        releaseExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Creates an executor from the Ballerina IOExecutorConfig record.
+     *
+     * @param config the IOExecutorConfig record
+     * @return the executor
+     * @throws BallerinaFTPException if the configuration is invalid
+     */
+    public static FTPIOExecutor create(MapValue config) throws BallerinaFTPException {
+
+        long threads = config.getIntValue(FTPConstants.IO_EXECUTOR_THREADS);
+        long queueSize = config.getIntValue(FTPConstants.IO_EXECUTOR_QUEUE_SIZE);
+        if (threads <= 0 || threads > Integer.MAX_VALUE || queueSize < 0 || queueSize > Integer.MAX_VALUE
+                || threads + queueSize > Integer.MAX_VALUE) {
+            throw new BallerinaFTPException("Invalid I/O executor configuration. Threads: " + threads
+                    + ", queue size: " + queueSize);
+        }
+        return new FTPIOExecutor((int) threads, (int) queueSize,
+                config.getBooleanValue(FTPConstants.IO_EXECUTOR_VIRTUAL_THREADS));
+    }
+
+    /**
+     * Creates a platform thread executor from its values, for executors which are not configured by an endpoint.
+     *
+     * @param threads   the number of threads
+     * @param queueSize the number of tasks that can wait for a thread
+     * @return the executor
+     */
+    public static FTPIOExecutor create(int threads, int queueSize) {
+
+        return new FTPIOExecutor(threads, queueSize, false);
+    }
+
+    /**
+     * Executes a blocking task.
+     *
+     * @param task the task
+     * @throws RejectedExecutionException if the executor is saturated
+     */
+    public void execute(Runnable task) {
+
+        if (!capacity.tryAcquire()) {
+            rejectedTasks.incrementAndGet();
+            throw new RejectedExecutionException("FTP I/O executor is saturated. Retry the operation later.");
+        }
+        long submittedAt = System.nanoTime();
+        queuedTasks.incrementAndGet();
+        try {
+            executor.execute(() -> {
+                recordQueueWait(System.nanoTime() - submittedAt);
+                try {
+                    task.run();
+                } finally {
+                    completedTasks.incrementAndGet();
+                    capacity.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            queuedTasks.decrementAndGet();
+            capacity.release();
+            rejectedTasks.incrementAndGet();
+            throw e;
+        }
+    }
+
+    /**
+     * Executes a task which releases the resources of a timed out or cancelled operation, such as closing its
+     * connection, which may block. The task does not wait behind the queued operations, since the operation it
+     * releases may be holding one of their threads. The timer threads hand such tasks off here.
+     *
+     * @param task the task
+     */
+    public void release(Runnable task) {
+
+        try {
+            releaseExecutor.execute(task);
+        } catch (RejectedExecutionException e) {
+            // The executor was shut down while an operation was still being released
+            Thread thread = new Thread(task, "ftp-io-release");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    /**
+     * Rejects new tasks and lets the idle threads exit. The running and queued tasks still complete.
+     */
+    public void shutdown() {
+
+        executor.shutdown();
+        releaseExecutor.shutdown();
+    }
+
+    public int getQueuedTasks() {
+
+        return queuedTasks.get();
+    }
+
+    public long getCompletedTasks() {
+
+        return completedTasks.get();
+    }
+
+    public long getRejectedTasks() {
+
+        return rejectedTasks.get();
+    }
+
+    /**
+     * Returns the average time the tasks which have started waited in the queue. The tasks still in the queue are
+     * not included.
+     *
+     * @return the average queue wait time in milliseconds
+     */
+    public double getAverageQueueWaitMillis() {
+
+        long started = startedTasks.get();
+        return started == 0 ? 0 : totalQueueWaitNanos.get() / (double) started / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * Returns the longest time a task which has started waited in the queue.
+     *
+     * @return the maximum queue wait time in milliseconds
+     */
+    public double getMaxQueueWaitMillis() {
+
+        return maxQueueWaitNanos.get() / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    private void recordQueueWait(long waitNanos) {
+
+        queuedTasks.decrementAndGet();
+        totalQueueWaitNanos.addAndGet(waitNanos);
+        startedTasks.incrementAndGet();
+        long max;
+        do {
+            max = maxQueueWaitNanos.get();
+        } while (waitNanos > max && !maxQueueWaitNanos.compareAndSet(max, waitNanos));
+    }
+
+    private static ExecutorService createVirtualThreadExecutor() {
+
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            log.warn("Virtual threads are not supported by this JVM. A platform thread pool is used instead.");
+            return null;
+        }
+    }
+}
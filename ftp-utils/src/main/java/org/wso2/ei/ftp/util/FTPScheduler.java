@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.ei.ftp.util;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Timer shared by the FTP clients and listeners, for hedging delays, operation timeouts and idle connection checks.
+ * The scheduled tasks must be short and must not block.
+ */
+public class FTPScheduler {
+
+    private static final ScheduledThreadPoolExecutor TIMER = new ScheduledThreadPoolExecutor(1, runnable -> {
+        Thread thread = new Thread(runnable, "ftp-timer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    static {
+        // Most timeouts are cancelled before they expire. Remove them right away instead of at their deadline.
+        TIMER.setRemoveOnCancelPolicy(true);
+    }
+
+    private FTPScheduler() {
+        // private constructor
+    }
+
+    public static ScheduledFuture<?> schedule(Runnable task, long delayMillis) {
+
+        return TIMER.schedule(task, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public static ScheduledFuture<?> scheduleWithFixedDelay(Runnable task, long delayMillis) {
+
+        return TIMER.scheduleWithFixedDelay(task, delayMillis, delayMillis, TimeUnit.MILLISECONDS);
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.ei.ftp.util;
+
+import org.ballerinalang.jvm.values.MapValue;
+
+/**
+ * Timeouts of the operations of an FTP client or listener, in milliseconds. A timeout of zero disables it.
+ */
+public class FTPTimeouts {
+
+    private final int connectTimeout;
+    private final int commandTimeout;
+    private final int idleTimeout;
+
+    private FTPTimeouts(int connectTimeout, int commandTimeout, int idleTimeout) {
+
+        this.connectTimeout = connectTimeout;
+        this.commandTimeout = commandTimeout;
+        this.idleTimeout = idleTimeout;
+    }
+
+    /**
+     * Creates the timeouts from the `TimeoutConfig` of an endpoint.
+     *
+     * @param config the timeout configuration
+     * @return the timeouts
+     * @throws BallerinaFTPException if a timeout is negative
+     */
+    public static FTPTimeouts create(MapValue config) throws BallerinaFTPException {
+
+        return new FTPTimeouts(getTimeout(config, FTPConstants.TIMEOUT_CONNECT),
+                getTimeout(config, FTPConstants.TIMEOUT_COMMAND), getTimeout(config, FTPConstants.TIMEOUT_IDLE));
+    }
+
+    /**
+     * Creates the timeouts from their values, for sessions which are not opened by an endpoint.
+     *
+     * @param connectTimeout the connect timeout
+     * @param commandTimeout the command timeout
+     * @param idleTimeout    the idle timeout of data transfers
+     * @return the timeouts
+     */
+    public static FTPTimeouts create(int connectTimeout, int commandTimeout, int idleTimeout) {
+
+        return new FTPTimeouts(connectTimeout, commandTimeout, idleTimeout);
+    }
+
+    /**
+     * Gets the time allowed to establish a connection and log in.
+     *
+     * @return the connect timeout
+     */
+    public int getConnectTimeout() {
+
+        return connectTimeout;
+    }
+
+    /**
+     * Gets the time allowed for an operation to get a reply from the server.
+     *
+     * @return the command timeout
+     */
+    public int getCommandTimeout() {
+
+        return commandTimeout;
+    }
+
+    /**
+     * Gets the time a data transfer may stay without receiving any data.
+     *
+     * @return the idle timeout
+     */
+    public int getIdleTimeout() {
+
+        return idleTimeout;
+    }
+
+    private static int getTimeout(MapValue config, String key) throws BallerinaFTPException {
+
+        long timeout = config.getIntValue(key);
+        if (timeout < 0) {
+            throw new BallerinaFTPException("Invalid value " + timeout + " for " + key + ".");
+        }
+        return (int) Math.min(timeout, Integer.MAX_VALUE);
+    }
+}
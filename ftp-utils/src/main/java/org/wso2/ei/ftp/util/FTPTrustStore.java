@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.ei.ftp.util;
+
+import org.ballerinalang.jvm.values.MapValue;
+
+import java.util.Objects;
+
+/**
+ * The trust store the certificates of FTPS servers are verified against by the sessions of the module. Servers are
+ * verified against the default trust store of the JDK if the endpoint configures none.
+ */
+public class FTPTrustStore {
+
+    private final String path;
+    private final String password;
+
+    private FTPTrustStore(String path, String password) {
+
+        this.path = path;
+        this.password = password;
+    }
+
+    /**
+     * Creates the trust store from the `SecureSocket` configuration of an endpoint.
+     *
+     * @param secureSocket the secure socket configuration, or null if the endpoint has none
+     * @return the trust store
+     */
+    public static FTPTrustStore create(MapValue secureSocket) {
+
+        MapValue trustStore = secureSocket == null ? null
+                : secureSocket.getMapValue(FTPConstants.ENDPOINT_CONFIG_TRUST_STORE);
+        if (trustStore == null) {
+            return create(null, null);
+        }
+        return create(trustStore.getStringValue(FTPConstants.ENDPOINT_CONFIG_PATH),
+                trustStore.getStringValue(FTPConstants.ENDPOINT_CONFIG_PASS_KEY));
+    }
+
+    /**
+     * Creates the trust store from its values, for sessions which are not opened by an endpoint.
+     *
+     * @param path     the path of the trust store file, or null for the default trust store of the JDK
+     * @param password the password of the trust store, or null if it has none
+     * @return the trust store
+     */
+    public static FTPTrustStore create(String path, String password) {
+
+        return new FTPTrustStore(path == null || path.isEmpty() ? null : path, path == null ? null : password);
+    }
+
+    /**
+     * Gets the path of the trust store file.
+     *
+     * @return the path, or null for the default trust store of the JDK
+     */
+    public String getPath() {
+
+        return path;
+    }
+
+    /**
+     * Gets the password of the trust store.
+     *
+     * @return the password, or null if it has none
+     */
+    public String getPassword() {
+
+        return password;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof FTPTrustStore)) {
+            return false;
+        }
+        FTPTrustStore that = (FTPTrustStore) o;
+        return Objects.equals(path, that.path) && Objects.equals(password, that.password);
+    }
+
+    @Override
+    public int hashCode() {
+
+        return Objects.hash(path, password);
+    }
+}
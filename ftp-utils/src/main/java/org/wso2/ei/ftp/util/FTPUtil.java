@@ -58,6 +58,16 @@ public class FTPUtil {
         return createUrl(protocol, host, port, username, password, filePath);
     }
 
+    public static String createUrl(ObjectValue clientConnector, String host, int port, String filePath)
+            throws BallerinaFTPException {
+
+        String username = (String) clientConnector.getNativeData(FTPConstants.ENDPOINT_CONFIG_USERNAME);
+        String password = (String) clientConnector.getNativeData(FTPConstants.ENDPOINT_CONFIG_PASS_KEY);
+        String protocol = (String) clientConnector.getNativeData(FTPConstants.ENDPOINT_CONFIG_PROTOCOL);
+
+        return createUrl(protocol, host, port, username, password, filePath);
+    }
+
     public static String createUrl(MapValue config, Logger logger) throws BallerinaFTPException {
 
         final String filePath = config.getStringValue(FTPConstants.ENDPOINT_CONFIG_PATH);
@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.ei.testutil;
+
+import org.apache.ftpserver.FtpServer;
+import org.apache.ftpserver.FtpServerFactory;
+import org.apache.ftpserver.ftplet.Authority;
+import org.apache.ftpserver.ftplet.FtpException;
+import org.apache.ftpserver.ftplet.UserManager;
+import org.apache.ftpserver.listener.ListenerFactory;
+import org.apache.ftpserver.ssl.SslConfigurationFactory;
+import org.apache.ftpserver.usermanager.PropertiesUserManagerFactory;
+import org.apache.ftpserver.usermanager.impl.BaseUser;
+import org.apache.ftpserver.usermanager.impl.WritePermission;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An in-process FTP or explicit FTPS server, serving a local directory. Unlike the mock server, it runs a complete
+ * server implementation, including TLS on the control and data connections.
+ */
+public class EmbeddedFTPServer {
+
+    private static final Logger logger = LoggerFactory.getLogger("ballerina");
+    /**
+     * The password of the keystore of an FTPS server.
+     */
+    public static final String KEYSTORE_PASSWORD = "changeit";
+    private static final long KEYTOOL_TIMEOUT_SECONDS = 60;
+
+    private final FtpServer server;
+    private final File keystore;
+
+    private EmbeddedFTPServer(FtpServer server, File keystore) {
+
+        this.server = server;
+        this.keystore = keystore;
+    }
+
+    /**
+     * Starts a server.
+     *
+     * @param port          the control port of the server
+     * @param secure        whether to serve explicit FTPS, with a generated self-signed certificate
+     * @param username      the username of the only user account
+     * @param password      the password of the user account
+     * @param homeDirectory the local directory served as the home directory of the user
+     * @return the started server
+     * @throws IOException if the certificate could not be generated or the server did not start
+     */
+    public static EmbeddedFTPServer start(int port, boolean secure, String username, String password,
+                                          Path homeDirectory) throws IOException {
+
+        ListenerFactory listenerFactory = new ListenerFactory();
+        listenerFactory.setServerAddress("127.0.0.1");
+        listenerFactory.setPort(port);
+        File keystore = null;
+        if (secure) {
+            keystore = generateKeystore();
+            SslConfigurationFactory sslConfigurationFactory = new SslConfigurationFactory();
+            sslConfigurationFactory.setKeystoreFile(keystore);
+            sslConfigurationFactory.setKeystorePassword(KEYSTORE_PASSWORD);
+            listenerFactory.setSslConfiguration(sslConfigurationFactory.createSslConfiguration());
+            listenerFactory.setImplicitSsl(false);
+        }
+
+        BaseUser user = new BaseUser();
+        user.setName(username);
+        user.setPassword(password);
+        user.setHomeDirectory(homeDirectory.toString());
+        user.setAuthorities(Collections.<Authority>singletonList(new WritePermission()));
+        UserManager userManager = new PropertiesUserManagerFactory().createUserManager();
+
+        FtpServerFactory serverFactory = new FtpServerFactory();
+        serverFactory.addListener("default", listenerFactory.createListener());
+        serverFactory.setUserManager(userManager);
+        FtpServer server = serverFactory.createServer();
+        try {
+            userManager.save(user);
+            server.start();
+        } catch (FtpException e) {
+            throw new IOException("Unable to start the embedded " + (secure ? "FTPS" : "FTP") + " server: "
+                    + e.getMessage(), e);
+        }
+        logger.info("Started embedded " + (secure ? "FTPS" : "FTP") + " server on port " + port);
+        return new EmbeddedFTPServer(server, keystore);
+    }
+
+    /**
+     * Generates a keystore with a self-signed certificate, with the keytool of the running JDK.
+     */
+    private static File generateKeystore() throws IOException {
+
+        Path directory = Files.createTempDirectory("ftps");
+        File keystore = directory.resolve("keystore.jks").toFile();
+        keystore.deleteOnExit();
+        directory.toFile().deleteOnExit();
+        String keytool = System.getProperty("java.home") + File.separator + "bin" + File.separator + "keytool";
+        Process process = new ProcessBuilder(keytool, "-genkeypair", "-alias", "ftps", "-keyalg", "RSA",
+                "-keysize", "2048", "-validity", "365", "-dname", "CN=localhost", "-keystore",
+                keystore.getAbsolutePath(), "-storepass", KEYSTORE_PASSWORD, "-keypass", KEYSTORE_PASSWORD,
+                "-storetype", "JKS").redirectErrorStream(true).start();
+        try {
+            if (!process.waitFor(KEYTOOL_TIMEOUT_SECONDS, TimeUnit.SECONDS) || process.exitValue() != 0) {
+                process.destroyForcibly();
+                throw new IOException("Unable to generate the keystore of the embedded FTPS server.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while generating the keystore of the embedded FTPS server.", e);
+        }
+        return keystore;
+    }
+
+    /**
+     * Gets the keystore of an FTPS server, which also serves as the trust store of its clients.
+     *
+     * @return the keystore, or null if the server serves plain FTP
+     */
+    public File getKeystore() {
+
+        return keystore;
+    }
+
+    public void stop() {
+
+        server.stop();
+        logger.info("Stopped embedded FTP server");
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.ei.testutil;
+
+import org.apache.sshd.common.file.virtualfs.VirtualFileSystemFactory;
+import org.apache.sshd.server.SshServer;
+import org.apache.sshd.server.keyprovider.SimpleGeneratorHostKeyProvider;
+import org.apache.sshd.server.subsystem.sftp.SftpSubsystemFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+
+/**
+ * An in-process SFTP server, serving a local directory, backed by an embedded SSH server.
+ */
+public class EmbeddedSFTPServer {
+
+    private static final Logger logger = LoggerFactory.getLogger("ballerina");
+
+    private final SshServer server;
+
+    private EmbeddedSFTPServer(SshServer server) {
+
+        this.server = server;
+    }
+
+    /**
+     * Starts a server.
+     *
+     * @param port          the port of the server
+     * @param username      the username of the only user account
+     * @param password      the password of the user account
+     * @param homeDirectory the local directory served as the root of the file system of the user
+     * @return the started server
+     * @throws IOException if the server did not start
+     */
+    public static EmbeddedSFTPServer start(int port, String username, String password, Path homeDirectory)
+            throws IOException {
+
+        Path hostKey = Files.createTempFile("sftp-host-key", ".ser");
+        Files.delete(hostKey);
+        hostKey.toFile().deleteOnExit();
+        SimpleGeneratorHostKeyProvider hostKeyProvider = new SimpleGeneratorHostKeyProvider(hostKey);
+        // RSA host keys are understood by every SSH client version in use
+        hostKeyProvider.setAlgorithm("RSA");
+
+        SshServer server = SshServer.setUpDefaultServer();
+        server.setHost("127.0.0.1");
+        server.setPort(port);
+        server.setKeyPairProvider(hostKeyProvider);
+        server.setPasswordAuthenticator((user, pass, session) -> username.equals(user) && password.equals(pass));
+        server.setSubsystemFactories(Collections.singletonList(new SftpSubsystemFactory()));
+        server.setFileSystemFactory(new VirtualFileSystemFactory(homeDirectory));
+        server.start();
+        logger.info("Started embedded SFTP server on port " + port);
+        return new EmbeddedSFTPServer(server);
+    }
+
+    public void stop() throws IOException {
+
+        server.stop(true);
+        logger.info("Stopped embedded SFTP server");
+    }
+}
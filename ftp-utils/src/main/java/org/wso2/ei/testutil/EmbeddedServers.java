@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.ei.testutil;
+
+import org.ballerinalang.jvm.values.MapValue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wso2.ei.ftp.util.BallerinaFTPException;
+import org.wso2.ei.ftp.util.FTPConstants;
+import org.wso2.ei.ftp.util.FTPTrustStore;
+import org.wso2.ei.ftp.util.FTPUtil;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Starts the embedded SFTP, FTP and FTPS servers for the Ballerina tests of the protocols the mock server does not
+ * serve. Each server serves a temporary home directory of its own.
+ */
+public class EmbeddedServers {
+
+    private static final Logger logger = LoggerFactory.getLogger("ballerina");
+    private static final List<Runnable> stopActions = new ArrayList<>();
+
+    private EmbeddedServers() {
+        // private constructor
+    }
+
+    /**
+     * Starts a server for the protocol, port and credentials of a client endpoint configuration. The home directory
+     * of the user contains the file `/in/test1.txt` and the folder `/in/folder1`. The keystore of an FTPS server is
+     * copied to the trust store path of the configuration, if it has one.
+     *
+     * @param config the client endpoint configuration
+     * @throws BallerinaFTPException if the server did not start
+     */
+    public static synchronized void initServer(MapValue<Object, Object> config) throws BallerinaFTPException {
+
+        String protocol = config.getStringValue(FTPConstants.ENDPOINT_CONFIG_PROTOCOL);
+        int port = FTPUtil.extractPortValue(config, FTPConstants.ENDPOINT_CONFIG_PORT, logger);
+        Map<String, String> authMap = FTPUtil.getAuthMap(config);
+        String username = authMap.get(FTPConstants.ENDPOINT_CONFIG_USERNAME);
+        String password = authMap.get(FTPConstants.ENDPOINT_CONFIG_PASS_KEY);
+        if (username == null || username.isEmpty() || password == null || password.isEmpty()) {
+            throw new BallerinaFTPException("Username and password cannot be empty");
+        }
+        try {
+            Path homeDirectory = Files.createTempDirectory("embedded-" + protocol);
+            Files.createDirectories(homeDirectory.resolve("in/folder1"));
+            Files.write(homeDirectory.resolve("in/test1.txt"), "File content".getBytes(StandardCharsets.UTF_8));
+            if (FTPConstants.PROTOCOL_SFTP.equals(protocol)) {
+                EmbeddedSFTPServer server = EmbeddedSFTPServer.start(port, username, password, homeDirectory);
+                stopActions.add(() -> {
+                    try {
+                        server.stop();
+                    } catch (IOException e) {
+                        logger.warn("Unable to stop the embedded SFTP server: " + e.getMessage());
+                    }
+                    delete(homeDirectory);
+                });
+            } else {
+                EmbeddedFTPServer server = EmbeddedFTPServer.start(port,
+                        FTPConstants.PROTOCOL_FTPS.equals(protocol), username, password, homeDirectory);
+                String trustStore = FTPTrustStore.create(
+                        config.getMapValue(FTPConstants.ENDPOINT_CONFIG_SECURE_SOCKET)).getPath();
+                if (server.getKeystore() != null && trustStore != null) {
+                    // The client trusts the self-signed certificate of the server through the trust store
+                    Path trustStorePath = Paths.get(trustStore);
+                    if (trustStorePath.getParent() != null) {
+                        Files.createDirectories(trustStorePath.getParent());
+                    }
+                    Files.copy(server.getKeystore().toPath(), trustStorePath, StandardCopyOption.REPLACE_EXISTING);
+                }
+                stopActions.add(() -> {
+                    server.stop();
+                    delete(homeDirectory);
+                });
+            }
+        } catch (IOException e) {
+            throw new BallerinaFTPException("Unable to start the embedded " + protocol + " server: "
+                    + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Stops the servers started by {@link #initServer}, and deletes their home directories.
+     */
+    public static synchronized void stopServers() {
+
+        for (Runnable stopAction : stopActions) {
+            stopAction.run();
+        }
+        stopActions.clear();
+    }
+
+    private static void delete(Path directory) {
+
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        } catch (IOException e) {
+            logger.warn("Unable to delete " + directory + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,208 @@
+/*
+ * Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.ei.testutil;
+
+/**
+ * Configuration of a {@link LoadTestFTPServer}: the synthetic content it serves, the latency and bandwidth of its
+ * connections, and the files it adds and removes over time.
+ */
+public class LoadTestConfig {
+
+    /**
+     * Distributions of the sizes of the generated files.
+     */
+    public enum SizeDistribution {
+        /** Every file has the mean size. */
+        FIXED,
+        /** Sizes are spread evenly between zero and twice the mean size. */
+        UNIFORM,
+        /** Mostly small files with a long tail of large ones, as found in most real directories. */
+        EXPONENTIAL
+    }
+
+    private String rootDirectory = "/home/in";
+    private int fileCount = 1000;
+    private int directoryCount = 0;
+    private SizeDistribution sizeDistribution = SizeDistribution.FIXED;
+    private int meanFileSize = 1024;
+    private int maxFileSize = 16 * 1024 * 1024;
+    private long commandLatencyMillis = 0;
+    private long bytesPerSecond = 0;
+    private long churnIntervalMillis = 0;
+    private int churnFileCount = 0;
+    private long seed = 42;
+
+    public String getRootDirectory() {
+
+        return rootDirectory;
+    }
+
+    /**
+     * Sets the directory under which the content is generated, which is also the home directory of the user.
+     *
+     * @param rootDirectory the root directory
+     * @return this configuration
+     */
+    public LoadTestConfig setRootDirectory(String rootDirectory) {
+
+        this.rootDirectory = rootDirectory;
+        return this;
+    }
+
+    public int getFileCount() {
+
+        return fileCount;
+    }
+
+    /**
+     * Sets the number of generated files. They are spread evenly over the root directory and its subdirectories.
+     *
+     * @param fileCount the number of files
+     * @return this configuration
+     */
+    public LoadTestConfig setFileCount(int fileCount) {
+
+        this.fileCount = fileCount;
+        return this;
+    }
+
+    public int getDirectoryCount() {
+
+        return directoryCount;
+    }
+
+    /**
+     * Sets the number of generated subdirectories of the root directory.
+     *
+     * @param directoryCount the number of subdirectories
+     * @return this configuration
+     */
+    public LoadTestConfig setDirectoryCount(int directoryCount) {
+
+        this.directoryCount = directoryCount;
+        return this;
+    }
+
+    public SizeDistribution getSizeDistribution() {
+
+        return sizeDistribution;
+    }
+
+    public int getMeanFileSize() {
+
+        return meanFileSize;
+    }
+
+    public int getMaxFileSize() {
+
+        return maxFileSize;
+    }
+
+    /**
+     * Sets the sizes of the generated files.
+     *
+     * @param sizeDistribution the distribution of the sizes
+     * @param meanFileSize     the mean size, in bytes
+     * @param maxFileSize      the maximum size, in bytes. Larger sizes drawn from the distribution are capped
+     * @return this configuration
+     */
+    public LoadTestConfig setFileSizes(SizeDistribution sizeDistribution, int meanFileSize, int maxFileSize) {
+
+        this.sizeDistribution = sizeDistribution;
+        this.meanFileSize = meanFileSize;
+        this.maxFileSize = maxFileSize;
+        return this;
+    }
+
+    public long getCommandLatencyMillis() {
+
+        return commandLatencyMillis;
+    }
+
+    /**
+     * Sets the time the server waits before handling each command, to simulate the round trip of a remote server.
+     *
+     * @param commandLatencyMillis the latency of each command, or zero for none
+     * @return this configuration
+     */
+    public LoadTestConfig setCommandLatencyMillis(long commandLatencyMillis) {
+
+        this.commandLatencyMillis = commandLatencyMillis;
+        return this;
+    }
+
+    public long getBytesPerSecond() {
+
+        return bytesPerSecond;
+    }
+
+    /**
+     * Sets the bandwidth of the data transfers of each connection, to simulate a slow link.
+     *
+     * @param bytesPerSecond the bandwidth of a connection, or zero for no limit
+     * @return this configuration
+     */
+    public LoadTestConfig setBytesPerSecond(long bytesPerSecond) {
+
+        this.bytesPerSecond = bytesPerSecond;
+        return this;
+    }
+
+    public long getChurnIntervalMillis() {
+
+        return churnIntervalMillis;
+    }
+
+    public int getChurnFileCount() {
+
+        return churnFileCount;
+    }
+
+    /**
+     * Sets the files added to and removed from the root directory over time, to drive listener polling. On each
+     * interval, the given number of new files are added and as many of the oldest generated files are removed.
+     *
+     * @param churnIntervalMillis the interval between changes, or zero for static content
+     * @param churnFileCount      the number of files added and removed on each interval
+     * @return this configuration
+     */
+    public LoadTestConfig setChurn(long churnIntervalMillis, int churnFileCount) {
+
+        this.churnIntervalMillis = churnIntervalMillis;
+        this.churnFileCount = churnFileCount;
+        return this;
+    }
+
+    public long getSeed() {
+
+        return seed;
+    }
+
+    /**
+     * Sets the seed of the generated sizes and content, so that runs are repeatable.
+     *
+     * @param seed the seed
+     * @return this configuration
+     */
+    public LoadTestConfig setSeed(long seed) {
+
+        this.seed = seed;
+        return this;
+    }
+}
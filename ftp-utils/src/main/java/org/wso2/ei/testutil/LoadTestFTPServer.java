@@ -0,0 +1,189 @@
+/*
+ * Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.ei.testutil;
+
+import org.mockftpserver.core.command.CommandHandler;
+import org.mockftpserver.fake.FakeFtpServer;
+import org.mockftpserver.fake.filesystem.DirectoryEntry;
+import org.mockftpserver.fake.filesystem.FileSystem;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wso2.ei.ftp.util.BallerinaFTPException;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A mock FTP server for load tests. It serves a generated tree of any size, can delay every command and limit the
+ * bandwidth of each connection to reproduce a remote server behind a slow link, and can add and remove files on a
+ * schedule to drive listener polling.
+ */
+public class LoadTestFTPServer {
+
+    private static final Logger logger = LoggerFactory.getLogger("ballerina");
+
+    private static final String[] COMMAND_NAMES = {"ABOR", "ACCT", "ALLO", "APPE", "CDUP", "CWD", "DELE", "EPRT",
+            "EPSV", "HELP", "LIST", "MKD", "MODE", "NLST", "NOOP", "PASS", "PASV", "PORT", "PWD", "QUIT", "REIN",
+            "REST", "RETR", "RMD", "RNFR", "RNTO", "SITE", "SMNT", "STAT", "STOR", "STOU", "STRU", "SYST", "TYPE",
+            "USER", "XPWD"};
+
+    private final FakeFtpServer server = new FakeFtpServer();
+    private final FileSystem fileSystem = new SynchronizedFakeFileSystem();
+    private final LoadTestConfig config;
+    private final Random random;
+    private final byte[] sharedContent;
+    private final Deque<String> churnedFiles = new ArrayDeque<>();
+    private ScheduledExecutorService churnExecutor;
+    private int churnSequence = 0;
+
+    private LoadTestFTPServer(LoadTestConfig config) {
+
+        this.config = config;
+        this.random = new Random(config.getSeed());
+        this.sharedContent = new byte[Math.max(config.getMaxFileSize(), 0)];
+        random.nextBytes(sharedContent);
+    }
+
+    /**
+     * Generates the content and starts the server.
+     *
+     * @param port     the control port of the server
+     * @param username the username of the only user account
+     * @param password the password of the user account
+     * @param config   the content and behaviour of the server
+     * @return the started server
+     * @throws BallerinaFTPException if the server did not start
+     */
+    public static LoadTestFTPServer start(int port, String username, String password, LoadTestConfig config)
+            throws BallerinaFTPException {
+
+        LoadTestFTPServer loadTestServer = new LoadTestFTPServer(config);
+        loadTestServer.generate();
+        if (config.getCommandLatencyMillis() > 0 || config.getBytesPerSecond() > 0) {
+            loadTestServer.throttleCommands();
+        }
+        MockFTPServer.startServer(loadTestServer.server, port, username, password, config.getRootDirectory(),
+                loadTestServer.fileSystem);
+        loadTestServer.startChurn();
+        return loadTestServer;
+    }
+
+    private void generate() {
+
+        String root = config.getRootDirectory();
+        fileSystem.add(new DirectoryEntry(root));
+        for (int i = 0; i < config.getDirectoryCount(); i++) {
+            fileSystem.add(new DirectoryEntry(root + "/dir-" + i));
+        }
+        for (int i = 0; i < config.getFileCount(); i++) {
+            // files are spread round robin over the root directory and its subdirectories
+            int directory = i % (config.getDirectoryCount() + 1);
+            String path = (directory == 0 ? root : root + "/dir-" + (directory - 1)) + "/file-" + i + ".dat";
+            addFile(path);
+            if (directory == 0) {
+                churnedFiles.addLast(path);
+            }
+        }
+        logger.info("Generated " + config.getFileCount() + " files in " + (config.getDirectoryCount() + 1)
+                + " directories");
+    }
+
+    private void throttleCommands() {
+
+        for (String commandName : COMMAND_NAMES) {
+            CommandHandler handler = server.getCommandHandler(commandName);
+            if (handler != null) {
+                server.setCommandHandler(commandName, new ThrottledCommandHandler(handler,
+                        config.getCommandLatencyMillis(), config.getBytesPerSecond()));
+            }
+        }
+    }
+
+    private void startChurn() {
+
+        if (config.getChurnIntervalMillis() <= 0 || config.getChurnFileCount() <= 0) {
+            return;
+        }
+        churnExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "mock-ftp-churn");
+            thread.setDaemon(true);
+            return thread;
+        });
+        churnExecutor.scheduleWithFixedDelay(this::churn, config.getChurnIntervalMillis(),
+                config.getChurnIntervalMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Adds new files to the root directory and removes as many of the oldest files.
+     */
+    private void churn() {
+
+        for (int i = 0; i < config.getChurnFileCount(); i++) {
+            String path = config.getRootDirectory() + "/churn-" + churnSequence++ + ".dat";
+            addFile(path);
+            churnedFiles.addLast(path);
+        }
+        for (int i = 0; i < config.getChurnFileCount() && !churnedFiles.isEmpty(); i++) {
+            fileSystem.delete(churnedFiles.removeFirst());
+        }
+    }
+
+    private void addFile(String path) {
+
+        fileSystem.add(new SyntheticFileEntry(path, sharedContent, nextFileSize()));
+    }
+
+    private int nextFileSize() {
+
+        double mean = config.getMeanFileSize();
+        double size;
+        switch (config.getSizeDistribution()) {
+            case UNIFORM:
+                size = random.nextDouble() * 2 * mean;
+                break;
+            case EXPONENTIAL:
+                size = -mean * Math.log(1 - random.nextDouble());
+                break;
+            default:
+                size = mean;
+                break;
+        }
+        return (int) Math.min(size, sharedContent.length);
+    }
+
+    public FileSystem getFileSystem() {
+
+        return fileSystem;
+    }
+
+    public void stop() {
+
+        if (churnExecutor != null) {
+            churnExecutor.shutdownNow();
+        }
+        if (server.isStarted()) {
+            server.stop();
+        }
+        logger.info("Stopped load test FTP server");
+    }
+}
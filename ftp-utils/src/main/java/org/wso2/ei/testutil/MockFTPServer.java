@@ -31,7 +31,12 @@ import org.wso2.ei.ftp.util.BallerinaFTPException;
 import org.wso2.ei.ftp.util.FTPConstants;
 import org.wso2.ei.ftp.util.FTPUtil;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 /**
  * Creates a Mock FTP Server
@@ -63,12 +68,9 @@ public class MockFTPServer {
             throw new BallerinaFTPException("Username and password cannot be empty");
         }
 
-        ftpServer = new FakeFtpServer();
-        ftpServer.setServerControlPort(port);
         String rootFolder = "/home/in";
         String content = "File content";
 
-        ftpServer.addUserAccount(new UserAccount(username, password, rootFolder));
         FileSystem fileSystem = new UnixFakeFileSystem();
         fileSystem.add(new DirectoryEntry(rootFolder));
         fileSystem.add(new FileEntry("/home/in/test1.txt", content));
@@ -79,12 +81,65 @@ public class MockFTPServer {
         fileSystem.add(new DirectoryEntry("/home/in/childDirectory"));
         fileSystem.add(new FileEntry("/home/in/child_directory/content1.txt"));
         fileSystem.add(new FileEntry("/home/in/child_directory/content2.txt"));
-        ftpServer.setFileSystem(fileSystem);
-        ftpServer.start();
+        fileSystem.add(new DirectoryEntry("/home/archive"));
+        FileEntry archive = new FileEntry("/home/archive/sample.zip");
+        archive.setContents(createArchive(content));
+        fileSystem.add(archive);
+        fileSystem.add(new DirectoryEntry("/home/records"));
+        fileSystem.add(new FileEntry("/home/records/orders.xml", "<o:orders xmlns:o=\"urn:orders\" "
+                + "xmlns=\"urn:items\"><o:order id=\"1\"><item>A</item></o:order>"
+                + "<o:order id=\"2\"><item>B</item></o:order></o:orders>"));
+        ftpServer = startServer(port, username, password, rootFolder, fileSystem);
+    }
+
+    private static byte[] createArchive(String content) throws BallerinaFTPException {
+
+        ByteArrayOutputStream archive = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(archive)) {
+            zip.putNextEntry(new ZipEntry("docs/"));
+            zip.closeEntry();
+            zip.putNextEntry(new ZipEntry("docs/readme.txt"));
+            zip.write(content.getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+            zip.putNextEntry(new ZipEntry("data/values.csv"));
+            zip.write("1,2,3\n4,5,6\n".getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+        } catch (IOException e) {
+            throw new BallerinaFTPException("Unable to create the test archive: " + e.getMessage(), e);
+        }
+        return archive.toByteArray();
+    }
+
+    /**
+     * Starts a mock FTP server serving the given file system, for tests and benchmarks which need their own content.
+     *
+     * @param port          the control port of the server
+     * @param username      the username of the only user account
+     * @param password      the password of the user account
+     * @param homeDirectory the home directory of the user account
+     * @param fileSystem    the file system served
+     * @return the started server
+     * @throws BallerinaFTPException if the server did not start
+     */
+    public static FakeFtpServer startServer(int port, String username, String password, String homeDirectory,
+                                            FileSystem fileSystem) throws BallerinaFTPException {
+
+        FakeFtpServer server = new FakeFtpServer();
+        startServer(server, port, username, password, homeDirectory, fileSystem);
+        return server;
+    }
+
+    static void startServer(FakeFtpServer server, int port, String username, String password, String homeDirectory,
+                            FileSystem fileSystem) throws BallerinaFTPException {
+
+        server.setServerControlPort(port);
+        server.addUserAccount(new UserAccount(username, password, homeDirectory));
+        server.setFileSystem(fileSystem);
+        server.start();
         logger.info("Starting FTP server...");
 
         int i = 0;
-        while (!ftpServer.isStarted() && i < 10) {
+        while (!server.isStarted() && i < 10) {
             try {
                 TimeUnit.MILLISECONDS.sleep(500);
                 i++;
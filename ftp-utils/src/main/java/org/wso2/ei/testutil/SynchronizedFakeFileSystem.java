@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.ei.testutil;
+
+import org.mockftpserver.fake.filesystem.FileSystemEntry;
+import org.mockftpserver.fake.filesystem.UnixFakeFileSystem;
+
+import java.util.List;
+
+/**
+ * A fake file system whose entries can be added and removed while the server is serving them. The fake file system
+ * of the mock server is not thread safe, so every access is synchronized.
+ */
+class SynchronizedFakeFileSystem extends UnixFakeFileSystem {
+
+    @Override
+    public synchronized void add(FileSystemEntry entry) {
+
+        super.add(entry);
+    }
+
+    @Override
+    public synchronized boolean delete(String path) {
+
+        return super.delete(path);
+    }
+
+    @Override
+    public synchronized boolean exists(String path) {
+
+        return super.exists(path);
+    }
+
+    @Override
+    public synchronized boolean isDirectory(String path) {
+
+        return super.isDirectory(path);
+    }
+
+    @Override
+    public synchronized boolean isFile(String path) {
+
+        return super.isFile(path);
+    }
+
+    @Override
+    public synchronized FileSystemEntry getEntry(String path) {
+
+        return super.getEntry(path);
+    }
+
+    @Override
+    public synchronized List listFiles(String path) {
+
+        return super.listFiles(path);
+    }
+
+    @Override
+    public synchronized List listNames(String path) {
+
+        return super.listNames(path);
+    }
+
+    @Override
+    public synchronized void rename(String fromPath, String toPath) {
+
+        super.rename(fromPath, toPath);
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.ei.testutil;
+
+import org.mockftpserver.fake.filesystem.FileEntry;
+import org.mockftpserver.fake.filesystem.FileSystemEntry;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * A generated file, whose content is a slice of a buffer shared by all the generated files, so that large synthetic
+ * trees do not hold a copy of the content of every file. Once written to, the file holds its own content.
+ */
+class SyntheticFileEntry extends FileEntry {
+
+    private final byte[] sharedContent;
+    private final int size;
+    private volatile boolean written;
+
+    SyntheticFileEntry(String path, byte[] sharedContent, int size) {
+
+        super(path);
+        this.sharedContent = sharedContent;
+        this.size = Math.min(size, sharedContent.length);
+    }
+
+    @Override
+    public long getSize() {
+
+        return written ? super.getSize() : size;
+    }
+
+    @Override
+    public InputStream createInputStream() {
+
+        return written ? super.createInputStream() : new ByteArrayInputStream(sharedContent, 0, size);
+    }
+
+    @Override
+    public OutputStream createOutputStream(boolean append) {
+
+        if (!written && append) {
+            setContents(Arrays.copyOf(sharedContent, size));
+        }
+        written = true;
+        return super.createOutputStream(append);
+    }
+
+    @Override
+    public FileSystemEntry cloneWithNewPath(String path) {
+
+        if (written) {
+            return super.cloneWithNewPath(path);
+        }
+        SyntheticFileEntry clone = new SyntheticFileEntry(path, sharedContent, size);
+        clone.setLastModified(getLastModified());
+        return clone;
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.ei.testutil;
+
+import org.mockftpserver.core.command.Command;
+import org.mockftpserver.core.command.CommandHandler;
+import org.mockftpserver.core.session.Session;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Wraps a command handler of the mock server, to delay each command by a fixed latency and to limit the bandwidth of
+ * the data transfers of the connection.
+ */
+class ThrottledCommandHandler implements CommandHandler {
+
+    private static final String SEND_DATA = "sendData";
+    private static final String READ_DATA = "readData";
+    private static final int CHUNKS_PER_SECOND = 10;
+
+    private final CommandHandler delegate;
+    private final long latencyMillis;
+    private final long bytesPerSecond;
+
+    ThrottledCommandHandler(CommandHandler delegate, long latencyMillis, long bytesPerSecond) {
+
+        this.delegate = delegate;
+        this.latencyMillis = latencyMillis;
+        this.bytesPerSecond = bytesPerSecond;
+    }
+
+    @Override
+    public void handleCommand(Command command, Session session) throws Exception {
+
+        if (latencyMillis > 0) {
+            TimeUnit.MILLISECONDS.sleep(latencyMillis);
+        }
+        delegate.handleCommand(command, bytesPerSecond > 0 ? throttle(session) : session);
+    }
+
+    private Session throttle(Session session) {
+
+        return (Session) Proxy.newProxyInstance(Session.class.getClassLoader(), new Class<?>[]{Session.class},
+                (proxy, method, args) -> {
+                    if (SEND_DATA.equals(method.getName()) && args != null && args.length == 2) {
+                        sendData(session, (byte[]) args[0], (Integer) args[1]);
+                        return null;
+                    }
+                    Object result = invoke(method, session, args);
+                    if (READ_DATA.equals(method.getName()) && result instanceof byte[]) {
+                        pause(((byte[]) result).length);
+                    }
+                    return result;
+                });
+    }
+
+    /**
+     * Sends the data in chunks, each followed by the time it takes to transfer it at the configured bandwidth, so
+     * that the client sees the data arrive at that rate.
+     */
+    private void sendData(Session session, byte[] data, int numBytes) throws InterruptedException {
+
+        int chunkSize = (int) Math.max(1, Math.min(Integer.MAX_VALUE, bytesPerSecond / CHUNKS_PER_SECOND));
+        int offset = 0;
+        do {
+            int length = Math.min(chunkSize, numBytes - offset);
+            session.sendData(Arrays.copyOfRange(data, offset, offset + length), length);
+            pause(length);
+            offset += length;
+        } while (offset < numBytes);
+    }
+
+    private void pause(long bytes) throws InterruptedException {
+
+        TimeUnit.MICROSECONDS.sleep(bytes * 1_000_000L / bytesPerSecond);
+    }
+
+    private static Object invoke(Method method, Session session, Object[] args) throws Throwable {
+
+        try {
+            return method.invoke(session, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.ei.ftp.client;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+import org.wso2.ei.ftp.util.BallerinaFTPException;
+import org.wso2.ei.ftp.util.FTPIOExecutor;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests that the transfers of a client are shaped to its bandwidth limits.
+ */
+public class FTPBandwidthShaperTest {
+
+    private static final int LIMIT = 32 * 1024;
+
+    private final FTPIOExecutor executor = FTPIOExecutor.create(2, 0);
+
+    @AfterClass
+    public void shutdown() {
+
+        executor.shutdown();
+    }
+
+    @Test
+    public void testUnlimitedStreamIsNotWrapped() throws BallerinaFTPException {
+
+        FTPBandwidthShaper shaper = FTPBandwidthShaper.create(0, 0, LIMIT);
+        InputStream in = new ByteArrayInputStream(new byte[1]);
+        Assert.assertSame(shaper.throttle(in, false), in);
+        Assert.assertSame(shaper.pace(in, false, executor), in);
+        Assert.assertNotSame(shaper.pace(in, true, executor), in);
+    }
+
+    @Test(expectedExceptions = BallerinaFTPException.class)
+    public void testNegativeLimitIsRejected() throws BallerinaFTPException {
+
+        FTPBandwidthShaper.create(-1, 0, 0);
+    }
+
+    @Test
+    public void testPacedReadIsLimited() throws Exception {
+
+        FTPBandwidthShaper shaper = FTPBandwidthShaper.create(LIMIT, 0, 0);
+        // The bucket starts with a second worth of tokens, the rest of the content takes another second
+        byte[] content = new byte[2 * LIMIT];
+        long start = System.nanoTime();
+        try (InputStream in = shaper.pace(new ByteArrayInputStream(content), false, executor)) {
+            Assert.assertEquals(readFully(in), content.length);
+        }
+        Assert.assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 800);
+        Assert.assertEquals(executor.getRejectedTasks(), 0);
+    }
+
+    @Test
+    public void testReaderPacesWhenExecutorIsSaturated() throws Exception {
+
+        FTPIOExecutor saturated = FTPIOExecutor.create(1, 0);
+        CountDownLatch blocked = new CountDownLatch(1);
+        saturated.execute(() -> {
+            try {
+                blocked.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        try {
+            FTPBandwidthShaper shaper = FTPBandwidthShaper.create(LIMIT, 0, 0);
+            byte[] content = new byte[2 * LIMIT];
+            long start = System.nanoTime();
+            try (InputStream in = shaper.pace(new ByteArrayInputStream(content), false, saturated)) {
+                Assert.assertEquals(readFully(in), content.length);
+            }
+            Assert.assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 800);
+            Assert.assertEquals(saturated.getRejectedTasks(), 1);
+        } finally {
+            blocked.countDown();
+            saturated.shutdown();
+        }
+    }
+
+    @Test
+    public void testClosingPacedStreamClosesTransfer() throws Exception {
+
+        FTPBandwidthShaper shaper = FTPBandwidthShaper.create(LIMIT, 0, 0);
+        CountDownLatch closed = new CountDownLatch(1);
+        InputStream transfer = new FilterInputStream(new ByteArrayInputStream(new byte[8 * LIMIT])) {
+
+            @Override
+            public void close() throws IOException {
+
+                closed.countDown();
+                super.close();
+            }
+        };
+        InputStream in = shaper.pace(transfer, true, executor);
+        Assert.assertTrue(in.read(new byte[1024]) > 0);
+        in.close();
+        Assert.assertTrue(closed.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testFailureOfTransferIsReported() throws Exception {
+
+        FTPBandwidthShaper shaper = FTPBandwidthShaper.create(LIMIT, 0, 0);
+        InputStream transfer = new InputStream() {
+
+            @Override
+            public int read() throws IOException {
+
+                throw new IOException("Connection reset");
+            }
+        };
+        try (InputStream in = shaper.pace(transfer, false, executor)) {
+            readFully(in);
+            Assert.fail("The failure of the transfer should be reported to the reader.");
+        } catch (IOException e) {
+            Assert.assertEquals(e.getMessage(), "Connection reset");
+        }
+    }
+
+    private static int readFully(InputStream in) throws IOException {
+
+        byte[] buffer = new byte[4096];
+        int total = 0;
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            total += read;
+        }
+        return total;
+    }
+}
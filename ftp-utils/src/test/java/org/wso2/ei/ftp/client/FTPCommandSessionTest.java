@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.ei.ftp.client;
+
+import org.mockftpserver.fake.FakeFtpServer;
+import org.mockftpserver.fake.UserAccount;
+import org.mockftpserver.fake.filesystem.DirectoryEntry;
+import org.mockftpserver.fake.filesystem.FileEntry;
+import org.mockftpserver.fake.filesystem.UnixFakeFileSystem;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.wso2.ei.ftp.util.FTPTimeouts;
+
+import java.io.IOException;
+
+/**
+ * Tests the metadata reported by FTP servers without the MLST feature.
+ */
+public class FTPCommandSessionTest {
+
+    private static final FTPTimeouts TIMEOUTS = FTPTimeouts.create(5000, 5000, 5000);
+
+    private FakeFtpServer server;
+    private volatile String sizeReply;
+
+    @BeforeClass
+    public void startServer() {
+
+        server = new FakeFtpServer();
+        server.setServerControlPort(0);
+        server.addUserAccount(new UserAccount("user", "password", "/home"));
+        UnixFakeFileSystem fileSystem = new UnixFakeFileSystem();
+        fileSystem.add(new DirectoryEntry("/home/folder"));
+        fileSystem.add(new FileEntry("/home/file.txt", "0123456789"));
+        server.setFileSystem(fileSystem);
+        // The fake server has no SIZE command, the test answers it like the server under test would
+        server.setCommandHandler("SIZE", (command, session) -> session.sendReply(213, sizeReply));
+        server.start();
+    }
+
+    @AfterClass
+    public void stopServer() {
+
+        server.stop();
+    }
+
+    @Test
+    public void testFileSizeFromSizeReply() throws IOException {
+
+        sizeReply = "10";
+        try (FTPCommandSession session = openSession()) {
+            FTPFileStat stat = session.stat("/home/file.txt");
+            Assert.assertNotNull(stat);
+            Assert.assertFalse(stat.isDirectory());
+            Assert.assertEquals(stat.getSize(), 10);
+            Assert.assertFalse(stat.isPermissionsKnown());
+            Assert.assertFalse(stat.isReadable());
+            Assert.assertFalse(stat.isWritable());
+        }
+    }
+
+    @Test
+    public void testUnreadableSizeReplyFallsBack() throws IOException {
+
+        sizeReply = "/home/folder: not a plain file";
+        try (FTPCommandSession session = openSession()) {
+            FTPFileStat folder = session.stat("/home/folder");
+            Assert.assertNotNull(folder);
+            Assert.assertTrue(folder.isDirectory());
+            Assert.assertFalse(folder.isPermissionsKnown());
+
+            FTPFileStat file = session.stat("/home/file.txt");
+            Assert.assertNotNull(file);
+            Assert.assertFalse(file.isDirectory());
+        }
+    }
+
+    @Test
+    public void testParseSize() {
+
+        Assert.assertEquals(FTPCommandSession.parseSize("213 1048576\r\n"), 1048576);
+        Assert.assertEquals(FTPCommandSession.parseSize("213 unknown\r\n"), -1);
+        Assert.assertEquals(FTPCommandSession.parseSize("213"), -1);
+        Assert.assertEquals(FTPCommandSession.parseSize(null), -1);
+    }
+
+    private FTPCommandSession openSession() throws IOException {
+
+        return new FTPCommandSession(false, "localhost", server.getServerControlPort(), "user", "password", TIMEOUTS);
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.ei.ftp.client;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests that a transfer keeps its operation slot until its stream ends.
+ */
+public class FTPCompletionInputStreamTest {
+
+    @Test
+    public void testSlotIsHeldUntilEndOfStream() throws IOException {
+
+        FTPOperationLimiter limiter = new FTPOperationLimiter(1);
+        limiter.hold();
+        InputStream in = new FTPCompletionInputStream(new ByteArrayInputStream(new byte[10]), limiter::release);
+        AtomicInteger started = new AtomicInteger();
+        limiter.submit(started::incrementAndGet);
+        Assert.assertEquals(limiter.getPending(), 1);
+
+        Assert.assertEquals(in.read(new byte[10]), 10);
+        Assert.assertEquals(started.get(), 0);
+        Assert.assertEquals(in.read(), -1);
+        Assert.assertEquals(started.get(), 1);
+        in.close();
+        Assert.assertEquals(limiter.getInFlight(), 1);
+    }
+
+    @Test
+    public void testSlotIsReleasedOnClose() throws IOException {
+
+        FTPOperationLimiter limiter = new FTPOperationLimiter(1);
+        limiter.hold();
+        InputStream in = new FTPCompletionInputStream(new ByteArrayInputStream(new byte[10]), limiter::release);
+        in.read();
+        in.close();
+        in.close();
+        Assert.assertEquals(limiter.getInFlight(), 0);
+    }
+
+    @Test
+    public void testSlotIsReleasedOnFailure() {
+
+        AtomicInteger completions = new AtomicInteger();
+        InputStream failing = new FilterInputStream(new ByteArrayInputStream(new byte[0])) {
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+
+                throw new IOException("connection reset");
+            }
+        };
+        InputStream in = new FTPCompletionInputStream(failing, completions::incrementAndGet);
+        try {
+            in.read(new byte[1], 0, 1);
+            Assert.fail("The failure of the read was not reported.");
+        } catch (IOException e) {
+            Assert.assertEquals(e.getMessage(), "connection reset");
+        }
+        Assert.assertEquals(completions.get(), 1);
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.ei.ftp.client;
+
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Tests the compression codecs of the client, including content appended to a compressed file.
+ */
+public class FTPCompressionTest {
+
+    @DataProvider(name = "codecs")
+    public Object[][] codecs() {
+
+        return new Object[][]{{FTPCompression.CODEC_GZIP}, {FTPCompression.CODEC_DEFLATE}};
+    }
+
+    @Test(dataProvider = "codecs")
+    public void testRoundTrip(String codec) throws IOException {
+
+        byte[] content = createContent("line", 10000);
+        Assert.assertEquals(decompress(compress(content, codec), codec), content);
+    }
+
+    @Test(dataProvider = "codecs")
+    public void testAppendedContent(String codec) throws IOException {
+
+        byte[] first = createContent("first", 5000);
+        byte[] second = createContent("second", 3);
+        byte[] third = createContent("third", 20000);
+        ByteArrayOutputStream file = new ByteArrayOutputStream();
+        file.write(compress(first, codec));
+        file.write(compress(second, codec));
+        file.write(compress(third, codec));
+
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        expected.write(first);
+        expected.write(second);
+        expected.write(third);
+        Assert.assertEquals(decompress(file.toByteArray(), codec), expected.toByteArray());
+    }
+
+    @Test
+    public void testSingleByteReadsOfAppendedDeflateContent() throws IOException {
+
+        ByteArrayOutputStream file = new ByteArrayOutputStream();
+        file.write(compress("ab".getBytes(StandardCharsets.UTF_8), FTPCompression.CODEC_DEFLATE));
+        file.write(compress("cd".getBytes(StandardCharsets.UTF_8), FTPCompression.CODEC_DEFLATE));
+        try (InputStream in = FTPCompression.decompress(new ByteArrayInputStream(file.toByteArray()),
+                FTPCompression.CODEC_DEFLATE)) {
+            StringBuilder content = new StringBuilder();
+            int b;
+            while ((b = in.read()) != -1) {
+                content.append((char) b);
+            }
+            Assert.assertEquals(content.toString(), "abcd");
+            Assert.assertEquals(in.read(), -1);
+        }
+    }
+
+    @Test
+    public void testAutoCodec() throws Exception {
+
+        Assert.assertEquals(FTPCompression.resolveCodec(FTPCompression.CODEC_AUTO, "/data/file.GZ"),
+                FTPCompression.CODEC_GZIP);
+        Assert.assertEquals(FTPCompression.resolveCodec(FTPCompression.CODEC_AUTO, "/data/file.zz"),
+                FTPCompression.CODEC_DEFLATE);
+        Assert.assertEquals(FTPCompression.resolveCodec(FTPCompression.CODEC_AUTO, "/data/file.txt"),
+                FTPCompression.CODEC_NONE);
+    }
+
+    private byte[] compress(byte[] content, String codec) throws IOException {
+
+        try (InputStream in = FTPCompression.compress(new ByteArrayInputStream(content), codec)) {
+            return readAll(in);
+        }
+    }
+
+    private static byte[] decompress(byte[] content, String codec) throws IOException {
+
+        try (InputStream in = FTPCompression.decompress(new ByteArrayInputStream(content), codec)) {
+            return readAll(in);
+        }
+    }
+
+    private static byte[] createContent(String prefix, int lines) {
+
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < lines; i++) {
+            content.append(prefix).append(' ').append(i).append('\n');
+        }
+        return content.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int count;
+        while ((count = in.read(buffer)) != -1) {
+            out.write(buffer, 0, count);
+        }
+        return out.toByteArray();
+    }
+}
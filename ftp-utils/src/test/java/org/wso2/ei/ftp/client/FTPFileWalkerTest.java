@@ -0,0 +1,219 @@
+/*
+ * Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.ei.ftp.client;
+
+import org.ballerinalang.jvm.values.ErrorValue;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+import org.wso2.ei.ftp.util.FTPUtil;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests the scheduling of the directory listings of a walk and the reads of its entries.
+ */
+public class FTPFileWalkerTest {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @AfterClass
+    public void shutdown() {
+
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testWalkReturnsAllEntries() throws Exception {
+
+        Tree tree = new Tree();
+        tree.addDirectory("/root", "a", "b");
+        tree.addDirectory("/root/a", "c");
+        tree.addDirectory("/root/a/c");
+        tree.addDirectory("/root/b");
+        tree.addFiles("/root/a/c", 250);
+        FTPFileWalker walker = new FTPFileWalker(tree.asyncLister(), ArrayList::new, "/root", -1, 2);
+
+        List<Object> entries = readAll(walker);
+        // 3 folders and 250 files
+        Assert.assertEquals(entries.size(), 253);
+        Assert.assertTrue(entries.contains("/root/a/c/file-249"));
+        Assert.assertTrue(tree.maxInFlight.get() <= 2);
+        // A completed walk keeps returning its end
+        Assert.assertNull(read(walker));
+    }
+
+    @Test
+    public void testMaxDepth() throws Exception {
+
+        Tree tree = new Tree();
+        tree.addDirectory("/root", "a");
+        tree.addDirectory("/root/a", "b");
+        tree.addDirectory("/root/a/b", "c");
+        tree.addDirectory("/root/a/b/c");
+        FTPFileWalker walker = new FTPFileWalker(tree.asyncLister(), ArrayList::new, "/root", 2, 4);
+
+        Assert.assertEquals(readAll(walker).toString(), "[/root/a, /root/a/b]");
+        Assert.assertEquals(tree.listed.size(), 2);
+    }
+
+    @Test
+    public void testFullBufferHoldsBackListings() throws Exception {
+
+        Tree tree = new Tree();
+        List<String> children = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            children.add("d" + i);
+        }
+        tree.addDirectory("/root", children.toArray(new String[0]));
+        for (String child : children) {
+            tree.addDirectory("/root/" + child);
+            tree.addFiles("/root/" + child, FTPFileWalker.BATCH_SIZE);
+        }
+        // Listed synchronously, so that the walker cannot be waiting on listings in flight
+        FTPFileWalker walker = new FTPFileWalker(tree.syncLister(), ArrayList::new, "/root", -1, 1);
+
+        Assert.assertEquals(((List<?>) read(walker)).size(), 10);
+        // The buffer of one batch per listing in parallel is full after the root and one subdirectory
+        Assert.assertEquals(tree.listed.size(), 2);
+        Assert.assertEquals(readAll(walker).size(), 10 * FTPFileWalker.BATCH_SIZE);
+        Assert.assertEquals(tree.listed.size(), 11);
+    }
+
+    @Test
+    public void testErrorEndsTheWalkOnce() throws Exception {
+
+        Tree tree = new Tree();
+        tree.addDirectory("/root", "a", "b", "c");
+        tree.addDirectory("/root/a");
+        tree.addDirectory("/root/c");
+        // "/root/b" cannot be listed
+        FTPFileWalker walker = new FTPFileWalker(tree.asyncLister(), ArrayList::new, "/root", -1, 3);
+
+        Object result;
+        do {
+            result = read(walker);
+        } while (result instanceof List);
+        Assert.assertTrue(result instanceof ErrorValue);
+        Assert.assertNull(read(walker));
+        Assert.assertNull(read(walker));
+    }
+
+    @Test
+    public void testCloseCompletesPendingRead() throws Exception {
+
+        CompletableFuture<Object> rootListing = new CompletableFuture<>();
+        FTPFileWalker walker = new FTPFileWalker((path, future) -> rootListing.thenAccept(future::complete),
+                ArrayList::new, "/root", -1, 1);
+        CompletableFuture<Object> read = new CompletableFuture<>();
+        walker.read(read);
+        Assert.assertFalse(read.isDone());
+
+        walker.close();
+        Assert.assertNull(read.get(1, TimeUnit.SECONDS));
+        // The listing completing afterwards is discarded
+        rootListing.complete(new FTPFileWalker.Listing(Collections.emptyList(), Collections.singletonList("a")));
+        Assert.assertNull(read(walker));
+    }
+
+    private static Object read(FTPFileWalker walker) throws Exception {
+
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        walker.read(future);
+        return future.get(5, TimeUnit.SECONDS);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Object> readAll(FTPFileWalker walker) throws Exception {
+
+        List<Object> entries = new ArrayList<>();
+        Object batch;
+        while ((batch = read(walker)) != null) {
+            Assert.assertTrue(batch instanceof List, String.valueOf(batch));
+            Assert.assertTrue(((List<Object>) batch).size() <= FTPFileWalker.BATCH_SIZE);
+            entries.addAll((List<Object>) batch);
+        }
+        return entries;
+    }
+
+    /**
+     * An in-memory directory tree, whose entries are represented by their paths.
+     */
+    private class Tree {
+
+        private final Map<String, List<String>> directories = new HashMap<>();
+        private final Map<String, List<Object>> entries = new HashMap<>();
+        private final List<String> listed = Collections.synchronizedList(new ArrayList<>());
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicInteger maxInFlight = new AtomicInteger();
+
+        void addDirectory(String path, String... subdirectories) {
+
+            List<String> paths = new ArrayList<>();
+            for (String subdirectory : subdirectories) {
+                paths.add(path + "/" + subdirectory);
+            }
+            directories.put(path, paths);
+            entries.put(path, new ArrayList<>(paths));
+        }
+
+        void addFiles(String path, int count) {
+
+            for (int i = 0; i < count; i++) {
+                entries.get(path).add(path + "/file-" + i);
+            }
+        }
+
+        FTPFileWalker.DirectoryLister syncLister() {
+
+            return (path, future) -> {
+                listed.add(path);
+                future.complete(list(path));
+            };
+        }
+
+        FTPFileWalker.DirectoryLister asyncLister() {
+
+            return (path, future) -> {
+                listed.add(path);
+                maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                executor.execute(() -> {
+                    Object listing = list(path);
+                    inFlight.decrementAndGet();
+                    future.complete(listing);
+                });
+            };
+        }
+
+        private Object list(String path) {
+
+            return directories.containsKey(path) ? new FTPFileWalker.Listing(directories.get(path), entries.get(path))
+                    : FTPUtil.createError("Unable to list " + path);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.ei.ftp.client;
+
+import org.ballerinalang.jvm.values.ErrorValue;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests that hedged reads abandon the attempt which loses the race.
+ */
+public class FTPHedgingPolicyTest {
+
+    @Test
+    public void testFastAttemptIsNotHedged() throws Exception {
+
+        FTPHedgingPolicy hedging = new FTPHedgingPolicy(50);
+        List<CompletableFuture<Object>> attempts = new CopyOnWriteArrayList<>();
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        hedging.execute(future, (attemptFuture, isHedge) -> {
+            attempts.add(attemptFuture);
+            attemptFuture.complete("first");
+        }, result -> Assert.fail("Nothing should be discarded."));
+
+        Assert.assertEquals(future.get(1, TimeUnit.SECONDS), "first");
+        Thread.sleep(150);
+        Assert.assertEquals(attempts.size(), 1);
+        Assert.assertEquals(hedging.getHedgesFired(), 0);
+    }
+
+    @Test
+    public void testLosingAttemptIsAbandoned() throws Exception {
+
+        FTPHedgingPolicy hedging = new FTPHedgingPolicy(20);
+        List<CompletableFuture<Object>> attempts = new CopyOnWriteArrayList<>();
+        List<Object> discarded = new CopyOnWriteArrayList<>();
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        hedging.execute(future, (attemptFuture, isHedge) -> {
+            attempts.add(attemptFuture);
+            if (isHedge) {
+                attemptFuture.complete("hedge");
+            }
+        }, discarded::add);
+
+        Assert.assertEquals(future.get(1, TimeUnit.SECONDS), "hedge");
+        Assert.assertEquals(attempts.size(), 2);
+        // The first attempt is completed with an error, which aborts its transfer
+        Assert.assertTrue(attempts.get(0).get(1, TimeUnit.SECONDS) instanceof ErrorValue);
+        Assert.assertEquals(hedging.getHedgesFired(), 1);
+        // The win is counted once the hedge has completed the operation, after the caller is woken up
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        while (hedging.getHedgesWon() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        Assert.assertEquals(hedging.getHedgesWon(), 1);
+
+        // A result which arrives anyway is not delivered
+        Assert.assertFalse(attempts.get(0).complete("late"));
+        Assert.assertTrue(discarded.isEmpty());
+    }
+
+    @Test
+    public void testHedgeIsNotFiredAfterFirstAttemptFailed() throws Exception {
+
+        FTPHedgingPolicy hedging = new FTPHedgingPolicy(20);
+        List<CompletableFuture<Object>> attempts = new CopyOnWriteArrayList<>();
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        hedging.execute(future, (attemptFuture, isHedge) -> {
+            attempts.add(attemptFuture);
+            attemptFuture.complete(new ErrorValue("{wso2/ftp}FTPError", "failed"));
+        }, result -> Assert.fail("Nothing should be discarded."));
+
+        Assert.assertTrue(future.get(1, TimeUnit.SECONDS) instanceof ErrorValue);
+        Thread.sleep(100);
+        Assert.assertEquals(attempts.size(), 1);
+        Assert.assertEquals(hedging.getHedgesFired(), 0);
+    }
+}
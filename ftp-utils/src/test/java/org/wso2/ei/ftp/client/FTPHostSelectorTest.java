@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.ei.ftp.client;
+
+import org.apache.commons.vfs2.FileSystemException;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.wso2.ei.ftp.util.BallerinaFTPException;
+import org.wso2.ei.ftp.util.FTPHostKeyPolicy;
+import org.wso2.ei.ftp.util.FTPTimeouts;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+
+/**
+ * Tests which failures let an operation be sent to another host.
+ */
+public class FTPHostSelectorTest {
+
+    private static final FTPTimeouts TIMEOUTS = FTPTimeouts.create(5000, 5000, 5000);
+
+    @Test
+    public void testSocketConnectFailures() {
+
+        Assert.assertTrue(FTPHostSelector.isConnectFailure(new BallerinaFTPException("failed",
+                new ConnectException("Connection refused"))));
+        Assert.assertTrue(FTPHostSelector.isConnectFailure(new UnknownHostException("no.such.host")));
+    }
+
+    @Test
+    public void testSocketTimeouts() {
+
+        Assert.assertFalse(FTPHostSelector.isConnectFailure(new BallerinaFTPException("failed",
+                new SocketTimeoutException("Read timed out"))));
+        Assert.assertTrue(FTPHostSelector.isConnectFailure(new FTPConnectException("failed",
+                new SocketTimeoutException("connect timed out"))));
+        Assert.assertTrue(FTPHostSelector.isConnectFailure(new FileSystemException("vfs.provider.ftp/connect.error",
+                new SocketTimeoutException("connect timed out"), "127.0.0.1")));
+        Assert.assertFalse(FTPHostSelector.isConnectFailure(new FileSystemException("vfs.provider/read.error",
+                new SocketTimeoutException("Read timed out"), "/home/in/file.txt")));
+    }
+
+    @Test
+    public void testOtherFailures() {
+
+        Assert.assertFalse(FTPHostSelector.isConnectFailure(new IOException("Could not connect: login refused")));
+        Assert.assertFalse(FTPHostSelector.isConnectFailure(new FileSystemException("vfs.provider.ftp/connect.error",
+                new IOException("Login failed"), "127.0.0.1")));
+    }
+
+    @Test
+    public void testRefusedSessions() throws IOException {
+
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        for (String protocol : new String[]{"ftp", "ftps", "sftp"}) {
+            try {
+                FTPSessionFactory.createSession(protocol, "127.0.0.1", port, "user", "password", TIMEOUTS,
+                        FTPHostKeyPolicy.create(false, null), null).close();
+                Assert.fail("A session was opened to a closed port.");
+            } catch (BallerinaFTPException e) {
+                Assert.assertTrue(FTPHostSelector.isConnectFailure(e), protocol + ": " + e.getMessage());
+            }
+        }
+    }
+}
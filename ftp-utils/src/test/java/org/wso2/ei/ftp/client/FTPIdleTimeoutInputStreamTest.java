@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.ei.ftp.client;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+import org.wso2.ei.ftp.util.FTPIOExecutor;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Tests that an idle data transfer is aborted.
+ */
+public class FTPIdleTimeoutInputStreamTest {
+
+    private final FTPIOExecutor executor = FTPIOExecutor.create(1, 0);
+
+    @AfterClass
+    public void shutdown() {
+
+        executor.shutdown();
+    }
+
+    @Test
+    public void testIdleTransferTimesOut() throws IOException {
+
+        InputStream in = FTPIdleTimeoutInputStream.wrap(new HungInputStream(), 50, executor);
+        Assert.assertEquals(in.read(), 1);
+        long start = System.nanoTime();
+        try {
+            in.read();
+            Assert.fail("The idle read should time out.");
+        } catch (SocketTimeoutException e) {
+            Assert.assertTrue(System.nanoTime() - start < 2_000_000_000L);
+        }
+        try {
+            in.read();
+            Assert.fail("A stream which timed out should stay failed.");
+        } catch (SocketTimeoutException e) {
+            // Expected
+        }
+        in.close();
+    }
+
+    @Test
+    public void testSlowReaderAfterEndOfStreamIsNotAborted() throws Exception {
+
+        AtomicBoolean closed = new AtomicBoolean();
+        InputStream source = new FilterInputStream(new ByteArrayInputStream(new byte[4])) {
+
+            @Override
+            public void close() throws IOException {
+
+                closed.set(true);
+                super.close();
+            }
+        };
+        InputStream in = FTPIdleTimeoutInputStream.wrap(source, 20, executor);
+        Assert.assertEquals(in.read(new byte[8]), 4);
+        Assert.assertEquals(in.read(), -1);
+        Thread.sleep(100);
+        Assert.assertFalse(closed.get());
+        in.close();
+        Assert.assertTrue(closed.get());
+    }
+
+    @Test
+    public void testUnreadStreamIsClosed() throws Exception {
+
+        CountDownLatch closed = new CountDownLatch(1);
+        InputStream source = new FilterInputStream(new ByteArrayInputStream(new byte[4])) {
+
+            @Override
+            public void close() throws IOException {
+
+                closed.countDown();
+                super.close();
+            }
+        };
+        InputStream in = FTPIdleTimeoutInputStream.wrap(source, 50, executor);
+        Assert.assertEquals(in.read(), 0);
+        // The reader drops the stream without closing it
+        Assert.assertTrue(closed.await(2, TimeUnit.SECONDS));
+        try {
+            in.read();
+            Assert.fail("A stream which was closed for being idle should stay failed.");
+        } catch (SocketTimeoutException e) {
+            Assert.assertTrue(e.getMessage().contains("not read"), e.getMessage());
+        }
+        in.close();
+    }
+
+    @Test
+    public void testZeroTimeoutDoesNotWrap() {
+
+        InputStream source = new ByteArrayInputStream(new byte[1]);
+        Assert.assertSame(FTPIdleTimeoutInputStream.wrap(source, 0, executor), source);
+    }
+
+    /**
+     * Returns one byte, then blocks like a hung data connection until it is closed.
+     */
+    private static class HungInputStream extends InputStream {
+
+        private final CountDownLatch closed = new CountDownLatch(1);
+        private boolean first = true;
+
+        @Override
+        public int read() throws IOException {
+
+            if (first) {
+                first = false;
+                return 1;
+            }
+            try {
+                closed.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            throw new IOException("Socket closed");
+        }
+
+        @Override
+        public void close() {
+
+            closed.countDown();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.ei.ftp.client;
+
+import org.ballerinalang.jvm.values.MapValue;
+import org.ballerinalang.jvm.values.MapValueImpl;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.wso2.ei.ftp.util.BallerinaFTPException;
+import org.wso2.ei.ftp.util.FTPConstants;
+
+/**
+ * Tests the conversion of list filter globs and the entries they match.
+ */
+public class FTPListFilterTest {
+
+    @Test
+    public void testGlobToRegex() {
+
+        Assert.assertTrue("report-01.csv".matches(FTPListFilter.toRegex("report-??.csv")));
+        Assert.assertFalse("report-001.csv".matches(FTPListFilter.toRegex("report-??.csv")));
+        Assert.assertTrue("a.b+c(1).txt".matches(FTPListFilter.toRegex("a.b+c(*).txt")));
+        Assert.assertFalse("aXb+c(1).txt".matches(FTPListFilter.toRegex("a.b+c(*).txt")));
+        Assert.assertTrue("data1.txt".matches(FTPListFilter.toRegex("data[0-9].txt")));
+        Assert.assertFalse("datax.txt".matches(FTPListFilter.toRegex("data[0-9].txt")));
+        Assert.assertTrue("datax.txt".matches(FTPListFilter.toRegex("data[!0-9].txt")));
+        Assert.assertTrue("a^.txt".matches(FTPListFilter.toRegex("a[\\^].txt")));
+        // An unterminated set is matched literally
+        Assert.assertTrue("[abc".matches(FTPListFilter.toRegex("[abc")));
+    }
+
+    @Test
+    public void testMatches() throws BallerinaFTPException {
+
+        MapValue<String, Object> config = new MapValueImpl<>();
+        config.put(FTPConstants.FILTER_GLOB, "*.log");
+        config.put(FTPConstants.FILTER_MIN_SIZE, 10L);
+        config.put(FTPConstants.FILTER_MODIFIED_SINCE, 1000L);
+        FTPListFilter filter = FTPListFilter.create(config);
+
+        Assert.assertTrue(filter.matches("app.log", false, 10, 1000));
+        Assert.assertFalse(filter.matches("app.txt", false, 10, 1000));
+        Assert.assertFalse(filter.matches("app.log", false, 9, 1000));
+        Assert.assertFalse(filter.matches("app.log", false, 10, 999));
+        // The size limits do not apply to folders
+        Assert.assertTrue(filter.matches("archive.log", true, 0, 1000));
+    }
+
+    @Test
+    public void testEntryType() throws BallerinaFTPException {
+
+        MapValue<String, Object> config = new MapValueImpl<>();
+        config.put(FTPConstants.FILTER_ENTRY_TYPE, FTPConstants.ENTRY_TYPE_FOLDER);
+        FTPListFilter folders = FTPListFilter.create(config);
+        Assert.assertTrue(folders.matches("in", true, 0, 0));
+        Assert.assertFalse(folders.matches("in.txt", false, 0, 0));
+
+        config.put(FTPConstants.FILTER_ENTRY_TYPE, FTPConstants.ENTRY_TYPE_FILE);
+        FTPListFilter files = FTPListFilter.create(config);
+        Assert.assertFalse(files.matches("in", true, 0, 0));
+        Assert.assertTrue(files.matches("in.txt", false, 0, 0));
+    }
+
+    @Test
+    public void testServerGlob() throws BallerinaFTPException {
+
+        MapValue<String, Object> config = new MapValueImpl<>();
+        config.put(FTPConstants.FILTER_GLOB, "*.csv");
+        // A folder matched by the glob would be listed in place of the folder, so the glob stays on the client
+        Assert.assertNull(FTPListFilter.create(config).getServerGlob());
+        config.put(FTPConstants.FILTER_ENTRY_TYPE, FTPConstants.ENTRY_TYPE_FOLDER);
+        Assert.assertNull(FTPListFilter.create(config).getServerGlob());
+
+        config.put(FTPConstants.FILTER_ENTRY_TYPE, FTPConstants.ENTRY_TYPE_FILE);
+        Assert.assertEquals(FTPListFilter.create(config).getServerGlob(), "*.csv");
+        // Sets are not understood by every server
+        config.put(FTPConstants.FILTER_GLOB, "data[0-9].csv");
+        Assert.assertNull(FTPListFilter.create(config).getServerGlob());
+    }
+
+    @Test(expectedExceptions = BallerinaFTPException.class)
+    public void testInvalidRegex() throws BallerinaFTPException {
+
+        MapValue<String, Object> config = new MapValueImpl<>();
+        config.put(FTPConstants.FILTER_REGEX, "(unclosed");
+        FTPListFilter.create(config);
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.ei.ftp.client;
+
+import org.mockftpserver.fake.FakeFtpServer;
+import org.mockftpserver.fake.UserAccount;
+import org.mockftpserver.fake.filesystem.DirectoryEntry;
+import org.mockftpserver.fake.filesystem.FileEntry;
+import org.mockftpserver.fake.filesystem.UnixFakeFileSystem;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.ei.ftp.util.FTPTimeouts;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests the machine-readable listings of FTP servers with the MLST feature.
+ */
+public class FTPMachineListingTest {
+
+    private static final FTPTimeouts TIMEOUTS = FTPTimeouts.create(5000, 5000, 5000);
+
+    private final AtomicInteger featRequests = new AtomicInteger();
+    private FakeFtpServer server;
+
+    @BeforeClass
+    public void startServer() {
+
+        server = new FakeFtpServer();
+        server.setServerControlPort(0);
+        server.addUserAccount(new UserAccount("user", "password", "/home"));
+        UnixFakeFileSystem fileSystem = new UnixFakeFileSystem();
+        fileSystem.add(new DirectoryEntry("/home/folder"));
+        fileSystem.add(new FileEntry("/home/file.txt", "0123456789"));
+        server.setFileSystem(fileSystem);
+        MachineListingHandlers.install(server, featRequests);
+        server.start();
+    }
+
+    @AfterClass
+    public void stopServer() {
+
+        server.stop();
+    }
+
+    @BeforeMethod
+    public void resetCounters() {
+
+        featRequests.set(0);
+    }
+
+    @Test
+    public void testMachineListing() throws IOException {
+
+        try (FTPCommandSession session = openSession()) {
+            Assert.assertTrue(session.supportsMachineListing());
+            Map<String, FTPFileStat> entries = session.list("/home", null, true);
+            // The cdir entry of the listed directory is left out
+            Assert.assertEquals(entries.size(), 2);
+            FTPFileStat file = entries.get("file.txt");
+            Assert.assertFalse(file.isDirectory());
+            Assert.assertEquals(file.getSize(), 10);
+            Assert.assertTrue(file.getLastModified() > 0);
+            Assert.assertTrue(file.isPermissionsKnown());
+            Assert.assertTrue(file.isReadable());
+            Assert.assertTrue(file.isWritable());
+            Assert.assertTrue(entries.get("folder").isDirectory());
+        }
+    }
+
+    @Test
+    public void testMachineListingIsQueriedOncePerHost() throws IOException {
+
+        FTPHostSelector.Host host = new FTPHostSelector.Host("localhost", server.getServerControlPort());
+        Assert.assertNull(host.getMachineListing());
+        for (int i = 0; i < 3; i++) {
+            try (FTPCommandSession session = openSession()) {
+                Assert.assertTrue(FTPClientHelper.isMachineListing(host, session));
+            }
+        }
+        Assert.assertEquals(featRequests.get(), 1);
+        Assert.assertEquals(host.getMachineListing(), Boolean.TRUE);
+    }
+
+    @Test
+    public void testListingSessionListsFilesOnly() throws Exception {
+
+        try (FTPListingSession session = FTPListingSession.open("ftp", "localhost", server.getServerControlPort(),
+                "user", "password", TIMEOUTS, null, null)) {
+            Map<String, FTPListingSession.Entry> files = session.listFiles("/home", session.supportsMachineListing());
+            Assert.assertEquals(files.keySet().toString(), "[file.txt]");
+            Assert.assertEquals(files.get("file.txt").getSize(), 10);
+            Assert.assertTrue(files.get("file.txt").isPermissionsKnown());
+        }
+    }
+
+    private FTPCommandSession openSession() throws IOException {
+
+        return new FTPCommandSession(false, "localhost", server.getServerControlPort(), "user", "password", TIMEOUTS);
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.ei.ftp.client;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Tests that the operations of a client are bounded and that interactive operations are served first.
+ */
+public class FTPOperationLimiterTest {
+
+    @Test
+    public void testInteractiveOperationsAreStartedFirst() {
+
+        FTPOperationLimiter limiter = new FTPOperationLimiter(1);
+        List<String> started = new CopyOnWriteArrayList<>();
+        limiter.submit(() -> started.add("running"));
+        limiter.submit(() -> started.add("bulk 1"), true);
+        limiter.submit(() -> started.add("bulk 2"), true);
+        limiter.submit(() -> started.add("interactive"), false);
+        Assert.assertEquals(limiter.getPending(), 3);
+
+        limiter.release();
+        Assert.assertEquals(started.get(started.size() - 1), "interactive");
+        limiter.release();
+        Assert.assertEquals(started.get(started.size() - 1), "bulk 1");
+        limiter.release();
+        Assert.assertEquals(started.get(started.size() - 1), "bulk 2");
+        Assert.assertEquals(limiter.getPending(), 0);
+        Assert.assertEquals(limiter.getInFlight(), 1);
+    }
+
+    @Test
+    public void testSynchronousOperationsDrainTheQueue() {
+
+        FTPOperationLimiter limiter = new FTPOperationLimiter(1);
+        List<Integer> started = new CopyOnWriteArrayList<>();
+        limiter.hold();
+        for (int i = 0; i < 10000; i++) {
+            int operation = i;
+            limiter.submit(() -> {
+                started.add(operation);
+                limiter.release();
+            }, operation % 2 == 0);
+        }
+        Assert.assertTrue(started.isEmpty());
+        limiter.release();
+        Assert.assertEquals(started.size(), 10000);
+        // The odd operations are interactive, so they all run before the even ones
+        Assert.assertEquals(started.get(0).intValue(), 1);
+        Assert.assertEquals(started.get(4999).intValue(), 9999);
+        Assert.assertEquals(started.get(5000).intValue(), 0);
+        Assert.assertEquals(limiter.getInFlight(), 0);
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.ei.ftp.client;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.wso2.ei.ftp.util.FTPTimeouts;
+import org.wso2.ei.ftp.util.FTPTrustStore;
+import org.wso2.ei.testutil.EmbeddedFTPServer;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import javax.net.ssl.SSLException;
+
+/**
+ * Tests the verification of the certificate of an FTPS server, which is self-signed by the embedded server.
+ */
+public class FTPSSessionReuseClientTest {
+
+    private static final FTPTimeouts TIMEOUTS = FTPTimeouts.create(5000, 5000, 5000);
+
+    private Path homeDirectory;
+    private EmbeddedFTPServer server;
+    private int port;
+
+    @BeforeClass
+    public void startServer() throws IOException {
+
+        homeDirectory = Files.createTempDirectory("ftps-trust");
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        server = EmbeddedFTPServer.start(port, true, "user", "password", homeDirectory);
+    }
+
+    @AfterClass
+    public void stopServer() {
+
+        server.stop();
+        homeDirectory.toFile().delete();
+    }
+
+    @Test
+    public void testServerInTrustStoreIsAccepted() throws IOException {
+
+        FTPTrustStore trustStore = FTPTrustStore.create(server.getKeystore().getPath(),
+                EmbeddedFTPServer.KEYSTORE_PASSWORD);
+        try (FTPCommandSession session = new FTPCommandSession(true, "127.0.0.1", port, "user", "password",
+                TIMEOUTS, trustStore)) {
+            Assert.assertNotNull(session.stat("/"));
+        }
+    }
+
+    @Test(expectedExceptions = SSLException.class)
+    public void testUnknownServerIsRejected() throws IOException {
+
+        // The default trust store of the JDK does not contain the self-signed certificate
+        new FTPCommandSession(true, "127.0.0.1", port, "user", "password", TIMEOUTS,
+                FTPTrustStore.create(null, null)).close();
+    }
+
+    @Test
+    public void testMissingTrustStoreFails() {
+
+        String path = new File(homeDirectory.toFile(), "missing.jks").getPath();
+        try {
+            new FTPCommandSession(true, "127.0.0.1", port, "user", "password", TIMEOUTS,
+                    FTPTrustStore.create(path, EmbeddedFTPServer.KEYSTORE_PASSWORD)).close();
+            Assert.fail("Expected the session to fail without its trust store");
+        } catch (IOException e) {
+            Assert.assertTrue(e.getMessage().startsWith("Unable to load the trust store " + path), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.ei.ftp.client;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.wso2.ei.ftp.util.BallerinaFTPException;
+import org.wso2.ei.ftp.util.FTPCancellation;
+import org.wso2.ei.ftp.util.FTPConstants;
+import org.wso2.ei.ftp.util.FTPHostKeyPolicy;
+import org.wso2.ei.ftp.util.FTPIOExecutor;
+import org.wso2.ei.ftp.util.FTPTimeouts;
+import org.wso2.ei.testutil.EmbeddedFTPServer;
+import org.wso2.ei.testutil.EmbeddedSFTPServer;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
+/**
+ * Tests the segmented uploads over the embedded FTP and SFTP servers. The FTP server truncates the file at the offset
+ * a write starts from, so the content only survives if the segments are opened in order.
+ */
+public class FTPSegmentedUploadTest {
+
+    private static final FTPTimeouts TIMEOUTS = FTPTimeouts.create(5000, 5000, 5000);
+    private static final int SEGMENT_SIZE = 16 * 1024;
+
+    private final FTPIOExecutor executor = FTPIOExecutor.create(2, 10);
+    private final byte[] content = new byte[SEGMENT_SIZE * 4 + 123];
+    private Path localFile;
+    private Path ftpHome;
+    private Path sftpHome;
+    private FTPHostKeyPolicy hostKeyPolicy;
+    private EmbeddedFTPServer ftpServer;
+    private EmbeddedSFTPServer sftpServer;
+    private int ftpPort;
+    private int sftpPort;
+
+    @BeforeClass
+    public void startServers() throws IOException {
+
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) (i * 7 + i / SEGMENT_SIZE);
+        }
+        localFile = Files.createTempFile("segmented-upload", ".bin");
+        Files.write(localFile, content);
+        ftpHome = Files.createTempDirectory("segmented-upload-ftp");
+        sftpHome = Files.createTempDirectory("segmented-upload-sftp");
+        // The known hosts file does not exist, so the generated host key is neither checked nor recorded
+        hostKeyPolicy = FTPHostKeyPolicy.create(false, sftpHome.resolve("known_hosts").toString());
+        ftpPort = getFreePort();
+        sftpPort = getFreePort();
+        ftpServer = EmbeddedFTPServer.start(ftpPort, false, "user", "password", ftpHome);
+        sftpServer = EmbeddedSFTPServer.start(sftpPort, "user", "password", sftpHome);
+    }
+
+    @AfterClass
+    public void stopServers() throws IOException {
+
+        ftpServer.stop();
+        sftpServer.stop();
+        executor.shutdown();
+        for (Path path : new Path[]{ftpHome, sftpHome, localFile}) {
+            try (Stream<Path> paths = Files.walk(path)) {
+                paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+            }
+        }
+    }
+
+    @Test
+    public void testUploadsOverFTP() throws Exception {
+
+        FTPOperationLimiter limiter = new FTPOperationLimiter(8);
+        createUpload(FTPConstants.PROTOCOL_FTP, ftpPort, limiter).upload(localFile, "/ftp.bin", newCancellation());
+        Assert.assertEquals(Files.readAllBytes(ftpHome.resolve("ftp.bin")), content);
+        assertNoTemporaryFiles(ftpHome);
+        Assert.assertEquals(limiter.getInFlight(), 0);
+    }
+
+    @Test
+    public void testUploadsOverSFTP() throws Exception {
+
+        FTPOperationLimiter limiter = new FTPOperationLimiter(8);
+        createUpload(FTPConstants.PROTOCOL_SFTP, sftpPort, limiter).upload(localFile, "/sftp.bin",
+                newCancellation());
+        Assert.assertEquals(Files.readAllBytes(sftpHome.resolve("sftp.bin")), content);
+        assertNoTemporaryFiles(sftpHome);
+        Assert.assertEquals(limiter.getInFlight(), 0);
+    }
+
+    @Test
+    public void testSFTPRangeOfResizedFileFails() throws Exception {
+
+        try (FTPSession session = FTPSessionFactory.createSession(FTPConstants.PROTOCOL_SFTP, "127.0.0.1", sftpPort,
+                "user", "password", TIMEOUTS, hostKeyPolicy, null)) {
+            session.allocate("/resized.bin", 16);
+            // Another writer shrinks the file, so the range is written relative to the wrong size
+            Files.write(sftpHome.resolve("resized.bin"), new byte[8]);
+            OutputStream out = session.storeAt("/resized.bin", 12, 16);
+            out.write(new byte[4]);
+            try {
+                out.close();
+                Assert.fail("Expected the write to a resized file to fail");
+            } catch (IOException e) {
+                Assert.assertTrue(e.getMessage().contains("allocated size"), e.getMessage());
+            }
+        }
+    }
+
+    @Test
+    public void testWritesSegmentsWithoutSlotsOnCallingThread() throws Exception {
+
+        FTPOperationLimiter limiter = new FTPOperationLimiter(1);
+        // The slot of the upload operation itself
+        limiter.hold();
+        createUpload(FTPConstants.PROTOCOL_FTP, ftpPort, limiter).upload(localFile, "/limited.bin",
+                newCancellation());
+        Assert.assertEquals(Files.readAllBytes(ftpHome.resolve("limited.bin")), content);
+        Assert.assertEquals(limiter.getPending(), 3, "Expected the segments to wait for a slot");
+
+        limiter.release();
+        Assert.assertEquals(limiter.getPending(), 0);
+        Assert.assertEquals(limiter.getInFlight(), 0, "Expected the segments written by the caller to be skipped");
+    }
+
+    @Test
+    public void testCancelledUploadClosesSessions() throws Exception {
+
+        FTPCancellation cancellation = newCancellation();
+        cancellation.cancel();
+        try {
+            createUpload(FTPConstants.PROTOCOL_FTP, ftpPort, new FTPOperationLimiter(8)).upload(localFile,
+                    "/cancelled.bin", cancellation);
+            Assert.fail("Expected the cancelled upload to fail");
+        } catch (BallerinaFTPException e) {
+            Assert.assertFalse(Files.exists(ftpHome.resolve("cancelled.bin")));
+        }
+    }
+
+    private FTPSegmentedUpload createUpload(String protocol, int port, FTPOperationLimiter limiter) {
+
+        return new FTPSegmentedUpload(() -> FTPSessionFactory.createSession(protocol, "127.0.0.1", port, "user",
+                "password", TIMEOUTS, hostKeyPolicy, null), limiter, false, 4, SEGMENT_SIZE,
+                UnaryOperator.identity());
+    }
+
+    private FTPCancellation newCancellation() {
+
+        return new FTPCancellation(executor);
+    }
+
+    private static void assertNoTemporaryFiles(Path home) throws IOException {
+
+        try (Stream<Path> paths = Files.list(home)) {
+            Assert.assertFalse(paths.anyMatch(path -> path.toString().endsWith(".part")),
+                    "Expected the temporary file to be renamed");
+        }
+    }
+
+    private static int getFreePort() throws IOException {
+
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,323 @@
+/*
+ * Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.ei.ftp.client;
+
+import org.ballerinalang.jvm.values.MapValue;
+import org.ballerinalang.jvm.values.MapValueImpl;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+import org.wso2.ei.ftp.util.BallerinaFTPException;
+import org.wso2.ei.ftp.util.FTPConstants;
+import org.wso2.ei.ftp.util.FTPIOExecutor;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Tests the reuse, validation, eviction and warm-up of pooled sessions.
+ */
+public class FTPSessionPoolTest {
+
+    private final FTPIOExecutor executor = FTPIOExecutor.create(2, 10);
+
+    @AfterClass
+    public void shutdown() {
+
+        executor.shutdown();
+    }
+
+    @Test
+    public void testReusesReleasedSession() throws Exception {
+
+        Connector connector = new Connector();
+        FTPSessionPool pool = createPool(connector, 0, 60000);
+        try {
+            pool.acquire("host", 21).close();
+            pool.acquire("host", 21).close();
+            Assert.assertEquals(connector.sessions.size(), 1);
+            Assert.assertEquals(connector.sessions.get(0).noops.get(), 0,
+                    "Expected a session used a moment ago to be reused without a check");
+            Assert.assertEquals(pool.getIdleSessions(), 1);
+        } finally {
+            pool.close();
+        }
+    }
+
+    @Test
+    public void testReplacesStaleSession() throws Exception {
+
+        Connector connector = new Connector();
+        FTPSessionPool pool = createPool(connector, 0, 60000);
+        try {
+            pool.acquire("host", 21).close();
+            FakeSession stale = connector.sessions.get(0);
+            stale.stale = true;
+            Thread.sleep(FTPSessionPool.VALIDATION_INTERVAL_MILLIS + 100);
+
+            FTPSession session = pool.acquire("host", 21);
+            Assert.assertEquals(stale.noops.get(), 1);
+            Assert.assertTrue(stale.closed, "Expected the stale session to be closed");
+            Assert.assertEquals(connector.sessions.size(), 2, "Expected a new session instead of the stale one");
+            session.stat("/file");
+            session.close();
+            Assert.assertEquals(pool.getIdleSessions(), 1);
+        } finally {
+            pool.close();
+        }
+    }
+
+    @Test
+    public void testEvictsExpiredSessions() throws Exception {
+
+        Connector connector = new Connector();
+        FTPSessionPool pool = createPool(connector, 0, 100);
+        try {
+            pool.acquire("host", 21).close();
+            FakeSession session = connector.sessions.get(0);
+            Assert.assertTrue(waitFor(() -> session.closed), "Expected the idle session to be evicted");
+            Assert.assertEquals(pool.getIdleSessions(), 0);
+        } finally {
+            pool.close();
+        }
+    }
+
+    @Test
+    public void testWarmUpOpensSessionsInAdvance() throws Exception {
+
+        Connector connector = new Connector();
+        FTPSessionPool pool = createPool(connector, 2, 60000);
+        try {
+            pool.warmUp("host", 21);
+            Assert.assertEquals(connector.sessions.size(), 2);
+            Assert.assertEquals(pool.getIdleSessions(), 2);
+
+            FTPSession first = pool.acquire("host", 21);
+            FTPSession second = pool.acquire("host", 21);
+            Assert.assertEquals(connector.sessions.size(), 2, "Expected the warmed up sessions to be used");
+            first.close();
+            second.close();
+        } finally {
+            pool.close();
+        }
+    }
+
+    @Test
+    public void testWarmUpStopsAtConnectFailure() {
+
+        Connector connector = new Connector();
+        connector.failing = true;
+        FTPSessionPool pool = createPool(connector, 2, 60000);
+        try {
+            pool.warmUp("host", 21);
+            Assert.assertEquals(connector.attempts.get(), 1);
+            Assert.assertEquals(pool.getIdleSessions(), 0);
+        } finally {
+            pool.close();
+        }
+    }
+
+    @Test
+    public void testCloseClosesIdleAndReleasedSessions() throws Exception {
+
+        Connector connector = new Connector();
+        FTPSessionPool pool = createPool(connector, 0, 60000);
+        FTPSession inUse = pool.acquire("host", 21);
+        pool.acquire("host", 21).close();
+        pool.close();
+        FakeSession idle = connector.sessions.get(1);
+        Assert.assertTrue(waitFor(() -> idle.closed), "Expected the idle session to be closed");
+
+        inUse.close();
+        Assert.assertTrue(connector.sessions.get(0).closed, "Expected a session released after close to be closed");
+        Assert.assertEquals(pool.getIdleSessions(), 0);
+    }
+
+    @Test
+    public void testFailedSessionIsNotPooled() throws Exception {
+
+        Connector connector = new Connector();
+        FTPSessionPool pool = createPool(connector, 0, 60000);
+        try {
+            FTPSession session = pool.acquire("host", 21);
+            connector.sessions.get(0).stale = true;
+            try {
+                session.stat("/file");
+                Assert.fail("Expected the command to fail");
+            } catch (IOException e) {
+                session.close();
+            }
+            Assert.assertTrue(connector.sessions.get(0).closed);
+            Assert.assertEquals(pool.getIdleSessions(), 0);
+        } finally {
+            pool.close();
+        }
+    }
+
+    private FTPSessionPool createPool(Connector connector, long warmUpSessions, long idleTimeout) {
+
+        MapValue<String, Object> config = new MapValueImpl<>();
+        config.put(FTPConstants.SESSION_POOL_MAX_IDLE_SESSIONS, 4L);
+        config.put(FTPConstants.SESSION_POOL_WARM_UP_SESSIONS, warmUpSessions);
+        config.put(FTPConstants.SESSION_POOL_IDLE_TIMEOUT, idleTimeout);
+        try {
+            return FTPSessionPool.create(config, connector, executor);
+        } catch (BallerinaFTPException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static boolean waitFor(BooleanSupplier condition) throws InterruptedException {
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                return false;
+            }
+            Thread.sleep(10);
+        }
+        return true;
+    }
+
+    private static final class Connector implements FTPSessionPool.Connector {
+
+        private final List<FakeSession> sessions = new CopyOnWriteArrayList<>();
+        private final AtomicInteger attempts = new AtomicInteger();
+        private volatile boolean failing;
+
+        @Override
+        public FTPSession connect(String host, int port) throws BallerinaFTPException {
+
+            attempts.incrementAndGet();
+            if (failing) {
+                throw new BallerinaFTPException("Connection refused");
+            }
+            FakeSession session = new FakeSession();
+            sessions.add(session);
+            return session;
+        }
+    }
+
+    /**
+     * A session whose commands fail once the server is made to drop it.
+     */
+    private static final class FakeSession implements FTPSession {
+
+        private final AtomicInteger noops = new AtomicInteger();
+        private volatile boolean stale;
+        private volatile boolean closed;
+
+        @Override
+        public InputStream retrieve(String path, long offset) throws IOException {
+
+            throw new IOException("Not supported");
+        }
+
+        @Override
+        public String checksum(String path, String algorithm) throws IOException {
+
+            check();
+            return null;
+        }
+
+        @Override
+        public FTPFileStat stat(String path) throws IOException {
+
+            check();
+            return null;
+        }
+
+        @Override
+        public boolean supportsMachineListing() throws IOException {
+
+            check();
+            return false;
+        }
+
+        @Override
+        public Map<String, FTPFileStat> list(String path, String nameGlob, boolean machineListing)
+                throws IOException {
+
+            throw new IOException("Not supported");
+        }
+
+        @Override
+        public boolean supportsOffsetStore() throws IOException {
+
+            check();
+            return false;
+        }
+
+        @Override
+        public void allocate(String path, long size) throws IOException {
+
+            throw new IOException("Not supported");
+        }
+
+        @Override
+        public OutputStream storeAt(String path, long offset, long size) throws IOException {
+
+            throw new IOException("Not supported");
+        }
+
+        @Override
+        public void rename(String origin, String destination) throws IOException {
+
+            check();
+        }
+
+        @Override
+        public void delete(String path) throws IOException {
+
+            check();
+        }
+
+        @Override
+        public void noop() throws IOException {
+
+            noops.incrementAndGet();
+            check();
+        }
+
+        @Override
+        public boolean isConnected() {
+
+            return !closed;
+        }
+
+        @Override
+        public void close() {
+
+            closed = true;
+        }
+
+        private void check() throws IOException {
+
+            if (stale) {
+                throw new IOException("Connection reset");
+            }
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.ei.ftp.client;
+
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Tests the pipe which streams upload content from a writer thread.
+ */
+public class FTPStreamingContentTest {
+
+    private static final int CONTENT_SIZE = 4 * FTPStreamingContent.PIPE_BUFFER_SIZE + 17;
+
+    private byte[] content;
+
+    @BeforeMethod
+    public void setUp() {
+
+        content = new byte[CONTENT_SIZE];
+        new Random(42).nextBytes(content);
+    }
+
+    @Test
+    public void testContentIsWrittenByWriterThread() throws IOException {
+
+        AtomicReference<String> writerThread = new AtomicReference<>();
+        try (InputStream in = FTPStreamingContent.pipe(out -> {
+            writerThread.set(Thread.currentThread().getName());
+            out.write(content);
+            out.close();
+        })) {
+            Assert.assertEquals(readAll(in), content);
+        }
+        Assert.assertTrue(writerThread.get().startsWith(FTPStreamingContent.WRITER_THREAD_NAME), writerThread.get());
+    }
+
+    @Test
+    public void testWriterIsNotStartedBeforeRead() throws Exception {
+
+        CountDownLatch started = new CountDownLatch(1);
+        InputStream in = FTPStreamingContent.pipe(out -> started.countDown());
+        Assert.assertFalse(started.await(100, TimeUnit.MILLISECONDS));
+        in.close();
+    }
+
+    @Test
+    public void testWriterIsBoundedByPipe() throws Exception {
+
+        AtomicInteger written = new AtomicInteger();
+        CountDownLatch blocked = new CountDownLatch(1);
+        try (InputStream in = FTPStreamingContent.pipe(out -> {
+            for (int offset = 0; offset < content.length; offset += 1024) {
+                int length = Math.min(1024, content.length - offset);
+                if (written.get() + length > FTPStreamingContent.PIPE_BUFFER_SIZE) {
+                    blocked.countDown();
+                }
+                out.write(content, offset, length);
+                written.addAndGet(length);
+            }
+            out.close();
+        })) {
+            Assert.assertEquals(in.read(), content[0] & 0xFF);
+            Assert.assertTrue(blocked.await(5, TimeUnit.SECONDS));
+            Thread.sleep(100);
+            // The writer waits for the reader once the pipe is full instead of buffering the content
+            Assert.assertTrue(written.get() <= FTPStreamingContent.PIPE_BUFFER_SIZE + 1, "Written: " + written.get());
+            byte[] rest = readAll(in);
+            Assert.assertEquals(rest.length, content.length - 1);
+            Assert.assertEquals(written.get(), content.length);
+        }
+    }
+
+    @Test(expectedExceptions = IOException.class, expectedExceptionsMessageRegExp = ".*broken writer.*")
+    public void testWriterFailureIsReported() throws IOException {
+
+        try (InputStream in = FTPStreamingContent.pipe(out -> {
+            out.write(content, 0, 10);
+            throw new IOException("broken writer");
+        })) {
+            readAll(in);
+        }
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int count;
+        while ((count = in.read(buffer)) != -1) {
+            out.write(buffer, 0, count);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.ei.ftp.client;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests the progress reported for the content of an upload.
+ */
+public class FTPUploadProgressInputStreamTest {
+
+    @Test
+    public void testDataPhaseIsReported() throws IOException {
+
+        RecordingObserver observer = new RecordingObserver();
+        InputStream in = new FTPUploadProgressInputStream(new ByteArrayInputStream(new byte[10]), 1000, observer);
+        Assert.assertTrue(observer.events.isEmpty());
+        Assert.assertEquals(in.read(new byte[4]), 4);
+        Assert.assertEquals(in.read(new byte[8]), 6);
+        Assert.assertEquals(observer.events.size(), 1);
+        Assert.assertEquals(in.read(), -1);
+        Assert.assertEquals(in.read(), -1);
+        in.close();
+        Assert.assertEquals(observer.events, Arrays.asList("started", "ended"));
+    }
+
+    @Test
+    public void testSlowUploadDoesNotStall() throws Exception {
+
+        RecordingObserver observer = new RecordingObserver();
+        InputStream in = new FTPUploadProgressInputStream(new ByteArrayInputStream(new byte[10]), 50, observer);
+        for (int i = 0; i < 10; i++) {
+            Assert.assertEquals(in.read(), 0);
+            Thread.sleep(20);
+        }
+        Assert.assertEquals(in.read(), -1);
+        Thread.sleep(100);
+        Assert.assertFalse(observer.events.contains("stalled"), observer.events.toString());
+    }
+
+    @Test
+    public void testUploadWithoutProgressStalls() throws Exception {
+
+        RecordingObserver observer = new RecordingObserver();
+        InputStream in = new FTPUploadProgressInputStream(new ByteArrayInputStream(new byte[10]), 50, observer);
+        Assert.assertEquals(in.read(), 0);
+        // The transport is blocked on the data connection and stops reading the content
+        Assert.assertTrue(observer.stalled.await(2, TimeUnit.SECONDS));
+        Thread.sleep(100);
+        Assert.assertEquals(observer.events, Arrays.asList("started", "stalled"));
+        in.close();
+    }
+
+    @Test
+    public void testZeroIdleTimeoutNeverStalls() throws Exception {
+
+        RecordingObserver observer = new RecordingObserver();
+        InputStream in = new FTPUploadProgressInputStream(new ByteArrayInputStream(new byte[10]), 0, observer);
+        Assert.assertEquals(in.read(), 0);
+        Assert.assertFalse(observer.stalled.await(100, TimeUnit.MILLISECONDS));
+        in.close();
+    }
+
+    /**
+     * Records the reported progress.
+     */
+    private static class RecordingObserver implements FTPUploadProgressInputStream.Observer {
+
+        private final List<String> events = new CopyOnWriteArrayList<>();
+        private final CountDownLatch stalled = new CountDownLatch(1);
+
+        @Override
+        public void started() {
+
+            events.add("started");
+        }
+
+        @Override
+        public void ended() {
+
+            events.add("ended");
+        }
+
+        @Override
+        public void stalled() {
+
+            events.add("stalled");
+            stalled.countDown();
+        }
+    }
+}
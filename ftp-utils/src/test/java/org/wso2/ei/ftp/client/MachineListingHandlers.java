@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.ei.ftp.client;
+
+import org.mockftpserver.fake.FakeFtpServer;
+import org.mockftpserver.fake.filesystem.FileSystemEntry;
+
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.TimeZone;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Adds the FEAT and MLSD commands of the MLST feature to a fake server, which has neither. The MLSD listing is built
+ * from the fake file system of the server.
+ */
+public final class MachineListingHandlers {
+
+    private MachineListingHandlers() {
+        // private constructor
+    }
+
+    /**
+     * Installs the handlers on a server.
+     *
+     * @param server       the fake server, before it is started
+     * @param featRequests counts the FEAT commands received by the server
+     */
+    public static void install(FakeFtpServer server, AtomicInteger featRequests) {
+
+        server.setCommandHandler("FEAT", (command, session) -> {
+            featRequests.incrementAndGet();
+            session.sendReply(211, "Features:\r\n MLST type*;size*;modify*;perm*;\r\nEnd");
+        });
+        server.setCommandHandler("MLSD", (command, session) -> {
+            String path = command.getParameter(0);
+            StringBuilder listing = new StringBuilder("type=cdir;perm=el; ").append(path).append("\r\n");
+            SimpleDateFormat format = new SimpleDateFormat("yyyyMMddHHmmss");
+            format.setTimeZone(TimeZone.getTimeZone("UTC"));
+            for (Object file : server.getFileSystem().listFiles(path)) {
+                FileSystemEntry entry = (FileSystemEntry) file;
+                listing.append(entry.isDirectory() ? "type=dir;perm=el;" : "type=file;perm=rw;size=" + entry.getSize()
+                        + ";").append("modify=").append(format.format(entry.getLastModified())).append("; ")
+                        .append(entry.getName()).append("\r\n");
+            }
+            byte[] data = listing.toString().getBytes(StandardCharsets.UTF_8);
+            session.sendReply(150, "Opening data connection.");
+            session.openDataConnection();
+            session.sendData(data, data.length);
+            session.closeDataConnection();
+            session.sendReply(226, "Transfer complete.");
+        });
+    }
+}
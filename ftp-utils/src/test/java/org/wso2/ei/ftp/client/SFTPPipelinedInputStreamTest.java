@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.ei.ftp.client;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.wso2.ei.ftp.util.FTPHostKeyPolicy;
+import org.wso2.ei.ftp.util.FTPTimeouts;
+import org.wso2.ei.testutil.EmbeddedSFTPServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.ServerSocket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Tests the ordering and the window of the requests of a pipelined SFTP read.
+ */
+public class SFTPPipelinedInputStreamTest {
+
+    private static final FTPTimeouts TIMEOUTS = FTPTimeouts.create(5000, 5000, 5000);
+    private static final String PATH = "/file.bin";
+    private static final int REQUEST_SIZE = 1024;
+    private static final int REQUESTS = 32;
+
+    private final byte[] content = new byte[REQUEST_SIZE * REQUESTS - 100];
+    private Path homeDirectory;
+    private FTPHostKeyPolicy hostKeyPolicy;
+    private EmbeddedSFTPServer server;
+    private int port;
+
+    @BeforeClass
+    public void startServer() throws IOException {
+
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) (i * 31 + i / REQUEST_SIZE);
+        }
+        homeDirectory = Files.createTempDirectory("sftp-pipeline");
+        Files.write(homeDirectory.resolve(PATH.substring(1)), content);
+        // The known hosts file does not exist, so the generated host key is neither checked nor recorded
+        hostKeyPolicy = FTPHostKeyPolicy.create(false, homeDirectory.resolve("known_hosts").toString());
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        server = EmbeddedSFTPServer.start(port, "user", "password", homeDirectory);
+    }
+
+    @AfterClass
+    public void stopServer() throws IOException {
+
+        server.stop();
+        try (Stream<Path> paths = Files.walk(homeDirectory)) {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    @Test
+    public void testReadsFromOffset() throws Exception {
+
+        int offset = REQUEST_SIZE + 10;
+        try (InputStream in = new SFTPPipelinedInputStream(openSession(), PATH, content.length, offset, REQUEST_SIZE,
+                4)) {
+            Assert.assertEquals(readAll(in), Arrays.copyOfRange(content, offset, content.length));
+        }
+    }
+
+    @Test
+    public void testReordersOutOfOrderCompletions() throws Exception {
+
+        List<Long> completions = Collections.synchronizedList(new ArrayList<>());
+        byte[] read;
+        try (InputStream in = new SFTPPipelinedInputStream(openSession(), PATH, content.length, 0, REQUEST_SIZE, 8) {
+            @Override
+            byte[] fetch(long offset, int length) throws IOException, InterruptedException {
+
+                // Within each window of eight requests, the later requests complete first
+                Thread.sleep(10 * (7 - offset / REQUEST_SIZE % 8));
+                byte[] fetched = super.fetch(offset, length);
+                completions.add(offset);
+                return fetched;
+            }
+        }) {
+            read = readAll(in);
+        }
+        Assert.assertEquals(read, content);
+        List<Long> ordered = new ArrayList<>(completions);
+        Collections.sort(ordered);
+        Assert.assertEquals(completions.size(), REQUESTS);
+        Assert.assertNotEquals(completions, ordered, "Expected the requests to complete out of order");
+    }
+
+    @Test
+    public void testBoundsRequestsAndChannels() throws Exception {
+
+        AtomicInteger sent = new AtomicInteger();
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        int outstandingRequests = 16;
+        try (InputStream in = new SFTPPipelinedInputStream(openSession(), PATH, content.length, 0, REQUEST_SIZE,
+                outstandingRequests) {
+            @Override
+            byte[] fetch(long offset, int length) throws IOException, InterruptedException {
+
+                sent.incrementAndGet();
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(20);
+                    return super.fetch(offset, length);
+                } finally {
+                    running.decrementAndGet();
+                }
+            }
+        }) {
+            Assert.assertEquals(awaitSent(sent, outstandingRequests), outstandingRequests,
+                    "Expected a full window before any read");
+
+            byte[] buffer = new byte[REQUEST_SIZE];
+            int read = 0;
+            int count;
+            while (read < REQUEST_SIZE && (count = in.read(buffer, read, REQUEST_SIZE - read)) != -1) {
+                read += count;
+            }
+            Assert.assertEquals(awaitSent(sent, outstandingRequests + 1), outstandingRequests + 1,
+                    "Expected one request per consumed request");
+            Assert.assertEquals(Arrays.copyOf(content, REQUEST_SIZE), buffer);
+        }
+        Assert.assertTrue(maxRunning.get() > 1, "Expected requests in flight at once");
+        Assert.assertTrue(maxRunning.get() <= SFTPPipelinedInputStream.MAX_CHANNELS,
+                "Expected no more requests in flight than channels, got " + maxRunning.get());
+    }
+
+    /**
+     * Waits for the expected number of requests to be sent, as opening the channels of the requests takes a variable
+     * time, and then for a while longer to catch any request sent beyond it.
+     */
+    private static int awaitSent(AtomicInteger sent, int expected) throws InterruptedException {
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (sent.get() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        Thread.sleep(100);
+        return sent.get();
+    }
+
+    private SFTPChannelSession openSession() throws IOException {
+
+        return new SFTPChannelSession("127.0.0.1", port, "user", "password", TIMEOUTS, hostKeyPolicy);
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[700];
+        int count;
+        while ((count = in.read(buffer)) != -1) {
+            out.write(buffer, 0, count);
+        }
+        return out.toByteArray();
+    }
+}
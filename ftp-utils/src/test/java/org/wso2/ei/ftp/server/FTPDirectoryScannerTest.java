@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.ei.ftp.server;
+
+import org.mockftpserver.fake.FakeFtpServer;
+import org.mockftpserver.fake.UserAccount;
+import org.mockftpserver.fake.filesystem.DirectoryEntry;
+import org.mockftpserver.fake.filesystem.FileEntry;
+import org.mockftpserver.fake.filesystem.UnixFakeFileSystem;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.wso2.ei.ftp.client.FTPListingSession;
+import org.wso2.ei.ftp.client.MachineListingHandlers;
+import org.wso2.ei.ftp.util.BallerinaFTPException;
+import org.wso2.ei.ftp.util.FTPCancellation;
+import org.wso2.ei.ftp.util.FTPIOExecutor;
+import org.wso2.ei.ftp.util.FTPTimeouts;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests the changes found by the machine-listing scans of a listener directory.
+ */
+public class FTPDirectoryScannerTest {
+
+    private final AtomicInteger featRequests = new AtomicInteger();
+    private final FTPIOExecutor executor = FTPIOExecutor.create(1, 0);
+    private FakeFtpServer server;
+
+    @BeforeClass
+    public void startServer() {
+
+        server = new FakeFtpServer();
+        server.setServerControlPort(0);
+        server.addUserAccount(new UserAccount("user", "password", "/home"));
+        UnixFakeFileSystem fileSystem = new UnixFakeFileSystem();
+        fileSystem.add(new DirectoryEntry("/home/in/folder"));
+        fileSystem.add(new FileEntry("/home/in/first.txt", "first"));
+        fileSystem.add(new FileEntry("/home/in/skipped.csv", "skipped"));
+        server.setFileSystem(fileSystem);
+        MachineListingHandlers.install(server, featRequests);
+        server.start();
+    }
+
+    @AfterClass
+    public void stopServer() {
+
+        server.stop();
+        executor.shutdown();
+    }
+
+    @Test
+    public void testScanReportsChanges() throws BallerinaFTPException {
+
+        RecordingListener listener = new RecordingListener();
+        FTPDirectoryScanner scanner = new FTPDirectoryScanner(listener,
+                () -> FTPListingSession.open("ftp", "localhost", server.getServerControlPort(), "user", "password",
+                        FTPTimeouts.create(5000, 5000, 5000), null, null), "/home/in", ".*\\.txt");
+
+        // The files found by the first scan are reported as added, the folder and the other files are left out.
+        // The changes are only dispatched once the scan is over.
+        scanner.scan(new FTPCancellation(executor));
+        Assert.assertTrue(listener.changes.isEmpty());
+        listener.dispatchReportedChanges();
+        Assert.assertEquals(listener.changes.size(), 1);
+        Assert.assertEquals(listener.changes.get(0).addedFiles.keySet().toString(), "[/home/in/first.txt]");
+        Assert.assertEquals(listener.changes.get(0).addedFiles.get("/home/in/first.txt").getSize(), 5);
+        Assert.assertTrue(listener.changes.get(0).deletedFiles.isEmpty());
+
+        // An unchanged directory is not dispatched
+        scanner.scan(new FTPCancellation(executor));
+        listener.dispatchReportedChanges();
+        Assert.assertEquals(listener.changes.size(), 1);
+
+        server.getFileSystem().add(new FileEntry("/home/in/second.txt", "second"));
+        server.getFileSystem().delete("/home/in/first.txt");
+        scanner.scan(new FTPCancellation(executor));
+        listener.dispatchReportedChanges();
+        Assert.assertEquals(listener.changes.size(), 2);
+        Assert.assertEquals(listener.changes.get(1).addedFiles.keySet().toString(), "[/home/in/second.txt]");
+        Assert.assertEquals(listener.changes.get(1).deletedFiles.toString(), "[/home/in/first.txt]");
+
+        // The features of the server are only queried by the first scan
+        Assert.assertEquals(featRequests.get(), 1);
+    }
+
+    /**
+     * Records the changes dispatched by a scanner, instead of invoking a service.
+     */
+    private static class RecordingListener extends FTPListener {
+
+        private final List<Change> changes = new ArrayList<>();
+
+        RecordingListener() {
+
+            super(null, null);
+        }
+
+        @Override
+        boolean consumesAddedFiles() {
+
+            return true;
+        }
+
+        @Override
+        boolean consumesDeletedFiles() {
+
+            return true;
+        }
+
+        @Override
+        void onChanges(Map<String, FTPListingSession.Entry> addedFiles, List<String> deletedFiles) {
+
+            changes.add(new Change(addedFiles, deletedFiles));
+        }
+    }
+
+    private static class Change {
+
+        private final Map<String, FTPListingSession.Entry> addedFiles;
+        private final List<String> deletedFiles;
+
+        Change(Map<String, FTPListingSession.Entry> addedFiles, List<String> deletedFiles) {
+
+            this.addedFiles = addedFiles;
+            this.deletedFiles = deletedFiles;
+        }
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ * Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.ei.ftp.server;
+
+import org.ballerinalang.jvm.values.ErrorValue;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.wso2.ei.ftp.client.FTPListingSession;
+import org.wso2.ei.ftp.util.FTPIOExecutor;
+import org.wso2.transport.remotefilesystem.exception.RemoteFileSystemConnectorException;
+import org.wso2.transport.remotefilesystem.server.connector.contract.RemoteFileSystemServerConnector;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests the graceful and immediate stop of a listener which polls through the file system transport.
+ */
+public class FTPListenerHelperTest {
+
+    private static final long WAIT_SECONDS = 5;
+
+    @Test
+    public void testImmediateStopAbortsTransportPoll() throws Exception {
+
+        FTPIOExecutor executor = FTPIOExecutor.create(1, 0);
+        FTPInFlightOperations operations = new FTPInFlightOperations();
+        BlockingConnector connector = new BlockingConnector();
+        CompletableFuture<Object> poll = new CompletableFuture<>();
+        FTPListenerHelper.poll(connector, null, new FTPListener(null, null), executor, operations, 0, poll);
+        Assert.assertTrue(connector.polling.await(WAIT_SECONDS, TimeUnit.SECONDS));
+
+        FTPListenerHelper.immediateStop(operations, executor, connector);
+        Assert.assertNull(poll.get(WAIT_SECONDS, TimeUnit.SECONDS), "A cancelled poll does not fail the listener");
+        Assert.assertEquals(connector.stopped.getCount(), 0);
+    }
+
+    @Test
+    public void testGracefulStopWaitsForPolls() throws Exception {
+
+        FTPIOExecutor executor = FTPIOExecutor.create(1, 0);
+        FTPInFlightOperations operations = new FTPInFlightOperations();
+        BlockingConnector connector = new BlockingConnector();
+        CompletableFuture<Object> poll = new CompletableFuture<>();
+        FTPListenerHelper.poll(connector, null, new FTPListener(null, null), executor, operations, 0, poll);
+        Assert.assertTrue(connector.polling.await(WAIT_SECONDS, TimeUnit.SECONDS));
+
+        CompletableFuture<Object> stop = new CompletableFuture<>();
+        FTPListenerHelper.gracefulStop(operations, executor, connector, 0, stop);
+        CompletableFuture<Object> skipped = new CompletableFuture<>();
+        FTPListenerHelper.poll(connector, null, new FTPListener(null, null), executor, operations, 0, skipped);
+        Assert.assertNull(skipped.get(WAIT_SECONDS, TimeUnit.SECONDS));
+        Assert.assertFalse(stop.isDone(), "The stop waits for the poll in flight");
+        Assert.assertEquals(connector.stopped.getCount(), 1);
+
+        connector.completed.countDown();
+        Assert.assertNull(poll.get(WAIT_SECONDS, TimeUnit.SECONDS));
+        Assert.assertNull(stop.get(WAIT_SECONDS, TimeUnit.SECONDS));
+        Assert.assertEquals(connector.stopped.getCount(), 0, "The connector is stopped once the polls drained");
+        Assert.assertEquals(connector.polls, 1, "No poll starts once the listener is stopping");
+    }
+
+    @Test
+    public void testGracefulStopCancelsPollsAfterTimeout() throws Exception {
+
+        FTPIOExecutor executor = FTPIOExecutor.create(1, 0);
+        FTPInFlightOperations operations = new FTPInFlightOperations();
+        BlockingConnector connector = new BlockingConnector();
+        CompletableFuture<Object> poll = new CompletableFuture<>();
+        FTPListenerHelper.poll(connector, null, new FTPListener(null, null), executor, operations, 0, poll);
+        Assert.assertTrue(connector.polling.await(WAIT_SECONDS, TimeUnit.SECONDS));
+
+        CompletableFuture<Object> stop = new CompletableFuture<>();
+        FTPListenerHelper.gracefulStop(operations, executor, connector, 200, stop);
+        Assert.assertTrue(stop.get(WAIT_SECONDS, TimeUnit.SECONDS) instanceof ErrorValue,
+                "A stop which times out reports the cancelled polls");
+        Assert.assertNull(poll.get(WAIT_SECONDS, TimeUnit.SECONDS));
+        Assert.assertNotEquals(connector.stoppingThread, "ftp-timer", "The timer threads must not block");
+    }
+
+    @Test
+    public void testPollTimeoutDoesNotStopConnector() throws Exception {
+
+        FTPIOExecutor executor = FTPIOExecutor.create(2, 0);
+        FTPInFlightOperations operations = new FTPInFlightOperations();
+        FTPListener listener = new FTPListener(null, null);
+        BlockingConnector connector = new BlockingConnector();
+        CompletableFuture<Object> poll = new CompletableFuture<>();
+        FTPListenerHelper.poll(connector, null, listener, executor, operations, 100, poll);
+        Assert.assertTrue(poll.get(WAIT_SECONDS, TimeUnit.SECONDS) instanceof ErrorValue,
+                "A poll which does not complete in time fails");
+        Assert.assertEquals(connector.stopped.getCount(), 1, "A poll timeout does not stop the connector");
+
+        // The poll of the transport ignores the interrupt and keeps running, so the next poll is skipped
+        CompletableFuture<Object> skipped = new CompletableFuture<>();
+        FTPListenerHelper.poll(connector, null, listener, executor, operations, 100, skipped);
+        Assert.assertNull(skipped.get(WAIT_SECONDS, TimeUnit.SECONDS));
+        Assert.assertEquals(connector.polls, 1, "Polls do not overlap");
+
+        // Once the stuck poll returns, the listener polls again
+        connector.completed.countDown();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(WAIT_SECONDS);
+        while (connector.polls < 2 && System.nanoTime() < deadline) {
+            CompletableFuture<Object> next = new CompletableFuture<>();
+            FTPListenerHelper.poll(connector, null, listener, executor, operations, 100, next);
+            Assert.assertNull(next.get(WAIT_SECONDS, TimeUnit.SECONDS));
+        }
+        Assert.assertEquals(connector.polls, 2);
+        Assert.assertEquals(connector.stopped.getCount(), 1);
+        FTPListenerHelper.immediateStop(operations, executor, connector);
+    }
+
+    @Test
+    public void testDispatchIsNotBoundByPollTimeout() throws Exception {
+
+        FTPIOExecutor executor = FTPIOExecutor.create(1, 0);
+        CountDownLatch dispatched = new CountDownLatch(1);
+        FTPListener listener = new FTPListener(null, null) {
+
+            @Override
+            void onChanges(Map<String, FTPListingSession.Entry> addedFiles, List<String> deletedFiles) {
+
+                try {
+                    // The service takes longer than the timeout of the poll
+                    Thread.sleep(300);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                dispatched.countDown();
+            }
+        };
+        RemoteFileSystemServerConnector connector = new RemoteFileSystemServerConnector() {
+
+            @Override
+            public void poll() {
+
+                listener.report(Collections.emptyMap(), Collections.singletonList("/in/deleted.txt"));
+            }
+
+            @Override
+            public void stop() {
+
+                Assert.fail("A poll does not stop the connector");
+            }
+        };
+        CompletableFuture<Object> poll = new CompletableFuture<>();
+        FTPListenerHelper.poll(connector, null, listener, executor, new FTPInFlightOperations(), 100, poll);
+        Assert.assertNull(poll.get(WAIT_SECONDS, TimeUnit.SECONDS), "The dispatch does not time out the poll");
+        Assert.assertEquals(dispatched.getCount(), 0, "The poll completes once its changes are dispatched");
+        executor.shutdown();
+    }
+
+    /**
+     * Server connector whose poll blocks until it completes or the connector is stopped, and ignores interrupts like
+     * the socket reads of the transport.
+     */
+    private static class BlockingConnector implements RemoteFileSystemServerConnector {
+
+        private final CountDownLatch polling = new CountDownLatch(1);
+        private final CountDownLatch completed = new CountDownLatch(1);
+        private final CountDownLatch stopped = new CountDownLatch(1);
+        private volatile int polls;
+        private volatile String stoppingThread;
+
+        @Override
+        public void poll() throws RemoteFileSystemConnectorException {
+
+            polls++;
+            polling.countDown();
+            while (completed.getCount() > 0 && stopped.getCount() > 0) {
+                try {
+                    completed.await(10, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    // The transport does not respond to interrupts
+                }
+            }
+            if (completed.getCount() > 0) {
+                throw new RemoteFileSystemConnectorException("The connection was closed.");
+            }
+        }
+
+        @Override
+        public void stop() {
+
+            if (stoppingThread == null) {
+                stoppingThread = Thread.currentThread().getName();
+            }
+            stopped.countDown();
+        }
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.ei.ftp.util;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+import java.io.Closeable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Tests the timeout and cancellation path of the operations.
+ */
+public class FTPCancellationTest {
+
+    private final FTPIOExecutor executor = FTPIOExecutor.create(1, 0);
+
+    @AfterClass
+    public void shutdown() {
+
+        executor.shutdown();
+    }
+
+    @Test
+    public void testTimeoutRunsOffTheTimerThread() throws Exception {
+
+        FTPCancellation cancellation = new FTPCancellation(executor);
+        CompletableFuture<String> closedOn = new CompletableFuture<>();
+        cancellation.register(() -> closedOn.complete(Thread.currentThread().getName()));
+        cancellation.scheduleTimeout(10, cancellation::cancel);
+
+        String thread = closedOn.get(1, TimeUnit.SECONDS);
+        Assert.assertTrue(thread.startsWith("ftp-io-release-"), thread);
+        Assert.assertTrue(cancellation.isCancelled());
+    }
+
+    @Test
+    public void testTimeoutRunsWhileTheOperationsHoldAllThreads() throws Exception {
+
+        CompletableFuture<Void> blocked = new CompletableFuture<>();
+        executor.execute(() -> blocked.join());
+        FTPCancellation cancellation = new FTPCancellation(executor);
+        CompletableFuture<Void> closed = new CompletableFuture<>();
+        cancellation.register(() -> closed.complete(null));
+        cancellation.scheduleTimeout(10, cancellation::cancel);
+        try {
+            closed.get(1, TimeUnit.SECONDS);
+        } finally {
+            blocked.complete(null);
+        }
+    }
+
+    @Test
+    public void testCompletedOperationDoesNotTimeOut() throws Exception {
+
+        FTPCancellation cancellation = new FTPCancellation(executor);
+        AtomicBoolean closed = new AtomicBoolean();
+        Closeable resource = () -> closed.set(true);
+        cancellation.register(resource);
+        cancellation.scheduleTimeout(20, cancellation::cancel);
+        cancellation.complete();
+
+        Thread.sleep(100);
+        Assert.assertFalse(cancellation.isCancelled());
+        Assert.assertFalse(closed.get());
+    }
+
+    @Test
+    public void testClearedTimeoutCanBeScheduledAgain() throws Exception {
+
+        FTPCancellation cancellation = new FTPCancellation(executor);
+        cancellation.scheduleTimeout(20, cancellation::cancel);
+        cancellation.clearTimeout();
+        Thread.sleep(100);
+        Assert.assertFalse(cancellation.isCancelled());
+
+        CompletableFuture<Void> timedOut = new CompletableFuture<>();
+        cancellation.scheduleTimeout(10, () -> timedOut.complete(null));
+        timedOut.get(1, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void testTimeoutIsNotScheduledAfterCompletion() throws Exception {
+
+        FTPCancellation cancellation = new FTPCancellation(executor);
+        cancellation.complete();
+        cancellation.scheduleTimeout(10, cancellation::cancel);
+
+        Thread.sleep(100);
+        Assert.assertFalse(cancellation.isCancelled());
+    }
+
+    @Test
+    public void testResourceRegisteredAfterCancelIsClosed() {
+
+        FTPCancellation cancellation = new FTPCancellation(executor);
+        Assert.assertTrue(cancellation.cancel());
+        Assert.assertFalse(cancellation.cancel());
+        AtomicBoolean closed = new AtomicBoolean();
+        cancellation.register(() -> closed.set(true));
+        Assert.assertTrue(closed.get());
+    }
+
+    @Test
+    public void testCancelInterruptsTheWorker() throws Exception {
+
+        FTPCancellation cancellation = new FTPCancellation(executor);
+        CompletableFuture<Boolean> interrupted = new CompletableFuture<>();
+        CompletableFuture<Void> entered = new CompletableFuture<>();
+        Thread worker = new Thread(() -> {
+            cancellation.enter();
+            entered.complete(null);
+            try {
+                Thread.sleep(TimeUnit.SECONDS.toMillis(5));
+                interrupted.complete(false);
+            } catch (InterruptedException e) {
+                interrupted.complete(true);
+            } finally {
+                cancellation.exit();
+            }
+        });
+        worker.start();
+        entered.get(1, TimeUnit.SECONDS);
+        cancellation.cancel();
+        Assert.assertTrue(interrupted.get(1, TimeUnit.SECONDS));
+        worker.join();
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.ei.ftp.util;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests the counters of the I/O executor reported in the client metrics.
+ */
+public class FTPIOExecutorTest {
+
+    @Test
+    public void testCounters() throws InterruptedException {
+
+        FTPIOExecutor executor = FTPIOExecutor.create(1, 1);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch completed = new CountDownLatch(2);
+        executor.execute(() -> {
+            started.countDown();
+            await(release);
+            completed.countDown();
+        });
+        Assert.assertTrue(started.await(10, TimeUnit.SECONDS));
+        executor.execute(completed::countDown);
+        Assert.assertEquals(executor.getQueuedTasks(), 1);
+        try {
+            executor.execute(completed::countDown);
+            Assert.fail("A task was accepted by a saturated executor.");
+        } catch (RejectedExecutionException e) {
+            Assert.assertEquals(executor.getRejectedTasks(), 1);
+        }
+        // Neither task has finished, the queued task keeps waiting until the running one does
+        Assert.assertEquals(executor.getCompletedTasks(), 0);
+        TimeUnit.MILLISECONDS.sleep(50);
+        release.countDown();
+        Assert.assertTrue(completed.await(10, TimeUnit.SECONDS));
+        executor.shutdown();
+        Assert.assertTrue(executor.getMaxQueueWaitMillis() >= 50);
+        Assert.assertTrue(executor.getAverageQueueWaitMillis() <= executor.getMaxQueueWaitMillis());
+        // Both started tasks are averaged: the first did not wait, the second waited for the first
+        Assert.assertTrue(executor.getAverageQueueWaitMillis() >= 20);
+        Assert.assertEquals(executor.getQueuedTasks(), 0);
+    }
+
+    private static void await(CountDownLatch latch) {
+
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
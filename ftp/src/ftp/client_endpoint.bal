@@ -42,11 +42,113 @@ public type Client client object {
     # The `get()` function can be used to retrieve file content from a remote resource.
     #
     # + path - The resource path
+    # + priority - The priority class of the transfer
     # + return - A ReadableByteChannel that represents the data source to the resource or
     # an `error` if failed to establish communication with the FTP server or read the resource
-    public remote function get(string path) returns io:ReadableByteChannel|error {
+    public remote function get(string path, TransferPriority priority = PRIORITY_INTERACTIVE)
+            returns io:ReadableByteChannel|error {
         handle resourcePath = java:fromString(path);
-        io:ReadableByteChannel|error response = get(self, resourcePath);
+        io:ReadableByteChannel|error response = get(self, resourcePath, java:fromString(priority));
+        return response;
+    }
+
+    # The `getWithChecksum()` function can be used to retrieve file content from a remote resource while the
+    # checksum of the content is calculated. The checksum can be obtained with `ftp:getChecksum()` once the
+    # channel is fully read.
+    #
+    # + path - The resource path
+    # + algorithm - The checksum algorithm
+    # + priority - The priority class of the transfer
+    # + return - A ReadableByteChannel that represents the data source to the resource or
+    # an `error` if failed to establish communication with the FTP server or read the resource
+    public remote function getWithChecksum(string path, ChecksumAlgorithm algorithm = SHA256,
+            TransferPriority priority = PRIORITY_INTERACTIVE) returns io:ReadableByteChannel|error {
+        handle resourcePath = java:fromString(path);
+        io:ReadableByteChannel|error response = getWithChecksum(self, resourcePath, java:fromString(algorithm),
+                java:fromString(priority));
+        return response;
+    }
+
+    # The `getRecords()` function can be used to read the records of a remote file incrementally.
+    #
+    # + path - The resource path
+    # + readerConfig - Configurations for parsing the records
+    # + priority - The priority class of the transfer
+    # + return - A RecordReader that reads the records in batches or
+    # an `error` if failed to establish communication with the FTP server or read the resource
+    public remote function getRecords(string path, RecordReaderConfig readerConfig = {},
+            TransferPriority priority = PRIORITY_INTERACTIVE) returns RecordReader|error {
+        handle resourcePath = java:fromString(path);
+        RecordReader|error response = getRecords(self, resourcePath, readerConfig, java:fromString(priority));
+        return response;
+    }
+
+    # The `getRange()` function can be used to retrieve a slice of the file content from a remote resource.
+    # Only the requested range is transferred from the server.
+    #
+    # + path - The resource path
+    # + offset - The byte offset to start reading from
+    # + length - The maximum number of bytes to read
+    # + priority - The priority class of the transfer
+    # + return - A ReadableByteChannel that represents the requested range of the resource or
+    # an `error` if failed to establish communication with the FTP server or read the resource
+    public remote function getRange(string path, int offset, int length,
+            TransferPriority priority = PRIORITY_INTERACTIVE) returns io:ReadableByteChannel|error {
+        handle resourcePath = java:fromString(path);
+        io:ReadableByteChannel|error response = getRange(self, resourcePath, offset, length,
+                java:fromString(priority));
+        return response;
+    }
+
+    # The `getMetrics()` function can be used to obtain the current load of the client.
+    #
+    # + return - The operation and I/O executor metrics of the client
+    public function getMetrics() returns ClientMetrics {
+        return getMetrics(self);
+    }
+
+    # The `close()` function can be used to close the sessions the client keeps open between operations. The
+    # operations started afterwards open a session of their own.
+    public function close() {
+        close(self);
+    }
+
+    # The `stat()` function can be used to retrieve the metadata of a single file or directory, without listing
+    # its parent directory.
+    #
+    # + path - The resource path
+    # + return - The metadata of the resource or an `error` if the resource does not exist or failed to establish
+    # communication with the FTP server
+    public remote function stat(string path) returns FileInfo|error {
+        handle resourcePath = java:fromString(path);
+        FileInfo|error response = stat(self, resourcePath);
+        return response;
+    }
+
+    # The `listZipEntries()` function can be used to list the entries of a ZIP archive without retrieving it. Only
+    # the central directory at the end of the archive is transferred from the server.
+    #
+    # + path - The path of the archive
+    # + return - The entries of the archive or an `error` if the archive is not a valid ZIP archive or failed to
+    # establish communication with the FTP server
+    public remote function listZipEntries(string path) returns ZipEntry[]|error {
+        handle resourcePath = java:fromString(path);
+        ZipEntry[]|error response = listZipEntries(self, resourcePath);
+        return response;
+    }
+
+    # The `getZipEntry()` function can be used to retrieve the content of a single entry of a ZIP archive. Only the
+    # central directory and the bytes of the requested entry are transferred from the server.
+    #
+    # + path - The path of the archive
+    # + entryName - The name of the entry, as returned by `listZipEntries()`
+    # + return - A ReadableByteChannel that represents the uncompressed content of the entry or an `error` if the
+    # entry does not exist, uses an unsupported compression method, or failed to establish communication with the
+    # FTP server
+    public remote function getZipEntry(string path, string entryName) returns io:ReadableByteChannel|error {
+        handle resourcePath = java:fromString(path);
+        handle name = java:fromString(entryName);
+        io:ReadableByteChannel|error response = getZipEntry(self, resourcePath, name);
         return response;
     }
 
@@ -55,18 +157,55 @@ public type Client client object {
     #
     # + path - The resource path
     # + content - Content to be written to the file in server
+    # + priority - The priority class of the transfer
     # + return - An `error` if failed to establish communication with the FTP server
-    public remote function append(string path, io:ReadableByteChannel|string|xml|json content) returns error? {
-        return append(self, getInputContent(path, content));
+    public remote function append(string path, io:ReadableByteChannel|string|xml|json content,
+            TransferPriority priority = PRIORITY_INTERACTIVE) returns error? {
+        return append(self, getInputContent(path, content, self.config.charset), java:fromString(priority));
     }
 
     # The `put()` function can be used to add a file to an FTP server.
     #
     # + path - The resource path
     # + content - Content to be written to the file in server
+    # + priority - The priority class of the transfer
     # + return - An `error` if failed to establish communication with the FTP server
-    public remote function put(string path, io:ReadableByteChannel|string|xml|json content) returns error? {
-        return put(self, getInputContent(path, content));
+    public remote function put(string path, io:ReadableByteChannel|string|xml|json content,
+            TransferPriority priority = PRIORITY_INTERACTIVE) returns error? {
+        return put(self, getInputContent(path, content, self.config.charset), java:fromString(priority));
+    }
+
+    # The `putWithChecksum()` function can be used to add a file to an FTP server while the checksum of the
+    # content is calculated. The checksum is compared with the checksum calculated by the server, if the server
+    # supports it.
+    #
+    # + path - The resource path
+    # + content - Content to be written to the file in server
+    # + algorithm - The checksum algorithm
+    # + priority - The priority class of the transfer
+    # + return - The checksum of the written content or an `error` if failed to establish communication with the
+    # FTP server
+    public remote function putWithChecksum(string path, io:ReadableByteChannel|string|xml|json content,
+            ChecksumAlgorithm algorithm = SHA256, TransferPriority priority = PRIORITY_INTERACTIVE)
+            returns Checksum|error {
+        return putWithChecksum(self, getInputContent(path, content, self.config.charset),
+                java:fromString(algorithm), java:fromString(priority));
+    }
+
+    # The `putParallel()` function can be used to upload a large local file over several connections at once.
+    # The file is split into segments which are written from their offsets to a temporary file next to `path`, and
+    # the temporary file is renamed to `path` once every segment is confirmed by the server. FTP and FTPS servers
+    # which do not advertise `REST STREAM` receive the file as a single segment.
+    #
+    # + path - The resource path
+    # + localPath - Path of the local file to upload
+    # + config - Number of connections and minimum segment size of the upload
+    # + priority - The priority class of the transfer
+    # + return - An `error` if failed to establish communication with the FTP server or write the resource
+    public remote function putParallel(string path, string localPath, ParallelUploadConfig config = {},
+            TransferPriority priority = PRIORITY_INTERACTIVE) returns error? {
+        return putParallel(self, java:fromString(path), java:fromString(localPath), config,
+                java:fromString(priority));
     }
 
     # The `mkdir()` function can be used to create a new direcotry in an FTP server.
@@ -121,6 +260,34 @@ public type Client client object {
         return response;
     }
 
+    # The `listWithFilter()` function can be used to get the entries of a given folder which match a filter.
+    #
+    # + path - The directory path
+    # + filter - The conditions the returned entries must satisfy
+    # + return - An array of the matching entries or an `error` if failed to establish communication with the FTP
+    # server
+    public remote function listWithFilter(string path, ListFilter filter) returns FileInfo[]|error {
+        handle resourcePath = java:fromString(path);
+        FileInfo[]|error response = listWithFilter(self, resourcePath, filter);
+        return response;
+    }
+
+    # The `walk()` function can be used to get the entries of a directory tree. The directories are listed in
+    # parallel, and the entries are returned as they are found. Closing the returned walker stops the walk.
+    #
+    # + root - The path of the root directory
+    # + maxDepth - The depth of the deepest entries to return, where the entries of `root` are at depth 1. The whole
+    # tree is walked if negative
+    # + filter - The conditions the returned entries must satisfy. Folders are walked whether or not they match it
+    # + parallelism - The maximum number of directories listed at the same time
+    # + return - A FileWalker that returns the entries in batches or an `error` if the walk could not be started
+    public remote function walk(string root, int maxDepth = -1, ListFilter filter = {}, int parallelism = 4)
+            returns FileWalker|error {
+        handle rootPath = java:fromString(root);
+        FileWalker|error response = walk(self, rootPath, maxDepth, filter, parallelism);
+        return response;
+    }
+
     # The `isDirectory()` function can be used to check if a given resource is a direcotry.
     #
     # + path - The resource path
@@ -142,22 +309,91 @@ public type Client client object {
     }
 };
 
+# Gets the checksum of the content read through a channel returned by `Client.getWithChecksum()`.
+# The checksum is available only after the whole content of the channel is read.
+#
+# + channel - The channel returned by `Client.getWithChecksum()`
+# + return - The checksum of the content or an `error` if the checksum is not available
+public function getChecksum(io:ReadableByteChannel channel) returns Checksum|error {
+    return getChannelChecksum(channel);
+}
+
 # Configuration for FTP client endpoint.
 #
 # + protocol - Supported FTP protocols
 # + host - Target service URL
 # + port - Port number of the remote service
 # + secureSocket - Authenthication options
+# + charset - Character encoding used to write string, json and xml content
+# + compression - Codec used to compress the content written by `put` and `append` and to decompress the content read
+#                 by `get` and `getRecords`
+# + maxInFlightOperations - Maximum number of operations the client runs concurrently. Further operations wait until
+#                           a running operation completes
+# + ioExecutor - Configuration of the executor that runs the blocking transport calls of the client
+# + hosts - Additional hosts serving the same content as `host`. Read operations are spread across `host` and these
+#           hosts, and are retried on another host when a connection cannot be established. Write operations are
+#           always sent to `host`
+# + loadBalancing - Strategy used to pick the host of a read operation
+# + unhealthyPeriodInMillis - Time for which a host is avoided after a connection to it failed
+# + hedging - Hedging of idempotent read operations. Read operations are not hedged if not set
+# + timeouts - Connect, command and idle data timeouts of the operations of the client
+# + bandwidth - Bandwidth limits of the transfers of the client. The bandwidth is not limited if not set
+# + listingMode - How the `list` operation lists directories
+# + sftpPipeline - Pipelining of the `get`, `getWithChecksum`, `put` and `putWithChecksum` operations of an SFTP
+#                  client. Ignored for FTP and FTPS. The transfers go through the file system transport if not set
+# + sessionPool - Pool of the sessions kept open between operations. A new session is opened for each operation if
+#                 not set
 public type ClientEndpointConfig record {|
     Protocol protocol = FTP;
     string host = "127.0.0.1";
     int? port = 21;
     SecureSocket? secureSocket = ();
+    string charset = "UTF-8";
+    Compression compression = COMPRESSION_NONE;
+    int maxInFlightOperations = 16;
+    IOExecutorConfig ioExecutor = {};
+    HostConfig[] hosts = [];
+    LoadBalancing loadBalancing = ROUND_ROBIN;
+    int unhealthyPeriodInMillis = 30000;
+    HedgingConfig? hedging = ();
+    TimeoutConfig timeouts = {};
+    BandwidthConfig? bandwidth = ();
+    ListingMode listingMode = LISTING_TRANSPORT;
+    SftpPipelineConfig? sftpPipeline = ();
+    SessionPoolConfig? sessionPool = ();
+|};
+
+# Represents the current load of a client.
+#
+# + inFlightOperations - Number of operations that are currently running, including reads whose content is still
+#                        being transferred
+# + pendingOperations - Number of operations waiting for a free slot
+# + queuedIOTasks - Number of blocking transport calls waiting for an I/O thread
+# + completedIOTasks - Number of blocking transport calls that have finished on an I/O thread
+# + rejectedIOTasks - Number of blocking transport calls rejected because the I/O executor was saturated
+# + averageQueueWaitMillis - Average time the transport calls that have started on an I/O thread, finished or still
+#                            running, waited for the thread, in milliseconds. Calls still waiting are not included
+# + maxQueueWaitMillis - Maximum time a transport call that has started on an I/O thread waited for the thread, in
+#                        milliseconds
+# + hedgesFired - Number of second attempts sent because the first attempt of a read did not answer in time
+# + hedgesWon - Number of second attempts that answered before the first attempt
+public type ClientMetrics record {|
+    int inFlightOperations;
+    int pendingOperations;
+    int queuedIOTasks;
+    int completedIOTasks;
+    int rejectedIOTasks;
+    float averageQueueWaitMillis;
+    float maxQueueWaitMillis;
+    int hedgesFired;
+    int hedgesWon;
 |};
 
-function getInputContent(string path, io:ReadableByteChannel|string|xml|json content) returns InputContent{
+function getInputContent(string path, io:ReadableByteChannel|string|xml|json content, string charset)
+        returns InputContent{
     InputContent inputContent = {
-        filePath: path
+        filePath: path,
+        charset: charset
     };
 
     if(content is io:ReadableByteChannel){
@@ -166,9 +402,10 @@ function getInputContent(string path, io:ReadableByteChannel|string|xml|json con
     } else if(content is string){
         inputContent.textContent = content;
     } else if(content is json){
-        inputContent.textContent = content.toJsonString();
+        inputContent.isJson = true;
+        inputContent.jsonContent = content;
     } else {
-        inputContent.textContent = content.toString();
+        inputContent.xmlContent = content;
     }
 
     return inputContent;
@@ -26,6 +26,205 @@ public const SFTP = "sftp";
 # Underlying communication happens using FTPS
 public const FTPS = "ftps";
 
+# Represents the set of compression codecs supported by the FTP client
+public type Compression "none"|"gzip"|"deflate"|"auto";
+
+# Content is transferred as it is
+public const COMPRESSION_NONE = "none";
+# Content is compressed with gzip
+public const COMPRESSION_GZIP = "gzip";
+# Content is compressed with deflate (zlib)
+public const COMPRESSION_DEFLATE = "deflate";
+# Codec is selected by the file extension; `.gz` for gzip, `.zz` for deflate, no compression otherwise
+public const COMPRESSION_AUTO = "auto";
+
+# Represents the set of checksum algorithms supported by the FTP client
+public type ChecksumAlgorithm "crc32c"|"md5"|"sha256";
+
+# CRC-32C (Castagnoli) checksum
+public const CRC32C = "crc32c";
+# MD5 digest
+public const MD5 = "md5";
+# SHA-256 digest
+public const SHA256 = "sha256";
+
+# Represents the checksum of the content of a transfer.
+#
+# + algorithm - The checksum algorithm
+# + value - The checksum calculated while the content was transferred, as a hexadecimal string
+# + remoteValue - The checksum calculated by the server, if the server supports the HASH, XMD5 or XSHA256 commands
+# + matched - Whether the checksum calculated by the server matches the transferred content
+public type Checksum record {|
+    ChecksumAlgorithm algorithm;
+    string value;
+    string? remoteValue = ();
+    boolean? matched = ();
+|};
+
+# Represents the strategies used to spread read operations across the hosts of a client
+public type LoadBalancing "roundRobin"|"leastInFlight";
+
+# Sends each read operation to the next host in turn
+public const ROUND_ROBIN = "roundRobin";
+# Sends each read operation to the host with the fewest operations in flight
+public const LEAST_IN_FLIGHT = "leastInFlight";
+
+# A host serving the same content as the primary host of a client.
+#
+# + host - Host name of the server
+# + port - Port number of the server. The port of the primary host is used if not set
+public type HostConfig record {|
+    string host;
+    int? port = ();
+|};
+
+# Represents the priority classes of transfers
+public type TransferPriority "interactive"|"bulk";
+
+# Latency-sensitive transfer, which is served ahead of bulk transfers
+public const PRIORITY_INTERACTIVE = "interactive";
+# Background transfer, which uses the bandwidth left by interactive transfers
+public const PRIORITY_BULK = "bulk";
+
+# Represents the ways a directory is listed
+public type ListingMode "transport"|"mlsd";
+
+# Lists directories through the file system transport, which parses the LIST output of the server
+public const LISTING_TRANSPORT = "transport";
+# Lists directories with MLSD when the server advertises it, and with LIST otherwise. The features of the server are
+# only queried once per host, and the entries are built from the facts of the listing without further commands
+public const LISTING_MLSD = "mlsd";
+
+# Represents the types of the entries matched by a `ListFilter`
+public type EntryType "any"|"file"|"folder";
+
+# Matches files and folders
+public const ENTRY_ANY = "any";
+# Matches files only
+public const ENTRY_FILE = "file";
+# Matches folders only
+public const ENTRY_FOLDER = "folder";
+
+# Conditions on the entries returned by `listWithFilter`. An entry is returned only if it satisfies all the conditions
+# that are set. The conditions are evaluated before the `FileInfo` records are created.
+#
+# + glob - Glob the name of the entry must match, with the `*`, `?` and `[...]` wildcards. When only files are
+#          matched, a glob of only `*` and `?` wildcards is also sent to the server with the listing request, to
+#          narrow down the listing
+# + regex - Regular expression the name of the entry must match
+# + minSize - Minimum size of a file, in bytes
+# + maxSize - Maximum size of a file, in bytes
+# + modifiedSince - Time from which the entry must have been modified, in milliseconds since the epoch
+# + entryType - Types of the entries to return
+public type ListFilter record {|
+    string? glob = ();
+    string? regex = ();
+    int? minSize = ();
+    int? maxSize = ();
+    int? modifiedSince = ();
+    EntryType entryType = ENTRY_ANY;
+|};
+
+# Represents an entry of the central directory of a ZIP archive
+#
+# + name - Name of the entry, with its path within the archive. The names of folders end with `/`
+# + size - Uncompressed size of the entry, in bytes
+# + compressedSize - Size of the entry in the archive, in bytes
+# + lastModifiedTimestamp - Last modified timestamp of the entry in UNIX Epoch time
+# + isFolder - Whether the entry is a folder
+# + crc - CRC-32 of the uncompressed content of the entry
+public type ZipEntry record {|
+    string name;
+    int size;
+    int compressedSize;
+    int lastModifiedTimestamp;
+    boolean isFolder;
+    int crc;
+|};
+
+# Bandwidth limits of the transfers of a client, in bytes per second. A limit of zero disables it.
+#
+# + maxBytesPerSecond - Limit shared by all the transfers of the client. Interactive transfers are served first when
+#                       the limit is reached
+# + interactiveBytesPerSecond - Limit shared by the interactive transfers of the client
+# + bulkBytesPerSecond - Limit shared by the bulk transfers of the client
+public type BandwidthConfig record {|
+    int maxBytesPerSecond = 0;
+    int interactiveBytesPerSecond = 0;
+    int bulkBytesPerSecond = 0;
+|};
+
+# Configuration of the pipelining of SFTP transfers, which keeps several requests in flight so that the throughput of
+# a transfer is not bounded by the round trip time of the link.
+#
+# + outstandingRequests - Maximum number of read requests of a `get` which are in flight or waiting to be read. The
+#                         requests are sent over up to 8 channels of the SSH connection, and complete in any order
+# + requestSize - Number of bytes of each read request of a `get` and of each write request of a `put`. The write
+#                 requests of a `put` are sent without waiting for the acknowledgement of the previous ones
+public type SftpPipelineConfig record {|
+    int outstandingRequests = 16;
+    int requestSize = 262144;
+|};
+
+# Configuration of the pool of sessions a client keeps open between operations. Pooled sessions save the connection,
+# the login, and the TLS handshake or SSH key exchange of the operations which do not go through the file system
+# transport: `getRange`, `stat`, `walk`, `putParallel`, and `list` in the `MLSD` listing mode.
+#
+# + maxIdleSessions - Maximum number of idle sessions kept open to each host
+# + warmUpSessions - Number of sessions opened to each host in the background when the client is initialized, so that
+#                    the first operations do not wait for them
+# + idleTimeoutInMillis - Time after which an idle session is closed instead of being reused. Keep it below the idle
+#                         timeout of the server
+public type SessionPoolConfig record {|
+    int maxIdleSessions = 4;
+    int warmUpSessions = 0;
+    int idleTimeoutInMillis = 60000;
+|};
+
+# Configuration of a parallel upload.
+#
+# + sessions - Maximum number of segments written at once, each over its own connection
+# + minSegmentSize - Minimum size of a segment, in bytes. A file smaller than twice this size is written as a single
+#                    segment
+public type ParallelUploadConfig record {|
+    int sessions = 4;
+    int minSegmentSize = 16777216;
+|};
+
+# Timeouts of the operations of an endpoint. A timeout of zero disables it.
+#
+# + connectTimeoutInMillis - Time allowed to establish a connection to the server
+# + commandTimeoutInMillis - Time allowed for an operation to get its reply from the server. The operation fails and
+#                            is aborted when it expires. It does not apply while the content of an upload is sent
+# + idleTimeoutInMillis - Time a data transfer may stay without sending or receiving any data, or a channel returned by
+#                         a read operation may stay without being read, before the transfer is aborted
+public type TimeoutConfig record {|
+    int connectTimeoutInMillis = 30000;
+    int commandTimeoutInMillis = 120000;
+    int idleTimeoutInMillis = 120000;
+|};
+
+# Configuration of the hedging of idempotent read operations (`get`, `getRecords`, `list`, `size` and `isDirectory`).
+# If the first attempt of an operation has not answered within the delay, a second attempt is sent, to another host
+# if the client has one. The operation completes with the first attempt that succeeds.
+#
+# + delayInMillis - Time to wait for the first attempt before sending the second one
+public type HedgingConfig record {|
+    int delayInMillis = 200;
+|};
+
+# Configuration of the executor that runs blocking transport calls away from the Ballerina scheduler.
+#
+# + threads - Number of I/O threads
+# + queueSize - Maximum number of transport calls waiting for an I/O thread. Further calls fail immediately
+# + virtualThreads - Run each transport call on a virtual thread when the JVM supports it. `threads` and `queueSize`
+#                    then bound the number of calls running or waiting at a time
+public type IOExecutorConfig record {|
+    int threads = 8;
+    int queueSize = 1000;
+    boolean virtualThreads = false;
+|};
+
 # A record for providing `Truststore` related configurations
 #
 # + path - Path to the truststore file
@@ -64,15 +263,21 @@ public type BasicAuth record {|
 
 # Provides configurations for facilitating secure communication with a remote FTP server
 #
-# + trustStore - Configures the truststore to be used
+# + trustStore - Truststore the certificates of FTPS servers are verified against, the default truststore of the JDK if
+#                not set. It only applies to the sessions of the module, the file transport accepts any valid certificate
 # + keyStore - Configures the keystore to be used
 # + basicAuth - Configure username/password to be used
 # + privateKey - Configures the private key to be used
+# + knownHosts - Path to the known hosts file used to verify SFTP servers, `~/.ssh/known_hosts` by default
+# + strictHostKeyChecking - Whether SFTP servers whose host keys are not in the known hosts file are rejected. It only
+#                           applies to the sessions of the module, the file transport accepts any server
 public type SecureSocket record {|
     TrustStore? trustStore = ();
     KeyStore? keyStore = ();
     BasicAuth? basicAuth = ();
     PrivateKey? privateKey = ();
+    string? knownHosts = ();
+    boolean strictHostKeyChecking = false;
 |};
 
 # Provides configuration for the input given for FTP `put` and `append` operations
@@ -80,10 +285,18 @@ public type SecureSocket record {|
 # + filePath - Path of the file to create/append to
 # + isFile - True if input type is a file
 # + fileContent - The content read from the input file, if the input is a file
-# + textContent - The input content, for other input types
+# + textContent - The input content, if the input is a string
+# + isJson - True if input type is json
+# + jsonContent - The input content, if the input is json
+# + xmlContent - The input content, if the input is xml
+# + charset - Character encoding used to write text, json and xml content
 public type InputContent record{|
     string filePath;
     boolean isFile = false;
     io:ReadableByteChannel? fileContent = ();
     string? textContent = ();
+    boolean isJson = false;
+    json jsonContent = ();
+    xml? xmlContent = ();
+    string charset = "UTF-8";
 |};
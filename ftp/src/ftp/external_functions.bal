@@ -22,26 +22,90 @@ public function initEndpoint(Client clientEndpoint, map<anydata> config) returns
     class: "org.wso2.ei.ftp.client.FTPClient"
 } external;
 
-public function get(Client clientEndpoint, handle path) returns io:ReadableByteChannel|error = @java:Method{
+public function getMetrics(Client clientEndpoint) returns ClientMetrics = @java:Method{
+    name: "getMetrics",
+    class: "org.wso2.ei.ftp.client.FTPClient"
+} external;
+
+public function close(Client clientEndpoint) = @java:Method{
+    name: "close",
+    class: "org.wso2.ei.ftp.client.FTPClient"
+} external;
+
+public function get(Client clientEndpoint, handle path, handle priority)
+    returns io:ReadableByteChannel|error = @java:Method{
     name: "get",
     class: "org.wso2.ei.ftp.client.FTPClient"
 } external;
 
+public function getWithChecksum(Client clientEndpoint, handle path, handle algorithm, handle priority)
+    returns io:ReadableByteChannel|error = @java:Method{
+    name: "getWithChecksum",
+    class: "org.wso2.ei.ftp.client.FTPClient"
+} external;
+
+public function getChannelChecksum(io:ReadableByteChannel channel) returns Checksum|error = @java:Method{
+    name: "getChecksum",
+    class: "org.wso2.ei.ftp.client.FTPClient"
+} external;
+
+public function getRecords(Client clientEndpoint, handle path, RecordReaderConfig readerConfig, handle priority)
+    returns RecordReader|error = @java:Method{
+    name: "getRecords",
+    class: "org.wso2.ei.ftp.client.FTPClient"
+} external;
+
+public function getRange(Client clientEndpoint, handle path, int offset, int length, handle priority)
+    returns io:ReadableByteChannel|error = @java:Method{
+    name: "getRange",
+    class: "org.wso2.ei.ftp.client.FTPClient"
+} external;
+
 public function delete(Client clientEndpoint, handle path) returns error? = @java:Method{
     name: "delete",
     class: "org.wso2.ei.ftp.client.FTPClient"
 } external;
 
-public function append(Client clientEndpoint, InputContent inputContent) returns error? = @java:Method{
+public function stat(Client clientEndpoint, handle path) returns FileInfo|error = @java:Method{
+    name: "stat",
+    class: "org.wso2.ei.ftp.client.FTPClient"
+} external;
+
+public function listZipEntries(Client clientEndpoint, handle path) returns ZipEntry[]|error = @java:Method{
+    name: "listZipEntries",
+    class: "org.wso2.ei.ftp.client.FTPClient"
+} external;
+
+public function getZipEntry(Client clientEndpoint, handle path, handle entryName)
+    returns io:ReadableByteChannel|error = @java:Method{
+    name: "getZipEntry",
+    class: "org.wso2.ei.ftp.client.FTPClient"
+} external;
+
+public function append(Client clientEndpoint, InputContent inputContent, handle priority)
+    returns error? = @java:Method{
     name: "append",
     class: "org.wso2.ei.ftp.client.FTPClient"
 } external;
 
-public function put(Client clientEndpoint, InputContent inputContent) returns error? = @java:Method{
+public function put(Client clientEndpoint, InputContent inputContent, handle priority)
+    returns error? = @java:Method{
     name: "put",
     class: "org.wso2.ei.ftp.client.FTPClient"
 } external;
 
+public function putParallel(Client clientEndpoint, handle path, handle localPath, ParallelUploadConfig config,
+    handle priority) returns error? = @java:Method{
+    name: "putParallel",
+    class: "org.wso2.ei.ftp.client.FTPClient"
+} external;
+
+public function putWithChecksum(Client clientEndpoint, InputContent inputContent, handle algorithm,
+    handle priority) returns Checksum|error = @java:Method{
+    name: "putWithChecksum",
+    class: "org.wso2.ei.ftp.client.FTPClient"
+} external;
+
 public function mkdir(Client clientEndpoint, handle path) returns error? = @java:Method{
     name: "mkdir",
     class: "org.wso2.ei.ftp.client.FTPClient"
@@ -67,6 +131,18 @@ public function list(Client clientEndpoint, handle path) returns FileInfo[]|erro
     class: "org.wso2.ei.ftp.client.FTPClient"
 } external;
 
+public function listWithFilter(Client clientEndpoint, handle path, ListFilter filter)
+    returns FileInfo[]|error = @java:Method{
+    name: "listWithFilter",
+    class: "org.wso2.ei.ftp.client.FTPClient"
+} external;
+
+public function walk(Client clientEndpoint, handle root, int maxDepth, ListFilter filter, int parallelism)
+    returns FileWalker|error = @java:Method{
+    name: "walk",
+    class: "org.wso2.ei.ftp.client.FTPClient"
+} external;
+
 public function isDirectory(Client clientEndpoint, handle path) returns boolean|error = @java:Method{
     name: "isDirectory",
     class: "org.wso2.ei.ftp.client.FTPClient"
@@ -77,6 +153,16 @@ public function poll(ListenerConfig config) returns error? = @java:Method{
     class: "org.wso2.ei.ftp.server.FTPListenerHelper"
 } external;
 
+public function gracefulStop(ListenerConfig config) returns error? = @java:Method{
+    name: "gracefulStop",
+    class: "org.wso2.ei.ftp.server.FTPListenerHelper"
+} external;
+
+public function immediateStop(ListenerConfig config) returns error? = @java:Method{
+    name: "immediateStop",
+    class: "org.wso2.ei.ftp.server.FTPListenerHelper"
+} external;
+
 public function register(Listener listenerEndpoint, ListenerConfig config, service ftpService, handle name)
     returns handle|error = @java:Method{
     name: "register",
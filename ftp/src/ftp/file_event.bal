@@ -32,6 +32,8 @@
 # + isHidden - Whether this file is hidden
 # + isReadable - Whether this file can be read
 # + isWritable - Whether this file can be written to
+# + permissionsKnown - Whether the server reported the permissions of this file. If not, `isExecutable`,
+#                      `isReadable` and `isWritable` are false
 # + depth - The depth of this file name, within its file system
 # + scheme - The URI scheme of this file
 # + uri - The absolute URI of this file
@@ -54,6 +56,7 @@ public type FileInfo record {|
     boolean isHidden;
     boolean isReadable;
     boolean isWritable;
+    boolean permissionsKnown = true;
     int depth;
     string scheme;
     string uri;
@@ -0,0 +1,43 @@
+// Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+//
+// WSO2 Inc. licenses this file to you under the Apache License,
+// Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+import ballerinax/java;
+
+# Returns the entries of a remote directory tree incrementally, as they are found by a walk.
+public type FileWalker object {
+
+    # Returns the next batch of entries found by the walk.
+    #
+    # + return - A batch of entries, `()` if the walk is complete or an `error` if failed to list a directory
+    public function next() returns FileInfo[]|error? {
+        return nextEntries(self);
+    }
+
+    # Stops the walk and releases the underlying connections.
+    public function close() {
+        closeFileWalker(self);
+    }
+};
+
+function nextEntries(FileWalker walker) returns FileInfo[]|error? = @java:Method{
+    name: "readNext",
+    class: "org.wso2.ei.ftp.client.FTPFileWalker"
+} external;
+
+function closeFileWalker(FileWalker walker) = @java:Method{
+    name: "closeWalker",
+    class: "org.wso2.ei.ftp.client.FTPFileWalker"
+} external;
@@ -49,11 +49,13 @@ public type Listener object {
     }
 
     public function __immediateStop() returns error? {
-
+        check self.stop();
+        return immediateStop(self.config);
     }
 
     public function __gracefulStop() returns error? {
-
+        check self.stop();
+        return gracefulStop(self.config);
     }
 
     function start() returns error? {
@@ -119,6 +121,12 @@ public type Listener object {
 # + pollingInterval - Periodic time interval to check new update
 # + cronExpression - Cron expression to check new update
 # + serverConnector - Server connector for service
+# + ioExecutor - Configuration of the executor that runs the blocking polling calls of the listener
+# + timeouts - Timeouts of the listener. The listing of a poll, including connecting to the server, fails if it does
+#              not complete within `commandTimeoutInMillis`. The resources invoked with the changes are not bounded
+# + listingMode - How the listener lists the directory it watches on each poll
+# + gracefulStopTimeoutInMillis - Time a graceful stop waits for the polls in flight, including the invocation of the
+#                                 resources with their changes, before cancelling them. Zero waits without a limit
 public type ListenerConfig record {|
     Protocol protocol = FTP;
     string host = "127.0.0.1";
@@ -129,4 +137,8 @@ public type ListenerConfig record {|
     int pollingInterval = 60000;
     string? cronExpression = ();
     handle? serverConnector = ();
+    IOExecutorConfig ioExecutor = {};
+    TimeoutConfig timeouts = {};
+    ListingMode listingMode = LISTING_TRANSPORT;
+    int gracefulStopTimeoutInMillis = 30000;
 |};
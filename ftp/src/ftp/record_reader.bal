@@ -0,0 +1,74 @@
+// Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+//
+// WSO2 Inc. licenses this file to you under the Apache License,
+// Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+import ballerinax/java;
+
+# Represents the set of record formats supported by the `RecordReader`
+public type RecordFormat "csv"|"jsonl"|"xml";
+
+# Records are comma separated values, one record per line
+public const CSV = "csv";
+# Records are JSON values, one record per line
+public const JSON_LINES = "jsonl";
+# Records are the repeating elements of an XML document
+public const XML_RECORDS = "xml";
+
+# Represents a batch of records returned by the `RecordReader`
+public type RecordBatch string[][]|json[]|xml[];
+
+# Configuration for reading records from a remote file.
+#
+# + format - Format of the records in the file
+# + batchSize - Maximum number of records returned by a single `next()` call
+# + charset - Character encoding of the file content
+# + separator - Field separator of CSV records
+# + recordElement - Name of the element that represents a record in XML content. If not given, each child element
+#                   of the document root is treated as a record
+public type RecordReaderConfig record {|
+    RecordFormat format = CSV;
+    int batchSize = 100;
+    string charset = "UTF-8";
+    string separator = ",";
+    string recordElement = "";
+|};
+
+# Reads records incrementally from the content of a remote file.
+public type RecordReader object {
+
+    # Reads the next batch of records.
+    #
+    # + return - A batch of records, `()` if there are no more records or an `error` if failed to read the content
+    public function next() returns RecordBatch|error? {
+        return nextRecords(self);
+    }
+
+    # Closes the reader and releases the underlying connection.
+    #
+    # + return - An `error` if failed to close the reader
+    public function close() returns error? {
+        return closeRecordReader(self);
+    }
+};
+
+function nextRecords(RecordReader reader) returns RecordBatch|error? = @java:Method{
+    name: "readNext",
+    class: "org.wso2.ei.ftp.client.FTPRecordReader"
+} external;
+
+function closeRecordReader(RecordReader reader) returns error? = @java:Method{
+    name: "closeReader",
+    class: "org.wso2.ei.ftp.client.FTPRecordReader"
+} external;
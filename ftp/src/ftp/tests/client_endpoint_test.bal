@@ -71,6 +71,108 @@ public function testReadContent() {
 @test:Config{
     dependsOn: ["testReadContent"]
 }
+public function testReadContentRange() {
+    io:ReadableByteChannel|error response = clientEP -> getRange(filePath, 5, 7);
+    if(response is io:ReadableByteChannel){
+        io:ReadableCharacterChannel? characters = new io:ReadableCharacterChannel(response, "utf-8");
+        if (characters is io:ReadableCharacterChannel) {
+            string|error content = characters.read(20);
+            if(content is string){
+                log:printInfo("Content in the requested range: " + content);
+                test:assertEquals(content, "content");
+            } else {
+                log:printError("Error in retrieving content", content);
+            }
+            var closeResult = characters.close();
+        }
+    } else {
+        log:printError("Error in retrieving content", response);
+    }
+    log:printInfo("Executed GetRange operation");
+}
+
+@test:Config{
+    dependsOn: ["testReadContentRange"]
+}
+public function testListZipEntries() {
+    ZipEntry[]|error response = clientEP -> listZipEntries("/home/archive/sample.zip");
+    if (response is ZipEntry[]) {
+        test:assertEquals(response.length(), 3);
+        test:assertEquals(response[1].name, "docs/readme.txt");
+        test:assertEquals(response[1].size, 12);
+        test:assertTrue(response[0].isFolder);
+    } else {
+        test:assertFail(msg = "Error in listing the entries of the archive: " + response.reason());
+    }
+    log:printInfo("Executed ListZipEntries operation");
+}
+
+@test:Config{
+    dependsOn: ["testListZipEntries"]
+}
+public function testGetZipEntry() {
+    io:ReadableByteChannel|error response = clientEP -> getZipEntry("/home/archive/sample.zip", "docs/readme.txt");
+    if (response is io:ReadableByteChannel) {
+        io:ReadableCharacterChannel? characters = new io:ReadableCharacterChannel(response, "utf-8");
+        if (characters is io:ReadableCharacterChannel) {
+            string|error content = characters.read(20);
+            if (content is string) {
+                test:assertEquals(content, "File content");
+            } else {
+                log:printError("Error in retrieving content", content);
+            }
+            var closeResult = characters.close();
+        }
+    } else {
+        test:assertFail(msg = "Error in retrieving the entry of the archive: " + response.reason());
+    }
+    log:printInfo("Executed GetZipEntry operation");
+}
+
+@test:Config{
+    dependsOn: ["testGetZipEntry"]
+}
+public function testReadRecords() {
+    RecordReader|error response = clientEP -> getRecords(filePath, { format: CSV, separator: " ", batchSize: 10 });
+    if(response is RecordReader){
+        RecordBatch|error? batch = response.next();
+        if(batch is string[][]){
+            test:assertEquals(batch.length(), 1);
+            test:assertEquals(batch[0], ["File", "content"]);
+        } else if(batch is error) {
+            log:printError("Error in reading records", batch);
+        }
+        var closeResult = response.close();
+    } else {
+        log:printError("Error in retrieving records", response);
+    }
+    log:printInfo("Executed GetRecords operation");
+}
+
+@test:Config{
+    dependsOn: ["testReadRecords"]
+}
+public function testReadNamespacedXmlRecords() {
+    RecordReader|error response = clientEP -> getRecords("/home/records/orders.xml",
+        { format: XML_RECORDS, recordElement: "order", batchSize: 10 });
+    if(response is RecordReader){
+        RecordBatch|error? batch = response.next();
+        if(batch is xml[]){
+            test:assertEquals(batch.length(), 2);
+            test:assertTrue(batch[0].toString().indexOf("xmlns:o=\"urn:orders\"") is int);
+            test:assertTrue(batch[1].toString().indexOf("xmlns=\"urn:items\"") is int);
+        } else {
+            test:assertFail(msg = "Namespaced XML records were not read");
+        }
+        var closeResult = response.close();
+    } else {
+        test:assertFail(msg = "Error in retrieving records: " + response.reason());
+    }
+}
+
+@test:Config{
+    dependsOn: ["testReadNamespacedXmlRecords"]
+}
 public function testAppendContent() {
     io:ReadableByteChannel|error byteChannel = io:openReadableFile(appendFilePath);
     if(byteChannel is io:ReadableByteChannel){
@@ -114,6 +216,21 @@ public function testPutTextContent() {
 @test:Config{
     dependsOn: ["testPutTextContent"]
 }
+public function testPutContentWithChecksum() {
+    string textToPut = "Sample text content";
+    Checksum|error response = clientEP -> putWithChecksum(filePath, textToPut, MD5);
+    if(response is Checksum) {
+        test:assertEquals(response.value, "fcabf83c758eeaab9a14864800bb04a6");
+        log:printInfo("Checksum: " + response.value);
+    } else {
+        log:printError("Error in put operation", response);
+    }
+    log:printInfo("Executed PutWithChecksum operation.");
+}
+
+@test:Config{
+    dependsOn: ["testPutContentWithChecksum"]
+}
 public function testPutJsonContent() {
     json jsonToPut = { name: "Anne", age: 20 };
     error? response = clientEP -> put(filePath, jsonToPut);
@@ -156,6 +273,22 @@ public function testIsDirectory() {
 @test:Config{
     dependsOn: ["testIsDirectory"]
 }
+public function testStat() {
+    FileInfo|error response = clientEP -> stat("/home/in");
+    if (response is FileInfo) {
+        log:printInfo("File info: " + response.toString());
+        test:assertTrue(response.isFolder, msg = "Expected /home/in to be a folder");
+        // The mock server has no MLST, so the permissions are not reported
+        test:assertFalse(response.permissionsKnown, msg = "Expected the permissions to be unknown");
+    } else {
+        test:assertFail(msg = response.reason().toString());
+    }
+    log:printInfo("Executed Stat operation.");
+}
+
+@test:Config{
+    dependsOn: ["testStat"]
+}
 public function testCreateDirectory() {
     error? response = clientEP -> mkdir("/home/in/out");
     if(response is error) {
@@ -209,6 +342,71 @@ public function testListFiles() {
 @test:Config{
     dependsOn: ["testListFiles"]
 }
+public function testListWithFilter() {
+    FileInfo[]|error files = clientEP -> listWithFilter("/home/in", { glob: "test?.t[xy]t", entryType: ENTRY_FILE });
+    if (files is FileInfo[]) {
+        test:assertTrue(files.length() > 0);
+        foreach var fileInfo in files {
+            test:assertTrue(fileInfo.isFile);
+            test:assertTrue(fileInfo.name.startsWith("test") && fileInfo.name.endsWith(".txt"));
+        }
+    } else {
+        test:assertFail(msg = "Error in listing the files: " + files.reason());
+    }
+
+    // A folder matched by the glob is returned itself, and not replaced by its content
+    Client mlsdClientEP = new({
+        protocol: FTP,
+        host: "127.0.0.1",
+        port: 21212,
+        secureSocket: {basicAuth: {username: "wso2", password: "wso2123"}},
+        listingMode: LISTING_MLSD
+    });
+    FileInfo[]|error folders = mlsdClientEP -> listWithFilter("/home/in", { glob: "folder*", entryType: ENTRY_FOLDER });
+    if (folders is FileInfo[]) {
+        test:assertEquals(folders.length(), 1);
+        test:assertEquals(folders[0].name, "folder1");
+        test:assertTrue(folders[0].isFolder);
+    } else {
+        test:assertFail(msg = "Error in listing the folders: " + folders.reason());
+    }
+    log:printInfo("Executed ListWithFilter operation.");
+}
+
+@test:Config{
+    dependsOn: ["testListWithFilter"]
+}
+public function testWalk() {
+    FileWalker|error walker = clientEP -> walk("/home/in", 2, { entryType: ENTRY_FOLDER }, 2);
+    if (walker is FileWalker) {
+        string[] paths = [];
+        FileInfo[]|error? batch = walker.next();
+        while (batch is FileInfo[]) {
+            foreach var fileInfo in batch {
+                paths[paths.length()] = fileInfo.path;
+            }
+            batch = walker.next();
+        }
+        if (batch is error) {
+            test:assertFail(msg = "Error in walking the folders: " + batch.reason());
+        }
+        boolean subfolderFound = false;
+        foreach var path in paths {
+            if (path == "/home/in/folder1/subfolder1") {
+                subfolderFound = true;
+            }
+        }
+        test:assertTrue(subfolderFound);
+        walker.close();
+    } else {
+        test:assertFail(msg = "Error in starting the walk: " + walker.reason());
+    }
+    log:printInfo("Executed Walk operation.");
+}
+
+@test:Config{
+    dependsOn: ["testWalk"]
+}
 public function testDeleteFile() {
     error? response = clientEP -> delete(filePath);
     if(response is error) {
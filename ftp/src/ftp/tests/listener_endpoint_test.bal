@@ -19,6 +19,7 @@ import ballerina/test;
 
 int addedFileCount = 0;
 int deletedFileCount = 0;
+int onFileCount = 0;
 
 listener Listener remoteServer = new({
     protocol: FTP,
@@ -47,6 +48,10 @@ service ftpServerConnector on remoteServer {
             log:printInfo("Deleted file path: " + v1);
         }
     }
+
+    resource function onFile(FileInfo file) {
+        onFileCount = onFileCount + 1;
+    }
 }
 
 @test:Config{
@@ -55,3 +60,11 @@ public function testAddedFileCount() {
     log:printInfo("Added file count: "+addedFileCount.toString());
     test:assertEquals(3, addedFileCount);
 }
+
+@test:Config{
+    dependsOn: ["testAddedFileCount"]
+}
+public function testOnFileCount() {
+    log:printInfo("Per-file invocation count: " + onFileCount.toString());
+    test:assertEquals(3, onFileCount);
+}
@@ -0,0 +1,160 @@
+// Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+//
+// WSO2 Inc. licenses this file to you under the Apache License,
+// Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+import ballerina/io;
+import ballerina/log;
+import ballerina/test;
+import ballerinax/java;
+
+// The embedded SFTP server generates its host key at start up, so it cannot be in the known hosts file
+ClientEndpointConfig sftpConfig = {
+        protocol: SFTP,
+        host: "127.0.0.1",
+        port: 21213,
+        secureSocket: {basicAuth: {username: "wso2", password: "wso2123"}, strictHostKeyChecking: false}
+};
+
+ClientEndpointConfig ftpsConfig = {
+        protocol: FTPS,
+        host: "127.0.0.1",
+        port: 21214,
+        // The embedded FTPS server copies its self-signed certificate to the trust store at start up
+        secureSocket: {
+            basicAuth: {username: "wso2", password: "wso2123"},
+            trustStore: {path: "target/embedded-ftps-truststore.jks", password: "changeit"}
+        }
+};
+
+boolean startedEmbeddedServers = initEmbeddedServers();
+
+Client sftpClientEP = new(sftpConfig);
+Client ftpsClientEP = new(ftpsConfig);
+
+function initEmbeddedServers() returns boolean {
+    foreach var serverConfig in [sftpConfig, ftpsConfig] {
+        map<anydata>|error configMap = map<anydata>.constructFrom(serverConfig);
+        if (configMap is map<anydata>) {
+            error? response = initEmbeddedServer(configMap);
+            if (response is error) {
+                log:printError("Unable to start the embedded server", response);
+                return false;
+            }
+        }
+    }
+    return true;
+}
+
+@test:Config{
+}
+public function testSftpTransfer() {
+    assertTransfer(sftpClientEP, "SFTP");
+}
+
+@test:Config{
+}
+public function testFtpsTransfer() {
+    assertTransfer(ftpsClientEP, "FTPS");
+}
+
+function assertTransfer(Client clientEP, string protocol) {
+    FileInfo[]|error files = clientEP -> list("/in");
+    if (files is FileInfo[]) {
+        test:assertEquals(files.length(), 2);
+    } else {
+        test:assertFail(msg = "Error in listing the " + protocol + " folder: " + files.reason());
+    }
+
+    FileInfo|error stat = clientEP -> stat("/in/test1.txt");
+    if (stat is FileInfo) {
+        test:assertEquals(stat.size, 12);
+        test:assertFalse(stat.isFolder);
+    } else {
+        test:assertFail(msg = "Error in getting the " + protocol + " file metadata: " + stat.reason());
+    }
+
+    error? putResponse = clientEP -> put("/in/uploaded.txt", "Uploaded content");
+    if (putResponse is error) {
+        test:assertFail(msg = "Error in writing the " + protocol + " file: " + putResponse.reason());
+    }
+    test:assertEquals(readContent(clientEP, "/in/uploaded.txt", protocol), "Uploaded content");
+
+    io:ReadableByteChannel|error range = clientEP -> getRange("/in/test1.txt", 5, 7);
+    if (range is io:ReadableByteChannel) {
+        io:ReadableCharacterChannel characters = new io:ReadableCharacterChannel(range, "utf-8");
+        string|error content = characters.read(20);
+        test:assertEquals(content, "content");
+        var closeResult = characters.close();
+    } else {
+        test:assertFail(msg = "Error in reading the " + protocol + " file range: " + range.reason());
+    }
+    log:printInfo("Executed the " + protocol + " transfers.");
+}
+
+@test:Config{
+    dependsOn: ["testSftpTransfer"]
+}
+public function testSftpPutParallel() {
+    assertPutParallel(sftpClientEP, "SFTP");
+}
+
+@test:Config{
+    dependsOn: ["testFtpsTransfer"]
+}
+public function testFtpsPutParallel() {
+    // The embedded FTPS server advertises REST STREAM, so the file is written in segments
+    assertPutParallel(ftpsClientEP, "FTPS");
+}
+
+function assertPutParallel(Client clientEP, string protocol) {
+    // Segments of at least 2 bytes split the 11 bytes of the file over the 4 sessions
+    error? response = clientEP -> putParallel("/in/parallel.txt", putFilePath, {sessions: 4, minSegmentSize: 2});
+    if (response is error) {
+        test:assertFail(msg = "Error in the " + protocol + " parallel put operation: " + response.reason());
+    }
+    test:assertEquals(readContent(clientEP, "/in/parallel.txt", protocol), "Put content");
+    log:printInfo("Executed the " + protocol + " parallel put operation.");
+}
+
+function readContent(Client clientEP, string path, string protocol) returns string {
+    io:ReadableByteChannel|error response = clientEP -> get(path);
+    if (response is io:ReadableByteChannel) {
+        io:ReadableCharacterChannel characters = new io:ReadableCharacterChannel(response, "utf-8");
+        string|error content = characters.read(100);
+        var closeResult = characters.close();
+        if (content is string) {
+            return content;
+        }
+        test:assertFail(msg = "Error in reading the " + protocol + " file: " + content.reason());
+    } else {
+        test:assertFail(msg = "Error in getting the " + protocol + " file: " + response.reason());
+    }
+    return "";
+}
+
+@test:AfterSuite
+public function stopEmbeddedServers() {
+    stopEmbeddedServersExternal();
+}
+
+function initEmbeddedServer(map<anydata> config) returns error? = @java:Method{
+    name: "initServer",
+    class: "org.wso2.ei.testutil.EmbeddedServers"
+} external;
+
+function stopEmbeddedServersExternal() = @java:Method{
+    name: "stopServers",
+    class: "org.wso2.ei.testutil.EmbeddedServers"
+} external;